@@ -21,12 +21,15 @@ import org.agrona.CloseHelper;
 import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
 import org.agrona.LangUtil;
+import org.agrona.collections.Int2ObjectHashMap;
 import org.agrona.concurrent.*;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersManager;
 import org.agrona.concurrent.status.StatusIndicator;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
@@ -144,19 +147,63 @@ public final class Archive implements AutoCloseable
     public static class Configuration
     {
         public static final int ARCHIVE_RECORDING_POSITION_TYPE_ID = 100;
+        public static final int ARCHIVE_WORKER_SESSIONS_TYPE_ID = 101;
+        public static final int ARCHIVE_WORKER_DUTY_CYCLES_TYPE_ID = 102;
+        public static final int ARCHIVE_REPLAY_RATE_TYPE_ID = 103;
 
         public static final String ARCHIVE_DIR_PROP_NAME = "aeron.archive.dir";
         public static final String ARCHIVE_DIR_DEFAULT = "archive";
 
         static final String CATALOG_FILE_NAME = "archive.catalog";
         static final String RECORDING_SEGMENT_POSTFIX = ".rec";
+        static final String TIME_INDEX_POSTFIX = "-time.idx";
+        public static final String CATALOG_CHUNK_LENGTH_PROP_NAME = "aeron.archive.catalog.chunk.length";
+        public static final int CATALOG_CHUNK_LENGTH_DEFAULT = 16 * 1024 * 1024;
+
         public static final String SEGMENT_FILE_LENGTH_PROP_NAME = "aeron.archive.segment.file.length";
         public static final int SEGMENT_FILE_LENGTH_DEFAULT = 128 * 1024 * 1024;
 
+        public static final String SEGMENT_FILE_POOL_SIZE_PROP_NAME = "aeron.archive.segment.file.pool.size";
+        public static final int SEGMENT_FILE_POOL_SIZE_DEFAULT = 0;
+
+        public static final String TIME_INDEX_INTERVAL_PROP_NAME = "aeron.archive.time.index.interval";
+        public static final int TIME_INDEX_INTERVAL_DEFAULT = 0;
+
         public static final String FILE_SYNC_LEVEL_PROP_NAME = "aeron.archive.file.sync.level";
         public static final int FILE_SYNC_LEVEL_DEFAULT = 0;
 
+        public static final String FILE_SYNC_GROUP_COMMIT_INTERVAL_PROP_NAME =
+            "aeron.archive.file.sync.group.commit.interval";
+        public static final long FILE_SYNC_GROUP_COMMIT_INTERVAL_DEFAULT = 0;
+
+        public static final String FILE_SYNC_GROUP_COMMIT_THRESHOLD_PROP_NAME =
+            "aeron.archive.file.sync.group.commit.threshold";
+        public static final int FILE_SYNC_GROUP_COMMIT_THRESHOLD_DEFAULT = 4 * 1024 * 1024;
+
+        public static final String ASYNC_RECORDING_WRITE_THREADS_PROP_NAME =
+            "aeron.archive.async.recording.write.threads";
+        public static final int ASYNC_RECORDING_WRITE_THREADS_DEFAULT = 0;
+
+        public static final String ASYNC_RECORDING_WRITE_BUFFER_LENGTH_PROP_NAME =
+            "aeron.archive.async.recording.write.buffer.length";
+        public static final int ASYNC_RECORDING_WRITE_BUFFER_LENGTH_DEFAULT = 1024 * 1024;
+
+        public static final String RECORDING_PROGRESS_INTERVAL_PROP_NAME = "aeron.archive.recording.progress.interval";
+        public static final long RECORDING_PROGRESS_INTERVAL_DEFAULT = 0;
+
+        public static final String RECORDING_PROGRESS_THRESHOLD_PROP_NAME =
+            "aeron.archive.recording.progress.threshold";
+        public static final int RECORDING_PROGRESS_THRESHOLD_DEFAULT = 0;
+
+        public static final String RECORDING_PROGRESS_BATCH_SIZE_PROP_NAME =
+            "aeron.archive.recording.progress.batch.size";
+        public static final int RECORDING_PROGRESS_BATCH_SIZE_DEFAULT = 0;
+
         public static final String THREADING_MODE_PROP_NAME = "aeron.archive.threading.mode";
+        public static final String RECORDER_WORKER_COUNT_PROP_NAME = "aeron.archive.recorder.worker.count";
+        public static final int RECORDER_WORKER_COUNT_DEFAULT = 1;
+        public static final String REPLAYER_WORKER_COUNT_PROP_NAME = "aeron.archive.replayer.worker.count";
+        public static final int REPLAYER_WORKER_COUNT_DEFAULT = 1;
         public static final String ARCHIVER_IDLE_STRATEGY_PROP_NAME = "aeron.archive.idle.strategy";
         public static final String DEFAULT_IDLE_STRATEGY = "org.agrona.concurrent.BackoffIdleStrategy";
 
@@ -174,6 +221,58 @@ public final class Archive implements AutoCloseable
         public static final String REPLAY_FRAGMENT_LIMIT_PROP_NAME = "aeron.archive.replay.fragment.limit";
         public static final int REPLAY_FRAGMENT_LIMIT_DEFAULT = 16;
 
+        public static final String REPLAY_BLOCK_LENGTH_PROP_NAME = "aeron.archive.replay.block.length";
+        public static final int REPLAY_BLOCK_LENGTH_DEFAULT = 0;
+
+        public static final String REPLAY_READ_AHEAD_THREADS_PROP_NAME = "aeron.archive.replay.read.ahead.threads";
+        public static final int REPLAY_READ_AHEAD_THREADS_DEFAULT = 1;
+
+        public static final String REPLAY_MAX_RATE_PROP_NAME = "aeron.archive.replay.max.rate";
+        public static final long REPLAY_MAX_RATE_DEFAULT = 0;
+
+        public static final String REPLAY_AGGREGATE_MAX_RATE_PROP_NAME = "aeron.archive.replay.aggregate.max.rate";
+        public static final long REPLAY_AGGREGATE_MAX_RATE_DEFAULT = 0;
+
+        public static final String CONTROL_RESPONSE_QUEUE_LENGTH_PROP_NAME =
+            "aeron.archive.control.response.queue.length";
+        public static final int CONTROL_RESPONSE_QUEUE_LENGTH_DEFAULT = 64 * 1024;
+
+        public static final String SEGMENT_CODEC_PROP_NAME = "aeron.archive.segment.codec";
+        public static final String SEGMENT_CODEC_DEFAULT = "";
+
+        public static final String SEGMENT_COMPACTION_DELAY_PROP_NAME = "aeron.archive.segment.compaction.delay";
+        public static final long SEGMENT_COMPACTION_DELAY_DEFAULT = TimeUnit.HOURS.toNanos(1);
+
+        public static final String SEGMENT_CACHE_SIZE_PROP_NAME = "aeron.archive.segment.cache.size";
+        public static final int SEGMENT_CACHE_SIZE_DEFAULT = 2;
+
+        public static final String COLD_DIR_PROP_NAME = "aeron.archive.cold.dir";
+
+        public static final String RETENTION_MAX_AGE_PROP_NAME = "aeron.archive.retention.max.age";
+        public static final long RETENTION_MAX_AGE_DEFAULT = 0;
+
+        public static final String RETENTION_MAX_BYTES_PROP_NAME = "aeron.archive.retention.max.bytes";
+        public static final long RETENTION_MAX_BYTES_DEFAULT = 0;
+
+        public static final String RETENTION_CHECK_INTERVAL_PROP_NAME = "aeron.archive.retention.check.interval";
+        public static final long RETENTION_CHECK_INTERVAL_DEFAULT = TimeUnit.SECONDS.toNanos(10);
+
+        public static final String RECORDING_CHECKPOINT_INTERVAL_PROP_NAME =
+            "aeron.archive.recording.checkpoint.interval";
+        public static final long RECORDING_CHECKPOINT_INTERVAL_DEFAULT = TimeUnit.SECONDS.toNanos(1);
+
+        public static final String REPLICATION_CHANNEL_PROP_NAME = "aeron.archive.replication.channel";
+        public static final String REPLICATION_CHANNEL_DEFAULT = "aeron:udp?endpoint=localhost:8040";
+
+        public static final String REPLICATION_STREAM_ID_PROP_NAME = "aeron.archive.replication.stream.id";
+        public static final int REPLICATION_STREAM_ID_DEFAULT = 10000;
+
+        public static final String REPLICATION_STREAM_ID_RANGE_PROP_NAME = "aeron.archive.replication.stream.id.range";
+        public static final int REPLICATION_STREAM_ID_RANGE_DEFAULT = 1000;
+
+        public static final String REPLICATION_BLOCK_LENGTH_PROP_NAME = "aeron.archive.replication.block.length";
+        public static final int REPLICATION_BLOCK_LENGTH_DEFAULT = 1024 * 1024;
+
         private static final String CONTROLLABLE_IDLE_STRATEGY = "org.agrona.concurrent.ControllableIdleStrategy";
 
         public static String archiveDirName()
@@ -181,16 +280,79 @@ public final class Archive implements AutoCloseable
             return System.getProperty(ARCHIVE_DIR_PROP_NAME, ARCHIVE_DIR_DEFAULT);
         }
 
+        public static int catalogChunkLength()
+        {
+            return Integer.getInteger(CATALOG_CHUNK_LENGTH_PROP_NAME, CATALOG_CHUNK_LENGTH_DEFAULT);
+        }
+
         public static int segmentFileLength()
         {
             return Integer.getInteger(SEGMENT_FILE_LENGTH_PROP_NAME, SEGMENT_FILE_LENGTH_DEFAULT);
         }
 
+        public static int segmentFilePoolSize()
+        {
+            return Integer.getInteger(SEGMENT_FILE_POOL_SIZE_PROP_NAME, SEGMENT_FILE_POOL_SIZE_DEFAULT);
+        }
+
+        public static int timeIndexInterval()
+        {
+            return Integer.getInteger(TIME_INDEX_INTERVAL_PROP_NAME, TIME_INDEX_INTERVAL_DEFAULT);
+        }
+
         public static int fileSyncLevel()
         {
             return Integer.getInteger(FILE_SYNC_LEVEL_PROP_NAME, FILE_SYNC_LEVEL_DEFAULT);
         }
 
+        public static long fileSyncGroupCommitIntervalNs()
+        {
+            return Long.getLong(FILE_SYNC_GROUP_COMMIT_INTERVAL_PROP_NAME, FILE_SYNC_GROUP_COMMIT_INTERVAL_DEFAULT);
+        }
+
+        public static int fileSyncGroupCommitThreshold()
+        {
+            return Integer.getInteger(
+                FILE_SYNC_GROUP_COMMIT_THRESHOLD_PROP_NAME, FILE_SYNC_GROUP_COMMIT_THRESHOLD_DEFAULT);
+        }
+
+        public static int asyncRecordingWriteThreads()
+        {
+            return Integer.getInteger(
+                ASYNC_RECORDING_WRITE_THREADS_PROP_NAME, ASYNC_RECORDING_WRITE_THREADS_DEFAULT);
+        }
+
+        public static int asyncRecordingWriteBufferLength()
+        {
+            return Integer.getInteger(
+                ASYNC_RECORDING_WRITE_BUFFER_LENGTH_PROP_NAME, ASYNC_RECORDING_WRITE_BUFFER_LENGTH_DEFAULT);
+        }
+
+        public static long recordingProgressIntervalNs()
+        {
+            return Long.getLong(RECORDING_PROGRESS_INTERVAL_PROP_NAME, RECORDING_PROGRESS_INTERVAL_DEFAULT);
+        }
+
+        public static int recordingProgressThreshold()
+        {
+            return Integer.getInteger(RECORDING_PROGRESS_THRESHOLD_PROP_NAME, RECORDING_PROGRESS_THRESHOLD_DEFAULT);
+        }
+
+        public static int recordingProgressBatchSize()
+        {
+            return Integer.getInteger(RECORDING_PROGRESS_BATCH_SIZE_PROP_NAME, RECORDING_PROGRESS_BATCH_SIZE_DEFAULT);
+        }
+
+        public static int recorderWorkerCount()
+        {
+            return Integer.getInteger(RECORDER_WORKER_COUNT_PROP_NAME, RECORDER_WORKER_COUNT_DEFAULT);
+        }
+
+        public static int replayerWorkerCount()
+        {
+            return Integer.getInteger(REPLAYER_WORKER_COUNT_PROP_NAME, REPLAYER_WORKER_COUNT_DEFAULT);
+        }
+
         public static ArchiveThreadingMode threadingMode()
         {
             return ArchiveThreadingMode.valueOf(System.getProperty(
@@ -248,6 +410,104 @@ public final class Archive implements AutoCloseable
         {
             return Integer.getInteger(REPLAY_FRAGMENT_LIMIT_PROP_NAME, REPLAY_FRAGMENT_LIMIT_DEFAULT);
         }
+
+        public static int replayBlockLength()
+        {
+            return Integer.getInteger(REPLAY_BLOCK_LENGTH_PROP_NAME, REPLAY_BLOCK_LENGTH_DEFAULT);
+        }
+
+        public static int replayReadAheadThreads()
+        {
+            return Integer.getInteger(REPLAY_READ_AHEAD_THREADS_PROP_NAME, REPLAY_READ_AHEAD_THREADS_DEFAULT);
+        }
+
+        public static long replayMaxRate()
+        {
+            return Long.getLong(REPLAY_MAX_RATE_PROP_NAME, REPLAY_MAX_RATE_DEFAULT);
+        }
+
+        public static int controlResponseQueueLength()
+        {
+            return Integer.getInteger(CONTROL_RESPONSE_QUEUE_LENGTH_PROP_NAME, CONTROL_RESPONSE_QUEUE_LENGTH_DEFAULT);
+        }
+
+        public static long replayAggregateMaxRate()
+        {
+            return Long.getLong(REPLAY_AGGREGATE_MAX_RATE_PROP_NAME, REPLAY_AGGREGATE_MAX_RATE_DEFAULT);
+        }
+
+        public static SegmentCodec segmentCodec()
+        {
+            final String codecName = System.getProperty(SEGMENT_CODEC_PROP_NAME, SEGMENT_CODEC_DEFAULT);
+            SegmentCodec codec = null;
+            if (!codecName.isEmpty())
+            {
+                try
+                {
+                    codec = (SegmentCodec)Class.forName(codecName).newInstance();
+                }
+                catch (final Exception ex)
+                {
+                    LangUtil.rethrowUnchecked(ex);
+                }
+            }
+
+            return codec;
+        }
+
+        public static long segmentCompactionDelayNs()
+        {
+            return Long.getLong(SEGMENT_COMPACTION_DELAY_PROP_NAME, SEGMENT_COMPACTION_DELAY_DEFAULT);
+        }
+
+        public static int segmentCacheSize()
+        {
+            return Integer.getInteger(SEGMENT_CACHE_SIZE_PROP_NAME, SEGMENT_CACHE_SIZE_DEFAULT);
+        }
+
+        public static String coldDirName()
+        {
+            return System.getProperty(COLD_DIR_PROP_NAME);
+        }
+
+        public static RetentionPolicy retentionPolicy()
+        {
+            final long maxAgeNs = Long.getLong(RETENTION_MAX_AGE_PROP_NAME, RETENTION_MAX_AGE_DEFAULT);
+            final long maxBytes = Long.getLong(RETENTION_MAX_BYTES_PROP_NAME, RETENTION_MAX_BYTES_DEFAULT);
+
+            return 0 == maxAgeNs && 0 == maxBytes ?
+                RetentionPolicy.RETAIN_ALL : new RetentionPolicy(maxAgeNs, maxBytes);
+        }
+
+        public static long retentionCheckIntervalNs()
+        {
+            return Long.getLong(RETENTION_CHECK_INTERVAL_PROP_NAME, RETENTION_CHECK_INTERVAL_DEFAULT);
+        }
+
+        public static long recordingCheckpointIntervalNs()
+        {
+            return Long.getLong(RECORDING_CHECKPOINT_INTERVAL_PROP_NAME, RECORDING_CHECKPOINT_INTERVAL_DEFAULT);
+        }
+
+        public static String replicationChannel()
+        {
+            return System.getProperty(REPLICATION_CHANNEL_PROP_NAME, REPLICATION_CHANNEL_DEFAULT);
+        }
+
+        public static int replicationStreamId()
+        {
+            return Integer.getInteger(REPLICATION_STREAM_ID_PROP_NAME, REPLICATION_STREAM_ID_DEFAULT);
+        }
+
+        public static int replicationStreamIdRange()
+        {
+            return Integer.getInteger(REPLICATION_STREAM_ID_RANGE_PROP_NAME, REPLICATION_STREAM_ID_RANGE_DEFAULT);
+        }
+
+        public static int replicationBlockLength()
+        {
+            return Integer.getInteger(REPLICATION_BLOCK_LENGTH_PROP_NAME, REPLICATION_BLOCK_LENGTH_DEFAULT);
+        }
     }
 
     /**
@@ -264,10 +524,22 @@ public final class Archive implements AutoCloseable
         private String recordingEventsChannel = AeronArchive.Configuration.recordingEventsChannel();
         private int recordingEventsStreamId = AeronArchive.Configuration.recordingEventsStreamId();
 
+        private int catalogChunkLength = Configuration.catalogChunkLength();
         private int segmentFileLength = Configuration.segmentFileLength();
+        private int segmentFilePoolSize = Configuration.segmentFilePoolSize();
+        private int timeIndexInterval = Configuration.timeIndexInterval();
         private int fileSyncLevel = Configuration.fileSyncLevel();
+        private long fileSyncGroupCommitIntervalNs = Configuration.fileSyncGroupCommitIntervalNs();
+        private int fileSyncGroupCommitThreshold = Configuration.fileSyncGroupCommitThreshold();
+        private int asyncRecordingWriteThreads = Configuration.asyncRecordingWriteThreads();
+        private int asyncRecordingWriteBufferLength = Configuration.asyncRecordingWriteBufferLength();
+        private long recordingProgressIntervalNs = Configuration.recordingProgressIntervalNs();
+        private int recordingProgressThreshold = Configuration.recordingProgressThreshold();
+        private int recordingProgressBatchSize = Configuration.recordingProgressBatchSize();
 
         private ArchiveThreadingMode threadingMode = Configuration.threadingMode();
+        private int recorderWorkerCount = Configuration.recorderWorkerCount();
+        private int replayerWorkerCount = Configuration.replayerWorkerCount();
         private ThreadFactory threadFactory = Thread::new;
 
         private Supplier<IdleStrategy> idleStrategySupplier;
@@ -281,6 +553,27 @@ public final class Archive implements AutoCloseable
         private AgentInvoker mediaDriverAgentInvoker;
         private int maxConcurrentRecordings = Configuration.maxConcurrentRecordings();
         private int maxConcurrentReplays = Configuration.maxConcurrentReplays();
+        private int replayBlockLength = Configuration.replayBlockLength();
+        private int replayReadAheadThreads = Configuration.replayReadAheadThreads();
+        private long replayMaxRate = Configuration.replayMaxRate();
+        private long replayAggregateMaxRate = Configuration.replayAggregateMaxRate();
+        private int controlResponseQueueLength = Configuration.controlResponseQueueLength();
+
+        private SegmentCodec segmentCodec = Configuration.segmentCodec();
+        private long segmentCompactionDelayNs = Configuration.segmentCompactionDelayNs();
+        private int segmentCacheSize = Configuration.segmentCacheSize();
+        private File coldDir;
+
+        private RetentionPolicy retentionPolicy = Configuration.retentionPolicy();
+        private final Int2ObjectHashMap<Map<String, RetentionPolicy>> channelRetentionPolicies =
+            new Int2ObjectHashMap<>();
+        private long retentionCheckIntervalNs = Configuration.retentionCheckIntervalNs();
+        private long recordingCheckpointIntervalNs = Configuration.recordingCheckpointIntervalNs();
+
+        private String replicationChannel = Configuration.replicationChannel();
+        private int replicationStreamId = Configuration.replicationStreamId();
+        private int replicationStreamIdRange = Configuration.replicationStreamIdRange();
+        private int replicationBlockLength = Configuration.replicationBlockLength();
 
         /**
          * Conclude the configuration parameters by resolving dependencies and null values to use defaults.
@@ -316,6 +609,16 @@ public final class Archive implements AutoCloseable
                     "Failed to create archive dir: " + archiveDir.getAbsolutePath());
             }
 
+            if (null == coldDir && null != Configuration.coldDirName())
+            {
+                coldDir = new File(Configuration.coldDirName());
+            }
+
+            if (null != coldDir && !coldDir.exists() && !coldDir.mkdirs())
+            {
+                throw new IllegalArgumentException("Failed to create cold dir: " + coldDir.getAbsolutePath());
+            }
+
             if (null == idleStrategySupplier)
             {
                 idleStrategySupplier = Configuration.idleStrategySupplier(null);
@@ -531,6 +834,86 @@ public final class Archive implements AutoCloseable
             return this;
         }
 
+        /**
+         * Get the number of pre-allocated and zeroed segment files to keep ready for recordings to roll over into.
+         * Zero means segment files are created as they are needed.
+         *
+         * @return the number of pre-allocated segment files to keep ready for recordings.
+         */
+        int segmentFilePoolSize()
+        {
+            return segmentFilePoolSize;
+        }
+
+        /**
+         * Set the number of pre-allocated and zeroed segment files to keep ready for recordings to roll over into.
+         * Zero means segment files are created as they are needed.
+         * <p>
+         * Spare files are filled by the archive conductor and are of {@link #segmentFileLength()} so only recordings
+         * with a term length no greater than the segment length can make use of them.
+         *
+         * @param poolSize number of pre-allocated segment files to keep ready for recordings.
+         * @return this for a fluent API.
+         */
+        public Context segmentFilePoolSize(final int poolSize)
+        {
+            this.segmentFilePoolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * Get the length of the chunks by which a new catalog file grows.
+         *
+         * @return the length of the chunks by which a new catalog file grows.
+         */
+        int catalogChunkLength()
+        {
+            return catalogChunkLength;
+        }
+
+        /**
+         * Set the length of the chunks by which a new catalog file grows. Each chunk is mapped separately so the
+         * catalog can grow beyond 2GB. The length must be a power of 2 and is fixed when the catalog is created.
+         *
+         * @param catalogChunkLength length of the chunks by which a new catalog file grows.
+         * @return this for a fluent API.
+         */
+        public Context catalogChunkLength(final int catalogChunkLength)
+        {
+            this.catalogChunkLength = catalogChunkLength;
+            return this;
+        }
+
+        /**
+         * Get the minimum number of bytes recorded between entries in the time index of a recording. Zero means no
+         * time index is kept.
+         *
+         * @return the minimum number of bytes recorded between entries in the time index of a recording.
+         */
+        int timeIndexInterval()
+        {
+            return timeIndexInterval;
+        }
+
+        /**
+         * Set the minimum number of bytes recorded between entries in the time index of a recording. Zero, the
+         * default, means no time index is kept and positions found for a time are the start of the recording.
+         * <p>
+         * The time index is a sparse list of (timestamp, position) entries kept per recording so the position from
+         * which to replay for a time can be found without scanning the recording. A smaller interval gives a more
+         * precise position at the cost of a larger index. Searches of the index are done on a thread of their own
+         * rather than the conductor.
+         *
+         * @param timeIndexInterval minimum number of bytes recorded between entries in the time index.
+         * @return this for a fluent API.
+         * @see io.aeron.archive.client.AeronArchive#findPosition(long, long)
+         */
+        public Context timeIndexInterval(final int timeIndexInterval)
+        {
+            this.timeIndexInterval = timeIndexInterval;
+            return this;
+        }
+
         /**
          * Get level at which files should be sync'ed to disk.
          * <ul>
@@ -564,195 +947,854 @@ public final class Archive implements AutoCloseable
         }
 
         /**
-         * Get the {@link AgentInvoker} that should be used for the Media Driver if running in a lightweight mode.
+         * Get the interval in nanoseconds at which writes from all recordings are sync'ed to disk together when
+         * {@link #fileSyncLevel()} is greater than 0. Zero means each block is sync'ed as it is written.
          *
-         * @return the {@link AgentInvoker} that should be used for the Media Driver if running in a lightweight mode.
+         * @return the interval in nanoseconds at which writes from all recordings are sync'ed to disk together.
          */
-        AgentInvoker mediaDriverAgentInvoker()
+        long fileSyncGroupCommitIntervalNs()
         {
-            return mediaDriverAgentInvoker;
+            return fileSyncGroupCommitIntervalNs;
         }
 
         /**
-         * Set the {@link AgentInvoker} that should be used for the Media Driver if running in a lightweight mode.
+         * Set the interval in nanoseconds at which writes from all recordings are sync'ed to disk together when
+         * {@link #fileSyncLevel()} is greater than 0. Zero means each block is sync'ed as it is written.
+         * <p>
+         * The recording position only advances past data once it has been sync'ed.
          *
-         * @param mediaDriverAgentInvoker that should be used for the Media Driver if running in a lightweight mode.
+         * @param intervalNs at which writes from all recordings are sync'ed to disk together.
          * @return this for a fluent API.
          */
-        public Context mediaDriverAgentInvoker(final AgentInvoker mediaDriverAgentInvoker)
+        public Context fileSyncGroupCommitIntervalNs(final long intervalNs)
         {
-            this.mediaDriverAgentInvoker = mediaDriverAgentInvoker;
+            this.fileSyncGroupCommitIntervalNs = intervalNs;
             return this;
         }
 
         /**
-         * Get the {@link ErrorHandler} to be used by the Archive.
+         * Get the number of bytes written across all recordings which triggers a group sync before the interval
+         * has elapsed.
          *
-         * @return the {@link ErrorHandler} to be used by the Archive.
+         * @return the number of bytes written across all recordings which triggers a group sync.
          */
-        public ErrorHandler errorHandler()
+        int fileSyncGroupCommitThreshold()
         {
-            return errorHandler;
+            return fileSyncGroupCommitThreshold;
         }
 
         /**
-         * Set the {@link ErrorHandler} to be used by the Archive.
+         * Set the number of bytes written across all recordings which triggers a group sync before the interval
+         * has elapsed.
          *
-         * @param errorHandler the error handler to be used by the Archive.
-         * @return this for a fluent API
+         * @param thresholdBytes written across all recordings which triggers a group sync.
+         * @return this for a fluent API.
          */
-        public Context errorHandler(final ErrorHandler errorHandler)
+        public Context fileSyncGroupCommitThreshold(final int thresholdBytes)
         {
-            this.errorHandler = errorHandler;
+            this.fileSyncGroupCommitThreshold = thresholdBytes;
             return this;
         }
 
         /**
-         * The {@link #errorHandler()} that will increment {@link #errorCounter()}.
-         *
-         * @return {@link #errorHandler()} that will increment {@link #errorCounter()}.
-         */
-        public CountedErrorHandler countedErrorHandler()
-        {
-            return countedErrorHandler;
-        }
-
-        /**
-         * Get the archive threading mode.
+         * Get the number of threads to which recording writes are submitted asynchronously. Zero means recordings
+         * are written synchronously on the recorder thread.
          *
-         * @return the archive threading mode.
+         * @return the number of threads to which recording writes are submitted asynchronously.
          */
-        public ArchiveThreadingMode threadingMode()
+        int asyncRecordingWriteThreads()
         {
-            return threadingMode;
+            return asyncRecordingWriteThreads;
         }
 
         /**
-         * Set the archive threading mode.
+         * Set the number of threads to which recording writes are submitted asynchronously. Zero means recordings
+         * are written synchronously on the recorder thread.
+         * <p>
+         * Asynchronous writes let a recorder keep many concurrent recordings going without blocking on any one of
+         * them. Syncs, when {@link #fileSyncLevel()} is greater than 0, are done per batch of completed writes so
+         * group commit does not apply.
          *
-         * @param threadingMode archive threading mode.
+         * @param threadCount to which recording writes are submitted asynchronously.
          * @return this for a fluent API.
          */
-        public Context threadingMode(final ArchiveThreadingMode threadingMode)
+        public Context asyncRecordingWriteThreads(final int threadCount)
         {
-            this.threadingMode = threadingMode;
+            this.asyncRecordingWriteThreads = threadCount;
             return this;
         }
 
         /**
-         * Get the thread factory used for creating threads in {@link ArchiveThreadingMode#SHARED} and
-         * {@link ArchiveThreadingMode#DEDICATED} threading modes.
+         * Get the length of the buffer per recording in which blocks are staged while asynchronous writes are in
+         * flight.
          *
-         * @return thread factory used for creating threads in SHARED and DEDICATED threading modes.
+         * @return the length of the buffer per recording for staging asynchronous writes.
          */
-        public ThreadFactory threadFactory()
+        int asyncRecordingWriteBufferLength()
         {
-            return threadFactory;
+            return asyncRecordingWriteBufferLength;
         }
 
         /**
-         * Set the thread factory used for creating threads in {@link ArchiveThreadingMode#SHARED} and
-         * {@link ArchiveThreadingMode#DEDICATED} threading modes.
+         * Set the length of the buffer per recording in which blocks are staged while asynchronous writes are in
+         * flight. Must be a power of 2 multiple of 128KB.
          *
-         * @param threadFactory used for creating threads in SHARED and DEDICATED threading modes.
+         * @param bufferLength per recording for staging asynchronous writes.
          * @return this for a fluent API.
          */
-        public Context threadFactory(final ThreadFactory threadFactory)
+        public Context asyncRecordingWriteBufferLength(final int bufferLength)
         {
-            this.threadFactory = threadFactory;
+            this.asyncRecordingWriteBufferLength = bufferLength;
             return this;
         }
 
-        public AtomicCounter errorCounter()
-        {
-            return errorCounter;
-        }
-
         /**
-         * Get the max number of concurrent recordings.
+         * Get the interval in nanoseconds at which the progress of a recording is sampled for recording events. Zero
+         * means progress is not sampled by time.
          *
-         * @return the max number of concurrent recordings.
+         * @return the interval in nanoseconds at which the progress of a recording is sampled for recording events.
          */
-        public int maxConcurrentRecordings()
+        long recordingProgressIntervalNs()
         {
-            return this.maxConcurrentRecordings;
+            return recordingProgressIntervalNs;
         }
 
         /**
-         * Set the max number of concurrent recordings.
+         * Set the interval in nanoseconds at which the progress of a recording is sampled for recording events. Zero
+         * means progress is not sampled by time.
+         * <p>
+         * When the interval or {@link #recordingProgressThreshold(int)} is set, progress is only sent once the
+         * interval has elapsed or the threshold of bytes has been recorded since the last progress was sent, rather
+         * than for every update. The stop event of a recording always carries its final position.
          *
-         * @param maxConcurrentRecordings the max number of concurrent recordings.
+         * @param intervalNs at which the progress of a recording is sampled for recording events.
          * @return this for a fluent API.
          */
-        public Context maxConcurrentRecordings(final int maxConcurrentRecordings)
+        public Context recordingProgressIntervalNs(final long intervalNs)
         {
-            this.maxConcurrentRecordings = maxConcurrentRecordings;
+            this.recordingProgressIntervalNs = intervalNs;
             return this;
         }
 
         /**
-         * Get the max number of concurrent replays.
+         * Get the number of bytes recorded after which the progress of a recording is sampled for recording events.
+         * Zero means progress is not sampled by bytes recorded.
          *
-         * @return the max number of concurrent replays.
+         * @return the number of bytes recorded after which the progress of a recording is sampled.
          */
-        public int maxConcurrentReplays()
+        int recordingProgressThreshold()
         {
-            return this.maxConcurrentReplays;
+            return recordingProgressThreshold;
         }
 
         /**
-         * Set the max number of concurrent replays.
+         * Set the number of bytes recorded after which the progress of a recording is sampled for recording events.
+         * Zero means progress is not sampled by bytes recorded.
          *
-         * @param maxConcurrentReplays the max number of concurrent replays.
+         * @param thresholdBytes recorded after which the progress of a recording is sampled for recording events.
          * @return this for a fluent API.
+         * @see #recordingProgressIntervalNs(long)
          */
-        public Context maxConcurrentReplays(final int maxConcurrentReplays)
+        public Context recordingProgressThreshold(final int thresholdBytes)
         {
-            this.maxConcurrentReplays = maxConcurrentReplays;
+            this.recordingProgressThreshold = thresholdBytes;
             return this;
         }
 
         /**
-         * The {@link CountersManager} used for shared resource between the embedded media driver and the archive.
+         * Get the maximum number of recordings whose progress is sent together in a RecordingProgressBatch message.
+         * Zero means progress is sent in a RecordingProgress message for each recording.
          *
-         * @return {@link CountersManager} used for shared resource between the embedded media driver and the archive.
+         * @return the maximum number of recordings whose progress is sent together.
          */
-        public CountersManager countersManager()
+        int recordingProgressBatchSize()
         {
-            return countersManager;
+            return recordingProgressBatchSize;
         }
 
         /**
-         * The {@link CountersManager} is a shared resource between the embedded media driver and the archive.
+         * Set the maximum number of recordings whose progress is sent together in a RecordingProgressBatch message.
+         * Zero means progress is sent in a RecordingProgress message for each recording.
+         * <p>
+         * When batching, each recorder sends the progress of its recordings once per duty cycle and the batch size is
+         * further limited to what fits in the max message length of the recording events publication.
          *
-         * @param countersManager shared counters manager to be used.
+         * @param batchSize of recordings whose progress is sent together.
          * @return this for a fluent API.
          */
-        public Context countersManager(final CountersManager countersManager)
+        public Context recordingProgressBatchSize(final int batchSize)
         {
-            this.countersManager = countersManager;
+            this.recordingProgressBatchSize = batchSize;
             return this;
         }
 
         /**
-         * Delete the archive directory if the {@link #archiveDir()} value is not null.
+         * Get the {@link AgentInvoker} that should be used for the Media Driver if running in a lightweight mode.
+         *
+         * @return the {@link AgentInvoker} that should be used for the Media Driver if running in a lightweight mode.
          */
-        public void deleteArchiveDirectory()
+        AgentInvoker mediaDriverAgentInvoker()
         {
-            if (null != archiveDir)
-            {
+            return mediaDriverAgentInvoker;
+        }
+
+        /**
+         * Set the {@link AgentInvoker} that should be used for the Media Driver if running in a lightweight mode.
+         *
+         * @param mediaDriverAgentInvoker that should be used for the Media Driver if running in a lightweight mode.
+         * @return this for a fluent API.
+         */
+        public Context mediaDriverAgentInvoker(final AgentInvoker mediaDriverAgentInvoker)
+        {
+            this.mediaDriverAgentInvoker = mediaDriverAgentInvoker;
+            return this;
+        }
+
+        /**
+         * Get the {@link ErrorHandler} to be used by the Archive.
+         *
+         * @return the {@link ErrorHandler} to be used by the Archive.
+         */
+        public ErrorHandler errorHandler()
+        {
+            return errorHandler;
+        }
+
+        /**
+         * Set the {@link ErrorHandler} to be used by the Archive.
+         *
+         * @param errorHandler the error handler to be used by the Archive.
+         * @return this for a fluent API
+         */
+        public Context errorHandler(final ErrorHandler errorHandler)
+        {
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        /**
+         * The {@link #errorHandler()} that will increment {@link #errorCounter()}.
+         *
+         * @return {@link #errorHandler()} that will increment {@link #errorCounter()}.
+         */
+        public CountedErrorHandler countedErrorHandler()
+        {
+            return countedErrorHandler;
+        }
+
+        /**
+         * Get the archive threading mode.
+         *
+         * @return the archive threading mode.
+         */
+        public ArchiveThreadingMode threadingMode()
+        {
+            return threadingMode;
+        }
+
+        /**
+         * Set the archive threading mode.
+         *
+         * @param threadingMode archive threading mode.
+         * @return this for a fluent API.
+         */
+        public Context threadingMode(final ArchiveThreadingMode threadingMode)
+        {
+            this.threadingMode = threadingMode;
+            return this;
+        }
+
+        /**
+         * Get the number of recorder workers, each with its own thread, when in
+         * {@link ArchiveThreadingMode#DEDICATED} mode.
+         *
+         * @return the number of recorder workers when in {@link ArchiveThreadingMode#DEDICATED} mode.
+         */
+        int recorderWorkerCount()
+        {
+            return recorderWorkerCount;
+        }
+
+        /**
+         * Set the number of recorder workers, each with its own thread, when in
+         * {@link ArchiveThreadingMode#DEDICATED} mode. New recordings are assigned to the worker with the fewest
+         * sessions.
+         *
+         * @param workerCount of recorders when in {@link ArchiveThreadingMode#DEDICATED} mode.
+         * @return this for a fluent API.
+         */
+        public Context recorderWorkerCount(final int workerCount)
+        {
+            this.recorderWorkerCount = workerCount;
+            return this;
+        }
+
+        /**
+         * Get the number of replayer workers, each with its own thread, when in
+         * {@link ArchiveThreadingMode#DEDICATED} mode.
+         *
+         * @return the number of replayer workers when in {@link ArchiveThreadingMode#DEDICATED} mode.
+         */
+        int replayerWorkerCount()
+        {
+            return replayerWorkerCount;
+        }
+
+        /**
+         * Set the number of replayer workers, each with its own thread, when in
+         * {@link ArchiveThreadingMode#DEDICATED} mode. New replays are assigned to the worker with the fewest
+         * sessions.
+         *
+         * @param workerCount of replayers when in {@link ArchiveThreadingMode#DEDICATED} mode.
+         * @return this for a fluent API.
+         */
+        public Context replayerWorkerCount(final int workerCount)
+        {
+            this.replayerWorkerCount = workerCount;
+            return this;
+        }
+
+        /**
+         * Get the thread factory used for creating threads in {@link ArchiveThreadingMode#SHARED} and
+         * {@link ArchiveThreadingMode#DEDICATED} threading modes.
+         *
+         * @return thread factory used for creating threads in SHARED and DEDICATED threading modes.
+         */
+        public ThreadFactory threadFactory()
+        {
+            return threadFactory;
+        }
+
+        /**
+         * Set the thread factory used for creating threads in {@link ArchiveThreadingMode#SHARED} and
+         * {@link ArchiveThreadingMode#DEDICATED} threading modes.
+         *
+         * @param threadFactory used for creating threads in SHARED and DEDICATED threading modes.
+         * @return this for a fluent API.
+         */
+        public Context threadFactory(final ThreadFactory threadFactory)
+        {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        public AtomicCounter errorCounter()
+        {
+            return errorCounter;
+        }
+
+        /**
+         * Get the max number of concurrent recordings.
+         *
+         * @return the max number of concurrent recordings.
+         */
+        public int maxConcurrentRecordings()
+        {
+            return this.maxConcurrentRecordings;
+        }
+
+        /**
+         * Set the max number of concurrent recordings.
+         *
+         * @param maxConcurrentRecordings the max number of concurrent recordings.
+         * @return this for a fluent API.
+         */
+        public Context maxConcurrentRecordings(final int maxConcurrentRecordings)
+        {
+            this.maxConcurrentRecordings = maxConcurrentRecordings;
+            return this;
+        }
+
+        /**
+         * Get the max number of concurrent replays.
+         *
+         * @return the max number of concurrent replays.
+         */
+        public int maxConcurrentReplays()
+        {
+            return this.maxConcurrentReplays;
+        }
+
+        /**
+         * Set the max number of concurrent replays.
+         *
+         * @param maxConcurrentReplays the max number of concurrent replays.
+         * @return this for a fluent API.
+         */
+        public Context maxConcurrentReplays(final int maxConcurrentReplays)
+        {
+            this.maxConcurrentReplays = maxConcurrentReplays;
+            return this;
+        }
+
+        /**
+         * Get the max length of a block of recorded frames copied into a replay publication in one operation.
+         *
+         * @return the max length of a block of recorded frames for replay, or 0 if replaying fragment by fragment.
+         */
+        int replayBlockLength()
+        {
+            return replayBlockLength;
+        }
+
+        /**
+         * Set the max length of a block of recorded frames copied into a replay publication in one operation. Runs
+         * of whole frames up to this length, or a single frame if longer, are appended to the replay publication
+         * with their session id and stream id rewritten in place. Set to 0 to replay fragment by fragment.
+         *
+         * @param replayBlockLength max length of a block of recorded frames for replay, or 0 to disable.
+         * @return this for a fluent API.
+         * @see io.aeron.ExclusivePublication#offerBlock(org.agrona.DirectBuffer, int, int)
+         */
+        public Context replayBlockLength(final int replayBlockLength)
+        {
+            this.replayBlockLength = replayBlockLength;
+            return this;
+        }
+
+        /**
+         * Get the number of threads which read recorded terms into the page cache ahead of replays. Zero means
+         * replays read segments directly through page faults.
+         *
+         * @return the number of threads which read recorded terms into the page cache ahead of replays.
+         */
+        int replayReadAheadThreads()
+        {
+            return replayReadAheadThreads;
+        }
+
+        /**
+         * Set the number of threads which read recorded terms into the page cache ahead of replays. Zero means
+         * replays read segments directly through page faults.
+         * <p>
+         * With read ahead a replay does not move on to a term whose pages are not resident until it has been read into
+         * the page cache, giving up its duty cycle to other replays on the replayer instead of blocking the replayer
+         * on disk reads. The first term of a replay and terms already resident are never deferred.
+         *
+         * @param threadCount which read recorded terms into the page cache ahead of replays.
+         * @return this for a fluent API.
+         */
+        public Context replayReadAheadThreads(final int threadCount)
+        {
+            this.replayReadAheadThreads = threadCount;
+            return this;
+        }
+
+        /**
+         * Get the maximum rate in bytes per second at which each replay is sent. Zero means replays are not limited.
+         *
+         * @return the maximum rate in bytes per second at which each replay is sent.
+         */
+        long replayMaxRate()
+        {
+            return replayMaxRate;
+        }
+
+        /**
+         * Set the maximum rate in bytes per second at which each replay is sent. Zero means replays are not limited.
+         * <p>
+         * The rate is the average over time and a replay may send up to 50ms worth of it in a burst.
+         *
+         * @param bytesPerSecond at which each replay is sent.
+         * @return this for a fluent API.
+         */
+        public Context replayMaxRate(final long bytesPerSecond)
+        {
+            this.replayMaxRate = bytesPerSecond;
+            return this;
+        }
+
+        /**
+         * Get the maximum rate in bytes per second at which all replays together are sent. Zero means the replays
+         * together are not limited.
+         *
+         * @return the maximum rate in bytes per second at which all replays together are sent.
+         */
+        long replayAggregateMaxRate()
+        {
+            return replayAggregateMaxRate;
+        }
+
+        /**
+         * Set the maximum rate in bytes per second at which all replays together are sent. Zero means the replays
+         * together are not limited.
+         * <p>
+         * The rate is divided equally between the replayers and each replayer shares its rate equally between its
+         * replays on every duty cycle, so a replay to a fast consumer does not starve the others.
+         *
+         * @param bytesPerSecond at which all replays together are sent.
+         * @return this for a fluent API.
+         */
+        public Context replayAggregateMaxRate(final long bytesPerSecond)
+        {
+            this.replayAggregateMaxRate = bytesPerSecond;
+            return this;
+        }
+
+        /**
+         * Get the capacity in bytes of the queue per control session for responses which cannot be sent immediately.
+         *
+         * @return the capacity in bytes of the queue per control session for responses which cannot be sent.
+         */
+        int controlResponseQueueLength()
+        {
+            return controlResponseQueueLength;
+        }
+
+        /**
+         * Set the capacity in bytes, a power of 2, of the queue per control session for responses which cannot be
+         * sent immediately. The queue is only allocated once a response needs to be queued, and a session whose
+         * client does not keep up so the queue fills is aborted.
+         *
+         * @param length in bytes of the queue per control session for responses which cannot be sent.
+         * @return this for a fluent API.
+         */
+        public Context controlResponseQueueLength(final int length)
+        {
+            this.controlResponseQueueLength = length;
+            return this;
+        }
+
+        /**
+         * Get the codec with which sealed recording segments are compressed.
+         *
+         * @return the codec with which sealed segments are compressed, or null if segments are not compressed.
+         */
+        SegmentCodec segmentCodec()
+        {
+            return segmentCodec;
+        }
+
+        /**
+         * Set the codec with which sealed recording segments are compressed on a background thread once they have not
+         * been modified for the {@link #segmentCompactionDelayNs(long)}. Replays decompress the segments transparently.
+         *
+         * @param segmentCodec with which sealed segments are compressed, or null to not compress segments.
+         * @return this for a fluent API.
+         * @see DeflateSegmentCodec
+         */
+        public Context segmentCodec(final SegmentCodec segmentCodec)
+        {
+            this.segmentCodec = segmentCodec;
+            return this;
+        }
+
+        /**
+         * Get the time a sealed segment must be unmodified before it is compressed.
+         *
+         * @return the time in nanoseconds a sealed segment must be unmodified before it is compressed.
+         */
+        long segmentCompactionDelayNs()
+        {
+            return segmentCompactionDelayNs;
+        }
+
+        /**
+         * Set the time a sealed segment must be unmodified before it is compressed so recently recorded data, which is
+         * the most likely to be replayed, is kept raw.
+         *
+         * @param delayNs in nanoseconds a sealed segment must be unmodified before it is compressed.
+         * @return this for a fluent API.
+         */
+        public Context segmentCompactionDelayNs(final long delayNs)
+        {
+            this.segmentCompactionDelayNs = delayNs;
+            return this;
+        }
+
+        /**
+         * Get the number of decompressed segments cached for replay.
+         *
+         * @return the number of decompressed segments cached for replay.
+         */
+        int segmentCacheSize()
+        {
+            return segmentCacheSize;
+        }
+
+        /**
+         * Set the number of decompressed segments cached for replay so concurrent replays of the same compressed
+         * segment decompress it once. Each cached segment holds a direct buffer of the segment file length.
+         *
+         * @param cacheSize number of decompressed segments cached for replay.
+         * @return this for a fluent API.
+         */
+        public Context segmentCacheSize(final int cacheSize)
+        {
+            this.segmentCacheSize = cacheSize;
+            return this;
+        }
+
+        /**
+         * Get the directory in which compressed segments are kept.
+         *
+         * @return the directory in which compressed segments are kept, or null if kept in the {@link #archiveDir()}.
+         */
+        public File coldDir()
+        {
+            return coldDir;
+        }
+
+        /**
+         * Set the directory in which compressed segments are kept, such as on cheaper and slower storage than the
+         * {@link #archiveDir()}. Compressed segments are kept in the archive directory if not set.
+         *
+         * @param coldDir in which compressed segments are kept.
+         * @return this for a fluent API.
+         */
+        public Context coldDir(final File coldDir)
+        {
+            this.coldDir = coldDir;
+            return this;
+        }
+
+        /**
+         * Get the retention policy for recordings of channels without their own policy.
+         *
+         * @return the retention policy for recordings of channels without their own policy.
+         */
+        RetentionPolicy retentionPolicy()
+        {
+            return retentionPolicy;
+        }
+
+        /**
+         * Set the retention policy for recordings of channels without their own policy. Recordings are trimmed to
+         * the policy by discarding whole segments from their start every {@link #retentionCheckIntervalNs(long)}.
+         *
+         * @param retentionPolicy for recordings of channels without their own policy.
+         * @return this for a fluent API.
+         */
+        public Context retentionPolicy(final RetentionPolicy retentionPolicy)
+        {
+            this.retentionPolicy = retentionPolicy;
+            return this;
+        }
+
+        /**
+         * Get the retention policies of channels by stream id then channel.
+         *
+         * @return the retention policies of channels by stream id then channel.
+         */
+        Int2ObjectHashMap<Map<String, RetentionPolicy>> channelRetentionPolicies()
+        {
+            return channelRetentionPolicies;
+        }
+
+        /**
+         * Set the retention policy for recordings of a channel and stream, overriding
+         * {@link #retentionPolicy(RetentionPolicy)}. The channel is matched as recorded, i.e. without any session id.
+         *
+         * @param channel         of the recordings.
+         * @param streamId        of the recordings.
+         * @param retentionPolicy for the recordings of the channel and stream.
+         * @return this for a fluent API.
+         */
+        public Context retentionPolicy(final String channel, final int streamId, final RetentionPolicy retentionPolicy)
+        {
+            channelRetentionPolicies
+                .computeIfAbsent(streamId, (ignore) -> new HashMap<>())
+                .put(channel, retentionPolicy);
+            return this;
+        }
+
+        /**
+         * Get the interval at which recordings are checked against their retention policy.
+         *
+         * @return the interval in nanoseconds at which recordings are checked against their retention policy.
+         */
+        long retentionCheckIntervalNs()
+        {
+            return retentionCheckIntervalNs;
+        }
+
+        /**
+         * Set the interval at which recordings are checked against their retention policy.
+         *
+         * @param intervalNs at which recordings are checked against their retention policy.
+         * @return this for a fluent API.
+         */
+        public Context retentionCheckIntervalNs(final long intervalNs)
+        {
+            this.retentionCheckIntervalNs = intervalNs;
+            return this;
+        }
+
+        /**
+         * Get the interval at which the positions of active recordings are checkpointed into the catalog.
+         *
+         * @return the interval in nanoseconds at which the positions of active recordings are checkpointed.
+         */
+        long recordingCheckpointIntervalNs()
+        {
+            return recordingCheckpointIntervalNs;
+        }
+
+        /**
+         * Set the interval at which the positions of active recordings are checkpointed into the catalog. On restart
+         * after a failure the stop position of a recording is recovered by scanning from its last checkpoint rather
+         * than from its start. Set to 0 to disable checkpoints.
+         *
+         * @param intervalNs at which the positions of active recordings are checkpointed.
+         * @return this for a fluent API.
+         */
+        public Context recordingCheckpointIntervalNs(final long intervalNs)
+        {
+            this.recordingCheckpointIntervalNs = intervalNs;
+            return this;
+        }
+
+        /**
+         * Get the channel on which the archive receives the control responses and replayed data from a source archive
+         * when replicating a recording.
+         *
+         * @return the channel on which replications are received.
+         */
+        String replicationChannel()
+        {
+            return replicationChannel;
+        }
+
+        /**
+         * Set the channel on which the archive receives the control responses and replayed data from a source archive
+         * when replicating a recording. The channel must be reachable from the source archives.
+         *
+         * @param replicationChannel on which replications are received.
+         * @return this for a fluent API.
+         */
+        public Context replicationChannel(final String replicationChannel)
+        {
+            this.replicationChannel = replicationChannel;
+            return this;
+        }
+
+        /**
+         * Get the first stream id of the range reserved for replication on the replication channel. Each replication
+         * takes a free pair of stream ids from the range, one for control responses and one for replayed data.
+         *
+         * @return the first stream id of the range reserved for replication on the replication channel.
+         */
+        int replicationStreamId()
+        {
+            return replicationStreamId;
+        }
+
+        /**
+         * Set the first stream id of the range reserved for replication on the replication channel. Each replication
+         * takes a free pair of stream ids from the range, one for control responses and one for replayed data.
+         *
+         * @param replicationStreamId the first stream id of the range reserved for replication.
+         * @return this for a fluent API.
+         * @see #replicationStreamIdRange(int)
+         */
+        public Context replicationStreamId(final int replicationStreamId)
+        {
+            this.replicationStreamId = replicationStreamId;
+            return this;
+        }
+
+        /**
+         * Get the number of stream ids reserved for replication on the replication channel from
+         * {@link #replicationStreamId()}.
+         *
+         * @return the number of stream ids reserved for replication on the replication channel.
+         */
+        int replicationStreamIdRange()
+        {
+            return replicationStreamIdRange;
+        }
+
+        /**
+         * Set the number of stream ids reserved for replication on the replication channel from
+         * {@link #replicationStreamId()}. No other clients should use stream ids in the range on the replication
+         * channel. Stream ids are reused once the replication which took them closes, and a replication is refused
+         * when all pairs of stream ids in the range are in use.
+         *
+         * @param replicationStreamIdRange the number of stream ids reserved for replication.
+         * @return this for a fluent API.
+         */
+        public Context replicationStreamIdRange(final int replicationStreamIdRange)
+        {
+            this.replicationStreamIdRange = replicationStreamIdRange;
+            return this;
+        }
+
+        /**
+         * Get the max length of a block of recorded frames a source archive is asked to replay in one operation when
+         * replicating a recording.
+         *
+         * @return the max length of a block of recorded frames for replication.
+         */
+        int replicationBlockLength()
+        {
+            return replicationBlockLength;
+        }
+
+        /**
+         * Set the max length of a block of recorded frames a source archive is asked to replay in one operation when
+         * replicating a recording. Blocks are further limited to half the term length of the recording.
+         *
+         * @param replicationBlockLength max length of a block of recorded frames for replication.
+         * @return this for a fluent API.
+         */
+        public Context replicationBlockLength(final int replicationBlockLength)
+        {
+            this.replicationBlockLength = replicationBlockLength;
+            return this;
+        }
+
+        /**
+         * The {@link CountersManager} used for shared resource between the embedded media driver and the archive.
+         *
+         * @return {@link CountersManager} used for shared resource between the embedded media driver and the archive.
+         */
+        public CountersManager countersManager()
+        {
+            return countersManager;
+        }
+
+        /**
+         * The {@link CountersManager} is a shared resource between the embedded media driver and the archive.
+         *
+         * @param countersManager shared counters manager to be used.
+         * @return this for a fluent API.
+         */
+        public Context countersManager(final CountersManager countersManager)
+        {
+            this.countersManager = countersManager;
+            return this;
+        }
+
+        /**
+         * Delete the archive directory if the {@link #archiveDir()} value is not null.
+         */
+        public void deleteArchiveDirectory()
+        {
+            if (null != archiveDir)
+            {
                 IoUtil.delete(archiveDir, false);
             }
         }
     }
 
-    static int segmentFileIndex(final long startPosition, final long position, final int segmentFileLength)
+    static int segmentFileIndex(
+        final int baseSegmentIndex,
+        final long startPosition,
+        final int termBufferLength,
+        final int segmentFileLength,
+        final long position)
     {
-        return (int)((position - startPosition) / segmentFileLength);
+        final long termStartPosition = startPosition - (startPosition & (termBufferLength - 1));
+        return baseSegmentIndex + (int)((position - termStartPosition) / segmentFileLength);
     }
 
     static String segmentFileName(final long recordingId, final int segmentIndex)
     {
         return recordingId + '-' + segmentIndex + Configuration.RECORDING_SEGMENT_POSTFIX;
     }
+
+    static String timeIndexFileName(final long recordingId)
+    {
+        return recordingId + Configuration.TIME_INDEX_POSTFIX;
+    }
 }
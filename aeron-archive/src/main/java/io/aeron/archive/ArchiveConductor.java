@@ -17,25 +17,33 @@ package io.aeron.archive;
 
 import io.aeron.*;
 import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.client.RecordingFilter;
 import io.aeron.archive.codecs.RecordingDescriptorDecoder;
 import io.aeron.archive.codecs.RecordingDescriptorEncoder;
 import io.aeron.archive.codecs.SourceLocation;
+import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.CloseHelper;
 import org.agrona.UnsafeAccess;
 import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.AgentInvoker;
 import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.SystemNanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersManager;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 
 import static io.aeron.CommonContext.SPY_PREFIX;
 import static io.aeron.archive.codecs.ControlResponseCode.ERROR;
@@ -44,11 +52,14 @@ abstract class ArchiveConductor extends SessionWorker<Session>
 {
     private static final int CONTROL_TERM_LENGTH = AeronArchive.Configuration.controlTermBufferLength();
     private static final int CONTROL_MTU = AeronArchive.Configuration.controlMtuLength();
+    private static final long COMPACTION_CHECK_INTERVAL_MS = 1000;
+    private static final int NULL_STREAM_ID = Integer.MIN_VALUE;
 
     private final ChannelUriStringBuilder channelBuilder = new ChannelUriStringBuilder();
     private final Long2ObjectHashMap<ReplaySession> replaySessionByIdMap = new Long2ObjectHashMap<>();
     private final Long2ObjectHashMap<RecordingSession> recordingSessionByIdMap = new Long2ObjectHashMap<>();
     private final Long2ObjectHashMap<AtomicCounter> recordingPositionByIdMap = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<ReplicationSession> replicationSessionByIdMap = new Long2ObjectHashMap<>();
     private final Map<String, Subscription> subscriptionMap = new HashMap<>();
     private final ReplayPublicationSupplier newReplayPublication = this::newReplayPublication;
     private final UnsafeBuffer descriptorBuffer = new UnsafeBuffer();
@@ -66,14 +77,31 @@ abstract class ArchiveConductor extends SessionWorker<Session>
     private final RecordingEventsProxy recordingEventsProxy;
     private final int maxConcurrentRecordings;
     private final int maxConcurrentReplays;
+    private final int replayBlockLength;
     private final CountersManager countersManager;
 
     protected final Archive.Context ctx;
     protected final ControlResponseProxy controlResponseProxy;
     protected SessionWorker<ReplaySession> replayer;
     protected SessionWorker<RecordingSession> recorder;
+    private final SegmentFilePool segmentFilePool;
+    private final ExecutorService asyncRecordingWriteExecutor;
+    private final ExecutorService replayReadAheadExecutor;
+    private final ExecutorService timeIndexExecutor;
+    private final ByteBuffer timeIndexEntryBuffer;
+    private final SegmentReadAhead segmentReadAhead;
+    private final CompressedSegmentStore segmentStore;
+    private final SegmentCompactor segmentCompactor;
+    private final RecordingRetention recordingRetention;
+    private final long retentionCheckIntervalMs;
+    private final long recordingCheckpointIntervalMs;
+    private long nextCompactionCheckMs;
+    private long nextRetentionCheckMs;
+    private long nextCheckpointMs;
 
     private long replaySessionId = ThreadLocalRandom.current().nextInt();
+    private long replicationSessionId = ThreadLocalRandom.current().nextInt();
+    private int nextReplicationStreamIndex;
     private long controlSessionId = ThreadLocalRandom.current().nextInt();
 
     ArchiveConductor(final Aeron aeron, final Archive.Context ctx)
@@ -88,6 +116,7 @@ abstract class ArchiveConductor extends SessionWorker<Session>
 
         maxConcurrentRecordings = ctx.maxConcurrentRecordings();
         maxConcurrentReplays = ctx.maxConcurrentReplays();
+        replayBlockLength = ctx.replayBlockLength();
         epochClock = ctx.epochClock();
         driverAgentInvoker = ctx.mediaDriverAgentInvoker();
         archiveDir = ctx.archiveDir();
@@ -101,8 +130,84 @@ abstract class ArchiveConductor extends SessionWorker<Session>
         recordingEventsProxy = new RecordingEventsProxy(
             ctx.idleStrategy(), aeron.addPublication(ctx.recordingEventsChannel(), ctx.recordingEventsStreamId()));
 
-        catalog = new Catalog(archiveDir, archiveDirChannel, fileSyncLevel, epochClock);
+        segmentStore = null != ctx.segmentCodec() ?
+            new CompressedSegmentStore(
+                archiveDir, ctx.coldDir(), ctx.segmentCodec(), ctx.segmentCacheSize(), ctx.threadFactory()) : null;
+
+        catalog = new Catalog(
+            archiveDir, archiveDirChannel, fileSyncLevel, epochClock, ctx.catalogChunkLength(), true, segmentStore);
         countersManager = ctx.countersManager();
+
+        if (ctx.segmentFilePoolSize() > 0)
+        {
+            segmentFilePool = new SegmentFilePool(
+                archiveDir,
+                ctx.segmentFilePoolSize(),
+                ctx.segmentFileLength(),
+                ctx.segmentFileLength() + DataHeaderFlyweight.HEADER_LENGTH);
+        }
+        else
+        {
+            segmentFilePool = null;
+        }
+
+        asyncRecordingWriteExecutor = ctx.asyncRecordingWriteThreads() > 0 ?
+            Executors.newFixedThreadPool(ctx.asyncRecordingWriteThreads(), ctx.threadFactory()) : null;
+
+        if (ctx.replayReadAheadThreads() > 0)
+        {
+            replayReadAheadExecutor = Executors.newFixedThreadPool(ctx.replayReadAheadThreads(), ctx.threadFactory());
+            segmentReadAhead = new SegmentReadAhead(replayReadAheadExecutor);
+        }
+        else
+        {
+            replayReadAheadExecutor = null;
+            segmentReadAhead = null;
+        }
+
+        if (ctx.timeIndexInterval() > 0)
+        {
+            timeIndexExecutor = Executors.newSingleThreadExecutor(ctx.threadFactory());
+            timeIndexEntryBuffer = ByteBuffer.allocateDirect(RecordingTimeIndex.ENTRY_LENGTH);
+        }
+        else
+        {
+            timeIndexExecutor = null;
+            timeIndexEntryBuffer = null;
+        }
+
+        if (null != segmentStore)
+        {
+            segmentCompactor = new SegmentCompactor(
+                segmentStore, ctx.segmentCompactionDelayNs(), epochClock, errorHandler, ctx.threadFactory());
+
+            segmentCompactor.onCatalogLoaded(catalog);
+        }
+        else
+        {
+            segmentCompactor = null;
+        }
+
+        final Map<String, RetentionPolicy> retentionPolicyByKey = new HashMap<>();
+        ctx.channelRetentionPolicies().forEach(
+            (streamId, policyByChannel) -> policyByChannel.forEach(
+                (channel, policy) -> retentionPolicyByKey.put(
+                    RecordingRetention.policyKey(streamId, strippedChannelBuilder(channel).build()), policy)));
+
+        recordingRetention = new RecordingRetention(
+            catalog,
+            archiveDir,
+            segmentStore,
+            ctx.retentionPolicy(),
+            retentionPolicyByKey,
+            epochClock,
+            errorHandler,
+            ctx.threadFactory(),
+            null != segmentCompactor ? segmentCompactor::execute : null,
+            this::activeRecordingPosition,
+            this::isReplaying);
+        retentionCheckIntervalMs = TimeUnit.NANOSECONDS.toMillis(ctx.retentionCheckIntervalNs());
+        recordingCheckpointIntervalMs = TimeUnit.NANOSECONDS.toMillis(ctx.recordingCheckpointIntervalNs());
     }
 
     public void onStart()
@@ -115,6 +220,70 @@ abstract class ArchiveConductor extends SessionWorker<Session>
 
     protected abstract SessionWorker<ReplaySession> newReplayer();
 
+    /**
+     * Create a syncer for group commit of the writes from the recordings on a recorder, if configured.
+     *
+     * @return a new {@link RecordingGroupSyncer} or null if group commit is not configured.
+     */
+    protected RecordingGroupSyncer newRecordingGroupSyncer()
+    {
+        if (ctx.fileSyncLevel() > 0 && ctx.fileSyncGroupCommitIntervalNs() > 0)
+        {
+            return new RecordingGroupSyncer(
+                ctx.fileSyncGroupCommitIntervalNs(),
+                ctx.fileSyncGroupCommitThreshold(),
+                new SystemNanoClock(),
+                errorHandler);
+        }
+
+        return null;
+    }
+
+    /**
+     * Create a batcher for the progress of the recordings on a recorder, if progress batching is configured.
+     *
+     * @return a new {@link RecordingProgressBatcher} or null if progress is sent for each recording.
+     */
+    protected RecordingProgressBatcher newRecordingProgressBatcher()
+    {
+        if (ctx.recordingProgressBatchSize() > 0)
+        {
+            return new RecordingProgressBatcher(
+                new RecordingEventsProxy(ctx.idleStrategy(), recordingEventsProxy.publication()),
+                ctx.recordingProgressBatchSize(),
+                recordingEventsProxy.publication().maxMessageLength());
+        }
+
+        return null;
+    }
+
+    /**
+     * Create a limiter for the rate shared by the replays on a replayer, if an aggregate replay rate is configured.
+     *
+     * @param replayerCount between which the aggregate replay rate is divided.
+     * @return a new {@link ReplayRateLimiter} or null if the aggregate replay rate is not limited.
+     */
+    protected ReplayRateLimiter newReplayAggregateRateLimiter(final int replayerCount)
+    {
+        if (ctx.replayAggregateMaxRate() > 0)
+        {
+            return new ReplayRateLimiter(
+                Math.max(ctx.replayAggregateMaxRate() / replayerCount, 1), new SystemNanoClock());
+        }
+
+        return null;
+    }
+
+    protected void addRecordingSession(final RecordingSession session)
+    {
+        recorder.addSession(session);
+    }
+
+    protected void addReplaySession(final ReplaySession session)
+    {
+        replayer.addSession(session);
+    }
+
     protected final void preSessionsClose()
     {
         closeSessionWorkers();
@@ -126,6 +295,25 @@ abstract class ArchiveConductor extends SessionWorker<Session>
 
     protected void postSessionsClose()
     {
+        if (null != asyncRecordingWriteExecutor)
+        {
+            asyncRecordingWriteExecutor.shutdown();
+        }
+
+        if (null != replayReadAheadExecutor)
+        {
+            replayReadAheadExecutor.shutdownNow();
+        }
+
+        if (null != timeIndexExecutor)
+        {
+            timeIndexExecutor.shutdownNow();
+        }
+
+        CloseHelper.quietClose(recordingRetention);
+        CloseHelper.quietClose(segmentCompactor);
+        CloseHelper.quietClose(segmentStore);
+        CloseHelper.quietClose(segmentFilePool);
         CloseHelper.quietClose(catalog);
         CloseHelper.quietClose(archiveDirChannel);
         CloseHelper.quietClose(aeronAgentInvoker);
@@ -138,10 +326,60 @@ abstract class ArchiveConductor extends SessionWorker<Session>
 
         workCount += null != driverAgentInvoker ? driverAgentInvoker.invoke() : 0;
         workCount += aeronAgentInvoker.invoke();
+        workCount += null != segmentFilePool ? segmentFilePool.doWork() : 0;
+        workCount += null != segmentCompactor ? checkSegmentCompaction() : 0;
+        workCount += checkRetention();
+        workCount += recordingCheckpointIntervalMs > 0 ? checkpointRecordings() : 0;
 
         return workCount;
     }
 
+    private int checkpointRecordings()
+    {
+        final long nowMs = epochClock.time();
+        if (nowMs < nextCheckpointMs || recordingSessionByIdMap.isEmpty())
+        {
+            return 0;
+        }
+
+        nextCheckpointMs = nowMs + recordingCheckpointIntervalMs;
+        for (final RecordingSession session : recordingSessionByIdMap.values())
+        {
+            final AtomicCounter position = recordingPositionByIdMap.get(session.sessionId());
+            Catalog.checkpointPosition(session.descriptorBuffer(), position.get());
+        }
+
+        return 1;
+    }
+
+    private int checkRetention()
+    {
+        final long nowMs = epochClock.time();
+        if (nowMs < nextRetentionCheckMs)
+        {
+            return 0;
+        }
+
+        nextRetentionCheckMs = nowMs + retentionCheckIntervalMs;
+
+        return recordingRetention.checkRetention();
+    }
+
+    private int checkSegmentCompaction()
+    {
+        final long nowMs = epochClock.time();
+        if (nowMs < nextCompactionCheckMs)
+        {
+            return 0;
+        }
+
+        nextCompactionCheckMs = nowMs + COMPACTION_CHECK_INTERVAL_MS;
+        recordingPositionByIdMap.forEach(
+            (recordingId, position) -> segmentCompactor.onRecordingProgress(recordingId, position.get()));
+
+        return 1;
+    }
+
     /**
      * Note: this is only a thread safe interaction because we are running the aeron client as an invoked agent so the
      * available image notifications are run from this agent thread.
@@ -206,31 +444,72 @@ abstract class ArchiveConductor extends SessionWorker<Session>
         try
         {
             final String strippedChannel = strippedChannelBuilder(originalChannel).build();
-            final String key = makeKey(streamId, strippedChannel);
-            final Subscription oldSubscription = subscriptionMap.get(key);
 
-            if (oldSubscription == null)
-            {
-                final String channel = originalChannel.contains("udp") && sourceLocation == SourceLocation.LOCAL ?
-                    SPY_PREFIX + strippedChannel : strippedChannel;
+            addRecordingSubscription(
+                correlationId,
+                controlSession,
+                streamId,
+                strippedChannel,
+                sourceLocation,
+                (image) -> startImageRecording(strippedChannel, originalChannel, image));
+        }
+        catch (final Exception ex)
+        {
+            errorHandler.onError(ex);
+            controlSession.sendResponse(correlationId, ERROR, ex.getMessage(), controlResponseProxy);
+        }
+    }
 
-                final Subscription subscription = aeron.addSubscription(
-                    channel,
-                    streamId,
-                    (image) -> startImageRecording(strippedChannel, originalChannel, image),
-                    null);
+    void extendRecording(
+        final long correlationId,
+        final ControlSession controlSession,
+        final long recordingId,
+        final int streamId,
+        final String originalChannel,
+        final SourceLocation sourceLocation)
+    {
+        if (recordingSessionByIdMap.size() >= maxConcurrentRecordings)
+        {
+            controlSession.sendResponse(
+                correlationId,
+                ERROR,
+                "Max concurrent recordings reached: " + maxConcurrentRecordings,
+                controlResponseProxy);
 
-                subscriptionMap.put(key, subscription);
-                controlSession.sendOkResponse(correlationId, controlResponseProxy);
-            }
-            else
+            return;
+        }
+
+        final String errorMessage = checkResumable(recordingId);
+        if (null != errorMessage)
+        {
+            controlSession.sendResponse(correlationId, ERROR, errorMessage, controlResponseProxy);
+            return;
+        }
+
+        try
+        {
+            final String strippedChannel = strippedChannelBuilder(originalChannel).build();
+
+            Catalog.wrapDescriptorDecoder(recordingDescriptorDecoder, catalog.wrapDescriptor(recordingId));
+            if (streamId != recordingDescriptorDecoder.streamId() ||
+                !strippedChannel.equals(recordingDescriptorDecoder.strippedChannel()))
             {
                 controlSession.sendResponse(
                     correlationId,
                     ERROR,
-                    "Recording already setup for subscription: " + key,
+                    "Recording " + recordingId + " is not of: " + makeKey(streamId, strippedChannel),
                     controlResponseProxy);
+
+                return;
             }
+
+            addRecordingSubscription(
+                correlationId,
+                controlSession,
+                streamId,
+                strippedChannel,
+                sourceLocation,
+                (image) -> extendImageRecording(recordingId, image));
         }
         catch (final Exception ex)
         {
@@ -276,12 +555,52 @@ abstract class ArchiveConductor extends SessionWorker<Session>
             recordingDescriptorDecoder);
     }
 
+    ListRecordingsWithFilterSession newListRecordingsWithFilterSession(
+        final long correlationId,
+        final long fromRecordingId,
+        final int count,
+        final RecordingFilter filter,
+        final ControlSession controlSession)
+    {
+        return new ListRecordingsWithFilterSession(
+            correlationId,
+            fromRecordingId,
+            count,
+            filter,
+            catalog,
+            controlResponseProxy,
+            controlSession,
+            descriptorBuffer,
+            this::activeRecordingPosition);
+    }
+
+    void startReplay(
+        final long correlationId,
+        final ControlSession controlSession,
+        final long recordingId,
+        final long position,
+        final long length,
+        final int replayStreamId,
+        final String replayChannel)
+    {
+        startReplay(
+            correlationId,
+            controlSession,
+            recordingId,
+            position,
+            length,
+            replayBlockLength,
+            replayStreamId,
+            replayChannel);
+    }
+
     void startReplay(
         final long correlationId,
         final ControlSession controlSession,
         final long recordingId,
         final long position,
         final long length,
+        final int replayBlockLength,
         final int replayStreamId,
         final String replayChannel)
     {
@@ -297,7 +616,7 @@ abstract class ArchiveConductor extends SessionWorker<Session>
         }
 
         final UnsafeBuffer descriptorBuffer = catalog.wrapDescriptor(recordingId);
-        if (descriptorBuffer == null)
+        if (descriptorBuffer == null || !Catalog.isValidDescriptor(descriptorBuffer))
         {
             controlSession.sendResponse(
                 correlationId,
@@ -322,10 +641,174 @@ abstract class ArchiveConductor extends SessionWorker<Session>
             replayChannel,
             replayStreamId,
             descriptorBuffer,
-            recordingPositionByIdMap.get(recordingId));
+            recordingPositionByIdMap.get(recordingId),
+            replayBlockLength,
+            segmentStore,
+            segmentReadAhead,
+            ctx.replayMaxRate() > 0 ? new ReplayRateLimiter(ctx.replayMaxRate(), new SystemNanoClock()) : null,
+            newReplayRateCounter(newId, recordingId));
 
         replaySessionByIdMap.put(newId, replaySession);
-        replayer.addSession(replaySession);
+        addReplaySession(replaySession);
+    }
+
+    void startReplayFromTime(
+        final long correlationId,
+        final ControlSession controlSession,
+        final long recordingId,
+        final long timestamp,
+        final long length,
+        final int replayStreamId,
+        final String replayChannel)
+    {
+        final UnsafeBuffer descriptorBuffer = catalog.wrapDescriptor(recordingId);
+        if (descriptorBuffer == null || !Catalog.isValidDescriptor(descriptorBuffer))
+        {
+            controlSession.sendResponse(
+                correlationId,
+                ERROR,
+                "Unknown recording : " + recordingId,
+                controlResponseProxy);
+
+            return;
+        }
+
+        findPosition(
+            correlationId,
+            controlSession,
+            descriptorBuffer,
+            recordingId,
+            timestamp,
+            (position) -> startReplay(
+                correlationId, controlSession, recordingId, position, length, replayStreamId, replayChannel));
+    }
+
+    void findPosition(
+        final long correlationId,
+        final ControlSession controlSession,
+        final long recordingId,
+        final long timestamp)
+    {
+        final UnsafeBuffer descriptorBuffer = catalog.wrapDescriptor(recordingId);
+        if (descriptorBuffer == null || !Catalog.isValidDescriptor(descriptorBuffer))
+        {
+            controlSession.sendResponse(
+                correlationId,
+                ERROR,
+                "Unknown recording : " + recordingId,
+                controlResponseProxy);
+
+            return;
+        }
+
+        findPosition(
+            correlationId,
+            controlSession,
+            descriptorBuffer,
+            recordingId,
+            timestamp,
+            (position) -> controlSession.sendOkResponse(correlationId, position, controlResponseProxy));
+    }
+
+    void replicate(
+        final long correlationId,
+        final ControlSession controlSession,
+        final long srcRecordingId,
+        final long dstRecordingId,
+        final int srcControlStreamId,
+        final String srcControlChannel)
+    {
+        if (recordingSessionByIdMap.size() + replicationSessionByIdMap.size() >= maxConcurrentRecordings)
+        {
+            controlSession.sendResponse(
+                correlationId,
+                ERROR,
+                "Max concurrent recordings reached: " + maxConcurrentRecordings,
+                controlResponseProxy);
+
+            return;
+        }
+
+        if (AeronArchive.NULL_RECORDING_ID != dstRecordingId)
+        {
+            final String errorMessage = checkResumable(dstRecordingId);
+            if (null != errorMessage)
+            {
+                controlSession.sendResponse(correlationId, ERROR, errorMessage, controlResponseProxy);
+                return;
+            }
+        }
+
+        final int replicationStreamId = nextReplicationStreamId();
+        if (NULL_STREAM_ID == replicationStreamId)
+        {
+            controlSession.sendResponse(
+                correlationId,
+                ERROR,
+                "No free replication stream ids in range of " + ctx.replicationStreamIdRange(),
+                controlResponseProxy);
+
+            return;
+        }
+
+        try
+        {
+            final ReplicationSession replicationSession = new ReplicationSession(
+                replicationSessionId++,
+                correlationId,
+                srcRecordingId,
+                dstRecordingId,
+                srcControlChannel,
+                srcControlStreamId,
+                ctx.replicationChannel(),
+                replicationStreamId,
+                replicationStreamId + 1,
+                ctx,
+                aeron,
+                this,
+                controlSession,
+                controlResponseProxy,
+                catalog,
+                epochClock);
+
+            replicationSessionByIdMap.put(replicationSession.sessionId(), replicationSession);
+            addSession(replicationSession);
+        }
+        catch (final Exception ex)
+        {
+            errorHandler.onError(ex);
+            controlSession.sendResponse(correlationId, ERROR, ex.getMessage(), controlResponseProxy);
+        }
+    }
+
+    void purgeRecording(final long correlationId, final ControlSession controlSession, final long recordingId)
+    {
+        try
+        {
+            recordingRetention.purge(recordingId);
+            controlSession.sendOkResponse(correlationId, controlResponseProxy);
+        }
+        catch (final Exception ex)
+        {
+            controlSession.sendResponse(correlationId, ERROR, ex.getMessage(), controlResponseProxy);
+        }
+    }
+
+    void truncateRecording(
+        final long correlationId,
+        final ControlSession controlSession,
+        final long recordingId,
+        final long position)
+    {
+        try
+        {
+            final long startPosition = recordingRetention.truncate(recordingId, position);
+            controlSession.sendOkResponse(correlationId, startPosition, controlResponseProxy);
+        }
+        catch (final Exception ex)
+        {
+            controlSession.sendResponse(correlationId, ERROR, ex.getMessage(), controlResponseProxy);
+        }
     }
 
     ControlSession newControlSession(
@@ -356,12 +839,171 @@ abstract class ArchiveConductor extends SessionWorker<Session>
             publication,
             this,
             epochClock,
-            controlResponseProxy);
+            controlResponseProxy,
+            ctx.controlResponseQueueLength());
         addSession(controlSession);
 
         return controlSession;
     }
 
+    private void findPosition(
+        final long correlationId,
+        final ControlSession controlSession,
+        final UnsafeBuffer descriptorBuffer,
+        final long recordingId,
+        final long timestamp,
+        final LongConsumer positionHandler)
+    {
+        Catalog.wrapDescriptorDecoder(recordingDescriptorDecoder, descriptorBuffer);
+
+        if (null == timeIndexExecutor || timestamp <= recordingDescriptorDecoder.startTimestamp())
+        {
+            positionHandler.accept(recordingDescriptorDecoder.startPosition());
+            return;
+        }
+
+        addSession(new FindPositionSession(
+            correlationId,
+            recordingId,
+            timestamp,
+            archiveDir,
+            timeIndexEntryBuffer,
+            timeIndexExecutor,
+            (indexPosition) -> onIndexPositionFound(
+                correlationId, controlSession, recordingId, indexPosition, positionHandler),
+            controlSession,
+            controlResponseProxy,
+            errorHandler));
+    }
+
+    private void onIndexPositionFound(
+        final long correlationId,
+        final ControlSession controlSession,
+        final long recordingId,
+        final long indexPosition,
+        final LongConsumer positionHandler)
+    {
+        final UnsafeBuffer descriptorBuffer = catalog.wrapDescriptor(recordingId);
+        if (descriptorBuffer == null || !Catalog.isValidDescriptor(descriptorBuffer))
+        {
+            controlSession.sendResponse(
+                correlationId,
+                ERROR,
+                "Unknown recording : " + recordingId,
+                controlResponseProxy);
+
+            return;
+        }
+
+        Catalog.wrapDescriptorDecoder(recordingDescriptorDecoder, descriptorBuffer);
+
+        final long startPosition = recordingDescriptorDecoder.startPosition();
+        long limitPosition = recordingDescriptorDecoder.stopPosition();
+        if (Catalog.NULL_POSITION == limitPosition)
+        {
+            final AtomicCounter recordingPosition = recordingPositionByIdMap.get(recordingId);
+            limitPosition = null != recordingPosition ? recordingPosition.get() : startPosition;
+        }
+
+        if (Catalog.NULL_POSITION == indexPosition)
+        {
+            positionHandler.accept(startPosition);
+        }
+        else
+        {
+            positionHandler.accept(Math.max(startPosition, Math.min(indexPosition, limitPosition)));
+        }
+    }
+
+    private long activeRecordingPosition(final long recordingId)
+    {
+        final AtomicCounter position = recordingPositionByIdMap.get(recordingId);
+
+        return null != position ? position.get() : Catalog.NULL_POSITION;
+    }
+
+    private String checkResumable(final long recordingId)
+    {
+        if (null != segmentStore)
+        {
+            return "Cannot resume a recording when recorded segments are compressed";
+        }
+
+        final UnsafeBuffer descriptorBuffer = catalog.wrapDescriptor(recordingId);
+        if (descriptorBuffer == null || !Catalog.isValidDescriptor(descriptorBuffer))
+        {
+            return "Unknown recording : " + recordingId;
+        }
+
+        Catalog.wrapDescriptorDecoder(recordingDescriptorDecoder, descriptorBuffer);
+        if (Catalog.NULL_POSITION == recordingDescriptorDecoder.stopPosition() || isRecording(recordingId))
+        {
+            return "Cannot resume an active recording: " + recordingId;
+        }
+
+        for (final ReplicationSession replicationSession : replicationSessionByIdMap.values())
+        {
+            if (replicationSession.isReplicatingInto(recordingId))
+            {
+                return "Recording is already being replicated into: " + recordingId;
+            }
+        }
+
+        return null;
+    }
+
+    boolean isRecording(final long recordingId)
+    {
+        return recordingSessionByIdMap.containsKey(recordingId);
+    }
+
+    private int nextReplicationStreamId()
+    {
+        final int pairCount = ctx.replicationStreamIdRange() / 2;
+
+        for (int i = 0; i < pairCount; i++)
+        {
+            final int streamId = ctx.replicationStreamId() + (2 * nextReplicationStreamIndex);
+            if (++nextReplicationStreamIndex >= pairCount)
+            {
+                nextReplicationStreamIndex = 0;
+            }
+
+            if (!isReplicationStreamIdInUse(streamId))
+            {
+                return streamId;
+            }
+        }
+
+        return NULL_STREAM_ID;
+    }
+
+    private boolean isReplicationStreamIdInUse(final int streamId)
+    {
+        for (final ReplicationSession replicationSession : replicationSessionByIdMap.values())
+        {
+            if (replicationSession.responseStreamId() == streamId)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isReplaying(final long recordingId)
+    {
+        for (final ReplaySession replaySession : replaySessionByIdMap.values())
+        {
+            if (replaySession.recordingId() == recordingId)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     private static String makeKey(final int streamId, final String strippedChannel)
     {
         return streamId + ':' + strippedChannel;
@@ -380,6 +1022,37 @@ abstract class ArchiveConductor extends SessionWorker<Session>
         return channelBuilder;
     }
 
+    private void addRecordingSubscription(
+        final long correlationId,
+        final ControlSession controlSession,
+        final int streamId,
+        final String strippedChannel,
+        final SourceLocation sourceLocation,
+        final AvailableImageHandler availableImageHandler)
+    {
+        final String key = makeKey(streamId, strippedChannel);
+        final Subscription oldSubscription = subscriptionMap.get(key);
+
+        if (oldSubscription == null)
+        {
+            final String channel = strippedChannel.contains("udp") && sourceLocation == SourceLocation.LOCAL ?
+                SPY_PREFIX + strippedChannel : strippedChannel;
+
+            final Subscription subscription = aeron.addSubscription(channel, streamId, availableImageHandler, null);
+
+            subscriptionMap.put(key, subscription);
+            controlSession.sendOkResponse(correlationId, controlResponseProxy);
+        }
+        else
+        {
+            controlSession.sendResponse(
+                correlationId,
+                ERROR,
+                "Recording already setup for subscription: " + key,
+                controlResponseProxy);
+        }
+    }
+
     private void startImageRecording(final String strippedChannel, final String originalChannel, final Image image)
     {
         if (recordingSessionByIdMap.size() >= 2 * maxConcurrentRecordings)
@@ -419,12 +1092,104 @@ abstract class ArchiveConductor extends SessionWorker<Session>
             image,
             position,
             archiveDirChannel,
-            ctx);
+            segmentFilePool,
+            asyncRecordingWriteExecutor,
+            ctx,
+            Catalog.NULL_POSITION);
 
         recordingSessionByIdMap.put(recordingId, session);
         recordingPositionByIdMap.put(recordingId, position);
 
-        recorder.addSession(session);
+        if (null != segmentCompactor)
+        {
+            segmentCompactor.onRecordingStarted(
+                recordingId, 0, startPosition, termBufferLength, ctx.segmentFileLength());
+        }
+
+        addRecordingSession(session);
+    }
+
+    private void extendImageRecording(final long recordingId, final Image image)
+    {
+        if (recordingSessionByIdMap.size() >= 2 * maxConcurrentRecordings)
+        {
+            throw new IllegalStateException("Too many recordings, can't extend recording: " + recordingId);
+        }
+
+        final String errorMessage = checkResumable(recordingId);
+        if (null != errorMessage)
+        {
+            throw new IllegalStateException(errorMessage);
+        }
+
+        Catalog.wrapDescriptorDecoder(recordingDescriptorDecoder, catalog.wrapDescriptor(recordingId));
+        final long stopPosition = recordingDescriptorDecoder.stopPosition();
+
+        if (image.joinPosition() != stopPosition ||
+            image.initialTermId() != recordingDescriptorDecoder.initialTermId() ||
+            image.termBufferLength() != recordingDescriptorDecoder.termBufferLength())
+        {
+            throw new IllegalStateException("Cannot extend recording " + recordingId +
+                " stopped at " + stopPosition + " with image joining at " + image.joinPosition() +
+                " initialTermId=" + image.initialTermId() + " termBufferLength=" + image.termBufferLength());
+        }
+
+        startExtendedRecording(recordingId, stopPosition, image);
+    }
+
+    /**
+     * Start recording an image into an existing recording, continuing it from a position.
+     */
+    void startExtendedRecording(final long recordingId, final long position, final Image image)
+    {
+        final UnsafeBuffer descriptorBuffer = catalog.wrapDescriptor(recordingId);
+        Catalog.wrapDescriptorEncoder(recordingDescriptorEncoder, descriptorBuffer);
+        recordingDescriptorEncoder.stopPosition(Catalog.NULL_POSITION).stopTimestamp(Catalog.NULL_TIME);
+        Catalog.checkpointPosition(descriptorBuffer, position);
+
+        Catalog.wrapDescriptorDecoder(recordingDescriptorDecoder, descriptorBuffer);
+        final long startPosition = recordingDescriptorDecoder.startPosition();
+        final int termBufferLength = recordingDescriptorDecoder.termBufferLength();
+        final int segmentFileLength = recordingDescriptorDecoder.segmentFileLength();
+        final int sessionId = recordingDescriptorDecoder.sessionId();
+        final int streamId = recordingDescriptorDecoder.streamId();
+        final String strippedChannel = recordingDescriptorDecoder.strippedChannel();
+
+        final AtomicCounter recordingPosition = newRecordingPositionCounter(
+            recordingId, sessionId, streamId, strippedChannel);
+
+        final RecordingSession session = new RecordingSession(
+            recordingId,
+            descriptorBuffer,
+            recordingEventsProxy,
+            strippedChannel,
+            image,
+            recordingPosition,
+            archiveDirChannel,
+            segmentFilePool,
+            asyncRecordingWriteExecutor,
+            ctx,
+            position);
+
+        recordingSessionByIdMap.put(recordingId, session);
+        recordingPositionByIdMap.put(recordingId, recordingPosition);
+
+        if (null != segmentCompactor)
+        {
+            segmentCompactor.onRecordingStarted(
+                recordingId,
+                Catalog.baseSegmentIndex(descriptorBuffer),
+                startPosition,
+                termBufferLength,
+                segmentFileLength);
+        }
+
+        addRecordingSession(session);
+    }
+
+    void onReplicationSessionClosed(final ReplicationSession session)
+    {
+        replicationSessionByIdMap.remove(session.sessionId());
     }
 
     void closeRecordingSession(final RecordingSession session)
@@ -439,6 +1204,11 @@ abstract class ArchiveConductor extends SessionWorker<Session>
 
         UnsafeAccess.UNSAFE.storeFence();
 
+        if (null != segmentCompactor)
+        {
+            segmentCompactor.onRecordingStopped(session.sessionId(), position.get());
+        }
+
         position.close();
     }
 
@@ -497,6 +1267,16 @@ abstract class ArchiveConductor extends SessionWorker<Session>
         return null;
     }
 
+    private AtomicCounter newReplayRateCounter(final long replaySessionId, final long recordingId)
+    {
+        final String label = "replay-rate: " + replaySessionId + ' ' + recordingId;
+
+        return countersManager.newCounter(
+            label,
+            Archive.Configuration.ARCHIVE_REPLAY_RATE_TYPE_ID,
+            (buffer) -> buffer.putLong(0, replaySessionId));
+    }
+
     private AtomicCounter newRecordingPositionCounter(
         final long recordingId,
         final int sessionId,
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.BufferUtil;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Executor;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+
+/**
+ * {@link RecordingWriter} which submits writes to an {@link Executor} shared by all recordings so the recorder thread
+ * does not block on the file system for any one recording. Completions are collected in order and in batches by
+ * {@link #pollWriteCompletions()}, with the recorded position advancing only once the writes, and a sync if required,
+ * are complete.
+ * <p>
+ * Blocks are copied from the term into a ring of staging slots before being submitted, as the image position moves
+ * on once the block has been handed over which allows the publisher to reuse the term. The recorder limits the blocks
+ * it polls to the {@link #writeCapacity()} of the free slots so when all slots are in flight the block is left in
+ * the term to be polled on a later duty cycle rather than the recorder waiting for writes to complete.
+ * <p>
+ * <b>Note:</b> Must only be used from the recorder thread.
+ */
+class AsyncRecordingWriter extends RecordingWriter
+{
+    static final int WRITE_SLOT_LENGTH = 128 * 1024;
+
+    private final Executor executor;
+    private final WriteSlot[] slots;
+    private final UnsafeBuffer stagingBuffer;
+    private final int slotMask;
+    private long headSlot = 0;
+    private long tailSlot = 0;
+    private long completedPosition;
+    private boolean hasFailed = false;
+    private Exception failure;
+
+    AsyncRecordingWriter(
+        final Archive.Context context,
+        final FileChannel archiveDirChannel,
+        final UnsafeBuffer descriptorBuffer,
+        final AtomicCounter recordedPosition,
+        final SegmentFilePool segmentFilePool,
+        final Executor executor)
+    {
+        super(context, archiveDirChannel, descriptorBuffer, recordedPosition, null, segmentFilePool);
+
+        this.executor = executor;
+        completedPosition = startPosition();
+
+        final int slotCount = context.asyncRecordingWriteBufferLength() / WRITE_SLOT_LENGTH;
+        if (slotCount < 1 || (slotCount & (slotCount - 1)) != 0)
+        {
+            throw new IllegalArgumentException(
+                "async recording write buffer length must be a power of 2 multiple of " + WRITE_SLOT_LENGTH);
+        }
+
+        final ByteBuffer byteBuffer = BufferUtil.allocateDirectAligned(slotCount * WRITE_SLOT_LENGTH, FRAME_ALIGNMENT);
+        stagingBuffer = new UnsafeBuffer(byteBuffer);
+        slotMask = slotCount - 1;
+        slots = new WriteSlot[slotCount];
+        for (int i = 0; i < slotCount; i++)
+        {
+            byteBuffer.limit((i + 1) * WRITE_SLOT_LENGTH).position(i * WRITE_SLOT_LENGTH);
+            slots[i] = new WriteSlot(byteBuffer.slice(), i * WRITE_SLOT_LENGTH);
+        }
+    }
+
+    void resumeFrom(final long position, final int baseSegmentIndex)
+    {
+        super.resumeFrom(position, baseSegmentIndex);
+        completedPosition = position;
+    }
+
+    int writeCapacity()
+    {
+        return (slots.length - (int)(tailSlot - headSlot)) * WRITE_SLOT_LENGTH;
+    }
+
+    int pollWriteCompletions()
+    {
+        final int completed = collectCompletedWrites();
+        checkFailure();
+
+        return completed;
+    }
+
+    void writeBlock(
+        final FileChannel fileChannel,
+        final long fileOffset,
+        final UnsafeBuffer termBuffer,
+        final int termOffset,
+        final int blockLength)
+    {
+        if (blockLength > writeCapacity())
+        {
+            throw new IllegalStateException(
+                "block length " + blockLength + " exceeds write capacity " + writeCapacity());
+        }
+
+        final FileChannel recordingFileChannel = recordingFileChannel();
+        final int segmentPosition = segmentPosition();
+
+        int offset = 0;
+        while (offset < blockLength)
+        {
+            final int length = Math.min(blockLength - offset, WRITE_SLOT_LENGTH);
+            final WriteSlot slot = slots[(int)tailSlot & slotMask];
+            stagingBuffer.putBytes(slot.stagingOffset, termBuffer, termOffset + offset, length);
+            slot.submit(recordingFileChannel, segmentPosition + offset, length);
+
+            executor.execute(slot);
+            tailSlot++;
+            offset += length;
+        }
+
+        onBlockSubmitted(blockLength);
+    }
+
+    void completePendingWrites()
+    {
+        while (headSlot < tailSlot)
+        {
+            if (0 == collectCompletedWrites())
+            {
+                Thread.yield();
+            }
+        }
+
+        checkFailure();
+    }
+
+    private int collectCompletedWrites()
+    {
+        FileChannel completedChannel = null;
+        int completed = 0;
+
+        while (headSlot < tailSlot)
+        {
+            final WriteSlot slot = slots[(int)headSlot & slotMask];
+            final int state = slot.state;
+            if (WriteSlot.PENDING == state)
+            {
+                break;
+            }
+
+            if (WriteSlot.FAILED == state && !hasFailed)
+            {
+                hasFailed = true;
+                failure = new IllegalStateException("async recording write failed, recording aborted", slot.error);
+            }
+
+            if (null != completedChannel && completedChannel != slot.fileChannel)
+            {
+                completeWrites(completedChannel);
+            }
+
+            completedChannel = slot.fileChannel;
+            completedPosition += slot.length;
+            slot.reset();
+            headSlot++;
+            completed++;
+        }
+
+        if (null != completedChannel)
+        {
+            completeWrites(completedChannel);
+        }
+
+        return completed;
+    }
+
+    private void checkFailure()
+    {
+        final Exception failure = this.failure;
+        if (null != failure)
+        {
+            this.failure = null;
+            LangUtil.rethrowUnchecked(failure);
+        }
+    }
+
+    private void completeWrites(final FileChannel fileChannel)
+    {
+        if (!hasFailed)
+        {
+            try
+            {
+                onWritesCompleted(fileChannel, completedPosition);
+            }
+            catch (final IOException ex)
+            {
+                hasFailed = true;
+                failure = new IllegalStateException("async recording sync failed, recording aborted", ex);
+            }
+        }
+    }
+
+    static final class WriteSlot implements Runnable
+    {
+        static final int FREE = 0;
+        static final int PENDING = 1;
+        static final int DONE = 2;
+        static final int FAILED = 3;
+
+        final ByteBuffer byteBuffer;
+        final int stagingOffset;
+        FileChannel fileChannel;
+        long filePosition;
+        int length;
+        IOException error;
+        volatile int state = FREE;
+
+        WriteSlot(final ByteBuffer byteBuffer, final int stagingOffset)
+        {
+            this.byteBuffer = byteBuffer;
+            this.stagingOffset = stagingOffset;
+        }
+
+        void submit(final FileChannel fileChannel, final long filePosition, final int length)
+        {
+            this.fileChannel = fileChannel;
+            this.filePosition = filePosition;
+            this.length = length;
+            state = PENDING;
+        }
+
+        void reset()
+        {
+            fileChannel = null;
+            error = null;
+            state = FREE;
+        }
+
+        public void run()
+        {
+            try
+            {
+                byteBuffer.clear().limit(length);
+                long position = filePosition;
+                while (byteBuffer.hasRemaining())
+                {
+                    position += fileChannel.write(byteBuffer, position);
+                }
+
+                state = DONE;
+            }
+            catch (final IOException ex)
+            {
+                error = ex;
+                state = FAILED;
+            }
+        }
+    }
+}
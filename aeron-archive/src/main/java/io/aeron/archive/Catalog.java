@@ -17,6 +17,8 @@ package io.aeron.archive;
 
 import io.aeron.archive.codecs.*;
 import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
 import org.agrona.IoUtil;
 import org.agrona.LangUtil;
 import org.agrona.concurrent.EpochClock;
@@ -25,30 +27,53 @@ import org.agrona.concurrent.UnsafeBuffer;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
 
+import static io.aeron.archive.Archive.segmentFileIndex;
 import static io.aeron.archive.Archive.segmentFileName;
 import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
 import static java.nio.file.StandardOpenOption.*;
+import static org.agrona.BitUtil.CACHE_LINE_LENGTH;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
 import static org.agrona.BitUtil.align;
+import static org.agrona.BitUtil.isPowerOfTwo;
 import static org.agrona.BufferUtil.allocateDirectAligned;
 
 /**
  * Catalog for the archive keeps details of recorded images, past and present, and used for browsing.
- * The format is simple, allocating a fixed 1KB record for each record descriptor. This allows offset
- * based look up of a descriptor in the file.
+ * Each record is a descriptor header followed by the variable length descriptor, aligned to
+ * {@link #RECORD_ALIGNMENT}, so short recordings take little space and the catalog stays compact in the page cache.
+ * <p>
+ * The file grows a chunk at a time and each chunk is mapped separately so the catalog can grow beyond 2GB
+ * without remapping. Records do not straddle chunks and an empty header before the end of a chunk means the next
+ * record, if any, is at the start of the following chunk. An offset table of the records by recording id is
+ * rebuilt in memory when the catalog is loaded.
  * <p>
  * Catalog file format:
  * <pre>
- *  # |---------------- 32b --------------|
- *  0 |desc-length 4b|------24b-unused----|
- *  1 |RecordingDescriptor (length < 1024)|
- *  2 |...continues...                    |
- * 128|------------- repeat --------------|
+ *   0                   1                   2                   3
+ *   0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *  |                   Catalog Header (64 bytes)                  ...
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *  |                  Descriptor Length (4 bytes)                  |
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *  |    Valid      |              Reserved (27 bytes)             ...
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *  |                 RecordingDescriptor (variable)               ...
+ * ...                  padded to a multiple of 32                  |
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *  |                          repeat...                           ...
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
  * </pre>
  * <p>
+ * Catalogs in the original format of fixed 1KB records have a version of 0 and can be migrated with the
+ * {@link CatalogTool}.
  */
 class Catalog implements AutoCloseable
 {
@@ -67,31 +92,50 @@ class Catalog implements AutoCloseable
     static final int PAGE_SIZE = 4096;
     static final int NULL_RECORD_ID = -1;
 
-    static final int DEFAULT_RECORD_LENGTH = 1024;
+    static final int CATALOG_VERSION = 2;
+    static final int CATALOG_HEADER_LENGTH = 64;
+    static final int MAX_RECORD_LENGTH = 1024;
+    static final int MIN_CHUNK_LENGTH = 64 * 1024;
+    static final int MAX_CHUNK_LENGTH = 1024 * 1024 * 1024;
+    static final long MAX_RECORDING_ID = (MAX_CHUNK_LENGTH / SIZE_OF_LONG) - 1;
     static final byte VALID = 1;
     static final byte INVALID = 0;
     static final int DESCRIPTOR_HEADER_LENGTH = RecordingDescriptorHeaderDecoder.BLOCK_LENGTH;
+    static final int RECORD_ALIGNMENT = DESCRIPTOR_HEADER_LENGTH;
 
     private static final int SCHEMA_VERSION = RecordingDescriptorHeaderDecoder.SCHEMA_VERSION;
     private static final int DESCRIPTOR_BLOCK_LENGTH = RecordingDescriptorDecoder.BLOCK_LENGTH;
+    private static final int DESCRIPTOR_STRINGS_HEADER_LENGTH =
+        3 * RecordingDescriptorDecoder.strippedChannelHeaderLength();
+    private static final int MAX_DESCRIPTOR_STRINGS_COMBINED_LENGTH =
+        MAX_RECORD_LENGTH - (DESCRIPTOR_HEADER_LENGTH + DESCRIPTOR_BLOCK_LENGTH + DESCRIPTOR_STRINGS_HEADER_LENGTH);
+    private static final int INITIAL_OFFSET_TABLE_LENGTH = 1024 * SIZE_OF_LONG;
 
     private final RecordingDescriptorHeaderDecoder descriptorHeaderDecoder = new RecordingDescriptorHeaderDecoder();
     private final RecordingDescriptorHeaderEncoder descriptorHeaderEncoder = new RecordingDescriptorHeaderEncoder();
 
     private final RecordingDescriptorEncoder descriptorEncoder = new RecordingDescriptorEncoder();
     private final RecordingDescriptorDecoder descriptorDecoder = new RecordingDescriptorDecoder();
+    private final RecordingChannelIndex channelIndex = new RecordingChannelIndex();
+    private final UnsafeBuffer recordBuffer = new UnsafeBuffer();
+    private final UnsafeBuffer updateBuffer = new UnsafeBuffer();
+    private final RecordingDescriptorEncoder updateDescriptorEncoder = new RecordingDescriptorEncoder();
+
+    private final FileChannel catalogChannel;
+    private final int chunkLength;
+    private final int chunkShift;
+    private final long chunkMask;
+    private MappedByteBuffer[] chunks = new MappedByteBuffer[8];
+    private int chunkCount = 0;
+    private UnsafeBuffer offsetTable = new UnsafeBuffer(
+        allocateDirectAligned(INITIAL_OFFSET_TABLE_LENGTH, CACHE_LINE_LENGTH));
 
-    private final UnsafeBuffer indexUBuffer;
-    private final MappedByteBuffer indexMappedBBuffer;
-
-    private final int recordLength;
-
-    private final int maxDescriptorStringsCombinedLength;
-    private final int maxRecordingId;
     private final File archiveDir;
     private final int fileSyncLevel;
     private final EpochClock epochClock;
+    private final CompressedSegmentStore segmentStore;
     private long nextRecordingId = 0;
+    private long appendOffset = CATALOG_HEADER_LENGTH;
 
     Catalog(
         final File archiveDir,
@@ -99,7 +143,29 @@ class Catalog implements AutoCloseable
         final int fileSyncLevel,
         final EpochClock epochClock)
     {
-        this(archiveDir, archiveDirChannel, fileSyncLevel, epochClock, true);
+        this(
+            archiveDir,
+            archiveDirChannel,
+            fileSyncLevel,
+            epochClock,
+            Archive.Configuration.catalogChunkLength(),
+            true);
+    }
+
+    Catalog(
+        final File archiveDir,
+        final FileChannel archiveDirChannel,
+        final int fileSyncLevel,
+        final EpochClock epochClock,
+        final boolean fixOnRefresh)
+    {
+        this(
+            archiveDir,
+            archiveDirChannel,
+            fileSyncLevel,
+            epochClock,
+            Archive.Configuration.catalogChunkLength(),
+            fixOnRefresh);
     }
 
     Catalog(
@@ -107,20 +173,33 @@ class Catalog implements AutoCloseable
         final FileChannel archiveDirChannel,
         final int fileSyncLevel,
         final EpochClock epochClock,
+        final int chunkLength,
         final boolean fixOnRefresh)
+    {
+        this(archiveDir, archiveDirChannel, fileSyncLevel, epochClock, chunkLength, fixOnRefresh, null);
+    }
+
+    Catalog(
+        final File archiveDir,
+        final FileChannel archiveDirChannel,
+        final int fileSyncLevel,
+        final EpochClock epochClock,
+        final int chunkLength,
+        final boolean fixOnRefresh,
+        final CompressedSegmentStore segmentStore)
     {
         this.archiveDir = archiveDir;
         this.fileSyncLevel = fileSyncLevel;
         this.epochClock = epochClock;
-        final File indexFile = new File(archiveDir, Archive.Configuration.CATALOG_FILE_NAME);
-        final boolean indexPreExists = indexFile.exists();
+        this.segmentStore = segmentStore;
+        final File catalogFile = new File(archiveDir, Archive.Configuration.CATALOG_FILE_NAME);
+        final boolean catalogPreExists = catalogFile.length() > 0;
 
-        try (FileChannel channel = FileChannel.open(indexFile.toPath(), CREATE, READ, WRITE, SPARSE))
+        try
         {
-            indexMappedBBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Integer.MAX_VALUE);
-            indexUBuffer = new UnsafeBuffer(indexMappedBBuffer);
+            catalogChannel = FileChannel.open(catalogFile.toPath(), CREATE, READ, WRITE, SPARSE);
 
-            if (!indexPreExists && archiveDirChannel != null && fileSyncLevel > 0)
+            if (!catalogPreExists && archiveDirChannel != null && fileSyncLevel > 0)
             {
                 archiveDirChannel.force(fileSyncLevel > 1);
             }
@@ -132,32 +211,46 @@ class Catalog implements AutoCloseable
 
         try
         {
-            if (indexPreExists)
+            if (catalogPreExists)
             {
+                final UnsafeBuffer headerBuffer = new UnsafeBuffer(ByteBuffer.allocate(CATALOG_HEADER_LENGTH));
+                readFully(catalogChannel, headerBuffer.byteBuffer(), 0);
+
                 final CatalogHeaderDecoder catalogHeaderDecoder = new CatalogHeaderDecoder()
-                    .wrap(indexUBuffer, 0, CatalogHeaderDecoder.BLOCK_LENGTH, SCHEMA_VERSION);
+                    .wrap(headerBuffer, 0, CatalogHeaderDecoder.BLOCK_LENGTH, SCHEMA_VERSION);
 
-                if (catalogHeaderDecoder.version() != SCHEMA_VERSION)
+                if (catalogHeaderDecoder.version() != CATALOG_VERSION)
                 {
-                    throw new IllegalArgumentException("Catalog file version" + catalogHeaderDecoder.version() +
-                        " does not match software:" + SCHEMA_VERSION);
+                    throw new IllegalArgumentException("Catalog file version " + catalogHeaderDecoder.version() +
+                        " does not match software:" + CATALOG_VERSION + ", migrate it with CatalogTool");
                 }
-                recordLength = catalogHeaderDecoder.entryLength();
+
+                this.chunkLength = catalogHeaderDecoder.chunkLength();
             }
             else
             {
+                this.chunkLength = chunkLength;
+            }
+
+            validateChunkLength(this.chunkLength);
+            chunkShift = Integer.numberOfTrailingZeros(this.chunkLength);
+            chunkMask = this.chunkLength - 1;
+
+            if (!catalogPreExists)
+            {
+                mapChunk(0);
                 new CatalogHeaderEncoder()
-                    .wrap(indexUBuffer, 0)
-                    .version(SCHEMA_VERSION)
-                    .entryLength(DEFAULT_RECORD_LENGTH);
+                    .wrap(new UnsafeBuffer(chunks[0]), 0)
+                    .version(CATALOG_VERSION)
+                    .entryLength(RECORD_ALIGNMENT)
+                    .chunkLength(this.chunkLength);
 
-                recordLength = DEFAULT_RECORD_LENGTH;
+                if (fileSyncLevel > 0)
+                {
+                    chunks[0].force();
+                }
             }
 
-            maxDescriptorStringsCombinedLength =
-                recordLength - (DESCRIPTOR_HEADER_LENGTH + RecordingDescriptorEncoder.BLOCK_LENGTH + 12);
-            maxRecordingId = (Integer.MAX_VALUE - (2 * recordLength - 1)) / recordLength;
-
             refreshCatalog(fixOnRefresh);
         }
         catch (final Throwable ex)
@@ -169,7 +262,14 @@ class Catalog implements AutoCloseable
 
     public void close()
     {
-        IoUtil.unmap(indexMappedBBuffer);
+        for (int i = 0; i < chunkCount; i++)
+        {
+            IoUtil.unmap(chunks[i]);
+            chunks[i] = null;
+        }
+        chunkCount = 0;
+
+        CloseHelper.close(catalogChannel);
     }
 
     long addNewRecording(
@@ -185,24 +285,25 @@ class Catalog implements AutoCloseable
         final String originalChannel,
         final String sourceIdentity)
     {
-        if (nextRecordingId > maxRecordingId)
+        if (nextRecordingId > MAX_RECORDING_ID)
         {
-            throw new IllegalStateException("Catalog is full, max recordings reached: " + maxRecordingId);
+            throw new IllegalStateException("Catalog is full, max recordings reached: " + MAX_RECORDING_ID);
         }
 
         final int combinedStringsLen = strippedChannel.length() + sourceIdentity.length() + originalChannel.length();
-        if (combinedStringsLen > maxDescriptorStringsCombinedLength)
+        if (combinedStringsLen > MAX_DESCRIPTOR_STRINGS_COMBINED_LENGTH)
         {
             throw new IllegalArgumentException("Combined length of channel:'" + strippedChannel +
                 "' and sourceIdentity:'" + sourceIdentity +
                 "' and originalChannel:'" + originalChannel +
-                "' exceeds max allowed:" + maxDescriptorStringsCombinedLength);
+                "' exceeds max allowed:" + MAX_DESCRIPTOR_STRINGS_COMBINED_LENGTH);
         }
 
         final long newRecordingId = nextRecordingId;
+        final int descriptorLength = DESCRIPTOR_BLOCK_LENGTH + DESCRIPTOR_STRINGS_HEADER_LENGTH + combinedStringsLen;
+        final int chunkIndex = allocateRecord(newRecordingId, descriptorLength);
 
-        indexUBuffer.wrap(indexMappedBBuffer, recordingDescriptorOffset(newRecordingId), recordLength);
-        descriptorEncoder.wrap(indexUBuffer, DESCRIPTOR_HEADER_LENGTH);
+        descriptorEncoder.wrap(recordBuffer, DESCRIPTOR_HEADER_LENGTH);
 
         initDescriptor(
             descriptorEncoder,
@@ -220,36 +321,154 @@ class Catalog implements AutoCloseable
             sourceIdentity);
 
         descriptorHeaderEncoder
-            .wrap(indexUBuffer, 0)
+            .wrap(recordBuffer, 0)
             .length(descriptorEncoder.encodedLength())
-            .valid(VALID);
+            .valid(VALID)
+            .baseSegmentIndex(0)
+            .checkpointPosition(NULL_POSITION);
 
+        channelIndex.add(newRecordingId, streamId, strippedChannel);
         nextRecordingId++;
 
         if (fileSyncLevel > 0)
         {
-            indexMappedBBuffer.force();
+            chunks[chunkIndex].force();
         }
 
         return newRecordingId;
     }
 
-    private int recordingDescriptorOffset(final long newRecordingId)
+    /**
+     * Add a recording with an existing descriptor, keeping its recording id, timestamps and positions, as used when
+     * migrating a catalog from a previous format. Recordings must be added in order of recording id without gaps.
+     *
+     * @param srcBuffer  containing the descriptor.
+     * @param srcOffset  at which the descriptor begins.
+     * @param length     of the descriptor.
+     * @param valid      flag for the recording.
+     * @return the recording id of the recording.
+     */
+    long addRecording(final DirectBuffer srcBuffer, final int srcOffset, final int length, final byte valid)
     {
-        return (int)(newRecordingId * recordLength) + recordLength;
+        final int maxDescriptorLength = MAX_RECORD_LENGTH - DESCRIPTOR_HEADER_LENGTH;
+        if (length <= DESCRIPTOR_BLOCK_LENGTH || length > maxDescriptorLength)
+        {
+            throw new IllegalArgumentException(
+                "Descriptor length " + length + " not in range " + DESCRIPTOR_BLOCK_LENGTH + "-" + maxDescriptorLength);
+        }
+
+        descriptorDecoder.wrap(srcBuffer, srcOffset, DESCRIPTOR_BLOCK_LENGTH, SCHEMA_VERSION);
+        final long recordingId = descriptorDecoder.recordingId();
+        if (recordingId != nextRecordingId || recordingId > MAX_RECORDING_ID)
+        {
+            throw new IllegalArgumentException(
+                "Recording id " + recordingId + " does not match next recording id " + nextRecordingId);
+        }
+
+        final int chunkIndex = allocateRecord(recordingId, length);
+
+        recordBuffer.putBytes(DESCRIPTOR_HEADER_LENGTH, srcBuffer, srcOffset, length);
+        descriptorHeaderEncoder
+            .wrap(recordBuffer, 0)
+            .length(length)
+            .valid(valid)
+            .baseSegmentIndex(0)
+            .checkpointPosition(NULL_POSITION);
+
+        wrapDescriptorDecoder(descriptorDecoder, recordBuffer);
+        channelIndex.add(descriptorDecoder);
+        nextRecordingId++;
+
+        if (fileSyncLevel > 0)
+        {
+            chunks[chunkIndex].force();
+        }
+
+        return recordingId;
+    }
+
+    /**
+     * Move the start of a recording forward to the beginning of a segment once the segments before it are to be
+     * discarded. Segment files keep their index so the index of the segment holding the new start is recorded.
+     *
+     * @param recordingId      of the recording.
+     * @param startPosition    at the beginning of the segment which is now the first segment of the recording.
+     * @param baseSegmentIndex of the segment which is now the first segment of the recording.
+     */
+    void updateStartPosition(final long recordingId, final long startPosition, final int baseSegmentIndex)
+    {
+        if (!wrapDescriptor(recordingId, updateBuffer))
+        {
+            throw new IllegalArgumentException("Unknown recording: " + recordingId);
+        }
+
+        descriptorHeaderEncoder.wrap(updateBuffer, 0).baseSegmentIndex(baseSegmentIndex);
+        updateDescriptorEncoder.wrap(updateBuffer, DESCRIPTOR_HEADER_LENGTH).startPosition(startPosition);
+        forceRecord(recordingId);
+    }
+
+    /**
+     * Mark a recording as invalid so it is no longer listed or replayed, as when it is purged.
+     *
+     * @param recordingId of the recording.
+     */
+    void invalidateRecording(final long recordingId)
+    {
+        if (!wrapDescriptor(recordingId, updateBuffer))
+        {
+            throw new IllegalArgumentException("Unknown recording: " + recordingId);
+        }
+
+        descriptorHeaderEncoder.wrap(updateBuffer, 0).valid(INVALID);
+        forceRecord(recordingId);
+    }
+
+    /**
+     * The id which will be given to the next recording added to the catalog.
+     *
+     * @return the id which will be given to the next recording added to the catalog.
+     */
+    long nextRecordingId()
+    {
+        return nextRecordingId;
+    }
+
+    /**
+     * Index of the recordings in the catalog by stripped channel and stream id.
+     *
+     * @return index of the recordings in the catalog by stripped channel and stream id.
+     */
+    RecordingChannelIndex channelIndex()
+    {
+        return channelIndex;
+    }
+
+    /**
+     * Length of the chunks by which the catalog file grows.
+     *
+     * @return length of the chunks by which the catalog file grows.
+     */
+    int chunkLength()
+    {
+        return chunkLength;
     }
 
     boolean wrapDescriptor(final long recordingId, final UnsafeBuffer buffer)
     {
-        if (recordingId < 0 || recordingId >= maxRecordingId)
+        if (recordingId < 0 || recordingId >= nextRecordingId)
         {
             return false;
         }
 
-        buffer.wrap(indexMappedBBuffer, recordingDescriptorOffset(recordingId), recordLength);
+        final long offset = offsetTable.getLong((int)recordingId * SIZE_OF_LONG);
+        final MappedByteBuffer chunk = chunks[(int)(offset >>> chunkShift)];
+        final int chunkOffset = (int)(offset & chunkMask);
+
+        buffer.wrap(chunk, chunkOffset, DESCRIPTOR_HEADER_LENGTH);
         descriptorHeaderDecoder.wrap(buffer, 0, DESCRIPTOR_HEADER_LENGTH, SCHEMA_VERSION);
+        buffer.wrap(chunk, chunkOffset, recordLength(descriptorHeaderDecoder.length()));
 
-        return descriptorHeaderDecoder.length() != 0;
+        return true;
     }
 
     UnsafeBuffer wrapDescriptor(final long recordingId)
@@ -260,43 +479,59 @@ class Catalog implements AutoCloseable
 
     /**
      * On catalog load we verify entries are in coherent state and attempt to recover entries data where untimely
-     * termination of recording has resulted in an unaccounted for stopPosition/stopTimestamp. This operation may be
-     * expensive for large catalogs.
+     * termination of recording has resulted in an unaccounted for stopPosition/stopTimestamp. Recovery scans the
+     * segment files from the last checkpointed position of each recording, and independent recordings are recovered
+     * in parallel on the common {@link java.util.concurrent.ForkJoinPool}.
      */
     private void refreshCatalog(final boolean fixOnRefresh)
     {
+        loadRecords();
+
         if (fixOnRefresh)
         {
-            forEach(this::refreshAndFixDescriptor);
+            final ArrayList<UnsafeBuffer> unstoppedRecordings = new ArrayList<>();
+            forEach(
+                (headerEncoder, headerDecoder, descriptorEncoder, descriptorDecoder) ->
+                {
+                    channelIndex.add(descriptorDecoder);
+
+                    if (headerDecoder.valid() == VALID && descriptorDecoder.stopTimestamp() == NULL_TIME)
+                    {
+                        final UnsafeBuffer descriptorBuffer = new UnsafeBuffer();
+                        descriptorBuffer.wrap(recordBuffer);
+                        unstoppedRecordings.add(descriptorBuffer);
+                    }
+                });
+
+            if (!unstoppedRecordings.isEmpty())
+            {
+                final long nowMs = epochClock.time();
+                unstoppedRecordings.parallelStream().forEach((buffer) -> recoverStopPosition(buffer, nowMs));
+            }
         }
         else
         {
-            forEach(((headerEncoder, headerDecoder, descriptorEncoder, descriptorDecoder) -> nextRecordingId++));
+            forEach(((headerEncoder, headerDecoder, descriptorEncoder, descriptorDecoder) ->
+                channelIndex.add(descriptorDecoder)));
         }
     }
 
     void forEach(final CatalogEntryProcessor consumer)
     {
-        long recordingId = 0L;
-        while (recordingId < maxRecordingId && wrapDescriptor(recordingId, indexUBuffer))
+        for (long recordingId = 0; recordingId < nextRecordingId; recordingId++)
         {
-            descriptorHeaderDecoder.wrap(indexUBuffer, 0, DESCRIPTOR_HEADER_LENGTH, SCHEMA_VERSION);
-            descriptorHeaderEncoder.wrap(indexUBuffer, 0);
-            wrapDescriptorDecoder(descriptorDecoder, indexUBuffer);
-            descriptorEncoder.wrap(indexUBuffer, DESCRIPTOR_HEADER_LENGTH);
-            consumer.accept(descriptorHeaderEncoder, descriptorHeaderDecoder, descriptorEncoder, descriptorDecoder);
-            ++recordingId;
+            forEntry(consumer, recordingId);
         }
     }
 
     boolean forEntry(final CatalogEntryProcessor consumer, final long recordingId)
     {
-        if (wrapDescriptor(recordingId, indexUBuffer))
+        if (wrapDescriptor(recordingId, recordBuffer))
         {
-            descriptorHeaderDecoder.wrap(indexUBuffer, 0, DESCRIPTOR_HEADER_LENGTH, SCHEMA_VERSION);
-            descriptorHeaderEncoder.wrap(indexUBuffer, 0);
-            wrapDescriptorDecoder(descriptorDecoder, indexUBuffer);
-            descriptorEncoder.wrap(indexUBuffer, DESCRIPTOR_HEADER_LENGTH);
+            descriptorHeaderDecoder.wrap(recordBuffer, 0, DESCRIPTOR_HEADER_LENGTH, SCHEMA_VERSION);
+            descriptorHeaderEncoder.wrap(recordBuffer, 0);
+            wrapDescriptorDecoder(descriptorDecoder, recordBuffer);
+            descriptorEncoder.wrap(recordBuffer, DESCRIPTOR_HEADER_LENGTH);
             consumer.accept(descriptorHeaderEncoder, descriptorHeaderDecoder, descriptorEncoder, descriptorDecoder);
 
             return true;
@@ -305,55 +540,230 @@ class Catalog implements AutoCloseable
         return false;
     }
 
-    private void refreshAndFixDescriptor(
-        @SuppressWarnings("unused") final RecordingDescriptorHeaderEncoder unused,
-        final RecordingDescriptorHeaderDecoder headerDecoder,
-        final RecordingDescriptorEncoder encoder,
-        final RecordingDescriptorDecoder decoder)
+    private void loadRecords()
     {
-        final long recordingId = decoder.recordingId();
-        if (headerDecoder.valid() == VALID && decoder.stopTimestamp() == NULL_TIME)
+        final long fileLength;
+        try
+        {
+            fileLength = catalogChannel.size();
+        }
+        catch (final IOException ex)
+        {
+            throw new RuntimeException(ex);
+        }
+
+        long offset = CATALOG_HEADER_LENGTH;
+        while (true)
+        {
+            final int chunkIndex = (int)(offset >>> chunkShift);
+            if (chunkIndex >= chunkCount)
+            {
+                if (((long)chunkIndex << chunkShift) >= fileLength)
+                {
+                    break;
+                }
+
+                mapChunk(chunkIndex);
+            }
+
+            final int chunkOffset = (int)(offset & chunkMask);
+            recordBuffer.wrap(chunks[chunkIndex], chunkOffset, DESCRIPTOR_HEADER_LENGTH);
+            final int length = descriptorHeaderDecoder.wrap(
+                recordBuffer, 0, DESCRIPTOR_HEADER_LENGTH, SCHEMA_VERSION).length();
+
+            if (0 == length)
+            {
+                if (0 == chunkOffset)
+                {
+                    break;
+                }
+
+                offset = (long)(chunkIndex + 1) << chunkShift;
+                continue;
+            }
+
+            final int recordLength = recordLength(length);
+            if (length < 0 || recordLength > MAX_RECORD_LENGTH || chunkOffset + recordLength > chunkLength)
+            {
+                throw new IllegalStateException(
+                    "Catalog entry at offset " + offset + " has invalid length " + length);
+            }
+
+            putOffset(nextRecordingId++, offset);
+            offset += recordLength;
+            appendOffset = offset;
+        }
+    }
+
+    private int allocateRecord(final long recordingId, final int descriptorLength)
+    {
+        final int recordLength = recordLength(descriptorLength);
+
+        long offset = appendOffset;
+        if ((offset & chunkMask) + recordLength > chunkLength)
         {
+            offset = ((offset >>> chunkShift) + 1) << chunkShift;
+        }
 
-            int segmentIndex = 0;
-            File segmentFile = new File(archiveDir, segmentFileName(recordingId, segmentIndex));
-            final long startPosition = decoder.startPosition();
+        final int chunkIndex = (int)(offset >>> chunkShift);
+        if (chunkIndex >= chunkCount)
+        {
+            mapChunk(chunkIndex);
+        }
+
+        putOffset(recordingId, offset);
+        recordBuffer.wrap(chunks[chunkIndex], (int)(offset & chunkMask), recordLength);
+        appendOffset = offset + recordLength;
 
-            if (!segmentFile.exists())
+        return chunkIndex;
+    }
+
+    private void mapChunk(final int chunkIndex)
+    {
+        if (chunkIndex == chunks.length)
+        {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+
+        try
+        {
+            chunks[chunkIndex] = catalogChannel.map(
+                FileChannel.MapMode.READ_WRITE, (long)chunkIndex << chunkShift, chunkLength);
+            chunkCount = chunkIndex + 1;
+
+            if (fileSyncLevel > 1 && chunkIndex > 0)
             {
-                encoder.stopPosition(startPosition);
+                catalogChannel.force(true);
             }
-            else
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    private void forceRecord(final long recordingId)
+    {
+        if (fileSyncLevel > 0)
+        {
+            chunks[(int)(offsetTable.getLong((int)recordingId * SIZE_OF_LONG) >>> chunkShift)].force();
+        }
+    }
+
+    private void putOffset(final long recordingId, final long offset)
+    {
+        final int index = (int)recordingId * SIZE_OF_LONG;
+        if (index >= offsetTable.capacity())
+        {
+            final UnsafeBuffer newTable = new UnsafeBuffer(
+                allocateDirectAligned(offsetTable.capacity() << 1, CACHE_LINE_LENGTH));
+            newTable.putBytes(0, offsetTable, 0, offsetTable.capacity());
+            offsetTable = newTable;
+        }
+
+        offsetTable.putLong(index, offset);
+    }
+
+    private static int recordLength(final int descriptorLength)
+    {
+        return align(DESCRIPTOR_HEADER_LENGTH + descriptorLength, RECORD_ALIGNMENT);
+    }
+
+    private static void validateChunkLength(final int chunkLength)
+    {
+        if (!isPowerOfTwo(chunkLength) || chunkLength < MIN_CHUNK_LENGTH || chunkLength > MAX_CHUNK_LENGTH)
+        {
+            throw new IllegalArgumentException("Catalog chunk length must be a power of 2 between " +
+                MIN_CHUNK_LENGTH + " and " + MAX_CHUNK_LENGTH + ": chunkLength=" + chunkLength);
+        }
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+    {
+        try
+        {
+            long readPosition = position;
+            while (buffer.hasRemaining())
             {
-                File nextSegmentFile = new File(archiveDir, segmentFileName(recordingId, segmentIndex + 1));
-                while (nextSegmentFile.exists())
+                final int bytesRead = channel.read(buffer, readPosition);
+                if (bytesRead < 0)
                 {
-                    segmentIndex++;
-                    segmentFile = nextSegmentFile;
-                    nextSegmentFile = new File(archiveDir, segmentFileName(recordingId, segmentIndex + 1));
+                    break;
                 }
-                final int segmentFileLength = decoder.segmentFileLength();
-                final long stopOffset = recoverStopOffset(segmentFile, segmentFileLength);
-                final int termBufferLength = decoder.termBufferLength();
-                final long recordingLength =
-                    (startPosition % termBufferLength) + (segmentIndex * segmentFileLength) + stopOffset;
-                encoder.stopPosition(startPosition + recordingLength);
+
+                readPosition += bytesRead;
+            }
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    private void recoverStopPosition(final UnsafeBuffer descriptorBuffer, final long nowMs)
+    {
+        final RecordingDescriptorDecoder decoder = new RecordingDescriptorDecoder();
+        final RecordingDescriptorEncoder encoder = new RecordingDescriptorEncoder();
+        wrapDescriptorDecoder(decoder, descriptorBuffer);
+        wrapDescriptorEncoder(encoder, descriptorBuffer);
+
+        final long recordingId = decoder.recordingId();
+        final long startPosition = decoder.startPosition();
+        final long checkpointPosition = checkpointPosition(descriptorBuffer);
+        final long recoveryPosition = NULL_POSITION == checkpointPosition ?
+            startPosition : Math.max(startPosition, checkpointPosition);
+
+        final int baseSegmentIndex = baseSegmentIndex(descriptorBuffer);
+        final int termBufferLength = decoder.termBufferLength();
+        final int segmentFileLength = decoder.segmentFileLength();
+        final long termStartPosition = startPosition - (startPosition & (termBufferLength - 1));
+        int segmentIndex = segmentFileIndex(
+            baseSegmentIndex, startPosition, termBufferLength, segmentFileLength, recoveryPosition);
+
+        if (!segmentExists(recordingId, segmentIndex))
+        {
+            encoder.stopPosition(recoveryPosition);
+        }
+        else
+        {
+            long scanOffset = (recoveryPosition - termStartPosition) -
+                ((segmentIndex - baseSegmentIndex) * (long)segmentFileLength);
+
+            while (segmentExists(recordingId, segmentIndex + 1))
+            {
+                segmentIndex++;
+                scanOffset = 0;
             }
 
-            encoder.stopTimestamp(epochClock.time());
+            final File segmentFile = new File(archiveDir, segmentFileName(recordingId, segmentIndex));
+            final long stopOffset = segmentFile.exists() ?
+                recoverStopOffset(segmentFile, scanOffset, segmentFileLength) : segmentFileLength;
+            final long segmentsLength = (segmentIndex - baseSegmentIndex) * (long)segmentFileLength;
+            encoder.stopPosition(termStartPosition + segmentsLength + stopOffset);
         }
 
-        nextRecordingId = recordingId + 1;
+        encoder.stopTimestamp(nowMs);
     }
 
-    private long recoverStopOffset(final File segmentFile, final int segmentFileLength)
+    private boolean segmentExists(final long recordingId, final int segmentIndex)
     {
-        long lastFragmentSegmentOffset = 0;
+        if (null != segmentStore)
+        {
+            return segmentStore.segmentExists(recordingId, segmentIndex);
+        }
+
+        return new File(archiveDir, segmentFileName(recordingId, segmentIndex)).exists();
+    }
+
+    private static long recoverStopOffset(
+        final File segmentFile, final long scanOffset, final int segmentFileLength)
+    {
+        long lastFragmentSegmentOffset = scanOffset;
         try (FileChannel segment = FileChannel.open(segmentFile.toPath(), READ))
         {
             final ByteBuffer headerBB = allocateDirectAligned(HEADER_LENGTH, FRAME_ALIGNMENT);
             final DataHeaderFlyweight headerFlyweight = new DataHeaderFlyweight(headerBB);
-            long nextFragmentSegmentOffset = 0;
+            long nextFragmentSegmentOffset = scanOffset;
             do
             {
                 headerBB.clear();
@@ -419,6 +829,55 @@ class Catalog implements AutoCloseable
             .sourceIdentity(sourceIdentity);
     }
 
+    /**
+     * Index of the segment file holding the start position of a recording.
+     *
+     * @param descriptorBuffer wrapping the catalog record of the recording.
+     * @return index of the segment file holding the start position of the recording.
+     */
+    static int baseSegmentIndex(final DirectBuffer descriptorBuffer)
+    {
+        return descriptorBuffer.getInt(
+            RecordingDescriptorHeaderDecoder.baseSegmentIndexEncodingOffset(), ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Position checkpointed into the catalog record of an active recording from which its stop position is recovered
+     * should the archive fail.
+     *
+     * @param descriptorBuffer wrapping the catalog record of the recording.
+     * @return the checkpointed position or {@link #NULL_POSITION} if no position has been checkpointed.
+     */
+    static long checkpointPosition(final DirectBuffer descriptorBuffer)
+    {
+        return descriptorBuffer.getLong(
+            RecordingDescriptorHeaderDecoder.checkpointPositionEncodingOffset(), ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Checkpoint the recorded position of an active recording into its catalog record. The position must only cover
+     * data which has been written to the segment files.
+     *
+     * @param descriptorBuffer wrapping the catalog record of the recording.
+     * @param position         recorded to the segment files.
+     */
+    static void checkpointPosition(final UnsafeBuffer descriptorBuffer, final long position)
+    {
+        descriptorBuffer.putLong(
+            RecordingDescriptorHeaderEncoder.checkpointPositionEncodingOffset(), position, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Is the catalog record of a recording valid, i.e. the recording has not been purged or found to be faulty.
+     *
+     * @param descriptorBuffer wrapping the catalog record of the recording.
+     * @return true if the recording is valid.
+     */
+    static boolean isValidDescriptor(final DirectBuffer descriptorBuffer)
+    {
+        return VALID == descriptorBuffer.getByte(RecordingDescriptorHeaderDecoder.validEncodingOffset());
+    }
+
     static void wrapDescriptorDecoder(final RecordingDescriptorDecoder decoder, final UnsafeBuffer descriptorBuffer)
     {
         decoder.wrap(
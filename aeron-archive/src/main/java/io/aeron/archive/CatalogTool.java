@@ -1,5 +1,6 @@
 package io.aeron.archive;
 
+import io.aeron.archive.codecs.CatalogHeaderDecoder;
 import io.aeron.archive.codecs.RecordingDescriptorDecoder;
 import io.aeron.archive.codecs.RecordingDescriptorEncoder;
 import io.aeron.archive.codecs.RecordingDescriptorHeaderDecoder;
@@ -8,19 +9,31 @@ import io.aeron.logbuffer.FrameDescriptor;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.BitUtil;
 import org.agrona.BufferUtil;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.UnsafeBuffer;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 
+import static io.aeron.archive.Archive.Configuration.CATALOG_FILE_NAME;
 import static io.aeron.archive.Archive.Configuration.RECORDING_SEGMENT_POSTFIX;
 import static io.aeron.archive.Archive.segmentFileName;
+import static io.aeron.archive.Catalog.CATALOG_VERSION;
+import static io.aeron.archive.Catalog.DESCRIPTOR_HEADER_LENGTH;
 import static io.aeron.archive.Catalog.INVALID;
 import static io.aeron.archive.Catalog.VALID;
 import static java.nio.file.StandardOpenOption.READ;
 
 public class CatalogTool
 {
+    static final int FIXED_LENGTH_CATALOG_VERSION = 0;
+    static final String FIXED_LENGTH_CATALOG_POSTFIX = ".v0";
+
     private static final ByteBuffer TEMP_BUFFER =
         BufferUtil.allocateDirectAligned(4096, FrameDescriptor.FRAME_ALIGNMENT);
     private static final DataHeaderFlyweight HEADER_FLYWEIGHT = new DataHeaderFlyweight(TEMP_BUFFER);
@@ -71,9 +84,95 @@ public class CatalogTool
                 catalog.forEntry(CatalogTool::verify, Long.valueOf(args[2]));
             }
         }
+        else if (args.length == 2 && args[1].equals("migrate"))
+        {
+            final long recordingCount = migrate(archiveDir);
+            System.out.println("Migrated " + recordingCount + " recordings, previous catalog kept as: " +
+                CATALOG_FILE_NAME + FIXED_LENGTH_CATALOG_POSTFIX);
+        }
         // TODO: add a manual override tool to force mark entries as unusable
     }
 
+    /**
+     * Migrate a catalog in the original format of fixed length records to the current format. The previous catalog
+     * is kept alongside the new one with a {@link #FIXED_LENGTH_CATALOG_POSTFIX} and is restored if migration fails.
+     *
+     * @param archiveDir containing the catalog.
+     * @return the number of recordings migrated.
+     */
+    static long migrate(final File archiveDir)
+    {
+        final File catalogFile = new File(archiveDir, CATALOG_FILE_NAME);
+        final File previousFile = new File(archiveDir, CATALOG_FILE_NAME + FIXED_LENGTH_CATALOG_POSTFIX);
+
+        if (!catalogFile.exists())
+        {
+            throw new IllegalStateException("Catalog file not found: " + catalogFile.getAbsolutePath());
+        }
+
+        if (previousFile.exists())
+        {
+            throw new IllegalStateException("Previous catalog file exists: " + previousFile.getAbsolutePath());
+        }
+
+        MappedByteBuffer mappedBuffer = null;
+        long recordingCount = 0;
+        try
+        {
+            try (FileChannel channel = FileChannel.open(catalogFile.toPath(), READ))
+            {
+                final long length = Math.min(channel.size(), Integer.MAX_VALUE);
+                mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            }
+
+            final UnsafeBuffer buffer = new UnsafeBuffer(mappedBuffer);
+            final CatalogHeaderDecoder catalogHeaderDecoder = new CatalogHeaderDecoder()
+                .wrap(buffer, 0, CatalogHeaderDecoder.BLOCK_LENGTH, CatalogHeaderDecoder.SCHEMA_VERSION);
+
+            if (catalogHeaderDecoder.version() != FIXED_LENGTH_CATALOG_VERSION)
+            {
+                throw new IllegalStateException("Catalog file version " + catalogHeaderDecoder.version() +
+                    " cannot be migrated to version " + CATALOG_VERSION);
+            }
+
+            final int recordLength = catalogHeaderDecoder.entryLength();
+            Files.move(catalogFile.toPath(), previousFile.toPath());
+
+            try (Catalog catalog = new Catalog(archiveDir, null, 0, System::currentTimeMillis, false))
+            {
+                final RecordingDescriptorHeaderDecoder headerDecoder = new RecordingDescriptorHeaderDecoder();
+                for (int offset = recordLength; offset <= buffer.capacity() - recordLength; offset += recordLength)
+                {
+                    headerDecoder.wrap(buffer, offset, DESCRIPTOR_HEADER_LENGTH, CatalogHeaderDecoder.SCHEMA_VERSION);
+                    final int length = headerDecoder.length();
+                    if (0 == length)
+                    {
+                        break;
+                    }
+
+                    catalog.addRecording(buffer, offset + DESCRIPTOR_HEADER_LENGTH, length, headerDecoder.valid());
+                    recordingCount++;
+                }
+            }
+            catch (final Throwable ex)
+            {
+                IoUtil.delete(catalogFile, true);
+                Files.move(previousFile.toPath(), catalogFile.toPath());
+                throw ex;
+            }
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+        finally
+        {
+            IoUtil.unmap(mappedBuffer);
+        }
+
+        return recordingCount;
+    }
+
     private static Catalog openCatalog()
     {
         return new Catalog(archiveDir, null, 0, System::currentTimeMillis, false);
@@ -86,6 +185,7 @@ public class CatalogTool
         final RecordingDescriptorDecoder decoder)
     {
         final long recordingId = decoder.recordingId();
+        final int baseSegmentIndex = headerDecoder.baseSegmentIndex();
         final int segmentFileLength = decoder.segmentFileLength();
         final int termBufferLength = decoder.termBufferLength();
         final long startPosition = decoder.startPosition();
@@ -105,7 +205,10 @@ public class CatalogTool
             {
                 final int index = Integer.valueOf(
                     fileName.substring(prefix.length(), fileName.length() - RECORDING_SEGMENT_POSTFIX.length()));
-                filesFound[index] = true;
+                if (index >= baseSegmentIndex && index < baseSegmentIndex + recordingFileCount)
+                {
+                    filesFound[index - baseSegmentIndex] = true;
+                }
             }
             catch (final Exception ex)
             {
@@ -120,19 +223,20 @@ public class CatalogTool
         {
             if (!filesFound[i])
             {
-                System.err.println("(recordingId=" + recordingId + ") ERR: missing recording file :" + i);
+                System.err.println(
+                    "(recordingId=" + recordingId + ") ERR: missing recording file :" + (baseSegmentIndex + i));
                 headerEncoder.valid(INVALID);
                 return;
             }
         }
 
-        if (verifyFirstFile(recordingId, decoder, startSegmentOffset))
+        if (verifyFirstFile(recordingId, baseSegmentIndex, decoder, startSegmentOffset))
         {
             headerEncoder.valid(INVALID);
             return;
         }
 
-        if (verifyLastFile(recordingId, recordingFileCount, endSegmentOffset))
+        if (verifyLastFile(recordingId, baseSegmentIndex + recordingFileCount - 1, endSegmentOffset))
         {
             headerEncoder.valid(INVALID);
             return;
@@ -143,9 +247,9 @@ public class CatalogTool
     }
 
     private static boolean verifyLastFile(
-        final long recordingId, final int recordingFileCount, final long endSegmentOffset)
+        final long recordingId, final int lastSegmentIndex, final long endSegmentOffset)
     {
-        final File lastSegmentFile = new File(archiveDir, segmentFileName(recordingId, recordingFileCount - 1));
+        final File lastSegmentFile = new File(archiveDir, segmentFileName(recordingId, lastSegmentIndex));
         try (FileChannel lastFile = FileChannel.open(lastSegmentFile.toPath(), READ))
         {
             TEMP_BUFFER.clear();
@@ -172,7 +276,7 @@ public class CatalogTool
         catch (final Exception ex)
         {
             System.err.println("(recordingId=" + recordingId + ") ERR: failed to verify file:" +
-                segmentFileName(recordingId, recordingFileCount - 1));
+                segmentFileName(recordingId, lastSegmentIndex));
             ex.printStackTrace(System.err);
             return true;
         }
@@ -181,9 +285,12 @@ public class CatalogTool
     }
 
     private static boolean verifyFirstFile(
-        final long recordingId, final RecordingDescriptorDecoder decoder, final long joinSegmentOffset)
+        final long recordingId,
+        final int firstSegmentIndex,
+        final RecordingDescriptorDecoder decoder,
+        final long joinSegmentOffset)
     {
-        final File firstSegmentFile = new File(archiveDir, segmentFileName(recordingId, 0));
+        final File firstSegmentFile = new File(archiveDir, segmentFileName(recordingId, firstSegmentIndex));
         try (FileChannel firstFile = FileChannel.open(firstSegmentFile.toPath(), READ))
         {
             TEMP_BUFFER.clear();
@@ -227,7 +334,7 @@ public class CatalogTool
         catch (final Exception ex)
         {
             System.err.println("(recordingId=" + recordingId + ") ERR: fail to verify file:" +
-                segmentFileName(recordingId, 0));
+                segmentFileName(recordingId, firstSegmentIndex));
             ex.printStackTrace(System.err);
             return true;
         }
@@ -243,5 +350,7 @@ public class CatalogTool
         System.out.println("  verify: verifies all descriptors in the file, checking recording files availability %n" +
             "and contents. Faulty entries are marked as unusable. Optionally specify a recording id%n" +
             "to verify a single recording.");
+        System.out.println("  migrate: migrates a catalog of fixed length records to the current format, keeping the" +
+            " previous catalog with a " + FIXED_LENGTH_CATALOG_POSTFIX + " postfix.");
     }
 }
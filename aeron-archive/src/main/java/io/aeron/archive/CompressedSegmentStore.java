@@ -0,0 +1,400 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+import static io.aeron.archive.Archive.segmentFileName;
+import static io.aeron.archive.Catalog.NULL_RECORD_ID;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.agrona.BufferUtil.allocateDirectAligned;
+
+/**
+ * Store of sealed recording segments compressed with a {@link SegmentCodec}, optionally kept in a cold directory
+ * apart from the archive directory holding the raw segments.
+ * <p>
+ * A segment is compressed to a temporary file which is synced and renamed before the raw segment is deleted, so at
+ * any time at least one of the raw or compressed segment exists. Readers should look for the raw segment first.
+ * <p>
+ * Decompressed segments are kept in a small LRU cache of direct buffers so replays reading the same segment share the
+ * work of decompressing it. Segments are decompressed on a thread of the store rather than the replayer, and a segment
+ * which is still loading is shared by readers which wait for it to load rather than decompressing a copy each.
+ * Buffers are reference counted and only reused once released by all readers and loaded. When all cached buffers are
+ * in use a reader is given its own uncached buffer.
+ */
+class CompressedSegmentStore implements AutoCloseable
+{
+    static final String TMP_FILE_SUFFIX = ".tmp";
+
+    private static final int COPY_BUFFER_LENGTH = 64 * 1024;
+    private static final int SEGMENT_BUFFER_ALIGNMENT = 4096;
+
+    private final File archiveDir;
+    private final File compressedDir;
+    private final SegmentCodec codec;
+    private final ThreadFactory threadFactory;
+    private final Segment[] cache;
+    private long useCount = 0;
+    private ExecutorService executor;
+    private boolean isClosed;
+
+    /**
+     * Create a store for compressed segments.
+     *
+     * @param archiveDir    holding the raw segments.
+     * @param coldDir       in which to keep compressed segments or null to keep them in the archive directory.
+     * @param codec         with which the segments are compressed.
+     * @param cacheSize     number of decompressed segments to cache for replay.
+     * @param threadFactory for the thread, started on first use, on which segments are decompressed.
+     */
+    CompressedSegmentStore(
+        final File archiveDir,
+        final File coldDir,
+        final SegmentCodec codec,
+        final int cacheSize,
+        final ThreadFactory threadFactory)
+    {
+        this.archiveDir = archiveDir;
+        this.compressedDir = null != coldDir ? coldDir : archiveDir;
+        this.codec = codec;
+        this.threadFactory = threadFactory;
+
+        cache = new Segment[cacheSize];
+        for (int i = 0; i < cacheSize; i++)
+        {
+            cache[i] = new Segment(true);
+        }
+    }
+
+    File segmentFile(final long recordingId, final int segmentIndex)
+    {
+        return new File(archiveDir, segmentFileName(recordingId, segmentIndex));
+    }
+
+    File compressedSegmentFile(final long recordingId, final int segmentIndex)
+    {
+        return new File(compressedDir, segmentFileName(recordingId, segmentIndex) + codec.fileSuffix());
+    }
+
+    /**
+     * Does a segment exist either raw or compressed.
+     *
+     * @param recordingId  of the segment.
+     * @param segmentIndex of the segment.
+     * @return true if the segment exists either raw or compressed.
+     */
+    boolean segmentExists(final long recordingId, final int segmentIndex)
+    {
+        return segmentFile(recordingId, segmentIndex).exists() ||
+            compressedSegmentFile(recordingId, segmentIndex).exists();
+    }
+
+    /**
+     * Compress a raw segment into the store then delete the raw segment. The compressed segment keeps the last
+     * modified time of the raw segment so its age is still that of the recorded data for retention.
+     *
+     * @param recordingId  of the segment.
+     * @param segmentIndex of the segment.
+     * @return true if the segment was compressed or false if there is no raw segment, or it was deleted meanwhile.
+     * @throws IOException if the segment cannot be compressed.
+     */
+    boolean compress(final long recordingId, final int segmentIndex) throws IOException
+    {
+        final File segmentFile = segmentFile(recordingId, segmentIndex);
+        if (!segmentFile.exists())
+        {
+            return false;
+        }
+
+        final FileTime lastModifiedTime = Files.getLastModifiedTime(segmentFile.toPath());
+        final File compressedFile = compressedSegmentFile(recordingId, segmentIndex);
+        final File tmpFile = new File(compressedDir, compressedFile.getName() + TMP_FILE_SUFFIX);
+
+        try
+        {
+            final byte[] copyBuffer = new byte[COPY_BUFFER_LENGTH];
+            try (InputStream in = new FileInputStream(segmentFile);
+                OutputStream out = codec.compressor(
+                    new BufferedOutputStream(new FileOutputStream(tmpFile), COPY_BUFFER_LENGTH)))
+            {
+                int bytesRead;
+                while ((bytesRead = in.read(copyBuffer)) > 0)
+                {
+                    out.write(copyBuffer, 0, bytesRead);
+                }
+            }
+
+            try (FileChannel channel = FileChannel.open(tmpFile.toPath(), WRITE))
+            {
+                channel.force(true);
+            }
+
+            Files.setLastModifiedTime(tmpFile.toPath(), lastModifiedTime);
+            Files.move(tmpFile.toPath(), compressedFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+        catch (final IOException ex)
+        {
+            Files.deleteIfExists(tmpFile.toPath());
+            throw ex;
+        }
+
+        if (!Files.deleteIfExists(segmentFile.toPath()))
+        {
+            Files.deleteIfExists(compressedFile.toPath());
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Acquire a segment holding the decompressed contents of a compressed segment. The segment is decompressed on the
+     * thread of the store so the caller polls {@link Segment#isLoaded()} until the contents can be read, and readers
+     * of the same segment share the one copy whether it is loaded or still loading. The segment must be given back
+     * with {@link #release(Segment)} when no longer read.
+     *
+     * @param recordingId   of the segment.
+     * @param segmentIndex  of the segment.
+     * @param segmentLength of the segment when decompressed.
+     * @return the segment being loaded or loaded, or null if there is no compressed segment.
+     */
+    Segment acquire(final long recordingId, final int segmentIndex, final int segmentLength)
+    {
+        final File compressedFile = compressedSegmentFile(recordingId, segmentIndex);
+        Segment segment = null;
+
+        synchronized (this)
+        {
+            for (final Segment cached : cache)
+            {
+                if (cached.recordingId == recordingId &&
+                    cached.segmentIndex == segmentIndex &&
+                    null == cached.loadException)
+                {
+                    cached.referenceCount++;
+                    cached.lastUsed = ++useCount;
+                    return cached;
+                }
+            }
+
+            if (!compressedFile.exists())
+            {
+                return null;
+            }
+
+            for (final Segment cached : cache)
+            {
+                if (0 == cached.referenceCount &&
+                    !cached.isLoading &&
+                    (null == segment || cached.lastUsed < segment.lastUsed))
+                {
+                    segment = cached;
+                }
+            }
+
+            if (null == segment)
+            {
+                segment = new Segment(false);
+            }
+
+            segment.load(recordingId, segmentIndex, segmentLength, compressedFile);
+            segment.lastUsed = ++useCount;
+        }
+
+        try
+        {
+            executor().execute(segment);
+        }
+        catch (final RejectedExecutionException ex)
+        {
+            segment.onLoadFailed(new IOException("segment store is closed", ex));
+        }
+
+        return segment;
+    }
+
+    /**
+     * Release a segment acquired with {@link #acquire(long, int, int)}.
+     *
+     * @param segment to be released.
+     */
+    synchronized void release(final Segment segment)
+    {
+        if (segment.isCached && segment.referenceCount > 0)
+        {
+            segment.referenceCount--;
+        }
+    }
+
+    public void close()
+    {
+        final ExecutorService executor;
+        synchronized (this)
+        {
+            executor = this.executor;
+            isClosed = true;
+        }
+
+        if (null != executor)
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private synchronized ExecutorService executor()
+    {
+        if (null == executor)
+        {
+            if (isClosed)
+            {
+                throw new RejectedExecutionException("segment store is closed");
+            }
+
+            executor = Executors.newSingleThreadExecutor(threadFactory);
+        }
+
+        return executor;
+    }
+
+    private void decompress(final File compressedFile, final ByteBuffer buffer) throws IOException
+    {
+        final ByteBuffer dst = buffer.duplicate();
+        dst.clear();
+
+        final byte[] copyBuffer = new byte[COPY_BUFFER_LENGTH];
+        try (InputStream in = codec.decompressor(
+            new BufferedInputStream(new FileInputStream(compressedFile), COPY_BUFFER_LENGTH)))
+        {
+            while (dst.hasRemaining())
+            {
+                final int bytesRead = in.read(copyBuffer, 0, Math.min(copyBuffer.length, dst.remaining()));
+                if (bytesRead < 0)
+                {
+                    break;
+                }
+
+                dst.put(copyBuffer, 0, bytesRead);
+            }
+        }
+
+        if (dst.hasRemaining())
+        {
+            new UnsafeBuffer(buffer).setMemory(dst.position(), dst.remaining(), (byte)0);
+        }
+    }
+
+    /**
+     * A decompressed segment which is loaded on the thread of the store, either cached and shared by readers or, when
+     * all cached segments are in use, held by a single reader.
+     */
+    final class Segment implements Runnable
+    {
+        private final boolean isCached;
+        private long recordingId = NULL_RECORD_ID;
+        private int segmentIndex;
+        private int referenceCount;
+        private long lastUsed;
+        private File compressedFile;
+        private ByteBuffer buffer;
+        private volatile boolean isLoading;
+        private volatile boolean isLoaded;
+        private volatile IOException loadException;
+
+        Segment(final boolean isCached)
+        {
+            this.isCached = isCached;
+        }
+
+        /**
+         * Has the segment been decompressed so its buffer can be read.
+         *
+         * @return true if the segment has been decompressed or false if it is still loading.
+         * @throws IOException if the segment could not be decompressed.
+         */
+        boolean isLoaded() throws IOException
+        {
+            final IOException loadException = this.loadException;
+            if (null != loadException)
+            {
+                throw loadException;
+            }
+
+            return isLoaded;
+        }
+
+        /**
+         * The buffer holding the decompressed segment once {@link #isLoaded()}.
+         *
+         * @return the buffer holding the decompressed segment.
+         */
+        ByteBuffer buffer()
+        {
+            return buffer;
+        }
+
+        public void run()
+        {
+            try
+            {
+                decompress(compressedFile, buffer);
+                isLoaded = true;
+            }
+            catch (final IOException ex)
+            {
+                loadException = ex;
+            }
+            finally
+            {
+                isLoading = false;
+            }
+        }
+
+        private void load(
+            final long recordingId, final int segmentIndex, final int segmentLength, final File compressedFile)
+        {
+            this.recordingId = recordingId;
+            this.segmentIndex = segmentIndex;
+            this.compressedFile = compressedFile;
+            referenceCount = 1;
+            isLoaded = false;
+            loadException = null;
+            isLoading = true;
+
+            if (null == buffer || buffer.capacity() != segmentLength)
+            {
+                buffer = allocateDirectAligned(segmentLength, SEGMENT_BUFFER_ALIGNMENT);
+            }
+        }
+
+        private void onLoadFailed(final IOException ex)
+        {
+            loadException = ex;
+            isLoading = false;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.aeron.archive;
 
+import io.aeron.archive.client.RecordingFilter;
 import io.aeron.archive.codecs.*;
 import io.aeron.logbuffer.*;
 import org.agrona.DirectBuffer;
@@ -26,11 +27,22 @@ class ControlRequestAdapter implements FragmentHandler
     private final ConnectRequestDecoder connectRequestDecoder = new ConnectRequestDecoder();
     private final CloseSessionRequestDecoder closeSessionRequestDecoder = new CloseSessionRequestDecoder();
     private final StartRecordingRequestDecoder startRecordingRequestDecoder = new StartRecordingRequestDecoder();
+    private final ExtendRecordingRequestDecoder extendRecordingRequestDecoder = new ExtendRecordingRequestDecoder();
     private final StopRecordingRequestDecoder stopRecordingRequestDecoder = new StopRecordingRequestDecoder();
     private final ReplayRequestDecoder replayRequestDecoder = new ReplayRequestDecoder();
+    private final ReplayFromTimeRequestDecoder replayFromTimeRequestDecoder = new ReplayFromTimeRequestDecoder();
+    private final BlockReplayRequestDecoder blockReplayRequestDecoder = new BlockReplayRequestDecoder();
+    private final ReplicateRequestDecoder replicateRequestDecoder = new ReplicateRequestDecoder();
+    private final FindPositionRequestDecoder findPositionRequestDecoder = new FindPositionRequestDecoder();
+    private final PurgeRecordingRequestDecoder purgeRecordingRequestDecoder = new PurgeRecordingRequestDecoder();
+    private final TruncateRecordingRequestDecoder truncateRecordingRequestDecoder =
+        new TruncateRecordingRequestDecoder();
     private final ListRecordingsRequestDecoder listRecordingsRequestDecoder = new ListRecordingsRequestDecoder();
     private final ListRecordingsForUriRequestDecoder listRecordingsForUriRequestDecoder =
         new ListRecordingsForUriRequestDecoder();
+    private final ListRecordingsWithFilterRequestDecoder listRecordingsWithFilterRequestDecoder =
+        new ListRecordingsWithFilterRequestDecoder();
+    private final RecordingFilter recordingFilter = new RecordingFilter();
 
     ControlRequestAdapter(final ControlRequestListener listener)
     {
@@ -83,6 +95,22 @@ class ControlRequestAdapter implements FragmentHandler
                     startRecordingRequestDecoder.sourceLocation());
                 break;
 
+            case ExtendRecordingRequestDecoder.TEMPLATE_ID:
+                extendRecordingRequestDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    headerDecoder.blockLength(),
+                    headerDecoder.version());
+
+                listener.onExtendRecording(
+                    extendRecordingRequestDecoder.controlSessionId(),
+                    extendRecordingRequestDecoder.correlationId(),
+                    extendRecordingRequestDecoder.recordingId(),
+                    extendRecordingRequestDecoder.streamId(),
+                    extendRecordingRequestDecoder.channel(),
+                    extendRecordingRequestDecoder.sourceLocation());
+                break;
+
             case StopRecordingRequestDecoder.TEMPLATE_ID:
                 stopRecordingRequestDecoder.wrap(
                     buffer,
@@ -114,6 +142,98 @@ class ControlRequestAdapter implements FragmentHandler
                     replayRequestDecoder.replayChannel());
                 break;
 
+            case BlockReplayRequestDecoder.TEMPLATE_ID:
+                blockReplayRequestDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    headerDecoder.blockLength(),
+                    headerDecoder.version());
+
+                listener.onStartBlockReplay(
+                    blockReplayRequestDecoder.controlSessionId(),
+                    blockReplayRequestDecoder.correlationId(),
+                    blockReplayRequestDecoder.recordingId(),
+                    blockReplayRequestDecoder.position(),
+                    blockReplayRequestDecoder.length(),
+                    blockReplayRequestDecoder.blockLength(),
+                    blockReplayRequestDecoder.replayStreamId(),
+                    blockReplayRequestDecoder.replayChannel());
+                break;
+
+            case ReplicateRequestDecoder.TEMPLATE_ID:
+                replicateRequestDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    headerDecoder.blockLength(),
+                    headerDecoder.version());
+
+                listener.onReplicate(
+                    replicateRequestDecoder.controlSessionId(),
+                    replicateRequestDecoder.correlationId(),
+                    replicateRequestDecoder.srcRecordingId(),
+                    replicateRequestDecoder.dstRecordingId(),
+                    replicateRequestDecoder.srcControlStreamId(),
+                    replicateRequestDecoder.srcControlChannel());
+                break;
+
+            case ReplayFromTimeRequestDecoder.TEMPLATE_ID:
+                replayFromTimeRequestDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    headerDecoder.blockLength(),
+                    headerDecoder.version());
+
+                listener.onStartReplayFromTime(
+                    replayFromTimeRequestDecoder.controlSessionId(),
+                    replayFromTimeRequestDecoder.correlationId(),
+                    replayFromTimeRequestDecoder.recordingId(),
+                    replayFromTimeRequestDecoder.timestamp(),
+                    replayFromTimeRequestDecoder.length(),
+                    replayFromTimeRequestDecoder.replayStreamId(),
+                    replayFromTimeRequestDecoder.replayChannel());
+                break;
+
+            case FindPositionRequestDecoder.TEMPLATE_ID:
+                findPositionRequestDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    headerDecoder.blockLength(),
+                    headerDecoder.version());
+
+                listener.onFindPosition(
+                    findPositionRequestDecoder.controlSessionId(),
+                    findPositionRequestDecoder.correlationId(),
+                    findPositionRequestDecoder.recordingId(),
+                    findPositionRequestDecoder.timestamp());
+                break;
+
+            case PurgeRecordingRequestDecoder.TEMPLATE_ID:
+                purgeRecordingRequestDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    headerDecoder.blockLength(),
+                    headerDecoder.version());
+
+                listener.onPurgeRecording(
+                    purgeRecordingRequestDecoder.controlSessionId(),
+                    purgeRecordingRequestDecoder.correlationId(),
+                    purgeRecordingRequestDecoder.recordingId());
+                break;
+
+            case TruncateRecordingRequestDecoder.TEMPLATE_ID:
+                truncateRecordingRequestDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    headerDecoder.blockLength(),
+                    headerDecoder.version());
+
+                listener.onTruncateRecording(
+                    truncateRecordingRequestDecoder.controlSessionId(),
+                    truncateRecordingRequestDecoder.correlationId(),
+                    truncateRecordingRequestDecoder.recordingId(),
+                    truncateRecordingRequestDecoder.position());
+                break;
+
             case ListRecordingsRequestDecoder.TEMPLATE_ID:
                 listRecordingsRequestDecoder.wrap(
                     buffer,
@@ -144,6 +264,42 @@ class ControlRequestAdapter implements FragmentHandler
                     listRecordingsForUriRequestDecoder.channel());
                 break;
 
+            case ListRecordingsWithFilterRequestDecoder.TEMPLATE_ID:
+                listRecordingsWithFilterRequestDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    headerDecoder.blockLength(),
+                    headerDecoder.version());
+
+                final RecordingFilterFlagsDecoder filterFlags = listRecordingsWithFilterRequestDecoder.filterFlags();
+                recordingFilter.reset()
+                    .activeOnly(filterFlags.activeOnly())
+                    .fromTimestamp(listRecordingsWithFilterRequestDecoder.fromTimestamp())
+                    .toTimestamp(listRecordingsWithFilterRequestDecoder.toTimestamp())
+                    .minLength(listRecordingsWithFilterRequestDecoder.minLength());
+
+                if (filterFlags.sessionId())
+                {
+                    recordingFilter.sessionId(listRecordingsWithFilterRequestDecoder.sessionId());
+                }
+
+                if (filterFlags.streamId())
+                {
+                    recordingFilter.streamId(listRecordingsWithFilterRequestDecoder.streamId());
+                }
+
+                recordingFilter
+                    .channel(listRecordingsWithFilterRequestDecoder.channel())
+                    .sourceIdentity(listRecordingsWithFilterRequestDecoder.sourceIdentity());
+
+                listener.onListRecordingsWithFilter(
+                    listRecordingsWithFilterRequestDecoder.controlSessionId(),
+                    listRecordingsWithFilterRequestDecoder.correlationId(),
+                    listRecordingsWithFilterRequestDecoder.fromRecordingId(),
+                    listRecordingsWithFilterRequestDecoder.recordCount(),
+                    recordingFilter);
+                break;
+
             default:
                 throw new IllegalArgumentException("Unexpected template id:" + templateId);
         }
@@ -15,6 +15,7 @@
  */
 package io.aeron.archive;
 
+import io.aeron.archive.client.RecordingFilter;
 import io.aeron.archive.codecs.SourceLocation;
 
 /**
@@ -33,6 +34,14 @@ interface ControlRequestListener
         String channel,
         SourceLocation sourceLocation);
 
+    void onExtendRecording(
+        long controlSessionId,
+        long correlationId,
+        long recordingId,
+        int streamId,
+        String channel,
+        SourceLocation sourceLocation);
+
     void onStopRecording(long controlSessionId, long correlationId, int streamId, String channel);
 
     void onStartReplay(
@@ -44,8 +53,48 @@ interface ControlRequestListener
         int replayStreamId,
         String replayChannel);
 
+    void onStartReplayFromTime(
+        long controlSessionId,
+        long correlationId,
+        long recordingId,
+        long timestamp,
+        long length,
+        int replayStreamId,
+        String replayChannel);
+
+    void onStartBlockReplay(
+        long controlSessionId,
+        long correlationId,
+        long recordingId,
+        long position,
+        long length,
+        int blockLength,
+        int replayStreamId,
+        String replayChannel);
+
+    void onReplicate(
+        long controlSessionId,
+        long correlationId,
+        long srcRecordingId,
+        long dstRecordingId,
+        int srcControlStreamId,
+        String srcControlChannel);
+
+    void onFindPosition(long controlSessionId, long correlationId, long recordingId, long timestamp);
+
+    void onPurgeRecording(long controlSessionId, long correlationId, long recordingId);
+
+    void onTruncateRecording(long controlSessionId, long correlationId, long recordingId, long position);
+
     void onListRecordings(long controlSessionId, long correlationId, long fromRecordingId, int recordCount);
 
+    void onListRecordingsWithFilter(
+        long controlSessionId,
+        long correlationId,
+        long fromRecordingId,
+        int recordCount,
+        RecordingFilter filter);
+
     void onListRecordingsForUri(
         long controlSessionId,
         long correlationId,
@@ -19,21 +19,100 @@ import io.aeron.Publication;
 import io.aeron.archive.codecs.ControlResponseCode;
 import io.aeron.archive.codecs.ControlResponseEncoder;
 import io.aeron.archive.codecs.MessageHeaderEncoder;
+import io.aeron.archive.codecs.RecordingDescriptorBatchEncoder;
 import io.aeron.archive.codecs.RecordingDescriptorEncoder;
 import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
 import org.agrona.ExpandableDirectByteBuffer;
 import org.agrona.Strings;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+
+import java.nio.ByteOrder;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
 
 class ControlResponseProxy
 {
     private static final int HEADER_LENGTH = MessageHeaderEncoder.ENCODED_LENGTH;
     private static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
+
+    /**
+     * Offset in a {@link RecordingDescriptorBatchEncoder} message at which the descriptors are appended.
+     */
+    static final int DESCRIPTOR_BATCH_OFFSET =
+        HEADER_LENGTH + RecordingDescriptorBatchEncoder.BLOCK_LENGTH +
+        RecordingDescriptorBatchEncoder.descriptorsHeaderLength();
     private final ExpandableDirectByteBuffer buffer = new ExpandableDirectByteBuffer(2048);
 
     private final MessageHeaderEncoder messageHeaderEncoder = new MessageHeaderEncoder();
     private final ControlResponseEncoder responseEncoder = new ControlResponseEncoder();
     private final RecordingDescriptorEncoder recordingDescriptorEncoder = new RecordingDescriptorEncoder();
+    private final RecordingDescriptorBatchEncoder recordingDescriptorBatchEncoder =
+        new RecordingDescriptorBatchEncoder();
+
+    /**
+     * Length a descriptor from the catalog will take when appended to a batch.
+     *
+     * @param descriptorBuffer wrapping the catalog record of the recording.
+     * @return length of the descriptor when appended to a batch.
+     */
+    static int batchedDescriptorLength(final UnsafeBuffer descriptorBuffer)
+    {
+        return SIZE_OF_INT + HEADER_LENGTH + descriptorBuffer.getInt(0);
+    }
+
+    /**
+     * Append a descriptor from the catalog to a batch, preceded by its length.
+     *
+     * @return the length appended to the batch.
+     */
+    int appendDescriptor(
+        final long controlSessionId,
+        final long correlationId,
+        final UnsafeBuffer descriptorBuffer,
+        final MutableDirectBuffer batchBuffer,
+        final int offset)
+    {
+        final int descriptorLength = descriptorBuffer.getInt(0);
+        batchBuffer.putInt(offset, HEADER_LENGTH + descriptorLength, ByteOrder.LITTLE_ENDIAN);
+        batchBuffer.putBytes(
+            offset + SIZE_OF_INT + HEADER_LENGTH, descriptorBuffer, Catalog.DESCRIPTOR_HEADER_LENGTH, descriptorLength);
+
+        recordingDescriptorEncoder
+            .wrapAndApplyHeader(batchBuffer, offset + SIZE_OF_INT, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId);
+
+        return SIZE_OF_INT + HEADER_LENGTH + descriptorLength;
+    }
+
+    /**
+     * Send a batch of descriptors appended from {@link #DESCRIPTOR_BATCH_OFFSET} up to a length.
+     *
+     * @return true if sent or false if back pressured.
+     */
+    boolean sendDescriptorBatch(
+        final long controlSessionId,
+        final long correlationId,
+        final MutableDirectBuffer batchBuffer,
+        final int descriptorCount,
+        final int length,
+        final Publication controlPublication)
+    {
+        recordingDescriptorBatchEncoder
+            .wrapAndApplyHeader(batchBuffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .descriptorCount(descriptorCount);
+
+        batchBuffer.putInt(
+            DESCRIPTOR_BATCH_OFFSET - RecordingDescriptorBatchEncoder.descriptorsHeaderLength(),
+            length - DESCRIPTOR_BATCH_OFFSET,
+            ByteOrder.LITTLE_ENDIAN);
+
+        return send(controlPublication, batchBuffer, 0, length);
+    }
 
     int sendDescriptor(
         final long controlSessionId,
@@ -59,6 +138,37 @@ class ControlResponseProxy
         final ControlResponseCode code,
         final String errorMessage,
         final Publication controlPublication)
+    {
+        final int length = encodeResponse(controlSessionId, correlationId, relevantId, code, errorMessage);
+
+        return send(controlPublication, buffer, 0, length);
+    }
+
+    /**
+     * Encode a response and queue it for sending later when it could not be sent immediately.
+     *
+     * @return true if queued or false if the queue is full.
+     */
+    boolean queueResponse(
+        final long controlSessionId,
+        final long correlationId,
+        final long relevantId,
+        final ControlResponseCode code,
+        final String errorMessage,
+        final RingBuffer responseQueue)
+    {
+        final int length = encodeResponse(controlSessionId, correlationId, relevantId, code, errorMessage);
+
+        return length <= responseQueue.maxMsgLength() &&
+            responseQueue.write(ControlResponseEncoder.TEMPLATE_ID, buffer, 0, length);
+    }
+
+    private int encodeResponse(
+        final long controlSessionId,
+        final long correlationId,
+        final long relevantId,
+        final ControlResponseCode code,
+        final String errorMessage)
     {
         responseEncoder
             .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
@@ -76,7 +186,7 @@ class ControlResponseProxy
             responseEncoder.putErrorMessage(EMPTY_BYTE_ARRAY, 0, 0);
         }
 
-        return send(controlPublication, buffer, 0, HEADER_LENGTH + responseEncoder.encodedLength());
+        return HEADER_LENGTH + responseEncoder.encodedLength();
     }
 
     private boolean send(
@@ -16,17 +16,24 @@
 package io.aeron.archive;
 
 import io.aeron.Publication;
+import io.aeron.archive.client.RecordingFilter;
 import io.aeron.archive.codecs.ControlResponseCode;
 import io.aeron.archive.codecs.SourceLocation;
+import io.aeron.logbuffer.BufferClaim;
 import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.EpochClock;
-import org.agrona.concurrent.ManyToOneConcurrentLinkedQueue;
+import org.agrona.concurrent.MessageHandler;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
 
 import java.util.ArrayDeque;
-import java.util.function.Supplier;
 
 import static io.aeron.archive.codecs.ControlResponseCode.*;
+import static org.agrona.BitUtil.CACHE_LINE_LENGTH;
+import static org.agrona.BufferUtil.allocateDirectAligned;
 
 /**
  * Control sessions are interacted with from both the {@link ArchiveConductor} and the replay/record
@@ -35,6 +42,11 @@ import static io.aeron.archive.codecs.ControlResponseCode.*;
  * This complexity reflects the fact that replay/record/list requests happen in the context of a session, and that they
  * share the sessions request/reply channels. The relationship does not imply a lifecycle dependency however. A
  * {@link RecordingSession}/{@link ReplaySession} can outlive their 'parent' {@link ControlSession}.
+ * <p>
+ * Responses which cannot be sent immediately are encoded into an off-heap ring buffer which may be written to from
+ * any thread and is allocated when first needed. The {@link ArchiveConductor} moves the oldest into a pending buffer
+ * and retries it from there, so queueing and retrying responses does not allocate. Should the ring buffer fill the
+ * client is not keeping up, which is flagged for the {@link ArchiveConductor} to abort the session.
  */
 class ControlSession implements Session
 {
@@ -49,8 +61,13 @@ class ControlSession implements Session
     private final ArchiveConductor conductor;
     private final EpochClock epochClock;
     private final ArrayDeque<AbstractListRecordingsSession> listRecordingsSessions = new ArrayDeque<>();
-    private final ManyToOneConcurrentLinkedQueue<Supplier<Boolean>> queuedResponses =
-        new ManyToOneConcurrentLinkedQueue<>();
+    private final MessageHandler queuedResponseHandler = this::onQueuedResponse;
+    private final BufferClaim bufferClaim = new BufferClaim();
+    private final int queuedResponsesCapacity;
+    private volatile ManyToOneRingBuffer queuedResponses;
+    private volatile boolean hasQueuedResponsesOverflowed;
+    private UnsafeBuffer pendingResponse;
+    private int pendingResponseLength;
     private final ControlResponseProxy controlResponseProxy;
     private final long controlSessionId;
     private final long correlationId;
@@ -66,7 +83,8 @@ class ControlSession implements Session
         final Publication controlPublication,
         final ArchiveConductor conductor,
         final EpochClock epochClock,
-        final ControlResponseProxy controlResponseProxy)
+        final ControlResponseProxy controlResponseProxy,
+        final int queuedResponsesCapacity)
     {
         this.controlSessionId = controlSessionId;
         this.correlationId = correlationId;
@@ -75,6 +93,7 @@ class ControlSession implements Session
         this.conductor = conductor;
         this.epochClock = epochClock;
         this.controlResponseProxy = controlResponseProxy;
+        this.queuedResponsesCapacity = queuedResponsesCapacity;
     }
 
     public long sessionId()
@@ -103,6 +122,11 @@ class ControlSession implements Session
     {
         int workCount = 0;
 
+        if (hasQueuedResponsesOverflowed)
+        {
+            state = State.INACTIVE;
+        }
+
         if (state == State.INIT)
         {
             workCount += waitForConnection();
@@ -127,6 +151,16 @@ class ControlSession implements Session
         conductor.startRecordingSubscription(correlationId, this, streamId, channel, sourceLocation);
     }
 
+    public void onExtendRecording(
+        final long correlationId,
+        final long recordingId,
+        final String channel,
+        final int streamId,
+        final SourceLocation sourceLocation)
+    {
+        conductor.extendRecording(correlationId, this, recordingId, streamId, channel, sourceLocation);
+    }
+
     public void onListRecordingsForUri(
         final long correlationId,
         final long fromRecordingId,
@@ -150,6 +184,32 @@ class ControlSession implements Session
         }
     }
 
+    public void onListRecordingsWithFilter(
+        final long correlationId,
+        final long fromRecordingId,
+        final int recordCount,
+        final RecordingFilter filter)
+    {
+        if (!filter.channel().isEmpty())
+        {
+            filter.channel(conductor.strippedChannelBuilder(filter.channel()).build());
+        }
+
+        final ListRecordingsWithFilterSession listRecordingsSession = conductor.newListRecordingsWithFilterSession(
+            correlationId,
+            fromRecordingId,
+            recordCount,
+            filter,
+            this);
+
+        listRecordingsSessions.add(listRecordingsSession);
+
+        if (listRecordingsSessions.size() == 1)
+        {
+            conductor.addSession(listRecordingsSession);
+        }
+    }
+
     public void onListRecordings(final long correlationId, final long fromRecordingId, final int recordCount)
     {
         final ListRecordingsSession listRecordingsSession = conductor.newListRecordingsSession(
@@ -184,6 +244,69 @@ class ControlSession implements Session
             replayChannel);
     }
 
+    public void onStartReplayFromTime(
+        final long correlationId,
+        final long recordingId,
+        final long timestamp,
+        final long length,
+        final int replayStreamId,
+        final String replayChannel)
+    {
+        conductor.startReplayFromTime(
+            correlationId,
+            this,
+            recordingId,
+            timestamp,
+            length,
+            replayStreamId,
+            replayChannel);
+    }
+
+    public void onStartBlockReplay(
+        final long correlationId,
+        final long recordingId,
+        final long position,
+        final long length,
+        final int blockLength,
+        final int replayStreamId,
+        final String replayChannel)
+    {
+        conductor.startReplay(
+            correlationId,
+            this,
+            recordingId,
+            position,
+            length,
+            blockLength,
+            replayStreamId,
+            replayChannel);
+    }
+
+    public void onReplicate(
+        final long correlationId,
+        final long srcRecordingId,
+        final long dstRecordingId,
+        final int srcControlStreamId,
+        final String srcControlChannel)
+    {
+        conductor.replicate(correlationId, this, srcRecordingId, dstRecordingId, srcControlStreamId, srcControlChannel);
+    }
+
+    public void onFindPosition(final long correlationId, final long recordingId, final long timestamp)
+    {
+        conductor.findPosition(correlationId, this, recordingId, timestamp);
+    }
+
+    public void onPurgeRecording(final long correlationId, final long recordingId)
+    {
+        conductor.purgeRecording(correlationId, this, recordingId);
+    }
+
+    public void onTruncateRecording(final long correlationId, final long recordingId, final long position)
+    {
+        conductor.truncateRecording(correlationId, this, recordingId, position);
+    }
+
     void onListRecordingSessionClosed(final AbstractListRecordingsSession listRecordingsSession)
     {
         if (listRecordingsSession != listRecordingsSessions.poll())
@@ -205,7 +328,19 @@ class ControlSession implements Session
     {
         if (!proxy.sendResponse(controlSessionId, correlationId, 0, OK, null, controlPublication))
         {
-            queueResponse(correlationId, 0, OK, null);
+            queueResponse(correlationId, 0, OK, null, proxy);
+        }
+    }
+
+    /**
+     * Send a response with a relevant id, such as a position, or if the publication cannot handle it queue up the
+     * sending of a response. This method is thread safe.
+     */
+    void sendOkResponse(final long correlationId, final long relevantId, final ControlResponseProxy proxy)
+    {
+        if (!proxy.sendResponse(controlSessionId, correlationId, relevantId, OK, null, controlPublication))
+        {
+            queueResponse(correlationId, relevantId, OK, null, proxy);
         }
     }
 
@@ -223,7 +358,7 @@ class ControlSession implements Session
             null,
             controlPublication))
         {
-            queueResponse(correlationId, recordingId, RECORDING_UNKNOWN, null);
+            queueResponse(correlationId, recordingId, RECORDING_UNKNOWN, null, proxy);
         }
     }
 
@@ -239,7 +374,7 @@ class ControlSession implements Session
     {
         if (!proxy.sendResponse(controlSessionId, correlationId, 0, code, errorMessage, controlPublication))
         {
-            queueResponse(correlationId, 0, code, errorMessage);
+            queueResponse(correlationId, 0, code, errorMessage, proxy);
         }
     }
 
@@ -253,7 +388,7 @@ class ControlSession implements Session
             null,
             controlPublication))
         {
-            queueResponse(correlationId, controlSessionId, OK, null);
+            queueResponse(correlationId, controlSessionId, OK, null, controlResponseProxy);
         }
     }
 
@@ -268,6 +403,20 @@ class ControlSession implements Session
         return proxy.sendDescriptor(controlSessionId, correlationId, descriptorBuffer, controlPublication);
     }
 
+    /**
+     * Send a batch of descriptors, return true if sent or false if failed to send. This method is thread safe.
+     */
+    boolean sendDescriptorBatch(
+        final long correlationId,
+        final MutableDirectBuffer batchBuffer,
+        final int descriptorCount,
+        final int length,
+        final ControlResponseProxy proxy)
+    {
+        return proxy.sendDescriptorBatch(
+            controlSessionId, correlationId, batchBuffer, descriptorCount, length, controlPublication);
+    }
+
     int maxPayloadLength()
     {
         return controlPublication.maxPayloadLength();
@@ -282,11 +431,23 @@ class ControlSession implements Session
         }
         else
         {
-            if (!queuedResponses.isEmpty())
+            final ManyToOneRingBuffer queuedResponses = this.queuedResponses;
+            if (0 == pendingResponseLength && null != queuedResponses)
+            {
+                if (null == pendingResponse)
+                {
+                    pendingResponse = new UnsafeBuffer(
+                        allocateDirectAligned(queuedResponses.maxMsgLength(), CACHE_LINE_LENGTH));
+                }
+
+                queuedResponses.read(queuedResponseHandler, 1);
+            }
+
+            if (pendingResponseLength > 0)
             {
-                if (sendFirst(queuedResponses))
+                if (sendPendingResponse())
                 {
-                    queuedResponses.poll();
+                    pendingResponseLength = 0;
                     timeoutDeadlineMs = NO_ACTIVE_DEADLINE;
                     workCount++;
                 }
@@ -304,9 +465,29 @@ class ControlSession implements Session
         return workCount;
     }
 
-    private static boolean sendFirst(final ManyToOneConcurrentLinkedQueue<Supplier<Boolean>> responseQueue)
+    private void onQueuedResponse(final int msgTypeId, final DirectBuffer buffer, final int index, final int length)
     {
-        return responseQueue.peek().get();
+        pendingResponse.putBytes(0, buffer, index, length);
+        pendingResponseLength = length;
+    }
+
+    private boolean sendPendingResponse()
+    {
+        final int length = pendingResponseLength;
+        if (length <= controlPublication.maxPayloadLength())
+        {
+            if (controlPublication.tryClaim(length, bufferClaim) > 0)
+            {
+                bufferClaim.buffer().putBytes(bufferClaim.offset(), pendingResponse, 0, length);
+                bufferClaim.commit();
+
+                return true;
+            }
+
+            return false;
+        }
+
+        return controlPublication.offer(pendingResponse, 0, length) > 0;
     }
 
     private int waitForConnection()
@@ -337,15 +518,35 @@ class ControlSession implements Session
     }
 
     private void queueResponse(
-        final long correlationId, final long relevantId, final ControlResponseCode code, final String message)
-    {
-        queuedResponses.offer(
-            () -> controlResponseProxy.sendResponse(
-                controlSessionId,
-                correlationId,
-                relevantId,
-                code,
-                message,
-                controlPublication));
+        final long correlationId,
+        final long relevantId,
+        final ControlResponseCode code,
+        final String message,
+        final ControlResponseProxy proxy)
+    {
+        if (!proxy.queueResponse(controlSessionId, correlationId, relevantId, code, message, queuedResponses()))
+        {
+            hasQueuedResponsesOverflowed = true;
+        }
+    }
+
+    private ManyToOneRingBuffer queuedResponses()
+    {
+        ManyToOneRingBuffer queuedResponses = this.queuedResponses;
+        if (null == queuedResponses)
+        {
+            synchronized (this)
+            {
+                queuedResponses = this.queuedResponses;
+                if (null == queuedResponses)
+                {
+                    queuedResponses = new ManyToOneRingBuffer(new UnsafeBuffer(allocateDirectAligned(
+                        queuedResponsesCapacity + RingBufferDescriptor.TRAILER_LENGTH, CACHE_LINE_LENGTH)));
+                    this.queuedResponses = queuedResponses;
+                }
+            }
+        }
+
+        return queuedResponses;
     }
 }
@@ -17,6 +17,7 @@ package io.aeron.archive;
 
 import io.aeron.Image;
 import io.aeron.ImageFragmentAssembler;
+import io.aeron.archive.client.RecordingFilter;
 import io.aeron.archive.codecs.SourceLocation;
 import io.aeron.logbuffer.FragmentHandler;
 import org.agrona.collections.Long2ObjectHashMap;
@@ -113,6 +114,23 @@ class ControlSessionDemuxer implements Session, ControlRequestListener
         controlSession.onStartRecording(correlationId, channel, streamId, sourceLocation);
     }
 
+    public void onExtendRecording(
+        final long controlSessionId,
+        final long correlationId,
+        final long recordingId,
+        final int streamId,
+        final String channel,
+        final SourceLocation sourceLocation)
+    {
+        final ControlSession controlSession = controlSessionByIdMap.get(controlSessionId);
+        if (controlSession == null)
+        {
+            throw new IllegalArgumentException("Unknown controlSessionId: " + controlSessionId);
+        }
+
+        controlSession.onExtendRecording(correlationId, recordingId, channel, streamId, sourceLocation);
+    }
+
     public void onStopRecording(
         final long controlSessionId,
         final long correlationId,
@@ -145,6 +163,104 @@ class ControlSessionDemuxer implements Session, ControlRequestListener
         controlSession.onStartReplay(correlationId, recordingId, position, length, replayStreamId, replayChannel);
     }
 
+    public void onStartReplayFromTime(
+        final long controlSessionId,
+        final long correlationId,
+        final long recordingId,
+        final long timestamp,
+        final long length,
+        final int replayStreamId,
+        final String replayChannel)
+    {
+        final ControlSession controlSession = controlSessionByIdMap.get(controlSessionId);
+        if (controlSession == null)
+        {
+            throw new IllegalArgumentException("Unknown controlSessionId: " + controlSessionId);
+        }
+
+        controlSession.onStartReplayFromTime(
+            correlationId, recordingId, timestamp, length, replayStreamId, replayChannel);
+    }
+
+    public void onStartBlockReplay(
+        final long controlSessionId,
+        final long correlationId,
+        final long recordingId,
+        final long position,
+        final long length,
+        final int blockLength,
+        final int replayStreamId,
+        final String replayChannel)
+    {
+        final ControlSession controlSession = controlSessionByIdMap.get(controlSessionId);
+        if (controlSession == null)
+        {
+            throw new IllegalArgumentException("Unknown controlSessionId: " + controlSessionId);
+        }
+
+        controlSession.onStartBlockReplay(
+            correlationId, recordingId, position, length, blockLength, replayStreamId, replayChannel);
+    }
+
+    public void onReplicate(
+        final long controlSessionId,
+        final long correlationId,
+        final long srcRecordingId,
+        final long dstRecordingId,
+        final int srcControlStreamId,
+        final String srcControlChannel)
+    {
+        final ControlSession controlSession = controlSessionByIdMap.get(controlSessionId);
+        if (controlSession == null)
+        {
+            throw new IllegalArgumentException("Unknown controlSessionId: " + controlSessionId);
+        }
+
+        controlSession.onReplicate(
+            correlationId, srcRecordingId, dstRecordingId, srcControlStreamId, srcControlChannel);
+    }
+
+    public void onFindPosition(
+        final long controlSessionId,
+        final long correlationId,
+        final long recordingId,
+        final long timestamp)
+    {
+        final ControlSession controlSession = controlSessionByIdMap.get(controlSessionId);
+        if (controlSession == null)
+        {
+            throw new IllegalArgumentException("Unknown controlSessionId: " + controlSessionId);
+        }
+
+        controlSession.onFindPosition(correlationId, recordingId, timestamp);
+    }
+
+    public void onPurgeRecording(final long controlSessionId, final long correlationId, final long recordingId)
+    {
+        final ControlSession controlSession = controlSessionByIdMap.get(controlSessionId);
+        if (controlSession == null)
+        {
+            throw new IllegalArgumentException("Unknown controlSessionId: " + controlSessionId);
+        }
+
+        controlSession.onPurgeRecording(correlationId, recordingId);
+    }
+
+    public void onTruncateRecording(
+        final long controlSessionId,
+        final long correlationId,
+        final long recordingId,
+        final long position)
+    {
+        final ControlSession controlSession = controlSessionByIdMap.get(controlSessionId);
+        if (controlSession == null)
+        {
+            throw new IllegalArgumentException("Unknown controlSessionId: " + controlSessionId);
+        }
+
+        controlSession.onTruncateRecording(correlationId, recordingId, position);
+    }
+
     public void onListRecordingsForUri(
         final long controlSessionId,
         final long correlationId,
@@ -162,6 +278,22 @@ class ControlSessionDemuxer implements Session, ControlRequestListener
         controlSession.onListRecordingsForUri(correlationId, fromRecordingId, recordCount, streamId, channel);
     }
 
+    public void onListRecordingsWithFilter(
+        final long controlSessionId,
+        final long correlationId,
+        final long fromRecordingId,
+        final int recordCount,
+        final RecordingFilter filter)
+    {
+        final ControlSession controlSession = controlSessionByIdMap.get(controlSessionId);
+        if (controlSession == null)
+        {
+            throw new IllegalArgumentException("Unknown controlSessionId: " + controlSessionId);
+        }
+
+        controlSession.onListRecordingsWithFilter(correlationId, fromRecordingId, recordCount, filter);
+    }
+
     public void onListRecordings(
         final long controlSessionId,
         final long correlationId,
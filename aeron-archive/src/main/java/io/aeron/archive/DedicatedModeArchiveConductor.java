@@ -21,45 +21,115 @@ import org.agrona.ErrorHandler;
 import org.agrona.concurrent.AgentRunner;
 import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
 import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+
+import static io.aeron.archive.Archive.Configuration.ARCHIVE_WORKER_DUTY_CYCLES_TYPE_ID;
+import static io.aeron.archive.Archive.Configuration.ARCHIVE_WORKER_SESSIONS_TYPE_ID;
 
 final class DedicatedModeArchiveConductor extends ArchiveConductor
 {
     private static final int COMMAND_LIMIT = 10;
 
     private final ManyToOneConcurrentArrayQueue<Session> closeQueue;
-    private AgentRunner replayerAgentRunner;
-    private AgentRunner recorderAgentRunner;
+    private final DedicatedModeRecorder[] recorders;
+    private final DedicatedModeReplayer[] replayers;
+    private final AgentRunner[] recorderAgentRunners;
+    private final AgentRunner[] replayerAgentRunners;
+    private int recorderCount = 0;
+    private int replayerCount = 0;
 
     DedicatedModeArchiveConductor(final Aeron aeron, final Archive.Context ctx)
     {
         super(aeron, ctx);
 
         closeQueue = new ManyToOneConcurrentArrayQueue<>(ctx.maxConcurrentRecordings() + ctx.maxConcurrentReplays());
+        recorders = new DedicatedModeRecorder[Math.max(ctx.recorderWorkerCount(), 1)];
+        replayers = new DedicatedModeReplayer[Math.max(ctx.replayerWorkerCount(), 1)];
+        recorderAgentRunners = new AgentRunner[recorders.length];
+        replayerAgentRunners = new AgentRunner[replayers.length];
     }
 
     public void onStart()
     {
         super.onStart();
 
-        recorderAgentRunner = new AgentRunner(ctx.idleStrategy(), errorHandler, ctx.errorCounter(), recorder);
-        replayerAgentRunner = new AgentRunner(ctx.idleStrategy(), errorHandler, ctx.errorCounter(), replayer);
+        while (recorderCount < recorders.length)
+        {
+            newRecorder();
+        }
+
+        while (replayerCount < replayers.length)
+        {
+            newReplayer();
+        }
+
+        for (int i = 0; i < recorders.length; i++)
+        {
+            recorderAgentRunners[i] = new AgentRunner(
+                ctx.idleStrategy(), errorHandler, ctx.errorCounter(), recorders[i]);
+        }
+
+        for (int i = 0; i < replayers.length; i++)
+        {
+            replayerAgentRunners[i] = new AgentRunner(
+                ctx.idleStrategy(), errorHandler, ctx.errorCounter(), replayers[i]);
+        }
+
+        for (final AgentRunner agentRunner : replayerAgentRunners)
+        {
+            AgentRunner.startOnThread(agentRunner, ctx.threadFactory());
+        }
 
-        AgentRunner.startOnThread(replayerAgentRunner, ctx.threadFactory());
-        AgentRunner.startOnThread(recorderAgentRunner, ctx.threadFactory());
+        for (final AgentRunner agentRunner : recorderAgentRunners)
+        {
+            AgentRunner.startOnThread(agentRunner, ctx.threadFactory());
+        }
     }
 
     protected SessionWorker<RecordingSession> newRecorder()
     {
-        return new DedicatedModeRecorder(errorHandler, ctx.errorCounter(), closeQueue);
+        final String roleName = workerRoleName("archive-recorder", recorderCount, recorders.length);
+        final DedicatedModeRecorder recorder = new DedicatedModeRecorder(
+            roleName,
+            errorHandler,
+            ctx.errorCounter(),
+            closeQueue,
+            newSessionsCounter(roleName),
+            newDutyCyclesCounter(roleName),
+            newRecordingGroupSyncer(),
+            newRecordingProgressBatcher());
+
+        recorders[recorderCount++] = recorder;
+
+        return recorder;
     }
 
     protected SessionWorker<ReplaySession> newReplayer()
     {
-        return new DedicatedModeReplayer(
+        final String roleName = workerRoleName("archive-replayer", replayerCount, replayers.length);
+        final DedicatedModeReplayer replayer = new DedicatedModeReplayer(
+            roleName,
             errorHandler,
             ctx.errorCounter(),
             closeQueue,
-            new ControlResponseProxy());
+            newSessionsCounter(roleName),
+            newDutyCyclesCounter(roleName),
+            new ControlResponseProxy(),
+            newReplayAggregateRateLimiter(replayers.length));
+
+        replayers[replayerCount++] = replayer;
+
+        return replayer;
+    }
+
+    protected void addRecordingSession(final RecordingSession session)
+    {
+        leastLoaded(recorders).addSession(session);
+    }
+
+    protected void addReplaySession(final ReplaySession session)
+    {
+        leastLoaded(replayers).addSession(session);
     }
 
     protected int preWork()
@@ -70,27 +140,22 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
     @SuppressWarnings("StatementWithEmptyBody")
     protected void closeSessionWorkers()
     {
-        try
-        {
-            CloseHelper.close(recorderAgentRunner);
-        }
-        catch (final Exception ex)
-        {
-            errorHandler.onError(ex);
-        }
+        closeAgentRunners(recorderAgentRunners);
+        closeAgentRunners(replayerAgentRunners);
 
-        try
+        while (processCloseQueue() > 0 || !closeQueue.isEmpty())
         {
-            CloseHelper.close(replayerAgentRunner);
+            // drain the command queue
         }
-        catch (final Exception ex)
+
+        for (int i = 0; i < recorderCount; i++)
         {
-            errorHandler.onError(ex);
+            recorders[i].closeCounters();
         }
 
-        while (processCloseQueue() > 0 || !closeQueue.isEmpty())
+        for (int i = 0; i < replayerCount; i++)
         {
-            // drain the command queue
+            replayers[i].closeCounters();
         }
     }
 
@@ -104,6 +169,35 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
         super.postSessionsClose();
     }
 
+    private void closeAgentRunners(final AgentRunner[] agentRunners)
+    {
+        for (final AgentRunner agentRunner : agentRunners)
+        {
+            try
+            {
+                CloseHelper.close(agentRunner);
+            }
+            catch (final Exception ex)
+            {
+                errorHandler.onError(ex);
+            }
+        }
+    }
+
+    private AtomicCounter newSessionsCounter(final String roleName)
+    {
+        final CountersManager countersManager = ctx.countersManager();
+
+        return countersManager.newCounter(roleName + " sessions", ARCHIVE_WORKER_SESSIONS_TYPE_ID);
+    }
+
+    private AtomicCounter newDutyCyclesCounter(final String roleName)
+    {
+        final CountersManager countersManager = ctx.countersManager();
+
+        return countersManager.newCounter(roleName + " duty cycles", ARCHIVE_WORKER_DUTY_CYCLES_TYPE_ID);
+    }
+
     private int processCloseQueue()
     {
         int i;
@@ -129,49 +223,108 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
         return i;
     }
 
+    private static String workerRoleName(final String roleName, final int index, final int workerCount)
+    {
+        return workerCount > 1 ? roleName + '-' + index : roleName;
+    }
+
+    private static <T extends DedicatedModeSessionWorker<?>> T leastLoaded(final T[] workers)
+    {
+        T leastLoaded = workers[0];
+        long leastSessionCount = leastLoaded.sessionCount();
+
+        for (int i = 1; i < workers.length; i++)
+        {
+            final T worker = workers[i];
+            final long sessionCount = worker.sessionCount();
+            if (sessionCount < leastSessionCount)
+            {
+                leastLoaded = worker;
+                leastSessionCount = sessionCount;
+            }
+        }
+
+        return leastLoaded;
+    }
+
     static class DedicatedModeRecorder extends DedicatedModeSessionWorker<RecordingSession>
     {
-        private final ManyToOneConcurrentArrayQueue<Session> closeQueue;
+        private final RecordingGroupSyncer groupSyncer;
+        private final RecordingProgressBatcher progressBatcher;
 
         DedicatedModeRecorder(
+            final String roleName,
             final ErrorHandler errorHandler,
             final AtomicCounter errorCounter,
-            final ManyToOneConcurrentArrayQueue<Session> closeQueue)
+            final ManyToOneConcurrentArrayQueue<Session> closeQueue,
+            final AtomicCounter sessionCount,
+            final AtomicCounter dutyCycles,
+            final RecordingGroupSyncer groupSyncer,
+            final RecordingProgressBatcher progressBatcher)
+        {
+            super(roleName, errorHandler, errorCounter, closeQueue, sessionCount, dutyCycles);
+            this.groupSyncer = groupSyncer;
+            this.progressBatcher = progressBatcher;
+        }
+
+        protected int preWork()
+        {
+            return super.preWork() +
+                (null != groupSyncer ? groupSyncer.doWork() : 0) +
+                (null != progressBatcher ? progressBatcher.flush() : 0);
+        }
+
+        protected void postSessionAdd(final RecordingSession session)
         {
-            super("archive-recorder", errorHandler, errorCounter);
-            this.closeQueue = closeQueue;
+            session.setThreadLocalGroupSyncer(groupSyncer);
+            session.setThreadLocalProgressBatcher(progressBatcher);
         }
 
         protected void closeSession(final RecordingSession session)
         {
-            closeQueue.offer(session);
+            if (null != progressBatcher)
+            {
+                progressBatcher.flush();
+            }
+
+            super.closeSession(session);
         }
     }
 
     static class DedicatedModeReplayer extends DedicatedModeSessionWorker<ReplaySession>
     {
-        private final ManyToOneConcurrentArrayQueue<Session> closeQueue;
         private final ControlResponseProxy proxy;
+        private final ReplayRateLimiter aggregateRateLimiter;
 
         DedicatedModeReplayer(
+            final String roleName,
             final ErrorHandler errorHandler,
             final AtomicCounter errorCounter,
             final ManyToOneConcurrentArrayQueue<Session> closeQueue,
-            final ControlResponseProxy proxy)
+            final AtomicCounter sessionCount,
+            final AtomicCounter dutyCycles,
+            final ControlResponseProxy proxy,
+            final ReplayRateLimiter aggregateRateLimiter)
         {
-            super("archive-replayer", errorHandler, errorCounter);
-            this.closeQueue = closeQueue;
+            super(roleName, errorHandler, errorCounter, closeQueue, sessionCount, dutyCycles);
             this.proxy = proxy;
+            this.aggregateRateLimiter = aggregateRateLimiter;
         }
 
-        protected void postSessionAdd(final ReplaySession session)
+        protected int preWork()
         {
-            session.setThreadLocalControlResponseProxy(proxy);
+            if (null != aggregateRateLimiter)
+            {
+                aggregateRateLimiter.onDutyCycle(activeSessionCount());
+            }
+
+            return super.preWork();
         }
 
-        protected void closeSession(final ReplaySession session)
+        protected void postSessionAdd(final ReplaySession session)
         {
-            closeQueue.offer(session);
+            session.setThreadLocalControlResponseProxy(proxy);
+            session.setThreadLocalAggregateRateLimiter(aggregateRateLimiter);
         }
     }
 }
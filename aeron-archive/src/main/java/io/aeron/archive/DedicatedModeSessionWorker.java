@@ -17,34 +17,73 @@
 package io.aeron.archive;
 
 import org.agrona.ErrorHandler;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
 import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
 import org.agrona.concurrent.status.AtomicCounter;
 
 class DedicatedModeSessionWorker<T extends Session> extends SessionWorker<T>
 {
     private final OneToOneConcurrentArrayQueue<Runnable> commandQueue = new OneToOneConcurrentArrayQueue<>(256);
+    private final ManyToOneConcurrentArrayQueue<Session> closeQueue;
     private final AtomicCounter errorCounter;
-    DedicatedModeSessionWorker(final String roleName, final ErrorHandler errorHandler, final AtomicCounter errorCounter)
+    private final AtomicCounter sessionCount;
+    private final AtomicCounter dutyCycles;
+
+    DedicatedModeSessionWorker(
+        final String roleName,
+        final ErrorHandler errorHandler,
+        final AtomicCounter errorCounter,
+        final ManyToOneConcurrentArrayQueue<Session> closeQueue,
+        final AtomicCounter sessionCount,
+        final AtomicCounter dutyCycles)
     {
         super(roleName, errorHandler);
         this.errorCounter = errorCounter;
+        this.closeQueue = closeQueue;
+        this.sessionCount = sessionCount;
+        this.dutyCycles = dutyCycles;
+    }
+
+    /**
+     * Number of sessions added to this worker which have not yet been closed, used to balance load across workers.
+     *
+     * @return number of sessions added to this worker which have not yet been closed.
+     */
+    long sessionCount()
+    {
+        return sessionCount.get();
     }
 
     protected int preWork()
     {
+        dutyCycles.orderedIncrement();
+
         return commandQueue.drain(Runnable::run);
     }
 
     protected void addSession(final T session)
     {
+        sessionCount.increment();
         send(() -> super.addSession(session));
     }
 
+    protected void closeSession(final T session)
+    {
+        sessionCount.add(-1);
+        closeQueue.offer(session);
+    }
+
     protected void preSessionsClose()
     {
         commandQueue.drain(Runnable::run);
     }
 
+    void closeCounters()
+    {
+        sessionCount.close();
+        dutyCycles.close();
+    }
+
     private void send(final Runnable r)
     {
         while (!commandQueue.offer(r))
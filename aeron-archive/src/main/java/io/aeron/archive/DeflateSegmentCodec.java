@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * {@link SegmentCodec} using the DEFLATE compression of the JDK. The default level favours speed over ratio as
+ * recorded data is typically compressed far more often than it is replayed.
+ */
+public class DeflateSegmentCodec implements SegmentCodec
+{
+    public static final String FILE_SUFFIX = ".deflate";
+
+    private static final int STREAM_BUFFER_LENGTH = 64 * 1024;
+
+    private final int level;
+
+    public DeflateSegmentCodec()
+    {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Create a codec compressing at the given level.
+     *
+     * @param level of compression from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}.
+     */
+    public DeflateSegmentCodec(final int level)
+    {
+        this.level = level;
+    }
+
+    public String fileSuffix()
+    {
+        return FILE_SUFFIX;
+    }
+
+    public OutputStream compressor(final OutputStream out)
+    {
+        final Deflater deflater = new Deflater(level);
+
+        return new DeflaterOutputStream(out, deflater, STREAM_BUFFER_LENGTH)
+        {
+            public void close() throws IOException
+            {
+                try
+                {
+                    super.close();
+                }
+                finally
+                {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    public InputStream decompressor(final InputStream in)
+    {
+        return new InflaterInputStream(in);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.ErrorHandler;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.function.LongConsumer;
+
+import static io.aeron.archive.codecs.ControlResponseCode.ERROR;
+
+/**
+ * Searches the time index of a recording for the position at a timestamp on a file thread so the conductor does not
+ * block on the index file, see {@link RecordingTimeIndex#findPosition(File, long, long, ByteBuffer)}.
+ * <p>
+ * The search is handed to the executor on the first duty cycle and the result is passed to the position handler on
+ * the conductor once complete, or sent to the control client as an error if the search failed. The entry buffer is
+ * shared by all searches so the executor must run one search at a time.
+ */
+class FindPositionSession implements Session, Runnable
+{
+    enum State
+    {
+        INIT, SEARCHING, DONE
+    }
+
+    private final long correlationId;
+    private final long recordingId;
+    private final long timestamp;
+    private final File archiveDir;
+    private final ByteBuffer entryBuffer;
+    private final Executor executor;
+    private final LongConsumer positionHandler;
+    private final ControlSession controlSession;
+    private final ControlResponseProxy controlResponseProxy;
+    private final ErrorHandler errorHandler;
+    private volatile boolean isSearchComplete = false;
+    private long indexPosition = Catalog.NULL_POSITION;
+    private Exception searchException;
+    private State state = State.INIT;
+
+    FindPositionSession(
+        final long correlationId,
+        final long recordingId,
+        final long timestamp,
+        final File archiveDir,
+        final ByteBuffer entryBuffer,
+        final Executor executor,
+        final LongConsumer positionHandler,
+        final ControlSession controlSession,
+        final ControlResponseProxy controlResponseProxy,
+        final ErrorHandler errorHandler)
+    {
+        this.correlationId = correlationId;
+        this.recordingId = recordingId;
+        this.timestamp = timestamp;
+        this.archiveDir = archiveDir;
+        this.entryBuffer = entryBuffer;
+        this.executor = executor;
+        this.positionHandler = positionHandler;
+        this.controlSession = controlSession;
+        this.controlResponseProxy = controlResponseProxy;
+        this.errorHandler = errorHandler;
+    }
+
+    public void abort()
+    {
+        state = State.DONE;
+    }
+
+    public boolean isDone()
+    {
+        return state == State.DONE;
+    }
+
+    public long sessionId()
+    {
+        return correlationId;
+    }
+
+    public void close()
+    {
+    }
+
+    public int doWork()
+    {
+        int workCount = 0;
+
+        if (state == State.INIT)
+        {
+            state = State.SEARCHING;
+            workCount = 1;
+
+            try
+            {
+                executor.execute(this);
+            }
+            catch (final Exception ex)
+            {
+                onError(ex);
+            }
+        }
+        else if (state == State.SEARCHING && isSearchComplete)
+        {
+            state = State.DONE;
+            workCount = 1;
+
+            if (null != searchException)
+            {
+                onError(searchException);
+            }
+            else
+            {
+                try
+                {
+                    positionHandler.accept(indexPosition);
+                }
+                catch (final Exception ex)
+                {
+                    onError(ex);
+                }
+            }
+        }
+
+        return workCount;
+    }
+
+    public void run()
+    {
+        try
+        {
+            indexPosition = RecordingTimeIndex.findPosition(archiveDir, recordingId, timestamp, entryBuffer);
+        }
+        catch (final Exception ex)
+        {
+            searchException = ex;
+        }
+
+        isSearchComplete = true;
+    }
+
+    private void onError(final Exception ex)
+    {
+        state = State.DONE;
+        errorHandler.onError(ex);
+        controlSession.sendResponse(correlationId, ERROR, ex.getMessage(), controlResponseProxy);
+    }
+}
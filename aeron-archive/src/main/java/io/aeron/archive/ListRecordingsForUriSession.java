@@ -18,6 +18,7 @@ package io.aeron.archive;
 import io.aeron.archive.codecs.RecordingDescriptorDecoder;
 import org.agrona.concurrent.UnsafeBuffer;
 
+import static io.aeron.archive.Catalog.NULL_RECORD_ID;
 import static io.aeron.archive.Catalog.wrapDescriptorDecoder;
 
 class ListRecordingsForUriSession extends AbstractListRecordingsSession
@@ -25,11 +26,14 @@ class ListRecordingsForUriSession extends AbstractListRecordingsSession
     private static final int MAX_SCANS_PER_WORK_CYCLE = 16;
 
     private final RecordingDescriptorDecoder decoder;
+    private final RecordingChannelIndex channelIndex;
+    private final long fromRecordingId;
     private final int count;
     private final String channel;
     private final int streamId;
+    private final int keyHash;
     private int sent = 0;
-    private long recordingId;
+    private long lastRecordingId = NULL_RECORD_ID;
 
     ListRecordingsForUriSession(
         final long correlationId,
@@ -45,11 +49,13 @@ class ListRecordingsForUriSession extends AbstractListRecordingsSession
     {
         super(correlationId, catalog, proxy, controlSession, descriptorBuffer);
 
-        this.recordingId = fromRecordingId;
+        this.fromRecordingId = fromRecordingId;
         this.count = count;
         this.channel = channel;
         this.streamId = streamId;
         this.decoder = recordingDescriptorDecoder;
+        this.channelIndex = catalog.channelIndex();
+        this.keyHash = RecordingChannelIndex.hash(streamId, channel);
     }
 
     protected int sendDescriptors()
@@ -61,9 +67,14 @@ class ListRecordingsForUriSession extends AbstractListRecordingsSession
                totalBytesSent < controlSession.maxPayloadLength() &&
                recordsScanned < MAX_SCANS_PER_WORK_CYCLE)
         {
-            if (!catalog.wrapDescriptor(recordingId, descriptorBuffer))
+            final long recordingId = NULL_RECORD_ID == lastRecordingId ?
+                channelIndex.firstCandidate(keyHash, fromRecordingId) :
+                channelIndex.nextCandidate(keyHash, lastRecordingId);
+
+            if (NULL_RECORD_ID == recordingId || !catalog.wrapDescriptor(recordingId, descriptorBuffer))
             {
-                controlSession.sendRecordingUnknown(correlationId, recordingId, proxy);
+                final long unknownRecordingId = Math.max(fromRecordingId, catalog.nextRecordingId());
+                controlSession.sendRecordingUnknown(correlationId, unknownRecordingId, proxy);
 
                 isDone = true;
                 break;
@@ -71,9 +82,7 @@ class ListRecordingsForUriSession extends AbstractListRecordingsSession
 
             wrapDescriptorDecoder(decoder, descriptorBuffer);
 
-            if (decoder.streamId() == streamId &&
-                decoder.strippedChannel().equals(channel) &&
-                isDescriptorValid(descriptorBuffer))
+            if (RecordingChannelIndex.matches(decoder, streamId, channel) && isDescriptorValid(descriptorBuffer))
             {
                 final int bytesSent = controlSession.sendDescriptor(correlationId, descriptorBuffer, proxy);
                 if (bytesSent == 0)
@@ -85,7 +94,7 @@ class ListRecordingsForUriSession extends AbstractListRecordingsSession
 
                 ++sent;
             }
-            recordingId++;
+            lastRecordingId = recordingId;
             recordsScanned++;
         }
 
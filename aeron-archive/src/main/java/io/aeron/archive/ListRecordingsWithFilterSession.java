@@ -0,0 +1,287 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.archive.client.RecordingFilter;
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongUnaryOperator;
+
+import static io.aeron.archive.Catalog.DESCRIPTOR_HEADER_LENGTH;
+import static io.aeron.archive.Catalog.NULL_POSITION;
+import static io.aeron.archive.Catalog.NULL_RECORD_ID;
+import static io.aeron.archive.Catalog.NULL_TIME;
+import static io.aeron.archive.ControlResponseProxy.DESCRIPTOR_BATCH_OFFSET;
+import static io.aeron.archive.ControlResponseProxy.batchedDescriptorLength;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+
+/**
+ * Lists the recordings which match a {@link RecordingFilter}, sending several descriptors to a message.
+ * <p>
+ * The filter is evaluated against the catalog records in place by reading only the fields it needs. When both a
+ * channel and stream id are given the candidates are taken from the {@link RecordingChannelIndex} rather than by
+ * scanning the whole catalog.
+ */
+class ListRecordingsWithFilterSession extends AbstractListRecordingsSession
+{
+    private static final int MAX_SCANS_PER_WORK_CYCLE = 256;
+    private static final int STRINGS_OFFSET = DESCRIPTOR_HEADER_LENGTH + RecordingDescriptorDecoder.BLOCK_LENGTH;
+
+    private final RecordingChannelIndex channelIndex;
+    private final LongUnaryOperator activePosition;
+    private final ExpandableDirectByteBuffer batchBuffer;
+    private final long fromRecordingId;
+    private final int count;
+    private final int sessionId;
+    private final int streamId;
+    private final boolean hasSessionId;
+    private final boolean hasStreamId;
+    private final boolean activeOnly;
+    private final long fromTimestamp;
+    private final long toTimestamp;
+    private final long minLength;
+    private final byte[] channel;
+    private final byte[] sourceIdentity;
+    private final boolean useChannelIndex;
+    private final int keyHash;
+    private long recordingId = NULL_RECORD_ID;
+    private boolean isFirstScan = true;
+    private int sent = 0;
+    private int batchCount = 0;
+    private int batchLength = DESCRIPTOR_BATCH_OFFSET;
+
+    ListRecordingsWithFilterSession(
+        final long correlationId,
+        final long fromRecordingId,
+        final int count,
+        final RecordingFilter filter,
+        final Catalog catalog,
+        final ControlResponseProxy proxy,
+        final ControlSession controlSession,
+        final UnsafeBuffer descriptorBuffer,
+        final LongUnaryOperator activePosition)
+    {
+        super(correlationId, catalog, proxy, controlSession, descriptorBuffer);
+
+        this.fromRecordingId = fromRecordingId;
+        this.count = count;
+        this.activePosition = activePosition;
+        this.channelIndex = catalog.channelIndex();
+        this.batchBuffer = new ExpandableDirectByteBuffer(controlSession.maxPayloadLength());
+
+        sessionId = filter.sessionId();
+        streamId = filter.streamId();
+        hasSessionId = filter.hasSessionId();
+        hasStreamId = filter.hasStreamId();
+        activeOnly = filter.activeOnly();
+        fromTimestamp = filter.fromTimestamp();
+        toTimestamp = filter.toTimestamp();
+        minLength = filter.minLength();
+        channel = filter.channel().getBytes(StandardCharsets.US_ASCII);
+        sourceIdentity = filter.sourceIdentity().getBytes(StandardCharsets.US_ASCII);
+        useChannelIndex = hasStreamId && channel.length > 0;
+        keyHash = useChannelIndex ? RecordingChannelIndex.hash(streamId, filter.channel()) : 0;
+    }
+
+    protected int sendDescriptors()
+    {
+        if (isFirstScan)
+        {
+            isFirstScan = false;
+            recordingId = firstCandidate();
+        }
+
+        int workCount = 0;
+        int recordsScanned = 0;
+
+        while (NULL_RECORD_ID != recordingId &&
+               (sent + batchCount) < count &&
+               recordsScanned < MAX_SCANS_PER_WORK_CYCLE)
+        {
+            if (catalog.wrapDescriptor(recordingId, descriptorBuffer) &&
+                isDescriptorValid(descriptorBuffer) &&
+                matches(descriptorBuffer))
+            {
+                if (batchCount > 0 &&
+                    (batchLength + batchedDescriptorLength(descriptorBuffer)) > controlSession.maxPayloadLength())
+                {
+                    if (!sendBatch())
+                    {
+                        return workCount;
+                    }
+
+                    workCount++;
+                }
+
+                batchLength += proxy.appendDescriptor(
+                    controlSession.sessionId(), correlationId, descriptorBuffer, batchBuffer, batchLength);
+                batchCount++;
+            }
+
+            recordingId = nextCandidate(recordingId);
+            recordsScanned++;
+        }
+
+        if (NULL_RECORD_ID == recordingId || (sent + batchCount) >= count)
+        {
+            if (batchCount > 0)
+            {
+                if (!sendBatch())
+                {
+                    return workCount;
+                }
+
+                workCount++;
+            }
+
+            if (sent < count)
+            {
+                final long unknownRecordingId = Math.max(fromRecordingId, catalog.nextRecordingId());
+                controlSession.sendRecordingUnknown(correlationId, unknownRecordingId, proxy);
+            }
+
+            isDone = true;
+        }
+
+        return workCount + recordsScanned;
+    }
+
+    private boolean sendBatch()
+    {
+        if (!controlSession.sendDescriptorBatch(correlationId, batchBuffer, batchCount, batchLength, proxy))
+        {
+            isDone = controlSession.isDone();
+            return false;
+        }
+
+        sent += batchCount;
+        batchCount = 0;
+        batchLength = DESCRIPTOR_BATCH_OFFSET;
+
+        return true;
+    }
+
+    private long firstCandidate()
+    {
+        if (useChannelIndex)
+        {
+            return channelIndex.firstCandidate(keyHash, fromRecordingId);
+        }
+
+        return fromRecordingId >= 0 && fromRecordingId < catalog.nextRecordingId() ? fromRecordingId : NULL_RECORD_ID;
+    }
+
+    private long nextCandidate(final long recordingId)
+    {
+        if (useChannelIndex)
+        {
+            return channelIndex.nextCandidate(keyHash, recordingId);
+        }
+
+        return (recordingId + 1) < catalog.nextRecordingId() ? recordingId + 1 : NULL_RECORD_ID;
+    }
+
+    private boolean matches(final UnsafeBuffer buffer)
+    {
+        if (hasSessionId && getInt(buffer, RecordingDescriptorDecoder.sessionIdEncodingOffset()) != sessionId)
+        {
+            return false;
+        }
+
+        if (hasStreamId && getInt(buffer, RecordingDescriptorDecoder.streamIdEncodingOffset()) != streamId)
+        {
+            return false;
+        }
+
+        final long stopPosition = getLong(buffer, RecordingDescriptorDecoder.stopPositionEncodingOffset());
+        if (activeOnly && NULL_POSITION != stopPosition)
+        {
+            return false;
+        }
+
+        final long stopTimestamp = getLong(buffer, RecordingDescriptorDecoder.stopTimestampEncodingOffset());
+        if (getLong(buffer, RecordingDescriptorDecoder.startTimestampEncodingOffset()) >= toTimestamp ||
+            (NULL_TIME != stopTimestamp && stopTimestamp < fromTimestamp))
+        {
+            return false;
+        }
+
+        if (minLength > 0)
+        {
+            final long recordedPosition = NULL_POSITION != stopPosition ?
+                stopPosition : activePosition.applyAsLong(recordingId);
+            final long startPosition = getLong(buffer, RecordingDescriptorDecoder.startPositionEncodingOffset());
+
+            if (NULL_POSITION == recordedPosition || (recordedPosition - startPosition) < minLength)
+            {
+                return false;
+            }
+        }
+
+        final int strippedChannelLength = buffer.getInt(STRINGS_OFFSET, ByteOrder.LITTLE_ENDIAN);
+        if (channel.length > 0 && !equalsAscii(buffer, STRINGS_OFFSET, strippedChannelLength, channel))
+        {
+            return false;
+        }
+
+        if (sourceIdentity.length > 0)
+        {
+            final int originalChannelOffset = STRINGS_OFFSET + SIZE_OF_INT + strippedChannelLength;
+            final int originalChannelLength = buffer.getInt(originalChannelOffset, ByteOrder.LITTLE_ENDIAN);
+            final int sourceIdentityOffset = originalChannelOffset + SIZE_OF_INT + originalChannelLength;
+            final int sourceIdentityLength = buffer.getInt(sourceIdentityOffset, ByteOrder.LITTLE_ENDIAN);
+
+            return equalsAscii(buffer, sourceIdentityOffset, sourceIdentityLength, sourceIdentity);
+        }
+
+        return true;
+    }
+
+    private static int getInt(final DirectBuffer buffer, final int fieldOffset)
+    {
+        return buffer.getInt(DESCRIPTOR_HEADER_LENGTH + fieldOffset, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long getLong(final DirectBuffer buffer, final int fieldOffset)
+    {
+        return buffer.getLong(DESCRIPTOR_HEADER_LENGTH + fieldOffset, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static boolean equalsAscii(
+        final DirectBuffer buffer, final int lengthOffset, final int length, final byte[] value)
+    {
+        if (length != value.length)
+        {
+            return false;
+        }
+
+        final int offset = lengthOffset + SIZE_OF_INT;
+        for (int i = 0; i < length; i++)
+        {
+            if (buffer.getByte(offset + i) != value[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
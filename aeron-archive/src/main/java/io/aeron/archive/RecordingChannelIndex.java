@@ -0,0 +1,314 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static io.aeron.archive.Catalog.NULL_RECORD_ID;
+import static io.aeron.archive.codecs.RecordingDescriptorDecoder.strippedChannelHeaderLength;
+import static org.agrona.BitUtil.CACHE_LINE_LENGTH;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BufferUtil.allocateDirectAligned;
+
+/**
+ * Off-heap hash index of the recordings in the {@link Catalog} by stripped channel and stream id so the recordings
+ * for a channel can be listed without decoding every descriptor in the catalog.
+ * <p>
+ * Each recording has an entry holding the hash of its key and the id of the next recording in the same bucket.
+ * Buckets hold the first and last recording ids of their chain. Recordings are indexed in the order they are added
+ * to the catalog so chains are in ascending recording id order. Hashes can collide so candidates should be checked
+ * against their descriptor with {@link #matches(RecordingDescriptorDecoder, int, String)}.
+ * <p>
+ * The index is rebuilt when the catalog is loaded and is not thread safe.
+ */
+class RecordingChannelIndex
+{
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NULL_ID = NULL_RECORD_ID;
+
+    private static final int ENTRY_LENGTH = 2 * SIZE_OF_INT;
+    private static final int HASH_OFFSET = 0;
+    private static final int NEXT_OFFSET = SIZE_OF_INT;
+    private static final int HEAD_OFFSET = 0;
+    private static final int TAIL_OFFSET = SIZE_OF_INT;
+
+    private int size = 0;
+    private int entryCapacity = INITIAL_CAPACITY;
+    private int bucketMask = INITIAL_CAPACITY - 1;
+    private UnsafeBuffer entries = newBuffer(INITIAL_CAPACITY);
+    private UnsafeBuffer buckets = newBuffer(INITIAL_CAPACITY);
+
+    /**
+     * Number of recordings in the index.
+     *
+     * @return number of recordings in the index.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Add a new recording to the index. Recordings must be added in order of recording id without gaps.
+     *
+     * @param recordingId     of the new recording.
+     * @param streamId        of the recording.
+     * @param strippedChannel of the recording.
+     */
+    void add(final long recordingId, final int streamId, final String strippedChannel)
+    {
+        add(recordingId, hash(streamId, strippedChannel));
+    }
+
+    /**
+     * Add the recording for a descriptor to the index. The decoder must have just been wrapped so its limit is at the
+     * stripped channel. Recordings must be added in order of recording id without gaps.
+     *
+     * @param decoder wrapping the descriptor of the recording.
+     */
+    void add(final RecordingDescriptorDecoder decoder)
+    {
+        add(decoder.recordingId(), hash(decoder.streamId(), decoder));
+    }
+
+    /**
+     * Find the first recording at or after a recording id which could match the key of a hash.
+     * <p>
+     * Rather than walking the chain from its head, which would make paging through the recordings of a key quadratic,
+     * the search seeks to the entry of the recording id. When paging from the recording after the last one found, the
+     * previous entry is in the chain and the search continues from it. Otherwise entries, which are contiguous, are
+     * scanned forward to the first in the same bucket, bounded by the tail of the chain.
+     *
+     * @param keyHash         of the stream id and stripped channel to search for.
+     * @param fromRecordingId at which to begin the search.
+     * @return the id of the first candidate recording or {@link Catalog#NULL_RECORD_ID} if none.
+     */
+    long firstCandidate(final int keyHash, final long fromRecordingId)
+    {
+        final int bucketOffset = bucketOffset(keyHash);
+        final int headId = buckets.getInt(bucketOffset + HEAD_OFFSET);
+        final int tailId = buckets.getInt(bucketOffset + TAIL_OFFSET);
+        if (NULL_ID == headId || fromRecordingId > tailId)
+        {
+            return NULL_ID;
+        }
+
+        if (fromRecordingId <= headId)
+        {
+            return matchFrom(keyHash, headId);
+        }
+
+        final int fromId = (int)fromRecordingId;
+        final int previousId = fromId - 1;
+        if (bucketOffset(entries.getInt(entryOffset(previousId) + HASH_OFFSET)) == bucketOffset)
+        {
+            return nextCandidate(keyHash, previousId);
+        }
+
+        for (int recordingId = fromId; recordingId <= tailId; recordingId++)
+        {
+            if (bucketOffset(entries.getInt(entryOffset(recordingId) + HASH_OFFSET)) == bucketOffset)
+            {
+                return matchFrom(keyHash, recordingId);
+            }
+        }
+
+        return NULL_ID;
+    }
+
+    /**
+     * Find the next recording after a candidate recording which could match the key of a hash.
+     *
+     * @param keyHash     of the stream id and stripped channel to search for.
+     * @param recordingId of the previous candidate.
+     * @return the id of the next candidate recording or {@link Catalog#NULL_RECORD_ID} if none.
+     */
+    long nextCandidate(final int keyHash, final long recordingId)
+    {
+        if (recordingId < 0 || recordingId >= size)
+        {
+            return NULL_ID;
+        }
+
+        int nextId = entries.getInt(entryOffset((int)recordingId) + NEXT_OFFSET);
+        while (NULL_ID != nextId && entries.getInt(entryOffset(nextId) + HASH_OFFSET) != keyHash)
+        {
+            nextId = entries.getInt(entryOffset(nextId) + NEXT_OFFSET);
+        }
+
+        return nextId;
+    }
+
+    /**
+     * Hash of the key for a stream id and stripped channel.
+     *
+     * @param streamId        of the key.
+     * @param strippedChannel of the key.
+     * @return the hash of the key.
+     */
+    static int hash(final int streamId, final String strippedChannel)
+    {
+        int hash = streamId;
+        for (int i = 0, length = strippedChannel.length(); i < length; i++)
+        {
+            hash = 31 * hash + asciiChar(strippedChannel.charAt(i));
+        }
+
+        return mix(hash);
+    }
+
+    /**
+     * Does the descriptor match a stream id and stripped channel. The decoder must have just been wrapped so its
+     * limit is at the stripped channel.
+     *
+     * @param decoder         wrapping the descriptor.
+     * @param streamId        to match.
+     * @param strippedChannel to match.
+     * @return true if the descriptor matches otherwise false.
+     */
+    static boolean matches(final RecordingDescriptorDecoder decoder, final int streamId, final String strippedChannel)
+    {
+        if (decoder.streamId() != streamId)
+        {
+            return false;
+        }
+
+        final int length = decoder.strippedChannelLength();
+        if (length != strippedChannel.length())
+        {
+            return false;
+        }
+
+        final DirectBuffer buffer = decoder.buffer();
+        final int offset = decoder.limit() + strippedChannelHeaderLength();
+        for (int i = 0; i < length; i++)
+        {
+            if (buffer.getByte(offset + i) != asciiChar(strippedChannel.charAt(i)))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int matchFrom(final int keyHash, final int recordingId)
+    {
+        return entries.getInt(entryOffset(recordingId) + HASH_OFFSET) == keyHash ?
+            recordingId : (int)nextCandidate(keyHash, recordingId);
+    }
+
+    private void add(final long recordingId, final int keyHash)
+    {
+        if (recordingId != size)
+        {
+            throw new IllegalArgumentException("recordings must be indexed in order: expected=" + size +
+                " recordingId=" + recordingId);
+        }
+
+        if (size == entryCapacity)
+        {
+            final UnsafeBuffer newEntries = newBuffer(entryCapacity << 1);
+            newEntries.putBytes(0, entries, 0, size * ENTRY_LENGTH);
+            entries = newEntries;
+            entryCapacity <<= 1;
+        }
+
+        entries.putInt(entryOffset(size) + HASH_OFFSET, keyHash);
+        size++;
+
+        if (size > bucketMask + 1)
+        {
+            final int bucketCount = (bucketMask + 1) << 1;
+            buckets = newBuffer(bucketCount);
+            bucketMask = bucketCount - 1;
+
+            for (int i = 0; i < size; i++)
+            {
+                link(i);
+            }
+        }
+        else
+        {
+            link(size - 1);
+        }
+    }
+
+    private void link(final int recordingId)
+    {
+        final int entryOffset = entryOffset(recordingId);
+        final int bucketOffset = bucketOffset(entries.getInt(entryOffset + HASH_OFFSET));
+        final int tailId = buckets.getInt(bucketOffset + TAIL_OFFSET);
+
+        if (NULL_ID == tailId)
+        {
+            buckets.putInt(bucketOffset + HEAD_OFFSET, recordingId);
+        }
+        else
+        {
+            entries.putInt(entryOffset(tailId) + NEXT_OFFSET, recordingId);
+        }
+
+        entries.putInt(entryOffset + NEXT_OFFSET, NULL_ID);
+        buckets.putInt(bucketOffset + TAIL_OFFSET, recordingId);
+    }
+
+    private int bucketOffset(final int keyHash)
+    {
+        return (keyHash & bucketMask) * ENTRY_LENGTH;
+    }
+
+    private static int entryOffset(final int recordingId)
+    {
+        return recordingId * ENTRY_LENGTH;
+    }
+
+    private static int hash(final int streamId, final RecordingDescriptorDecoder decoder)
+    {
+        final DirectBuffer buffer = decoder.buffer();
+        final int offset = decoder.limit() + strippedChannelHeaderLength();
+
+        int hash = streamId;
+        for (int i = 0, length = decoder.strippedChannelLength(); i < length; i++)
+        {
+            hash = 31 * hash + buffer.getByte(offset + i);
+        }
+
+        return mix(hash);
+    }
+
+    private static int mix(final int hash)
+    {
+        final int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static byte asciiChar(final char c)
+    {
+        return (byte)(c > 127 ? '?' : c);
+    }
+
+    private static UnsafeBuffer newBuffer(final int capacity)
+    {
+        final int length = capacity * ENTRY_LENGTH;
+        final UnsafeBuffer buffer = new UnsafeBuffer(allocateDirectAligned(length, CACHE_LINE_LENGTH));
+        buffer.setMemory(0, length, (byte)0xFF);
+
+        return buffer;
+    }
+}
@@ -28,6 +28,7 @@ class RecordingEventsProxy
     private final MessageHeaderEncoder messageHeaderEncoder = new MessageHeaderEncoder();
     private final RecordingStartedEncoder recordingStartedEncoder = new RecordingStartedEncoder();
     private final RecordingProgressEncoder recordingProgressEncoder = new RecordingProgressEncoder();
+    private final RecordingProgressBatchEncoder recordingProgressBatchEncoder = new RecordingProgressBatchEncoder();
     private final RecordingStoppedEncoder recordingStoppedEncoder = new RecordingStoppedEncoder();
 
     RecordingEventsProxy(final IdleStrategy idleStrategy, final Publication recordingEventsPublication)
@@ -36,6 +37,11 @@ class RecordingEventsProxy
         this.recordingEventsPublication = recordingEventsPublication;
     }
 
+    Publication publication()
+    {
+        return recordingEventsPublication;
+    }
+
     void started(
         final long recordingId,
         final long startPosition,
@@ -67,6 +73,25 @@ class RecordingEventsProxy
         send(recordingProgressEncoder.encodedLength());
     }
 
+    void progressBatch(
+        final long[] recordingIds, final long[] startPositions, final long[] positions, final int count)
+    {
+        final RecordingProgressBatchEncoder.ProgressEncoder progressEncoder = recordingProgressBatchEncoder
+            .wrapAndApplyHeader(outboundBuffer, 0, messageHeaderEncoder)
+            .progressCount(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            progressEncoder
+                .next()
+                .recordingId(recordingIds[i])
+                .startPosition(startPositions[i])
+                .position(positions[i]);
+        }
+
+        send(recordingProgressBatchEncoder.encodedLength());
+    }
+
     void stopped(final long recordingId, final long startPosition, final long stopPosition)
     {
         recordingStoppedEncoder
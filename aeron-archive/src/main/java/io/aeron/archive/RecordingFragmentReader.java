@@ -19,6 +19,7 @@ import io.aeron.archive.codecs.RecordingDescriptorDecoder;
 import io.aeron.logbuffer.FrameDescriptor;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
 import org.agrona.IoUtil;
 import org.agrona.UnsafeAccess;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -26,8 +27,10 @@ import org.agrona.concurrent.status.AtomicCounter;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
 
 import static io.aeron.archive.Archive.segmentFileIndex;
 import static io.aeron.archive.Archive.segmentFileName;
@@ -45,11 +48,21 @@ class RecordingFragmentReader implements AutoCloseable
     private final long startPosition;
     private final int segmentLength;
     private final int termLength;
+    private final int baseSegmentIndex;
 
     private final RecordingDescriptorDecoder descriptorDecoder;
     private final AtomicCounter recordingPosition;
     private final UnsafeBuffer termBuffer;
-    private MappedByteBuffer mappedSegmentBuffer;
+    private final CompressedSegmentStore segmentStore;
+    private final SegmentReadAhead readAhead;
+    private final SegmentReadAhead.Slot readAheadSlot;
+    private File readAheadSegmentFile;
+    private int readAheadSegmentIndex = -1;
+    private ByteBuffer segmentBuffer;
+    private CompressedSegmentStore.Segment storedSegment;
+    private boolean isSegmentMapped;
+    private boolean isTermPending;
+    private boolean isFromPositionChecked;
 
     private long fromPosition;
     private long stopPosition;
@@ -66,13 +79,40 @@ class RecordingFragmentReader implements AutoCloseable
         final long position,
         final long length,
         final AtomicCounter recordingPosition) throws IOException
+    {
+        this(descriptorDecoder, archiveDir, position, length, recordingPosition, null);
+    }
+
+    RecordingFragmentReader(
+        final RecordingDescriptorDecoder descriptorDecoder,
+        final File archiveDir,
+        final long position,
+        final long length,
+        final AtomicCounter recordingPosition,
+        final CompressedSegmentStore segmentStore) throws IOException
+    {
+        this(descriptorDecoder, archiveDir, position, length, recordingPosition, segmentStore, null);
+    }
+
+    RecordingFragmentReader(
+        final RecordingDescriptorDecoder descriptorDecoder,
+        final File archiveDir,
+        final long position,
+        final long length,
+        final AtomicCounter recordingPosition,
+        final CompressedSegmentStore segmentStore,
+        final SegmentReadAhead readAhead) throws IOException
     {
         this.descriptorDecoder = descriptorDecoder;
+        this.segmentStore = segmentStore;
+        this.readAhead = readAhead;
+        this.readAheadSlot = null != readAhead ? new SegmentReadAhead.Slot() : null;
         stopPosition = descriptorDecoder.stopPosition();
         termLength = descriptorDecoder.termBufferLength();
         segmentLength = descriptorDecoder.segmentFileLength();
         startPosition = descriptorDecoder.startPosition();
         recordingId = descriptorDecoder.recordingId();
+        baseSegmentIndex = Catalog.baseSegmentIndex(descriptorDecoder.buffer());
 
         if (stopPosition == NULL_POSITION)
         {
@@ -111,7 +151,7 @@ class RecordingFragmentReader implements AutoCloseable
             throw new IllegalArgumentException("Length must be positive");
         }
 
-        segmentFileIndex = segmentFileIndex(startPosition, fromPosition, segmentLength);
+        segmentFileIndex = segmentFileIndex(baseSegmentIndex, startPosition, termLength, segmentLength, fromPosition);
 
         if (!openRecordingSegment())
         {
@@ -124,29 +164,22 @@ class RecordingFragmentReader implements AutoCloseable
         final int fromTermStartSegmentOffset = (int)(fromSegmentOffset - (fromSegmentOffset & termMask));
         final int fromTermOffset = (int)(fromSegmentOffset & termMask);
 
-        termBuffer = new UnsafeBuffer(mappedSegmentBuffer, fromTermStartSegmentOffset, termLength);
+        termBuffer = new UnsafeBuffer(0, 0);
         termStartSegmentOffset = fromTermStartSegmentOffset;
         termOffset = fromTermOffset;
-        final DataHeaderFlyweight flyweight = new DataHeaderFlyweight();
-        flyweight.wrap(termBuffer, termOffset, DataHeaderFlyweight.HEADER_LENGTH);
-
-        if (flyweight.sessionId() != descriptorDecoder.sessionId() ||
-            flyweight.streamId() != descriptorDecoder.streamId() ||
-            flyweight.termOffset() != termOffset)
-        {
-            close();
-            throw new IllegalArgumentException("fromPosition is not aligned to fragment: " + fromPosition);
-        }
-
         replayPosition = fromPosition;
 
         // from above restrictions on arguments replay limit is in the range [replayPosition, MAX_LONG]
         replayLimit = fromPosition + replayLength;
+
+        isTermPending = true;
+        wrapPendingTerm();
     }
 
     public void close()
     {
         closeRecordingSegment();
+        CloseHelper.quietClose(readAheadSlot);
     }
 
     boolean isDone()
@@ -159,10 +192,36 @@ class RecordingFragmentReader implements AutoCloseable
         return fromPosition;
     }
 
+    long replayPosition()
+    {
+        return replayPosition;
+    }
+
+    /**
+     * Is the next term, which is about to be read, still being read ahead into the page cache, so reading it now may
+     * block on page faults. The term being read is never gated.
+     *
+     * @return true if the next term is about to be read and is still being read ahead.
+     */
+    boolean isReadAheadPending()
+    {
+        return termOffset == termLength && null != readAheadSlot && readAheadSlot.isPending();
+    }
+
+    /**
+     * Is the term to be read in a compressed segment which is still being decompressed by the segment store.
+     *
+     * @return true if the term to be read is in a segment which is still being decompressed.
+     */
+    boolean isSegmentLoadPending()
+    {
+        return isTermPending;
+    }
+
     int controlledPoll(final SimplifiedControlledFragmentHandler fragmentHandler, final int fragmentLimit)
         throws IOException
     {
-        if (isDone() || noAvailableData())
+        if (isDone() || (isTermPending && !wrapPendingTerm()) || noAvailableData())
         {
             return 0;
         }
@@ -208,6 +267,62 @@ class RecordingFragmentReader implements AutoCloseable
         return polled;
     }
 
+    int blockPoll(final ReplayBlockHandler blockHandler, final int blockLengthLimit) throws IOException
+    {
+        if (isDone() ||
+            (isTermPending && !wrapPendingTerm()) ||
+            noAvailableData() ||
+            (stopPosition - replayPosition) <= 0)
+        {
+            return 0;
+        }
+
+        if (termOffset == termLength)
+        {
+            termOffset = 0;
+            nextTerm();
+            if (isTermPending)
+            {
+                return 0;
+            }
+        }
+
+        final int maxLength = (int)Math.min(
+            Math.min(blockLengthLimit, termLength - termOffset), stopPosition - replayPosition);
+        int blockLength = 0;
+        int frameCount = 0;
+
+        while (blockLength < maxLength && (replayPosition + blockLength) < replayLimit)
+        {
+            final int frameLength = FrameDescriptor.frameLength(termBuffer, termOffset + blockLength);
+            final int alignedLength = BitUtil.align(frameLength, FRAME_ALIGNMENT);
+
+            if (blockLength > 0 && (blockLength + alignedLength) > maxLength)
+            {
+                break;
+            }
+
+            blockLength += alignedLength;
+            frameCount++;
+        }
+
+        if (!blockHandler.onBlock(termBuffer, termOffset, blockLength))
+        {
+            return 0;
+        }
+
+        replayPosition += blockLength;
+        termOffset += blockLength;
+
+        if (replayLimit <= replayPosition)
+        {
+            isDone = true;
+            closeRecordingSegment();
+        }
+
+        return frameCount;
+    }
+
     private boolean noAvailableData()
     {
         return recordingPosition != null &&
@@ -259,17 +374,92 @@ class RecordingFragmentReader implements AutoCloseable
             termStartSegmentOffset = 0;
         }
 
-        termBuffer.wrap(mappedSegmentBuffer, termStartSegmentOffset, termLength);
+        isTermPending = true;
+        wrapPendingTerm();
+    }
+
+    private boolean wrapPendingTerm() throws IOException
+    {
+        if (null == segmentBuffer)
+        {
+            if (!storedSegment.isLoaded())
+            {
+                return false;
+            }
+
+            segmentBuffer = storedSegment.buffer();
+        }
+
+        termBuffer.wrap(segmentBuffer, termStartSegmentOffset, termLength);
+        isTermPending = false;
+
+        if (!isFromPositionChecked)
+        {
+            checkFromPosition();
+            isFromPositionChecked = true;
+        }
+
+        if (null != readAhead)
+        {
+            readAheadNextTerm();
+        }
+
+        return true;
+    }
+
+    private void checkFromPosition()
+    {
+        final DataHeaderFlyweight flyweight = new DataHeaderFlyweight();
+        flyweight.wrap(termBuffer, termOffset, DataHeaderFlyweight.HEADER_LENGTH);
+
+        if (flyweight.sessionId() != descriptorDecoder.sessionId() ||
+            flyweight.streamId() != descriptorDecoder.streamId() ||
+            flyweight.termOffset() != termOffset)
+        {
+            close();
+            throw new IllegalArgumentException("fromPosition is not aligned to fragment: " + fromPosition);
+        }
+    }
+
+    private void readAheadNextTerm()
+    {
+        final int nextTermStartSegmentOffset = termStartSegmentOffset + termLength;
+
+        if (nextTermStartSegmentOffset == segmentLength)
+        {
+            readAhead(segmentFileIndex + 1, 0);
+        }
+        else
+        {
+            readAhead(segmentFileIndex, nextTermStartSegmentOffset);
+        }
+    }
+
+    private void readAhead(final int segmentFileIndex, final int termStartSegmentOffset)
+    {
+        if (segmentFileIndex != readAheadSegmentIndex)
+        {
+            readAheadSegmentIndex = segmentFileIndex;
+            readAheadSegmentFile = new File(archiveDir, segmentFileName(recordingId, segmentFileIndex));
+        }
+
+        readAhead.readAhead(readAheadSlot, readAheadSegmentFile, termStartSegmentOffset, termLength);
     }
 
     private void closeRecordingSegment()
     {
-        if (null != mappedSegmentBuffer)
+        if (null != segmentBuffer && isSegmentMapped)
+        {
+            IoUtil.unmap((MappedByteBuffer)segmentBuffer);
+        }
+
+        if (null != storedSegment)
         {
-            IoUtil.unmap(mappedSegmentBuffer);
+            segmentStore.release(storedSegment);
         }
 
-        mappedSegmentBuffer = null;
+        segmentBuffer = null;
+        storedSegment = null;
     }
 
     private boolean openRecordingSegment() throws IOException
@@ -277,23 +467,43 @@ class RecordingFragmentReader implements AutoCloseable
         final String segmentFileName = segmentFileName(recordingId, segmentFileIndex);
         final File segmentFile = new File(archiveDir, segmentFileName);
 
-        if (!segmentFile.exists())
+        if (segmentFile.exists())
         {
-            final int lastSegmentIndex = segmentFileIndex(startPosition, stopPosition, segmentLength);
-            if (lastSegmentIndex > segmentFileIndex)
+            try (FileChannel channel = FileChannel.open(segmentFile.toPath(), READ))
+            {
+                segmentBuffer = channel.map(READ_ONLY, 0, segmentLength);
+                isSegmentMapped = true;
+
+                return true;
+            }
+            catch (final NoSuchFileException ex)
             {
-                throw new IllegalStateException("Recording segment not found. Segment index=" + segmentFileIndex +
-                    ", last segment index=" + lastSegmentIndex);
+                if (null == segmentStore)
+                {
+                    throw ex;
+                }
             }
+        }
 
-            return false;
+        if (null != segmentStore)
+        {
+            storedSegment = segmentStore.acquire(recordingId, segmentFileIndex, segmentLength);
+            if (null != storedSegment)
+            {
+                isSegmentMapped = false;
+
+                return true;
+            }
         }
 
-        try (FileChannel channel = FileChannel.open(segmentFile.toPath(), READ))
+        final int lastSegmentIndex = segmentFileIndex(
+            baseSegmentIndex, startPosition, termLength, segmentLength, stopPosition);
+        if (lastSegmentIndex > segmentFileIndex)
         {
-            mappedSegmentBuffer = channel.map(READ_ONLY, 0, segmentLength);
+            throw new IllegalStateException("Recording segment not found. Segment index=" + segmentFileIndex +
+                ", last segment index=" + lastSegmentIndex);
         }
 
-        return true;
+        return false;
     }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.NanoClock;
+
+import java.util.ArrayList;
+
+/**
+ * Group commit of writes from all {@link RecordingWriter}s on the recorder so they are sync'ed to disk together on an
+ * interval, or when a threshold of bytes has been written, rather than after every block of each recording.
+ * <p>
+ * Recording positions only advance past data when it has been sync'ed, so durability remains explicit.
+ * <p>
+ * <b>Note:</b> Must only be used from the recorder thread.
+ */
+class RecordingGroupSyncer
+{
+    private final long intervalNs;
+    private final long thresholdBytes;
+    private final NanoClock nanoClock;
+    private final ErrorHandler errorHandler;
+    private final ArrayList<RecordingWriter> pendingWriters = new ArrayList<>();
+    private long pendingBytes = 0;
+    private long timeOfLastSyncNs;
+
+    RecordingGroupSyncer(
+        final long intervalNs,
+        final long thresholdBytes,
+        final NanoClock nanoClock,
+        final ErrorHandler errorHandler)
+    {
+        this.intervalNs = intervalNs;
+        this.thresholdBytes = thresholdBytes;
+        this.nanoClock = nanoClock;
+        this.errorHandler = errorHandler;
+
+        timeOfLastSyncNs = nanoClock.nanoTime();
+    }
+
+    /**
+     * Sync the pending writes if the interval has elapsed or the threshold of bytes has been written.
+     *
+     * @return the number of recordings sync'ed.
+     */
+    int doWork()
+    {
+        final int size = pendingWriters.size();
+        if (0 == size)
+        {
+            return 0;
+        }
+
+        final long nowNs = nanoClock.nanoTime();
+        if (pendingBytes < thresholdBytes && nowNs < (timeOfLastSyncNs + intervalNs))
+        {
+            return 0;
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            final RecordingWriter writer = pendingWriters.get(i);
+            try
+            {
+                writer.sync();
+            }
+            catch (final Exception ex)
+            {
+                errorHandler.onError(ex);
+            }
+        }
+
+        pendingWriters.clear();
+        pendingBytes = 0;
+        timeOfLastSyncNs = nowNs;
+
+        return size;
+    }
+
+    void onWrite(final RecordingWriter writer, final int length, final boolean isFirstPendingWrite)
+    {
+        if (isFirstPendingWrite)
+        {
+            pendingWriters.add(writer);
+        }
+
+        pendingBytes += length;
+    }
+
+    void remove(final RecordingWriter writer)
+    {
+        pendingWriters.remove(writer);
+    }
+}
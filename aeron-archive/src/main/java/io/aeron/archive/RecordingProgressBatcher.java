@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.archive.codecs.MessageHeaderEncoder;
+import io.aeron.archive.codecs.RecordingProgressBatchEncoder;
+
+/**
+ * Batch the progress of all recordings on a recorder into one RecordingProgressBatch message per duty cycle rather
+ * than sending a RecordingProgress message for every update of every recording, so listeners can follow many
+ * recordings cheaply.
+ * <p>
+ * Pending progress is sent before a recording on the recorder is closed so it is not seen after the recording has
+ * stopped.
+ * <p>
+ * <b>Note:</b> Must only be used from the recorder thread.
+ */
+class RecordingProgressBatcher
+{
+    private final RecordingEventsProxy recordingEventsProxy;
+    private final long[] recordingIds;
+    private final long[] startPositions;
+    private final long[] positions;
+    private int count = 0;
+
+    RecordingProgressBatcher(
+        final RecordingEventsProxy recordingEventsProxy, final int batchSize, final int maxMessageLength)
+    {
+        this.recordingEventsProxy = recordingEventsProxy;
+
+        final int maxBatchSize = (maxMessageLength - MessageHeaderEncoder.ENCODED_LENGTH -
+            RecordingProgressBatchEncoder.ProgressEncoder.sbeHeaderSize()) /
+            RecordingProgressBatchEncoder.ProgressEncoder.sbeBlockLength();
+        final int capacity = Math.max(Math.min(batchSize, maxBatchSize), 1);
+
+        recordingIds = new long[capacity];
+        startPositions = new long[capacity];
+        positions = new long[capacity];
+    }
+
+    /**
+     * Add the progress of a recording to the batch, sending the batch first if it is full.
+     *
+     * @param recordingId   which has progressed.
+     * @param startPosition of the recording.
+     * @param position      the recording has reached.
+     */
+    void progress(final long recordingId, final long startPosition, final long position)
+    {
+        if (count == recordingIds.length)
+        {
+            flush();
+        }
+
+        recordingIds[count] = recordingId;
+        startPositions[count] = startPosition;
+        positions[count] = position;
+        count++;
+    }
+
+    /**
+     * Send the pending progress, if any.
+     *
+     * @return the number of progress updates sent.
+     */
+    int flush()
+    {
+        final int count = this.count;
+        if (count > 0)
+        {
+            recordingEventsProxy.progressBatch(recordingIds, startPositions, positions, count);
+            this.count = 0;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,489 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import org.agrona.ErrorHandler;
+import org.agrona.collections.ArrayListUtil;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+import static io.aeron.archive.Archive.segmentFileIndex;
+import static io.aeron.archive.Archive.segmentFileName;
+import static io.aeron.archive.Archive.timeIndexFileName;
+import static io.aeron.archive.Catalog.NULL_POSITION;
+import static io.aeron.archive.Catalog.NULL_TIME;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Purges and truncates recordings, and trims recordings to their {@link RetentionPolicy}.
+ * <p>
+ * The start of a recording is moved forward by discarding whole segments. Segment files keep their index so the
+ * catalog records the index of the segment holding the new start position. The catalog is updated before any files
+ * are deleted, so should the archive stop part way through only orphaned segments are left behind. Files are deleted,
+ * time indexes are trimmed, and the age of segments is checked on a file thread so the conductor does no file I/O.
+ * The file thread is the {@link SegmentCompactor} thread when segments are compressed, so deletion is serialized with
+ * compaction, otherwise a background thread which is started when first needed.
+ * <p>
+ * Only recordings with a retention policy are checked, which are indexed as they are added to the catalog.
+ * <p>
+ * Recordings being replayed are not changed. Apart from the file tasks this class is not thread safe and is used from
+ * the archive conductor.
+ */
+class RecordingRetention implements AutoCloseable
+{
+    private final Catalog catalog;
+    private final File archiveDir;
+    private final CompressedSegmentStore segmentStore;
+    private final RetentionPolicy defaultPolicy;
+    private final Map<String, RetentionPolicy> policyByKey;
+    private final EpochClock epochClock;
+    private final ErrorHandler errorHandler;
+    private final ThreadFactory threadFactory;
+    private final Executor fileExecutor;
+    private final LongUnaryOperator activePosition;
+    private final LongPredicate isReplaying;
+    private final UnsafeBuffer descriptorBuffer = new UnsafeBuffer();
+    private final RecordingDescriptorDecoder descriptorDecoder = new RecordingDescriptorDecoder();
+    private final ArrayList<RetainedRecording> retainedRecordings = new ArrayList<>();
+    private long nextIndexedRecordingId = 0;
+    private ExecutorService deleteExecutor;
+
+    /**
+     * Create the retention for the recordings in a catalog.
+     *
+     * @param catalog        of the recordings.
+     * @param archiveDir     holding the segment files.
+     * @param segmentStore   of compressed segments or null if segments are not compressed.
+     * @param defaultPolicy  for recordings of channels without their own policy.
+     * @param policyByKey    policies of channels keyed by stream id and stripped channel.
+     * @param epochClock     for the age of recorded data.
+     * @param errorHandler   for errors deleting files.
+     * @param threadFactory  for the thread deleting files when there is no file executor.
+     * @param fileExecutor   on which to run file tasks, such as that of the {@link SegmentCompactor}, or null to
+     *                       start a thread from the thread factory.
+     * @param activePosition of a recording being recorded to, or {@link Catalog#NULL_POSITION} if not active.
+     * @param isReplaying    is a recording being replayed.
+     */
+    RecordingRetention(
+        final Catalog catalog,
+        final File archiveDir,
+        final CompressedSegmentStore segmentStore,
+        final RetentionPolicy defaultPolicy,
+        final Map<String, RetentionPolicy> policyByKey,
+        final EpochClock epochClock,
+        final ErrorHandler errorHandler,
+        final ThreadFactory threadFactory,
+        final Executor fileExecutor,
+        final LongUnaryOperator activePosition,
+        final LongPredicate isReplaying)
+    {
+        this.catalog = catalog;
+        this.archiveDir = archiveDir;
+        this.segmentStore = segmentStore;
+        this.defaultPolicy = defaultPolicy;
+        this.policyByKey = policyByKey;
+        this.epochClock = epochClock;
+        this.errorHandler = errorHandler;
+        this.threadFactory = threadFactory;
+        this.fileExecutor = fileExecutor;
+        this.activePosition = activePosition;
+        this.isReplaying = isReplaying;
+    }
+
+    public void close()
+    {
+        if (null != deleteExecutor)
+        {
+            deleteExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Purge a stopped recording, marking it invalid in the catalog and deleting all its files.
+     *
+     * @param recordingId of the recording.
+     */
+    void purge(final long recordingId)
+    {
+        wrap(recordingId);
+        final long stopPosition = descriptorDecoder.stopPosition();
+        if (NULL_POSITION == stopPosition || NULL_POSITION != activePosition.applyAsLong(recordingId))
+        {
+            throw new IllegalStateException("Cannot purge active recording: " + recordingId);
+        }
+
+        if (isReplaying.test(recordingId))
+        {
+            throw new IllegalStateException("Cannot purge recording being replayed: " + recordingId);
+        }
+
+        purge(recordingId, stopPosition);
+    }
+
+    /**
+     * Truncate the start of a recording by discarding the whole segments before the segment holding a position.
+     *
+     * @param recordingId of the recording.
+     * @param position    in the recording before which the whole segments are discarded.
+     * @return the start position of the recording once truncated.
+     */
+    long truncate(final long recordingId, final long position)
+    {
+        wrap(recordingId);
+        final long startPosition = descriptorDecoder.startPosition();
+        final long recordedPosition = recordedPosition(recordingId);
+
+        if (NULL_POSITION == recordedPosition || position > recordedPosition)
+        {
+            throw new IllegalArgumentException("position " + position + " is after the recorded position " +
+                recordedPosition + " of recording: " + recordingId);
+        }
+
+        if (isReplaying.test(recordingId))
+        {
+            throw new IllegalStateException("Cannot truncate recording being replayed: " + recordingId);
+        }
+
+        if (position <= startPosition)
+        {
+            return startPosition;
+        }
+
+        return trim(recordingId, segmentIndex(position));
+    }
+
+    /**
+     * Trim the recordings in the catalog which have a retention policy to their policy.
+     *
+     * @return the number of recordings trimmed or purged.
+     */
+    int checkRetention()
+    {
+        if (defaultPolicy.isRetainAll() && policyByKey.isEmpty())
+        {
+            return 0;
+        }
+
+        indexNewRecordings();
+
+        int workCount = 0;
+        final long nowMs = epochClock.time();
+        final ArrayList<RetainedRecording> retainedRecordings = this.retainedRecordings;
+        for (int i = retainedRecordings.size() - 1; i >= 0; i--)
+        {
+            final RetainedRecording retainedRecording = retainedRecordings.get(i);
+            final long recordingId = retainedRecording.recordingId;
+            if (!catalog.wrapDescriptor(recordingId, descriptorBuffer) || !Catalog.isValidDescriptor(descriptorBuffer))
+            {
+                ArrayListUtil.fastUnorderedRemove(retainedRecordings, i);
+                continue;
+            }
+
+            if (!isReplaying.test(recordingId))
+            {
+                Catalog.wrapDescriptorDecoder(descriptorDecoder, descriptorBuffer);
+                workCount += applyPolicy(retainedRecording, nowMs);
+            }
+        }
+
+        return workCount;
+    }
+
+    private void indexNewRecordings()
+    {
+        final long nextRecordingId = catalog.nextRecordingId();
+        for (long recordingId = nextIndexedRecordingId; recordingId < nextRecordingId; recordingId++)
+        {
+            if (catalog.wrapDescriptor(recordingId, descriptorBuffer) && Catalog.isValidDescriptor(descriptorBuffer))
+            {
+                Catalog.wrapDescriptorDecoder(descriptorDecoder, descriptorBuffer);
+                final RetentionPolicy policy = policy(descriptorDecoder);
+                if (!policy.isRetainAll())
+                {
+                    retainedRecordings.add(new RetainedRecording(recordingId, policy));
+                }
+            }
+        }
+
+        nextIndexedRecordingId = nextRecordingId;
+    }
+
+    private int applyPolicy(final RetainedRecording retainedRecording, final long nowMs)
+    {
+        final long recordingId = retainedRecording.recordingId;
+        final RetentionPolicy policy = retainedRecording.policy;
+        final long recordedPosition = recordedPosition(recordingId);
+        if (NULL_POSITION == recordedPosition)
+        {
+            return 0;
+        }
+
+        final long maxAgeMs = NANOSECONDS.toMillis(policy.maxAgeNs());
+        final long stopTimestamp = descriptorDecoder.stopTimestamp();
+        if (maxAgeMs > 0 && NULL_TIME != stopTimestamp && NULL_POSITION != descriptorDecoder.stopPosition() &&
+            stopTimestamp < (nowMs - maxAgeMs) && NULL_POSITION == activePosition.applyAsLong(recordingId))
+        {
+            purge(recordingId, descriptorDecoder.stopPosition());
+            return 1;
+        }
+
+        final int baseSegmentIndex = Catalog.baseSegmentIndex(descriptorBuffer);
+        final int lastSegmentIndex = segmentIndex(recordedPosition);
+        int newBaseSegmentIndex = baseSegmentIndex;
+
+        final long maxBytes = policy.maxBytes();
+        if (maxBytes > 0 && (recordedPosition - descriptorDecoder.startPosition()) > maxBytes)
+        {
+            newBaseSegmentIndex = segmentIndex(recordedPosition - maxBytes);
+        }
+
+        if (maxAgeMs > 0 && !retainedRecording.isScanPending)
+        {
+            newBaseSegmentIndex = Math.max(newBaseSegmentIndex, retainedRecording.expiredSegmentIndex);
+            if (newBaseSegmentIndex < lastSegmentIndex)
+            {
+                retainedRecording.scan(newBaseSegmentIndex, lastSegmentIndex, nowMs - maxAgeMs);
+            }
+        }
+
+        newBaseSegmentIndex = Math.min(newBaseSegmentIndex, lastSegmentIndex);
+        if (newBaseSegmentIndex > baseSegmentIndex)
+        {
+            trim(recordingId, newBaseSegmentIndex);
+            return 1;
+        }
+
+        return 0;
+    }
+
+    private long trim(final long recordingId, final int newBaseSegmentIndex)
+    {
+        final int baseSegmentIndex = Catalog.baseSegmentIndex(descriptorBuffer);
+        final long startPosition = descriptorDecoder.startPosition();
+        if (newBaseSegmentIndex <= baseSegmentIndex)
+        {
+            return startPosition;
+        }
+
+        final int termBufferLength = descriptorDecoder.termBufferLength();
+        final long termStartPosition = startPosition - (startPosition & (termBufferLength - 1));
+        final long segmentsLength =
+            (newBaseSegmentIndex - baseSegmentIndex) * (long)descriptorDecoder.segmentFileLength();
+        final long newStartPosition = termStartPosition + segmentsLength;
+
+        catalog.updateStartPosition(recordingId, newStartPosition, newBaseSegmentIndex);
+        final long timeIndexStartPosition =
+            NULL_POSITION == activePosition.applyAsLong(recordingId) ? newStartPosition : NULL_POSITION;
+        deleteFiles(recordingId, baseSegmentIndex, newBaseSegmentIndex, false, timeIndexStartPosition);
+
+        return newStartPosition;
+    }
+
+    private void purge(final long recordingId, final long stopPosition)
+    {
+        final int baseSegmentIndex = Catalog.baseSegmentIndex(descriptorBuffer);
+        final int lastSegmentIndex = segmentIndex(stopPosition);
+
+        catalog.invalidateRecording(recordingId);
+        for (int i = retainedRecordings.size() - 1; i >= 0; i--)
+        {
+            if (retainedRecordings.get(i).recordingId == recordingId)
+            {
+                ArrayListUtil.fastUnorderedRemove(retainedRecordings, i);
+                break;
+            }
+        }
+
+        deleteFiles(recordingId, baseSegmentIndex, lastSegmentIndex + 1, true, NULL_POSITION);
+    }
+
+    private void deleteFiles(
+        final long recordingId,
+        final int fromSegmentIndex,
+        final int toSegmentIndex,
+        final boolean isPurge,
+        final long timeIndexStartPosition)
+    {
+        execute(
+            () ->
+            {
+                try
+                {
+                    for (int i = fromSegmentIndex; i < toSegmentIndex; i++)
+                    {
+                        Files.deleteIfExists(new File(archiveDir, segmentFileName(recordingId, i)).toPath());
+                        if (null != segmentStore)
+                        {
+                            Files.deleteIfExists(segmentStore.compressedSegmentFile(recordingId, i).toPath());
+                        }
+                    }
+
+                    if (isPurge)
+                    {
+                        Files.deleteIfExists(new File(archiveDir, timeIndexFileName(recordingId)).toPath());
+                    }
+                    else if (NULL_POSITION != timeIndexStartPosition)
+                    {
+                        RecordingTimeIndex.trim(archiveDir, recordingId, timeIndexStartPosition);
+                    }
+                }
+                catch (final IOException ex)
+                {
+                    errorHandler.onError(ex);
+                }
+            });
+    }
+
+    private void execute(final Runnable task)
+    {
+        if (null != fileExecutor)
+        {
+            fileExecutor.execute(task);
+        }
+        else
+        {
+            if (null == deleteExecutor)
+            {
+                deleteExecutor = Executors.newSingleThreadExecutor(threadFactory);
+            }
+
+            deleteExecutor.execute(task);
+        }
+    }
+
+    private long lastModified(final long recordingId, final int segmentIndex)
+    {
+        final long lastModified = new File(archiveDir, segmentFileName(recordingId, segmentIndex)).lastModified();
+        if (0 == lastModified && null != segmentStore)
+        {
+            return segmentStore.compressedSegmentFile(recordingId, segmentIndex).lastModified();
+        }
+
+        return lastModified;
+    }
+
+    private RetentionPolicy policy(final RecordingDescriptorDecoder decoder)
+    {
+        if (!policyByKey.isEmpty())
+        {
+            final RetentionPolicy policy = policyByKey.get(policyKey(decoder.streamId(), decoder.strippedChannel()));
+            if (null != policy)
+            {
+                return policy;
+            }
+        }
+
+        return defaultPolicy;
+    }
+
+    private long recordedPosition(final long recordingId)
+    {
+        final long stopPosition = descriptorDecoder.stopPosition();
+
+        return NULL_POSITION != stopPosition ? stopPosition : activePosition.applyAsLong(recordingId);
+    }
+
+    private int segmentIndex(final long position)
+    {
+        return segmentFileIndex(
+            Catalog.baseSegmentIndex(descriptorBuffer),
+            descriptorDecoder.startPosition(),
+            descriptorDecoder.termBufferLength(),
+            descriptorDecoder.segmentFileLength(),
+            position);
+    }
+
+    private void wrap(final long recordingId)
+    {
+        if (!catalog.wrapDescriptor(recordingId, descriptorBuffer) || !Catalog.isValidDescriptor(descriptorBuffer))
+        {
+            throw new IllegalArgumentException("Unknown recording: " + recordingId);
+        }
+
+        Catalog.wrapDescriptorDecoder(descriptorDecoder, descriptorBuffer);
+    }
+
+    /**
+     * Key of the policy for the recordings of a stream id and stripped channel.
+     *
+     * @param streamId        of the recordings.
+     * @param strippedChannel of the recordings.
+     * @return key of the policy for the recordings.
+     */
+    static String policyKey(final int streamId, final String strippedChannel)
+    {
+        return streamId + ":" + strippedChannel;
+    }
+
+    /**
+     * A recording with a retention policy, which scans the age of its segments on the file thread.
+     */
+    final class RetainedRecording implements Runnable
+    {
+        final long recordingId;
+        final RetentionPolicy policy;
+        private int fromSegmentIndex;
+        private int toSegmentIndex;
+        private long expiryTimeMs;
+        volatile int expiredSegmentIndex;
+        volatile boolean isScanPending;
+
+        RetainedRecording(final long recordingId, final RetentionPolicy policy)
+        {
+            this.recordingId = recordingId;
+            this.policy = policy;
+        }
+
+        void scan(final int fromSegmentIndex, final int toSegmentIndex, final long expiryTimeMs)
+        {
+            this.fromSegmentIndex = fromSegmentIndex;
+            this.toSegmentIndex = toSegmentIndex;
+            this.expiryTimeMs = expiryTimeMs;
+            isScanPending = true;
+            execute(this);
+        }
+
+        public void run()
+        {
+            int segmentIndex = fromSegmentIndex;
+            try
+            {
+                while (segmentIndex < toSegmentIndex && lastModified(recordingId, segmentIndex) < expiryTimeMs)
+                {
+                    segmentIndex++;
+                }
+            }
+            finally
+            {
+                expiredSegmentIndex = segmentIndex;
+                isScanPending = false;
+            }
+        }
+    }
+}
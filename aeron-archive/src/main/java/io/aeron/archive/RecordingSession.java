@@ -16,22 +16,38 @@
 package io.aeron.archive;
 
 import io.aeron.Image;
-import io.aeron.Subscription;
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import io.aeron.logbuffer.BlockHandler;
+import org.agrona.BufferUtil;
 import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
 import org.agrona.LangUtil;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.concurrent.Executor;
 
 import static io.aeron.archive.Catalog.NULL_POSITION;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.SESSION_ID_FIELD_OFFSET;
+import static io.aeron.protocol.DataHeaderFlyweight.STREAM_ID_FIELD_OFFSET;
+import static io.aeron.protocol.HeaderFlyweight.FRAME_LENGTH_FIELD_OFFSET;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.agrona.BitUtil.align;
 
 /**
  * Consumes an {@link Image} and records data to file using an {@link RecordingWriter}.
+ * <p>
+ * When the image is of a different stream to the recording, such as a replay from another archive being replicated,
+ * blocks are copied out of the term and the session id and stream id of each frame rewritten to those of the
+ * recording before being written, so the recorded frames are the same as if the original stream had been recorded.
  */
-class RecordingSession implements Session
+class RecordingSession implements Session, BlockHandler
 {
     private static final int MAX_BLOCK_LENGTH = 16 * 1204 * 1024;
+    private static final int MAX_REWRITE_BLOCK_LENGTH = 1024 * 1024;
 
     private enum State
     {
@@ -39,6 +55,7 @@ class RecordingSession implements Session
     }
 
     private final long recordingId;
+    private final long resumePosition;
     private final int blockLengthLimit;
     private final UnsafeBuffer descriptorBuffer;
     private final RecordingEventsProxy recordingEventsProxy;
@@ -46,9 +63,21 @@ class RecordingSession implements Session
     private final Image image;
     private final AtomicCounter position;
     private final FileChannel archiveDirChannel;
+    private final SegmentFilePool segmentFilePool;
+    private final Executor asyncWriteExecutor;
     private final Archive.Context context;
+    private final long progressIntervalNs;
+    private final int progressThreshold;
 
+    private RecordingGroupSyncer groupSyncer;
+    private RecordingProgressBatcher progressBatcher;
+    private long lastProgressPosition;
+    private long lastProgressNs;
     private RecordingWriter recordingWriter;
+    private ByteBuffer rewriteByteBuffer;
+    private UnsafeBuffer rewriteBuffer;
+    private int recordingSessionId;
+    private int recordingStreamId;
     private State state = State.INIT;
 
     RecordingSession(
@@ -59,18 +88,26 @@ class RecordingSession implements Session
         final Image image,
         final AtomicCounter position,
         final FileChannel archiveDirChannel,
-        final Archive.Context context)
+        final SegmentFilePool segmentFilePool,
+        final Executor asyncWriteExecutor,
+        final Archive.Context context,
+        final long resumePosition)
     {
         this.recordingId = recordingId;
+        this.resumePosition = resumePosition;
         this.descriptorBuffer = descriptorBuffer;
         this.recordingEventsProxy = recordingEventsProxy;
         this.strippedChannel = strippedChannel;
         this.image = image;
         this.position = position;
         this.archiveDirChannel = archiveDirChannel;
+        this.segmentFilePool = segmentFilePool;
+        this.asyncWriteExecutor = asyncWriteExecutor;
         this.context = context;
 
         blockLengthLimit = Math.min(image.termBufferLength(), MAX_BLOCK_LENGTH);
+        progressIntervalNs = context.recordingProgressIntervalNs();
+        progressThreshold = context.recordingProgressThreshold();
     }
 
     public boolean isDone()
@@ -113,16 +150,34 @@ class RecordingSession implements Session
 
     private int init()
     {
-        final Subscription subscription = image.subscription();
-        final int sessionId = image.sessionId();
-        final int streamId = subscription.streamId();
+        final RecordingDescriptorDecoder descriptorDecoder = new RecordingDescriptorDecoder();
+        Catalog.wrapDescriptorDecoder(descriptorDecoder, descriptorBuffer);
+        recordingSessionId = descriptorDecoder.sessionId();
+        recordingStreamId = descriptorDecoder.streamId();
+
         final String sourceIdentity = image.sourceIdentity();
-        final long startPosition = image.joinPosition();
+        final long startPosition = NULL_POSITION != resumePosition ? resumePosition : image.joinPosition();
+        final boolean isRewritingFrames =
+            image.sessionId() != recordingSessionId || image.subscription().streamId() != recordingStreamId;
 
         RecordingWriter recordingWriter = null;
         try
         {
-            recordingWriter = new RecordingWriter(context, archiveDirChannel, descriptorBuffer, position);
+            if (null != asyncWriteExecutor && !isRewritingFrames)
+            {
+                recordingWriter = new AsyncRecordingWriter(
+                    context, archiveDirChannel, descriptorBuffer, position, segmentFilePool, asyncWriteExecutor);
+            }
+            else
+            {
+                recordingWriter = new RecordingWriter(
+                    context, archiveDirChannel, descriptorBuffer, position, groupSyncer, segmentFilePool);
+            }
+
+            if (NULL_POSITION != resumePosition)
+            {
+                recordingWriter.resumeFrom(resumePosition, Catalog.baseSegmentIndex(descriptorBuffer));
+            }
         }
         catch (final Exception ex)
         {
@@ -131,15 +186,23 @@ class RecordingSession implements Session
             LangUtil.rethrowUnchecked(ex);
         }
 
+        if (isRewritingFrames)
+        {
+            rewriteByteBuffer = BufferUtil.allocateDirectAligned(
+                Math.min(blockLengthLimit, MAX_REWRITE_BLOCK_LENGTH), FRAME_ALIGNMENT);
+            rewriteBuffer = new UnsafeBuffer(rewriteByteBuffer);
+        }
+
         recordingEventsProxy.started(
             recordingId,
             startPosition,
-            sessionId,
-            streamId,
+            recordingSessionId,
+            recordingStreamId,
             strippedChannel,
             sourceIdentity);
 
         this.recordingWriter = recordingWriter;
+        lastProgressPosition = startPosition;
         state = State.RECORDING;
 
         return 1;
@@ -150,9 +213,9 @@ class RecordingSession implements Session
         state = State.CLOSED;
         if (recordingWriter != null)
         {
+            CloseHelper.quietClose(recordingWriter);
             final long startPosition = recordingWriter.startPosition();
             final long stopPosition = recordingWriter.recordedPosition();
-            CloseHelper.quietClose(recordingWriter);
             recordingEventsProxy.stopped(recordingId, startPosition, stopPosition);
         }
         else
@@ -161,24 +224,59 @@ class RecordingSession implements Session
         }
     }
 
+    void setThreadLocalGroupSyncer(final RecordingGroupSyncer groupSyncer)
+    {
+        this.groupSyncer = groupSyncer;
+    }
+
+    void setThreadLocalProgressBatcher(final RecordingProgressBatcher progressBatcher)
+    {
+        this.progressBatcher = progressBatcher;
+    }
+
     UnsafeBuffer descriptorBuffer()
     {
         return descriptorBuffer;
     }
 
+    public void onBlock(
+        final DirectBuffer buffer, final int offset, final int length, final int sessionId, final int termId)
+    {
+        final UnsafeBuffer rewriteBuffer = this.rewriteBuffer;
+        rewriteBuffer.putBytes(0, buffer, offset, length);
+
+        int frameOffset = 0;
+        while (frameOffset < length)
+        {
+            final int frameLength = rewriteBuffer.getInt(frameOffset + FRAME_LENGTH_FIELD_OFFSET, LITTLE_ENDIAN);
+            rewriteBuffer.putInt(frameOffset + SESSION_ID_FIELD_OFFSET, recordingSessionId, LITTLE_ENDIAN);
+            rewriteBuffer.putInt(frameOffset + STREAM_ID_FIELD_OFFSET, recordingStreamId, LITTLE_ENDIAN);
+            frameOffset += align(frameLength, FRAME_ALIGNMENT);
+        }
+
+        rewriteByteBuffer.limit(length).position(0);
+        recordingWriter.onBlock(rewriteByteBuffer, offset);
+    }
+
     private int record()
     {
         int workCount = 1;
         try
         {
-            workCount = image.rawPoll(recordingWriter, blockLengthLimit);
-            if (workCount != 0)
+            if (null != rewriteBuffer)
             {
-                recordingEventsProxy.progress(
-                    recordingWriter.recordingId(),
-                    recordingWriter.startPosition(),
-                    recordingWriter.recordedPosition());
+                workCount = image.blockPoll(this, rewriteBuffer.capacity());
             }
+            else
+            {
+                workCount = recordingWriter.pollWriteCompletions();
+                final int blockLength = Math.min(blockLengthLimit, recordingWriter.writeCapacity());
+                if (blockLength > 0)
+                {
+                    workCount += image.rawPoll(recordingWriter, blockLength);
+                }
+            }
+            progress(recordingWriter.recordedPosition());
 
             if (image.isClosed() || recordingWriter.isClosed())
             {
@@ -193,4 +291,35 @@ class RecordingSession implements Session
 
         return workCount;
     }
+
+    private void progress(final long position)
+    {
+        if (position == lastProgressPosition)
+        {
+            return;
+        }
+
+        if (progressIntervalNs > 0 || progressThreshold > 0)
+        {
+            final long nowNs = progressIntervalNs > 0 ? System.nanoTime() : 0;
+            if ((progressThreshold <= 0 || position - lastProgressPosition < progressThreshold) &&
+                (progressIntervalNs <= 0 || nowNs - lastProgressNs < progressIntervalNs))
+            {
+                return;
+            }
+
+            lastProgressNs = nowNs;
+        }
+
+        lastProgressPosition = position;
+
+        if (null != progressBatcher)
+        {
+            progressBatcher.progress(recordingId, recordingWriter.startPosition(), position);
+        }
+        else
+        {
+            recordingEventsProxy.progress(recordingId, recordingWriter.startPosition(), position);
+        }
+    }
 }
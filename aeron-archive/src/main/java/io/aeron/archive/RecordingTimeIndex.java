@@ -0,0 +1,258 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.EpochClock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+import static io.aeron.archive.Archive.timeIndexFileName;
+import static io.aeron.archive.Catalog.NULL_POSITION;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * Sparse index of (timestamp, position) entries for a recording kept in a file alongside the segment files so the
+ * position from which to replay for a given time can be found without scanning the recording.
+ * <p>
+ * An entry is added by the {@link RecordingWriter} at the start of a block once the recording has advanced by at least
+ * the index interval since the last entry. The timestamp of an entry is taken as the block is written so all data
+ * before the position of the entry was recorded at or before its timestamp. Timestamps are kept non-decreasing so the
+ * index can be binary searched.
+ * <p>
+ * The index is advisory and not synced to disk. Any partial entry at the end of the file is ignored.
+ */
+class RecordingTimeIndex implements AutoCloseable
+{
+    static final int ENTRY_LENGTH = 2 * SIZE_OF_LONG;
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int POSITION_OFFSET = SIZE_OF_LONG;
+
+    private final int indexInterval;
+    private final EpochClock epochClock;
+    private final FileChannel fileChannel;
+    private final ByteBuffer entryBuffer = ByteBuffer.allocateDirect(ENTRY_LENGTH).order(LITTLE_ENDIAN);
+    private long fileLength;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private long nextIndexPosition = NULL_POSITION;
+
+    /**
+     * Open the index for a recording to append entries, creating it if it does not exist.
+     *
+     * @param archiveDir    in which the index is kept.
+     * @param recordingId   for the index.
+     * @param indexInterval minimum number of bytes recorded between entries.
+     * @param epochClock    for timestamping the entries.
+     * @throws IOException if the index file cannot be opened.
+     */
+    RecordingTimeIndex(
+        final File archiveDir, final long recordingId, final int indexInterval, final EpochClock epochClock)
+        throws IOException
+    {
+        this.indexInterval = indexInterval;
+        this.epochClock = epochClock;
+
+        final File file = new File(archiveDir, timeIndexFileName(recordingId));
+        fileChannel = FileChannel.open(file.toPath(), CREATE, READ, WRITE);
+
+        try
+        {
+            fileLength = fileChannel.size() - (fileChannel.size() % ENTRY_LENGTH);
+            if (fileLength > 0)
+            {
+                readEntry(fileChannel, entryBuffer, fileLength - ENTRY_LENGTH);
+                lastTimestamp = entryBuffer.getLong(TIMESTAMP_OFFSET);
+                nextIndexPosition = entryBuffer.getLong(POSITION_OFFSET) + indexInterval;
+            }
+        }
+        catch (final IOException ex)
+        {
+            CloseHelper.quietClose(fileChannel);
+            throw ex;
+        }
+    }
+
+    /**
+     * Called before a block is written at a position in the recording to add an entry if the interval has passed.
+     *
+     * @param position in the recording at which the block begins.
+     * @throws IOException if the entry cannot be written.
+     */
+    void onBlock(final long position) throws IOException
+    {
+        if (position >= nextIndexPosition)
+        {
+            final long timestamp = Math.max(epochClock.time(), lastTimestamp);
+
+            entryBuffer.clear();
+            entryBuffer.putLong(TIMESTAMP_OFFSET, timestamp).putLong(POSITION_OFFSET, position);
+
+            long filePosition = fileLength;
+            do
+            {
+                filePosition += fileChannel.write(entryBuffer, filePosition);
+            }
+            while (entryBuffer.hasRemaining());
+
+            fileLength += ENTRY_LENGTH;
+            lastTimestamp = timestamp;
+            nextIndexPosition = position + indexInterval;
+        }
+    }
+
+    public void close()
+    {
+        CloseHelper.close(fileChannel);
+    }
+
+    /**
+     * Find the position of the latest entry in the index of a recording with a timestamp at or before the given
+     * timestamp. All data recorded before the position was recorded at or before the timestamp so a replay from the
+     * position includes all data recorded after the timestamp.
+     *
+     * @param archiveDir  in which the index is kept.
+     * @param recordingId for the index.
+     * @param timestamp   to search for.
+     * @param entryBuffer of at least {@link #ENTRY_LENGTH} into which entries are read, which is reused by the caller.
+     * @return the position of the latest entry at or before the timestamp or {@link Catalog#NULL_POSITION} if none.
+     * @throws IOException if the index file cannot be read.
+     */
+    static long findPosition(
+        final File archiveDir, final long recordingId, final long timestamp, final ByteBuffer entryBuffer)
+        throws IOException
+    {
+        final File file = new File(archiveDir, timeIndexFileName(recordingId));
+        if (!file.exists())
+        {
+            return NULL_POSITION;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), READ))
+        {
+            final ByteBuffer buffer = entryBuffer.order(LITTLE_ENDIAN);
+            long low = 0;
+            long high = (channel.size() / ENTRY_LENGTH) - 1;
+            long position = NULL_POSITION;
+
+            while (low <= high)
+            {
+                final long mid = (low + high) >>> 1;
+                readEntry(channel, buffer, mid * ENTRY_LENGTH);
+
+                if (buffer.getLong(TIMESTAMP_OFFSET) <= timestamp)
+                {
+                    position = buffer.getLong(POSITION_OFFSET);
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid - 1;
+                }
+            }
+
+            return position;
+        }
+    }
+
+    /**
+     * Trim the entries before the start position of a recording which has been truncated from the index. The trimmed
+     * index replaces the index atomically so must not be done while the recording is being recorded to.
+     *
+     * @param archiveDir    in which the index is kept.
+     * @param recordingId   for the index.
+     * @param startPosition of the recording once truncated.
+     * @throws IOException if the index file cannot be trimmed.
+     */
+    static void trim(final File archiveDir, final long recordingId, final long startPosition) throws IOException
+    {
+        final File file = new File(archiveDir, timeIndexFileName(recordingId));
+        if (!file.exists())
+        {
+            return;
+        }
+
+        final File trimmedFile = new File(archiveDir, timeIndexFileName(recordingId) + ".tmp");
+        try (FileChannel channel = FileChannel.open(file.toPath(), READ))
+        {
+            final ByteBuffer buffer = ByteBuffer.allocate(ENTRY_LENGTH).order(LITTLE_ENDIAN);
+            final long entryCount = channel.size() / ENTRY_LENGTH;
+            long low = 0;
+            long high = entryCount;
+
+            while (low < high)
+            {
+                final long mid = (low + high) >>> 1;
+                readEntry(channel, buffer, mid * ENTRY_LENGTH);
+
+                if (buffer.getLong(POSITION_OFFSET) < startPosition)
+                {
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid;
+                }
+            }
+
+            if (0 == low)
+            {
+                return;
+            }
+
+            try (FileChannel trimmedChannel = FileChannel.open(trimmedFile.toPath(), CREATE, TRUNCATE_EXISTING, WRITE))
+            {
+                final long fromOffset = low * ENTRY_LENGTH;
+                final long length = (entryCount * ENTRY_LENGTH) - fromOffset;
+                long transferred = 0;
+                while (transferred < length)
+                {
+                    transferred += channel.transferTo(fromOffset + transferred, length - transferred, trimmedChannel);
+                }
+            }
+        }
+
+        Files.move(trimmedFile.toPath(), file.toPath(), ATOMIC_MOVE);
+    }
+
+    private static void readEntry(final FileChannel channel, final ByteBuffer buffer, final long filePosition)
+        throws IOException
+    {
+        buffer.clear();
+        buffer.limit(ENTRY_LENGTH);
+        long position = filePosition;
+        do
+        {
+            final int bytesRead = channel.read(buffer, position);
+            if (bytesRead < 0)
+            {
+                throw new IOException("unexpected end of time index at " + position);
+            }
+
+            position += bytesRead;
+        }
+        while (buffer.hasRemaining());
+    }
+}
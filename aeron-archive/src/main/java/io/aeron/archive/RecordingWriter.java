@@ -23,6 +23,7 @@ import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.BitUtil;
 import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
 import org.agrona.LangUtil;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
@@ -61,14 +62,21 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
     private final FileChannel archiveDirChannel;
     private final File archiveDir;
     private final AtomicCounter recordedPosition;
+    private final RecordingGroupSyncer groupSyncer;
+    private final SegmentFilePool segmentFilePool;
+    private final RecordingTimeIndex timeIndex;
     private final int segmentFileLength;
+    private final int termBufferLength;
     private final long startPosition;
+    private long writtenPosition;
+    private boolean isSyncPending = false;
 
     /**
      * Index is in the range 0:segmentFileLength, except before the first block for this image is received indicated
      * by NULL_SEGMENT_POSITION
      */
     private int segmentPosition = NULL_SEGMENT_POSITION;
+    private int resumeSegmentPosition = NULL_SEGMENT_POSITION;
     private int segmentIndex = 0;
     private FileChannel recordingFileChannel;
 
@@ -79,21 +87,36 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
         final FileChannel archiveDirChannel,
         final UnsafeBuffer descriptorBuffer,
         final AtomicCounter recordedPosition)
+    {
+        this(context, archiveDirChannel, descriptorBuffer, recordedPosition, null, null);
+    }
+
+    RecordingWriter(
+        final Archive.Context context,
+        final FileChannel archiveDirChannel,
+        final UnsafeBuffer descriptorBuffer,
+        final AtomicCounter recordedPosition,
+        final RecordingGroupSyncer groupSyncer,
+        final SegmentFilePool segmentFilePool)
     {
         this.recordedPosition = recordedPosition;
         final RecordingDescriptorDecoder descriptorDecoder = new RecordingDescriptorDecoder();
         wrapDescriptorDecoder(descriptorDecoder, descriptorBuffer);
 
-        final int termBufferLength = descriptorDecoder.termBufferLength();
+        termBufferLength = descriptorDecoder.termBufferLength();
 
         this.archiveDirChannel = archiveDirChannel;
         archiveDir = context.archiveDir();
-        segmentFileLength = Math.max(context.segmentFileLength(), termBufferLength);
+        segmentFileLength = Math.max(descriptorDecoder.segmentFileLength(), termBufferLength);
         forceWrites = context.fileSyncLevel() > 0;
         forceMetadata = context.fileSyncLevel() > 1;
+        this.groupSyncer = forceWrites ? groupSyncer : null;
+        this.segmentFilePool = null != segmentFilePool && segmentFilePool.segmentFileLength() == segmentFileLength ?
+            segmentFilePool : null;
 
         recordingId = descriptorDecoder.recordingId();
         startPosition = descriptorDecoder.startPosition();
+        writtenPosition = startPosition;
         recordedPosition.setOrdered(startPosition);
 
         final int termsMask = (segmentFileLength / termBufferLength) - 1;
@@ -103,6 +126,22 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
                 "It is assumed the termBufferLength is a power of 2, and that the number of terms" +
                     "in a file is also a power of 2");
         }
+
+        RecordingTimeIndex timeIndex = null;
+        if (context.timeIndexInterval() > 0)
+        {
+            try
+            {
+                timeIndex = new RecordingTimeIndex(
+                    archiveDir, recordingId, context.timeIndexInterval(), context.epochClock());
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+        }
+
+        this.timeIndex = timeIndex;
     }
 
     public void onBlock(
@@ -126,16 +165,56 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
                 onFileRollOver();
             }
 
-            long bytesWritten = 0;
-            do
+            if (null != timeIndex)
             {
-                bytesWritten += transferTo(fileChannel, fileOffset + bytesWritten, blockLength - bytesWritten);
+                timeIndex.onBlock(writtenPosition);
             }
-            while (bytesWritten < blockLength);
 
-            if (forceWrites)
+            writeBlock(fileChannel, fileOffset, termBuffer, termOffset, blockLength);
+        }
+        catch (final ClosedByInterruptException ex)
+        {
+            Thread.interrupted();
+            close();
+            throw new IllegalStateException("Image file channel has been closed by interrupt, recording aborted.", ex);
+        }
+        catch (final Exception ex)
+        {
+            close();
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    /**
+     * Write a block of whole frames which has been copied out of the term, rather than transferred from the log buffer
+     * file, such as when the frame headers have been rewritten for the recording.
+     *
+     * @param block      of frames from its position to its limit.
+     * @param termOffset at which the block began in the term.
+     */
+    void onBlock(final ByteBuffer block, final int termOffset)
+    {
+        try
+        {
+            if (Catalog.NULL_POSITION == segmentPosition)
             {
-                forceData(recordingFileChannel, forceMetadata);
+                onFirstWrite(termOffset);
+            }
+
+            if (segmentFileLength == segmentPosition)
+            {
+                onFileRollOver();
+            }
+
+            if (null != timeIndex)
+            {
+                timeIndex.onBlock(writtenPosition);
+            }
+
+            final int blockLength = block.remaining();
+            while (block.hasRemaining())
+            {
+                recordingFileChannel.write(block);
             }
 
             afterWrite(blockLength);
@@ -153,6 +232,25 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
         }
     }
 
+    /**
+     * Continue an existing recording from a position it had reached rather than from its start. The segment file
+     * holding the position is reopened and written from the position on the first block. Must be called before the
+     * first block is written.
+     *
+     * @param position         from which the recording continues.
+     * @param baseSegmentIndex of the first segment of the recording, which is greater than 0 once truncated.
+     */
+    void resumeFrom(final long position, final int baseSegmentIndex)
+    {
+        final long termStartPosition = startPosition - (startPosition & (termBufferLength - 1));
+
+        segmentIndex = Archive.segmentFileIndex(
+            baseSegmentIndex, startPosition, termBufferLength, segmentFileLength, position);
+        resumeSegmentPosition = (int)((position - termStartPosition) % segmentFileLength);
+        writtenPosition = position;
+        recordedPosition.setOrdered(position);
+    }
+
     public void close()
     {
         if (isClosed)
@@ -160,10 +258,65 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
             return;
         }
 
+        try
+        {
+            completePendingWrites();
+        }
+        catch (final Exception ex)
+        {
+            isClosed = true;
+            CloseHelper.quietClose(timeIndex);
+            CloseHelper.quietClose(recordingFileChannel);
+            LangUtil.rethrowUnchecked(ex);
+        }
+
+        if (null != groupSyncer)
+        {
+            groupSyncer.remove(this);
+            if (isSyncPending)
+            {
+                try
+                {
+                    sync();
+                }
+                catch (final Exception ex)
+                {
+                    isClosed = true;
+                    CloseHelper.quietClose(timeIndex);
+                    CloseHelper.quietClose(recordingFileChannel);
+                    LangUtil.rethrowUnchecked(ex);
+                }
+            }
+        }
+
         isClosed = true;
+        CloseHelper.quietClose(timeIndex);
         CloseHelper.close(recordingFileChannel);
     }
 
+    /**
+     * Sync the data written since the last sync to disk and advance the recorded position past it. Used for group
+     * commit by the {@link RecordingGroupSyncer}.
+     */
+    void sync()
+    {
+        if (isSyncPending)
+        {
+            isSyncPending = false;
+            try
+            {
+                forceData(recordingFileChannel, forceMetadata);
+            }
+            catch (final IOException ex)
+            {
+                close();
+                LangUtil.rethrowUnchecked(ex);
+            }
+
+            recordedPosition.setOrdered(writtenPosition);
+        }
+    }
+
     /**
      * Convenience method for testing purposes only.
      */
@@ -195,11 +348,6 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
                 throw new IllegalStateException();
             }
 
-            if (forceWrites)
-            {
-                forceData(recordingFileChannel, forceMetadata);
-            }
-
             afterWrite(alignedLength);
         }
         catch (final Exception ex)
@@ -229,6 +377,90 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
         return recordedPosition.getWeak();
     }
 
+    /**
+     * The length of the largest block which can be accepted without waiting for writes submitted asynchronously to
+     * complete.
+     *
+     * @return the length of the largest block which can be accepted without waiting.
+     */
+    int writeCapacity()
+    {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Poll for the completion of writes which have been submitted asynchronously.
+     *
+     * @return the number of writes completed.
+     */
+    int pollWriteCompletions()
+    {
+        return 0;
+    }
+
+    // extend for asynchronous writes
+    void writeBlock(
+        final FileChannel fileChannel,
+        final long fileOffset,
+        final UnsafeBuffer termBuffer,
+        final int termOffset,
+        final int blockLength)
+        throws IOException
+    {
+        long bytesWritten = 0;
+        do
+        {
+            bytesWritten += transferTo(fileChannel, fileOffset + bytesWritten, blockLength - bytesWritten);
+        }
+        while (bytesWritten < blockLength);
+
+        afterWrite(blockLength);
+    }
+
+    // extend for asynchronous writes
+    void completePendingWrites() throws IOException
+    {
+    }
+
+    FileChannel recordingFileChannel()
+    {
+        return recordingFileChannel;
+    }
+
+    int segmentPosition()
+    {
+        return segmentPosition;
+    }
+
+    /**
+     * Advance the position in the segment for a block which has been submitted to be written asynchronously.
+     *
+     * @param blockLength of the block submitted.
+     */
+    void onBlockSubmitted(final int blockLength)
+    {
+        segmentPosition += blockLength;
+        writtenPosition += blockLength;
+    }
+
+    /**
+     * Advance the recorded position once asynchronous writes up to the position have completed, forcing them to
+     * disk first if required.
+     *
+     * @param fileChannel to which the writes were made.
+     * @param position    up to which the writes have completed.
+     * @throws IOException if the writes cannot be forced to disk.
+     */
+    void onWritesCompleted(final FileChannel fileChannel, final long position) throws IOException
+    {
+        if (forceWrites)
+        {
+            forceData(fileChannel, forceMetadata);
+        }
+
+        recordedPosition.setOrdered(position);
+    }
+
     private int writeData(final ByteBuffer buffer, final int position, final FileChannel fileChannel)
         throws IOException
     {
@@ -250,8 +482,13 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
         RandomAccessFile recordingFile = null;
         try
         {
+            final boolean isPreAllocated = file.exists() || useSpareSegmentFile(file);
             recordingFile = new RandomAccessFile(file, "rw");
-            recordingFile.setLength(segmentFileLength + DataHeaderFlyweight.HEADER_LENGTH);
+            if (!isPreAllocated)
+            {
+                recordingFile.setLength(segmentFileLength + DataHeaderFlyweight.HEADER_LENGTH);
+            }
+
             recordingFileChannel = recordingFile.getChannel();
             if (forceWrites && null != archiveDirChannel)
             {
@@ -266,6 +503,25 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
         }
     }
 
+    private boolean useSpareSegmentFile(final File file)
+    {
+        if (null != segmentFilePool)
+        {
+            final File spareFile = segmentFilePool.poll();
+            if (null != spareFile)
+            {
+                if (spareFile.renameTo(file))
+                {
+                    return true;
+                }
+
+                IoUtil.delete(spareFile, true);
+            }
+        }
+
+        return false;
+    }
+
     // extend for testing
     void forceData(final FileChannel fileChannel, final boolean forceMetadata) throws IOException
     {
@@ -277,8 +533,10 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
         return isClosed;
     }
 
-    private void onFileRollOver()
+    private void onFileRollOver() throws IOException
     {
+        completePendingWrites();
+        sync();
         CloseHelper.close(recordingFileChannel);
         segmentPosition = 0;
         segmentIndex++;
@@ -288,7 +546,7 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
 
     private void onFirstWrite(final int termOffset) throws IOException
     {
-        segmentPosition = termOffset;
+        segmentPosition = NULL_SEGMENT_POSITION != resumeSegmentPosition ? resumeSegmentPosition : termOffset;
         newRecordingSegmentFile();
 
         if (segmentPosition != 0)
@@ -297,9 +555,24 @@ class RecordingWriter implements AutoCloseable, RawBlockHandler
         }
     }
 
-    private void afterWrite(final int blockLength)
+    private void afterWrite(final int blockLength) throws IOException
     {
         segmentPosition += blockLength;
-        recordedPosition.addOrdered(blockLength);
+        writtenPosition += blockLength;
+
+        if (null != groupSyncer)
+        {
+            groupSyncer.onWrite(this, blockLength, !isSyncPending);
+            isSyncPending = true;
+        }
+        else
+        {
+            if (forceWrites)
+            {
+                forceData(recordingFileChannel, forceMetadata);
+            }
+
+            recordedPosition.setOrdered(writtenPosition);
+        }
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.concurrent.NanoClock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiting the rate in bytes per second at which recorded data is replayed, either for one replay or
+ * shared by the replays on a replayer. Tokens accumulate up to a burst of {@link #BURST_NS} worth of the rate and a
+ * replay may overdraw them by what it sends in one operation, which is paid back before it can send again.
+ * <p>
+ * When shared by the replays on a replayer the tokens available at the start of each duty cycle are divided equally
+ * between the replays, so one replay to a fast consumer can not take the whole rate from the others.
+ * <p>
+ * <b>Note:</b> Instances are not threadsafe and are only used from the replayer thread.
+ */
+class ReplayRateLimiter
+{
+    /**
+     * Period of the rate which can be sent in a burst after replays have been idle.
+     */
+    static final long BURST_NS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final long bytesPerSecond;
+    private final long burstBytes;
+    private final NanoClock nanoClock;
+    private long tokens;
+    private long lastRefillNs;
+    private long shareBytes = Long.MAX_VALUE;
+
+    ReplayRateLimiter(final long bytesPerSecond, final NanoClock nanoClock)
+    {
+        this.bytesPerSecond = bytesPerSecond;
+        this.nanoClock = nanoClock;
+
+        burstBytes = Math.max(bytesPerSecond * BURST_NS / TimeUnit.SECONDS.toNanos(1), 1);
+        tokens = burstBytes;
+        lastRefillNs = nanoClock.nanoTime();
+    }
+
+    /**
+     * The rate in bytes per second which is being limited to.
+     *
+     * @return the rate in bytes per second which is being limited to.
+     */
+    long bytesPerSecond()
+    {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Bytes which may be sent now, zero or less when the rate has been reached.
+     *
+     * @return bytes which may be sent now.
+     */
+    long availableBytes()
+    {
+        refill();
+
+        return tokens;
+    }
+
+    /**
+     * Divide the tokens available at the start of a duty cycle of the replayer between its replays.
+     *
+     * @param sessionCount of replays on the replayer.
+     */
+    void onDutyCycle(final int sessionCount)
+    {
+        refill();
+
+        shareBytes = tokens > 0 ? Math.max(tokens / Math.max(sessionCount, 1), 1) : 0;
+    }
+
+    /**
+     * Bytes which may be sent now by one of the replays sharing the rate within the current duty cycle.
+     *
+     * @return bytes which may be sent now by one of the replays sharing the rate.
+     */
+    long shareBytes()
+    {
+        return Math.min(shareBytes, tokens);
+    }
+
+    /**
+     * Take bytes which have been sent from the tokens.
+     *
+     * @param bytes which have been sent.
+     */
+    void consume(final long bytes)
+    {
+        tokens -= bytes;
+    }
+
+    private void refill()
+    {
+        final long nowNs = nanoClock.nanoTime();
+        final long elapsedNs = Math.min(nowNs - lastRefillNs, 2 * BURST_NS);
+        final long newTokens = bytesPerSecond * elapsedNs / TimeUnit.SECONDS.toNanos(1);
+
+        if (newTokens > 0)
+        {
+            tokens = Math.min(tokens + newTokens, burstBytes);
+            lastRefillNs = nowNs;
+        }
+    }
+}
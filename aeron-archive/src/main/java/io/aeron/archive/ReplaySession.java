@@ -47,11 +47,15 @@ import static java.nio.ByteOrder.LITTLE_ENDIAN;
  * <li>Wait for replay subscription to connect to the requested replay publication. If no subscription appears within
  * {@link #CONNECT_TIMEOUT_MS} the session will terminate and respond will error.</li>
  * <li>Once the replay publication is connected send an OK response to control client</li>
- * <li>Stream recorded data into the replayPublication {@link ExclusivePublication}</li>
+ * <li>Stream recorded data into the replayPublication {@link ExclusivePublication}, either fragment by fragment or
+ * as blocks of whole frames when a replay block length is configured, giving up the duty cycle while the next term
+ * is still being read ahead from a cold segment, see {@link SegmentReadAhead}</li>
+ * <li>Limit the rate of the replay to its own and its share of the replayer rate when configured, see
+ * {@link ReplayRateLimiter}, and report the rate achieved to a counter</li>
  * <li>If the replay is aborted part way through, send a ReplayAborted message and terminate.</li>
  * </ul>
  */
-class ReplaySession implements Session, SimplifiedControlledFragmentHandler
+class ReplaySession implements Session, SimplifiedControlledFragmentHandler, ReplayBlockHandler
 {
     enum State
     {
@@ -64,16 +68,25 @@ class ReplaySession implements Session, SimplifiedControlledFragmentHandler
     static final long CONNECT_TIMEOUT_MS = 5000;
 
     private static final int REPLAY_FRAGMENT_LIMIT = Archive.Configuration.replayFragmentLimit();
+    private static final long RATE_INTERVAL_MS = 1000;
 
     private long connectDeadlineMs;
     private final long replaySessionId;
+    private final long recordingId;
     private final long correlationId;
+    private final int replayBlockLength;
     private final ExclusiveBufferClaim bufferClaim = new ExclusiveBufferClaim();
     private final ExclusivePublication replayPublication;
     private final RecordingFragmentReader cursor;
     private ControlResponseProxy threadLocalControlResponseProxy;
     private final ControlSession controlSession;
     private final EpochClock epochClock;
+    private final ReplayRateLimiter rateLimiter;
+    private ReplayRateLimiter threadLocalAggregateRateLimiter;
+    private final AtomicCounter replayRate;
+    private long byteBudget;
+    private long rateIntervalStartMs;
+    private long rateIntervalBytes;
     private State state = State.INIT;
 
     @SuppressWarnings("ConstantConditions")
@@ -90,16 +103,25 @@ class ReplaySession implements Session, SimplifiedControlledFragmentHandler
         final String replayChannel,
         final int replayStreamId,
         final UnsafeBuffer descriptorBuffer,
-        final AtomicCounter recordingPosition)
+        final AtomicCounter recordingPosition,
+        final int replayBlockLength,
+        final CompressedSegmentStore segmentStore,
+        final SegmentReadAhead readAhead,
+        final ReplayRateLimiter rateLimiter,
+        final AtomicCounter replayRate)
     {
         this.controlSession = controlSession;
         this.threadLocalControlResponseProxy = threadLocalControlResponseProxy;
         this.replaySessionId = replaySessionId;
         this.correlationId = correlationId;
         this.epochClock = epochClock;
+        this.replayBlockLength = replayBlockLength;
+        this.rateLimiter = rateLimiter;
+        this.replayRate = replayRate;
 
         final RecordingDescriptorDecoder descriptorDecoder = new RecordingDescriptorDecoder();
         wrapDescriptorDecoder(descriptorDecoder, descriptorBuffer);
+        recordingId = descriptorDecoder.recordingId();
 
         final long startPosition = descriptorDecoder.startPosition();
         final int mtuLength = descriptorDecoder.mtuLength();
@@ -136,7 +158,9 @@ class ReplaySession implements Session, SimplifiedControlledFragmentHandler
                 archiveDir,
                 replayPosition,
                 replayLength,
-                recordingPosition);
+                recordingPosition,
+                segmentStore,
+                readAhead);
         }
         catch (final Exception ex)
         {
@@ -162,7 +186,11 @@ class ReplaySession implements Session, SimplifiedControlledFragmentHandler
         }
 
         this.replayPublication = replayPublication;
-        controlSession.sendOkResponse(correlationId, threadLocalControlResponseProxy);
+        if (null != replayPublication)
+        {
+            controlSession.sendOkResponse(
+                correlationId, replayPublication.sessionId(), threadLocalControlResponseProxy);
+        }
 
         connectDeadlineMs = epochClock.time() + CONNECT_TIMEOUT_MS;
     }
@@ -173,6 +201,7 @@ class ReplaySession implements Session, SimplifiedControlledFragmentHandler
 
         CloseHelper.quietClose(cursor);
         CloseHelper.quietClose(replayPublication);
+        CloseHelper.quietClose(replayRate);
     }
 
     public long sessionId()
@@ -180,6 +209,11 @@ class ReplaySession implements Session, SimplifiedControlledFragmentHandler
         return replaySessionId;
     }
 
+    long recordingId()
+    {
+        return recordingId;
+    }
+
     public int doWork()
     {
         int workCount = 0;
@@ -210,7 +244,7 @@ class ReplaySession implements Session, SimplifiedControlledFragmentHandler
 
     public boolean onFragment(final UnsafeBuffer termBuffer, final int offset, final int length)
     {
-        if (isDone())
+        if (isDone() || byteBudget <= 0)
         {
             return false;
         }
@@ -222,6 +256,27 @@ class ReplaySession implements Session, SimplifiedControlledFragmentHandler
             replayPublication.appendPadding(length) :
             replayFrame(termBuffer, offset, length, frameOffset);
 
+        if (result > 0)
+        {
+            byteBudget -= length + DataHeaderFlyweight.HEADER_LENGTH;
+            return true;
+        }
+        else if (result == Publication.CLOSED || result == Publication.NOT_CONNECTED)
+        {
+            closeOnError(null, "replay stream has been shutdown mid-replay");
+        }
+
+        return false;
+    }
+
+    public boolean onBlock(final UnsafeBuffer termBuffer, final int termOffset, final int blockLength)
+    {
+        if (isDone())
+        {
+            return false;
+        }
+
+        final long result = replayPublication.offerBlock(termBuffer, termOffset, blockLength);
         if (result > 0)
         {
             return true;
@@ -244,11 +299,33 @@ class ReplaySession implements Session, SimplifiedControlledFragmentHandler
         threadLocalControlResponseProxy = proxy;
     }
 
+    void setThreadLocalAggregateRateLimiter(final ReplayRateLimiter rateLimiter)
+    {
+        threadLocalAggregateRateLimiter = rateLimiter;
+    }
+
     private int replay()
     {
+        if (cursor.isReadAheadPending() || cursor.isSegmentLoadPending())
+        {
+            return 0;
+        }
+
+        byteBudget = availableBytes();
+        if (byteBudget <= 0)
+        {
+            updateRate(0);
+            return 0;
+        }
+
         try
         {
-            final int polled = cursor.controlledPoll(this, REPLAY_FRAGMENT_LIMIT);
+            final long fromPosition = cursor.replayPosition();
+            final int polled = replayBlockLength > 0 ?
+                cursor.blockPoll(this, (int)Math.min(replayBlockLength, byteBudget)) :
+                cursor.controlledPoll(this, REPLAY_FRAGMENT_LIMIT);
+            onReplayed(cursor.replayPosition() - fromPosition);
+
             if (cursor.isDone())
             {
                 state = State.INACTIVE;
@@ -262,6 +339,58 @@ class ReplaySession implements Session, SimplifiedControlledFragmentHandler
         }
     }
 
+    private long availableBytes()
+    {
+        long availableBytes = Long.MAX_VALUE;
+
+        if (null != rateLimiter)
+        {
+            availableBytes = rateLimiter.availableBytes();
+        }
+
+        if (null != threadLocalAggregateRateLimiter)
+        {
+            availableBytes = Math.min(availableBytes, threadLocalAggregateRateLimiter.shareBytes());
+        }
+
+        return availableBytes;
+    }
+
+    private void onReplayed(final long bytes)
+    {
+        if (bytes > 0)
+        {
+            if (null != rateLimiter)
+            {
+                rateLimiter.consume(bytes);
+            }
+
+            if (null != threadLocalAggregateRateLimiter)
+            {
+                threadLocalAggregateRateLimiter.consume(bytes);
+            }
+        }
+
+        updateRate(bytes);
+    }
+
+    private void updateRate(final long bytes)
+    {
+        if (null != replayRate)
+        {
+            rateIntervalBytes += bytes;
+
+            final long nowMs = epochClock.time();
+            final long intervalMs = nowMs - rateIntervalStartMs;
+            if (intervalMs >= RATE_INTERVAL_MS)
+            {
+                replayRate.setOrdered(rateIntervalBytes * 1000 / intervalMs);
+                rateIntervalStartMs = nowMs;
+                rateIntervalBytes = 0;
+            }
+        }
+    }
+
     private long replayFrame(final UnsafeBuffer termBuffer, final int offset, final int length, final int frameOffset)
     {
         final long result = replayPublication.tryClaim(length, bufferClaim);
@@ -296,6 +425,7 @@ class ReplaySession implements Session, SimplifiedControlledFragmentHandler
         }
 
         state = State.REPLAY;
+        rateIntervalStartMs = epochClock.time();
 
         return 1;
     }
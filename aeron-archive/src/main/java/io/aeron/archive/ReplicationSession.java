@@ -0,0 +1,537 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.Aeron;
+import io.aeron.Image;
+import io.aeron.Publication;
+import io.aeron.Subscription;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.client.ArchiveProxy;
+import io.aeron.archive.client.ControlResponsePoller;
+import io.aeron.archive.codecs.ControlResponseCode;
+import io.aeron.archive.codecs.ControlResponseDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorEncoder;
+import org.agrona.CloseHelper;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+
+import static io.aeron.archive.Catalog.NULL_POSITION;
+import static io.aeron.archive.codecs.ControlResponseCode.ERROR;
+
+/**
+ * Replicates a recording from a source archive into this archive, working through the request response flow with
+ * the source archive on the conductor thread without blocking. The session will:
+ * <ul>
+ * <li>Connect to the control interface of the source archive with responses to the replication channel.</li>
+ * <li>Ask for the descriptor of the source recording and check it against the recording being resumed, if any.</li>
+ * <li>Ask the source archive to replay the recording, without a limit so a live recording is followed, as blocks of
+ * whole frames on the replication channel from the stop position of the recording being resumed or the start.</li>
+ * <li>Once the replay is under way respond to the control client with the id of the recording being replicated into,
+ * creating it if new, then record the replay image into it, see {@link RecordingSession}. The replay image is the
+ * one with the session id of the replay given in the response of the source archive so other publications on the
+ * replication channel and stream are ignored.</li>
+ * <li>Close once the replay reaches end of stream as the source recording has been replicated to its stop
+ * position.</li>
+ * </ul>
+ * Failures before the response to the control client are sent to it as errors, after which they are reported to the
+ * error handler.
+ */
+class ReplicationSession implements Session
+{
+    enum State
+    {
+        CONNECT, AWAIT_CONNECTED, AWAIT_DESCRIPTOR, AWAIT_REPLAY, REPLICATE, INACTIVE, CLOSED
+    }
+
+    /**
+     * Timeout within which the source archive needs to respond to each step, and the replay image to appear.
+     */
+    static final long RESPONSE_TIMEOUT_MS = 5000;
+
+    private static final int FRAGMENT_LIMIT = 10;
+    private static final long NULL_SESSION_ID = -1;
+
+    private final long replicationSessionId;
+    private final long correlationId;
+    private final long srcRecordingId;
+    private final String replicationChannel;
+    private final int responseStreamId;
+    private final int replayStreamId;
+    private final int blockLength;
+    private final int segmentFileLength;
+    private final Aeron aeron;
+    private final ArchiveConductor conductor;
+    private final ControlSession controlSession;
+    private final ControlResponseProxy controlResponseProxy;
+    private final Catalog catalog;
+    private final EpochClock epochClock;
+    private final ArchiveProxy srcArchive;
+    private final ControlResponsePoller srcResponsePoller;
+    private final RecordingDescriptorDecoder dstDescriptorDecoder = new RecordingDescriptorDecoder();
+
+    private long dstRecordingId;
+    private long srcControlSessionId = NULL_SESSION_ID;
+    private long activeCorrelationId;
+    private long replicationPosition;
+    private long deadlineMs;
+    private boolean hasResponded = false;
+    private boolean isRecording = false;
+    private Subscription replaySubscription;
+    private int replaySessionId;
+    private Image image;
+    private State state = State.CONNECT;
+
+    private long srcStartTimestamp;
+    private long srcStartPosition;
+    private long srcStopPosition;
+    private int srcInitialTermId;
+    private int srcTermBufferLength;
+    private int srcMtuLength;
+    private int srcSessionId;
+    private int srcStreamId;
+    private String srcStrippedChannel;
+    private String srcOriginalChannel;
+    private String srcSourceIdentity;
+
+    @SuppressWarnings("ConstantConditions")
+    ReplicationSession(
+        final long replicationSessionId,
+        final long correlationId,
+        final long srcRecordingId,
+        final long dstRecordingId,
+        final String srcControlChannel,
+        final int srcControlStreamId,
+        final String replicationChannel,
+        final int responseStreamId,
+        final int replayStreamId,
+        final Archive.Context ctx,
+        final Aeron aeron,
+        final ArchiveConductor conductor,
+        final ControlSession controlSession,
+        final ControlResponseProxy controlResponseProxy,
+        final Catalog catalog,
+        final EpochClock epochClock)
+    {
+        this.replicationSessionId = replicationSessionId;
+        this.correlationId = correlationId;
+        this.srcRecordingId = srcRecordingId;
+        this.dstRecordingId = dstRecordingId;
+        this.replicationChannel = replicationChannel;
+        this.responseStreamId = responseStreamId;
+        this.replayStreamId = replayStreamId;
+        this.blockLength = ctx.replicationBlockLength();
+        this.segmentFileLength = ctx.segmentFileLength();
+        this.aeron = aeron;
+        this.conductor = conductor;
+        this.controlSession = controlSession;
+        this.controlResponseProxy = controlResponseProxy;
+        this.catalog = catalog;
+        this.epochClock = epochClock;
+
+        Publication publication = null;
+        Subscription subscription = null;
+        try
+        {
+            publication = aeron.addPublication(srcControlChannel, srcControlStreamId);
+            subscription = aeron.addSubscription(replicationChannel, responseStreamId);
+        }
+        catch (final Exception ex)
+        {
+            CloseHelper.quietClose(publication);
+            throw ex;
+        }
+
+        srcArchive = new ArchiveProxy(
+            publication, new YieldingIdleStrategy(), 0, ArchiveProxy.DEFAULT_MAX_RETRY_ATTEMPTS);
+        srcResponsePoller = new ControlResponsePoller(subscription, FRAGMENT_LIMIT);
+        deadlineMs = epochClock.time() + RESPONSE_TIMEOUT_MS;
+    }
+
+    public void close()
+    {
+        state = State.CLOSED;
+        conductor.onReplicationSessionClosed(this);
+
+        if (NULL_SESSION_ID != srcControlSessionId)
+        {
+            srcArchive.closeSession(srcControlSessionId);
+        }
+
+        CloseHelper.quietClose(replaySubscription);
+        CloseHelper.quietClose(srcResponsePoller.subscription());
+        CloseHelper.quietClose(srcArchive.publication());
+    }
+
+    public void abort()
+    {
+        state = State.INACTIVE;
+    }
+
+    public boolean isDone()
+    {
+        return state == State.INACTIVE;
+    }
+
+    public long sessionId()
+    {
+        return replicationSessionId;
+    }
+
+    int responseStreamId()
+    {
+        return responseStreamId;
+    }
+
+    public int doWork()
+    {
+        int workCount = 0;
+
+        try
+        {
+            switch (state)
+            {
+                case CONNECT:
+                    workCount += connect();
+                    break;
+
+                case AWAIT_CONNECTED:
+                    workCount += awaitConnected();
+                    break;
+
+                case AWAIT_DESCRIPTOR:
+                    workCount += awaitDescriptor();
+                    break;
+
+                case AWAIT_REPLAY:
+                    workCount += awaitReplay();
+                    break;
+
+                case REPLICATE:
+                    workCount += replicate();
+                    break;
+            }
+        }
+        catch (final Exception ex)
+        {
+            closeOnError(ex, "replication of recording " + srcRecordingId + " failed: " + ex.getMessage());
+        }
+
+        return workCount;
+    }
+
+    /**
+     * Is the session replicating into a recording, either the recording being resumed or the new recording once
+     * created.
+     *
+     * @param recordingId to check.
+     * @return true if the session is replicating into the recording.
+     */
+    boolean isReplicatingInto(final long recordingId)
+    {
+        return recordingId == dstRecordingId;
+    }
+
+    State state()
+    {
+        return state;
+    }
+
+    private int connect()
+    {
+        if (!srcArchive.publication().isConnected())
+        {
+            checkDeadline("no connection to source archive");
+            return 0;
+        }
+
+        activeCorrelationId = aeron.nextCorrelationId();
+        if (!srcArchive.connect(replicationChannel, responseStreamId, activeCorrelationId))
+        {
+            return 0;
+        }
+
+        nextState(State.AWAIT_CONNECTED);
+
+        return 1;
+    }
+
+    private int awaitConnected()
+    {
+        final int fragments = srcResponsePoller.poll();
+        if (!isPollComplete())
+        {
+            checkDeadline("no connect response from source archive");
+            return fragments;
+        }
+
+        checkResponse(ControlResponseCode.OK);
+        srcControlSessionId = srcResponsePoller.controlSessionId();
+
+        activeCorrelationId = aeron.nextCorrelationId();
+        if (!srcArchive.listRecordings(srcRecordingId, 1, activeCorrelationId, srcControlSessionId))
+        {
+            throw new IllegalStateException("failed to send list recording request to source archive");
+        }
+
+        nextState(State.AWAIT_DESCRIPTOR);
+
+        return 1;
+    }
+
+    private int awaitDescriptor()
+    {
+        final int fragments = srcResponsePoller.poll();
+        if (!isPollComplete())
+        {
+            checkDeadline("no descriptor from source archive");
+            return fragments;
+        }
+
+        if (srcResponsePoller.templateId() != RecordingDescriptorDecoder.TEMPLATE_ID)
+        {
+            throw new IllegalStateException("unknown source recording: " + srcRecordingId);
+        }
+
+        final RecordingDescriptorDecoder decoder = srcResponsePoller.recordingDescriptorDecoder();
+        srcStartTimestamp = decoder.startTimestamp();
+        srcStartPosition = decoder.startPosition();
+        srcStopPosition = decoder.stopPosition();
+        srcInitialTermId = decoder.initialTermId();
+        srcTermBufferLength = decoder.termBufferLength();
+        srcMtuLength = decoder.mtuLength();
+        srcSessionId = decoder.sessionId();
+        srcStreamId = decoder.streamId();
+        srcStrippedChannel = decoder.strippedChannel();
+        srcOriginalChannel = decoder.originalChannel();
+        srcSourceIdentity = decoder.sourceIdentity();
+
+        replicationPosition = AeronArchive.NULL_RECORDING_ID == dstRecordingId ? srcStartPosition : resumePosition();
+
+        if (NULL_POSITION != srcStopPosition && replicationPosition == srcStopPosition)
+        {
+            if (AeronArchive.NULL_RECORDING_ID == dstRecordingId)
+            {
+                dstRecordingId = addReplicatedRecording();
+            }
+
+            respond();
+            state = State.INACTIVE;
+
+            return 1;
+        }
+
+        replaySubscription = aeron.addSubscription(replicationChannel, replayStreamId);
+
+        activeCorrelationId = aeron.nextCorrelationId();
+        if (!srcArchive.blockReplay(
+            srcRecordingId,
+            replicationPosition,
+            RecordingFragmentReader.NULL_LENGTH,
+            Math.min(blockLength, srcTermBufferLength / 2),
+            replicationChannel,
+            replayStreamId,
+            activeCorrelationId,
+            srcControlSessionId))
+        {
+            throw new IllegalStateException("failed to send replay request to source archive");
+        }
+
+        nextState(State.AWAIT_REPLAY);
+
+        return 1;
+    }
+
+    private int awaitReplay()
+    {
+        final int fragments = srcResponsePoller.poll();
+        if (!isPollComplete())
+        {
+            checkDeadline("no replay response from source archive");
+            return fragments;
+        }
+
+        checkResponse(ControlResponseCode.OK);
+        replaySessionId = (int)srcResponsePoller.controlResponseDecoder().relevantId();
+
+        if (AeronArchive.NULL_RECORDING_ID == dstRecordingId)
+        {
+            dstRecordingId = addReplicatedRecording();
+        }
+
+        respond();
+        nextState(State.REPLICATE);
+
+        return 1;
+    }
+
+    private int replicate()
+    {
+        int workCount = srcResponsePoller.poll();
+        if (srcResponsePoller.isPollComplete() &&
+            srcResponsePoller.templateId() == ControlResponseDecoder.TEMPLATE_ID &&
+            srcResponsePoller.controlResponseDecoder().code() == ERROR)
+        {
+            checkResponse(ControlResponseCode.OK);
+        }
+
+        if (isRecording)
+        {
+            if (!conductor.isRecording(dstRecordingId))
+            {
+                state = State.INACTIVE;
+                workCount++;
+            }
+            else if (null != replaySubscription && image.isEndOfStream())
+            {
+                CloseHelper.close(replaySubscription);
+                replaySubscription = null;
+                workCount++;
+            }
+        }
+        else if (null == image)
+        {
+            image = replaySubscription.imageBySessionId(replaySessionId);
+            if (null == image)
+            {
+                checkDeadline("no replay image from source archive");
+            }
+        }
+        else
+        {
+            conductor.startExtendedRecording(dstRecordingId, replicationPosition, image);
+            isRecording = true;
+            workCount++;
+        }
+
+        return workCount;
+    }
+
+    private long resumePosition()
+    {
+        final UnsafeBuffer descriptorBuffer = catalog.wrapDescriptor(dstRecordingId);
+        if (null == descriptorBuffer || !Catalog.isValidDescriptor(descriptorBuffer))
+        {
+            throw new IllegalStateException("unknown recording to resume: " + dstRecordingId);
+        }
+
+        final RecordingDescriptorDecoder decoder = dstDescriptorDecoder;
+        Catalog.wrapDescriptorDecoder(decoder, descriptorBuffer);
+
+        if (decoder.initialTermId() != srcInitialTermId ||
+            decoder.termBufferLength() != srcTermBufferLength ||
+            decoder.sessionId() != srcSessionId ||
+            decoder.streamId() != srcStreamId)
+        {
+            throw new IllegalStateException(
+                "recording " + dstRecordingId + " is not a replica of source recording " + srcRecordingId);
+        }
+
+        final long stopPosition = decoder.stopPosition();
+        if (stopPosition < srcStartPosition)
+        {
+            throw new IllegalStateException("source recording has been truncated past the position to resume from: " +
+                stopPosition + " < " + srcStartPosition);
+        }
+
+        if (NULL_POSITION != srcStopPosition && stopPosition > srcStopPosition)
+        {
+            throw new IllegalStateException("recording " + dstRecordingId + " is ahead of source recording: " +
+                stopPosition + " > " + srcStopPosition);
+        }
+
+        return stopPosition;
+    }
+
+    private long addReplicatedRecording()
+    {
+        final long recordingId = catalog.addNewRecording(
+            srcStartPosition,
+            srcStartTimestamp,
+            srcInitialTermId,
+            segmentFileLength,
+            srcTermBufferLength,
+            srcMtuLength,
+            srcSessionId,
+            srcStreamId,
+            srcStrippedChannel,
+            srcOriginalChannel,
+            srcSourceIdentity);
+
+        final RecordingDescriptorEncoder encoder = new RecordingDescriptorEncoder();
+        Catalog.wrapDescriptorEncoder(encoder, catalog.wrapDescriptor(recordingId));
+        encoder.stopPosition(srcStartPosition).stopTimestamp(epochClock.time());
+
+        return recordingId;
+    }
+
+    private boolean isPollComplete()
+    {
+        return srcResponsePoller.isPollComplete() && srcResponsePoller.correlationId() == activeCorrelationId;
+    }
+
+    private void checkResponse(final ControlResponseCode expectedCode)
+    {
+        if (srcResponsePoller.templateId() != ControlResponseDecoder.TEMPLATE_ID)
+        {
+            throw new IllegalStateException(
+                "unexpected response from source archive: templateId=" + srcResponsePoller.templateId());
+        }
+
+        final ControlResponseDecoder decoder = srcResponsePoller.controlResponseDecoder();
+        final ControlResponseCode code = decoder.code();
+        if (code != expectedCode)
+        {
+            throw new IllegalStateException("source archive responded " + code + " " + decoder.errorMessage());
+        }
+    }
+
+    private void checkDeadline(final String errorMessage)
+    {
+        if (epochClock.time() > deadlineMs)
+        {
+            throw new IllegalStateException(errorMessage);
+        }
+    }
+
+    private void nextState(final State state)
+    {
+        this.state = state;
+        deadlineMs = epochClock.time() + RESPONSE_TIMEOUT_MS;
+    }
+
+    private void respond()
+    {
+        hasResponded = true;
+        controlSession.sendOkResponse(correlationId, dstRecordingId, controlResponseProxy);
+    }
+
+    private void closeOnError(final Exception ex, final String errorMessage)
+    {
+        state = State.INACTIVE;
+
+        if (!hasResponded && !controlSession.isDone())
+        {
+            hasResponded = true;
+            controlSession.sendResponse(correlationId, ERROR, errorMessage, controlResponseProxy);
+        }
+
+        LangUtil.rethrowUnchecked(ex);
+    }
+}
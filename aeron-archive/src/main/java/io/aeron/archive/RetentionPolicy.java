@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+/**
+ * Policy for how much of the recordings of a channel and stream the archive retains, see
+ * {@link Archive.Context#retentionPolicy(String, int, RetentionPolicy)}.
+ * <p>
+ * Recordings are trimmed by discarding whole segments from their start so slightly more than the limits may be
+ * retained. The segment being recorded to is never discarded. A stopped recording with no data within the max age is
+ * purged.
+ */
+public final class RetentionPolicy
+{
+    /**
+     * Policy which retains all recorded data.
+     */
+    public static final RetentionPolicy RETAIN_ALL = new RetentionPolicy(0, 0);
+
+    private final long maxAgeNs;
+    private final long maxBytes;
+
+    /**
+     * Create a policy retaining recorded data up to a max age and a max length per recording.
+     *
+     * @param maxAgeNs max age in nanoseconds of the data retained, or 0 for no limit.
+     * @param maxBytes max length of the data retained for a recording, or 0 for no limit.
+     */
+    public RetentionPolicy(final long maxAgeNs, final long maxBytes)
+    {
+        if (maxAgeNs < 0 || maxBytes < 0)
+        {
+            throw new IllegalArgumentException("limits must not be negative: maxAgeNs=" + maxAgeNs +
+                " maxBytes=" + maxBytes);
+        }
+
+        this.maxAgeNs = maxAgeNs;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Max age in nanoseconds of the data retained.
+     *
+     * @return max age in nanoseconds of the data retained, or 0 for no limit.
+     */
+    public long maxAgeNs()
+    {
+        return maxAgeNs;
+    }
+
+    /**
+     * Max length of the data retained for a recording.
+     *
+     * @return max length of the data retained for a recording, or 0 for no limit.
+     */
+    public long maxBytes()
+    {
+        return maxBytes;
+    }
+
+    /**
+     * Does the policy retain all recorded data.
+     *
+     * @return true if the policy has no limits.
+     */
+    public boolean isRetainAll()
+    {
+        return 0 == maxAgeNs && 0 == maxBytes;
+    }
+
+    public String toString()
+    {
+        return "RetentionPolicy{maxAgeNs=" + maxAgeNs + ", maxBytes=" + maxBytes + "}";
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Codec with which the archive compresses sealed recording segments once they are no longer written to, see
+ * {@link Archive.Context#segmentCodec(SegmentCodec)}.
+ * <p>
+ * Segments are compressed on a background thread while replays may decompress other segments concurrently so
+ * implementations must be thread safe.
+ */
+public interface SegmentCodec
+{
+    /**
+     * Suffix appended to the name of a segment file when compressed with this codec.
+     *
+     * @return suffix appended to the name of a compressed segment file.
+     */
+    String fileSuffix();
+
+    /**
+     * Wrap a stream so data written to it is compressed. Closing the returned stream closes the wrapped stream.
+     *
+     * @param out to which the compressed data is written.
+     * @return stream to which the data to be compressed is written.
+     * @throws IOException if the compressor cannot be created.
+     */
+    OutputStream compressor(OutputStream out) throws IOException;
+
+    /**
+     * Wrap a stream of compressed data so data read from it is decompressed. Closing the returned stream closes the
+     * wrapped stream.
+     *
+     * @param in from which the compressed data is read.
+     * @return stream from which the decompressed data is read.
+     * @throws IOException if the decompressor cannot be created.
+     */
+    InputStream decompressor(InputStream in) throws IOException;
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.EpochClock;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Compacts sealed segments of recordings into a {@link CompressedSegmentStore} on a background thread.
+ * <p>
+ * A segment is sealed once the recording has moved past it or the recording has stopped. Sealed segments are
+ * compressed once they have not been modified for the compaction delay so recently recorded data, which is the most
+ * likely to be replayed, stays raw. The conductor notifies the compactor of the progress of active recordings and the
+ * compactor is not thread safe apart from the compaction itself.
+ */
+class SegmentCompactor implements AutoCloseable
+{
+    private final CompressedSegmentStore segmentStore;
+    private final long compactionDelayMs;
+    private final EpochClock epochClock;
+    private final ErrorHandler errorHandler;
+    private final ScheduledExecutorService executor;
+    private final Long2ObjectHashMap<RecordingSegments> recordingSegmentsById = new Long2ObjectHashMap<>();
+
+    SegmentCompactor(
+        final CompressedSegmentStore segmentStore,
+        final long compactionDelayNs,
+        final EpochClock epochClock,
+        final ErrorHandler errorHandler,
+        final ThreadFactory threadFactory)
+    {
+        this.segmentStore = segmentStore;
+        this.compactionDelayMs = NANOSECONDS.toMillis(compactionDelayNs);
+        this.epochClock = epochClock;
+        this.errorHandler = errorHandler;
+
+        executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run a task on the compaction thread so it is serialized with compaction, such as deleting the segments of a
+     * recording which may be being compacted. Tasks submitted once closed are dropped.
+     *
+     * @param task to run on the compaction thread.
+     */
+    void execute(final Runnable task)
+    {
+        try
+        {
+            executor.execute(task);
+        }
+        catch (final RejectedExecutionException ignore)
+        {
+        }
+    }
+
+    /**
+     * Track a new active recording so its segments are sealed as it progresses.
+     *
+     * @param recordingId       of the recording.
+     * @param baseSegmentIndex  of the first segment of the recording, which is greater than 0 once truncated.
+     * @param startPosition     of the recording.
+     * @param termBufferLength  of the recording.
+     * @param segmentFileLength of the recording.
+     */
+    void onRecordingStarted(
+        final long recordingId,
+        final int baseSegmentIndex,
+        final long startPosition,
+        final int termBufferLength,
+        final int segmentFileLength)
+    {
+        recordingSegmentsById.put(
+            recordingId, new RecordingSegments(baseSegmentIndex, startPosition, termBufferLength, segmentFileLength));
+    }
+
+    /**
+     * Seal the segments an active recording has moved past.
+     *
+     * @param recordingId of the recording.
+     * @param position    recorded so far.
+     */
+    void onRecordingProgress(final long recordingId, final long position)
+    {
+        final RecordingSegments segments = recordingSegmentsById.get(recordingId);
+        if (null != segments)
+        {
+            sealSegments(recordingId, segments, segments.segmentIndex(position));
+        }
+    }
+
+    /**
+     * Seal all the segments of a stopped recording and stop tracking it.
+     *
+     * @param recordingId  of the recording.
+     * @param stopPosition of the recording.
+     */
+    void onRecordingStopped(final long recordingId, final long stopPosition)
+    {
+        final RecordingSegments segments = recordingSegmentsById.remove(recordingId);
+        if (null != segments)
+        {
+            sealSegments(recordingId, segments, segments.segmentIndex(stopPosition) + 1);
+        }
+    }
+
+    /**
+     * Seal all the segments of a recording which is not active, such as those in the catalog on start up.
+     *
+     * @param recordingId       of the recording.
+     * @param baseSegmentIndex  of the first segment of the recording, which is greater than 0 once truncated.
+     * @param startPosition     of the recording.
+     * @param stopPosition      of the recording.
+     * @param termBufferLength  of the recording.
+     * @param segmentFileLength of the recording.
+     */
+    void onRecordingStopped(
+        final long recordingId,
+        final int baseSegmentIndex,
+        final long startPosition,
+        final long stopPosition,
+        final int termBufferLength,
+        final int segmentFileLength)
+    {
+        final RecordingSegments segments = new RecordingSegments(
+            baseSegmentIndex, startPosition, termBufferLength, segmentFileLength);
+        sealSegments(recordingId, segments, segments.segmentIndex(stopPosition) + 1);
+    }
+
+    /**
+     * Seal the segments of all the stopped recordings in a catalog on start up from where each recording now begins.
+     *
+     * @param catalog of recordings to seal.
+     */
+    void onCatalogLoaded(final Catalog catalog)
+    {
+        catalog.forEach(
+            (headerEncoder, headerDecoder, encoder, decoder) ->
+            {
+                if (Catalog.VALID == headerDecoder.valid() && Catalog.NULL_POSITION != decoder.stopPosition())
+                {
+                    onRecordingStopped(
+                        decoder.recordingId(),
+                        headerDecoder.baseSegmentIndex(),
+                        decoder.startPosition(),
+                        decoder.stopPosition(),
+                        decoder.termBufferLength(),
+                        decoder.segmentFileLength());
+                }
+            });
+    }
+
+    private void sealSegments(final long recordingId, final RecordingSegments segments, final int limitIndex)
+    {
+        for (int i = segments.nextSegmentIndex; i < limitIndex; i++)
+        {
+            final int segmentIndex = i;
+            try
+            {
+                executor.execute(() -> compact(recordingId, segmentIndex));
+            }
+            catch (final RejectedExecutionException ignore)
+            {
+                return;
+            }
+
+            segments.nextSegmentIndex = segmentIndex + 1;
+        }
+    }
+
+    private void compact(final long recordingId, final int segmentIndex)
+    {
+        try
+        {
+            final File segmentFile = segmentStore.segmentFile(recordingId, segmentIndex);
+            final long lastModified = segmentFile.lastModified();
+            if (0 == lastModified)
+            {
+                return;
+            }
+
+            final long delayMs = (lastModified + compactionDelayMs) - epochClock.time();
+            if (delayMs > 0)
+            {
+                executor.schedule(() -> compact(recordingId, segmentIndex), delayMs, MILLISECONDS);
+            }
+            else
+            {
+                segmentStore.compress(recordingId, segmentIndex);
+            }
+        }
+        catch (final RejectedExecutionException ignore)
+        {
+        }
+        catch (final Exception ex)
+        {
+            errorHandler.onError(ex);
+        }
+    }
+
+    static final class RecordingSegments
+    {
+        final int baseSegmentIndex;
+        final long startPosition;
+        final int termBufferLength;
+        final int segmentFileLength;
+        int nextSegmentIndex;
+
+        RecordingSegments(
+            final int baseSegmentIndex,
+            final long startPosition,
+            final int termBufferLength,
+            final int segmentFileLength)
+        {
+            this.baseSegmentIndex = baseSegmentIndex;
+            this.startPosition = startPosition;
+            this.termBufferLength = termBufferLength;
+            this.segmentFileLength = segmentFileLength;
+            nextSegmentIndex = baseSegmentIndex;
+        }
+
+        int segmentIndex(final long position)
+        {
+            return Archive.segmentFileIndex(
+                baseSegmentIndex, startPosition, termBufferLength, segmentFileLength, position);
+        }
+    }
+}
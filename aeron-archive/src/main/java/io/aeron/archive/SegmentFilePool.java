@@ -0,0 +1,203 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.CloseHelper;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.ManyToManyConcurrentArrayQueue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Pool of pre-allocated and zeroed segment files so a {@link RecordingWriter} can roll over to a new segment with a
+ * rename and open rather than creating and sizing a file inline on the recorder thread.
+ * <p>
+ * Files are zeroed a chunk at a time from the duty cycle of the archive conductor by {@link #doWork()} and handed
+ * to the recorders via {@link #poll()}. Spare files are not forced to storage as they only hold zeros and the
+ * recorder syncs segments according to its own file sync level, so the conductor never blocks on a device flush.
+ */
+class SegmentFilePool implements AutoCloseable
+{
+    static final String SPARE_SEGMENT_PREFIX = "spare-";
+    static final String SPARE_SEGMENT_POSTFIX = ".seg";
+
+    private static final int FILL_CHUNK_LENGTH = 64 * 1024;
+
+    private final int poolSize;
+    private final int segmentFileLength;
+    private final long fileLength;
+    private final File archiveDir;
+    private final ByteBuffer zeroBuffer = ByteBuffer.allocateDirect(FILL_CHUNK_LENGTH);
+    private final ManyToManyConcurrentArrayQueue<File> readyFiles;
+
+    private int nextFileId = 0;
+    private long filledLength;
+    private File fillingFile;
+    private FileChannel fillingChannel;
+
+    /**
+     * Create a pool of spare segment files in the archive directory. Any complete spare files from a previous run
+     * are reused and any incomplete ones deleted.
+     *
+     * @param archiveDir        in which the spare files are kept.
+     * @param poolSize          number of spare files to keep ready.
+     * @param segmentFileLength of the recording segments the spare files are for.
+     * @param fileLength        of the spare files including any trailing space beyond the segment length.
+     */
+    SegmentFilePool(final File archiveDir, final int poolSize, final int segmentFileLength, final long fileLength)
+    {
+        this.archiveDir = archiveDir;
+        this.poolSize = poolSize;
+        this.segmentFileLength = segmentFileLength;
+        this.fileLength = fileLength;
+
+        readyFiles = new ManyToManyConcurrentArrayQueue<>(Math.max(poolSize, 2));
+
+        final File[] spareFiles = archiveDir.listFiles(
+            (dir, name) -> name.startsWith(SPARE_SEGMENT_PREFIX) && name.endsWith(SPARE_SEGMENT_POSTFIX));
+
+        if (null != spareFiles)
+        {
+            for (final File file : spareFiles)
+            {
+                nextFileId = Math.max(nextFileId, spareFileId(file.getName()) + 1);
+                if (file.length() != fileLength || !readyFiles.offer(file))
+                {
+                    IoUtil.delete(file, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Length of the recording segments for which spare files are held.
+     *
+     * @return length of the recording segments for which spare files are held.
+     */
+    int segmentFileLength()
+    {
+        return segmentFileLength;
+    }
+
+    /**
+     * Take a spare segment file, which is pre-allocated and zeroed, for the recorder.
+     *
+     * @return a spare file or null if none are ready.
+     */
+    File poll()
+    {
+        return readyFiles.poll();
+    }
+
+    /**
+     * Zero the next chunk of a spare file if the pool needs topping up.
+     *
+     * @return work count.
+     */
+    int doWork()
+    {
+        if (null == fillingChannel)
+        {
+            if (readyFiles.size() >= poolSize)
+            {
+                return 0;
+            }
+
+            startFile();
+        }
+
+        try
+        {
+            zeroBuffer.clear();
+            zeroBuffer.limit((int)Math.min(FILL_CHUNK_LENGTH, fileLength - filledLength));
+            filledLength += fillingChannel.write(zeroBuffer, filledLength);
+
+            if (filledLength >= fileLength)
+            {
+                fillingChannel.close();
+                fillingChannel = null;
+
+                if (!readyFiles.offer(fillingFile))
+                {
+                    IoUtil.delete(fillingFile, true);
+                }
+
+                fillingFile = null;
+            }
+        }
+        catch (final IOException ex)
+        {
+            abandonFile();
+            LangUtil.rethrowUnchecked(ex);
+        }
+
+        return 1;
+    }
+
+    public void close()
+    {
+        abandonFile();
+    }
+
+    private void startFile()
+    {
+        fillingFile = new File(archiveDir, SPARE_SEGMENT_PREFIX + nextFileId++ + SPARE_SEGMENT_POSTFIX);
+        filledLength = 0;
+
+        RandomAccessFile file = null;
+        try
+        {
+            file = new RandomAccessFile(fillingFile, "rw");
+            file.setLength(0);
+            fillingChannel = file.getChannel();
+        }
+        catch (final IOException ex)
+        {
+            CloseHelper.quietClose(file);
+            fillingFile = null;
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    private void abandonFile()
+    {
+        if (null != fillingFile)
+        {
+            CloseHelper.quietClose(fillingChannel);
+            IoUtil.delete(fillingFile, true);
+            fillingChannel = null;
+            fillingFile = null;
+        }
+    }
+
+    private static int spareFileId(final String name)
+    {
+        try
+        {
+            return Integer.parseInt(
+                name.substring(SPARE_SEGMENT_PREFIX.length(), name.length() - SPARE_SEGMENT_POSTFIX.length()));
+        }
+        catch (final NumberFormatException ignore)
+        {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.CloseHelper;
+import org.agrona.IoUtil;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Executor;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads ahead ranges of recording segment files on threads other than the replayer so replays do not stall on page
+ * faults against cold segments. Each replay has its own {@link Slot} which holds at most one range being read ahead
+ * and is reused for every term. A range whose pages are already resident in the page cache is never queued, so only
+ * replays of cold segments give up their duty cycle and wait, while replays of hot segments are not held up behind
+ * them.
+ * <p>
+ * Read ahead is only a hint, failures such as a segment which does not exist yet are ignored and the range is
+ * considered read so the replay will find any real problem.
+ */
+class SegmentReadAhead
+{
+    /**
+     * The read ahead state of a replay which is reused for each range of its recording.
+     */
+    static final class Slot implements Runnable, AutoCloseable
+    {
+        private File segmentFile;
+        private FileChannel channel;
+        private long offset;
+        private int length;
+        private volatile boolean isPending;
+
+        /**
+         * Is a range still being read into the page cache.
+         *
+         * @return true if a range is still being read into the page cache.
+         */
+        boolean isPending()
+        {
+            return isPending;
+        }
+
+        public void run()
+        {
+            try
+            {
+                final MappedByteBuffer buffer = channel.map(READ_ONLY, offset, length);
+                try
+                {
+                    buffer.load();
+                }
+                finally
+                {
+                    IoUtil.unmap(buffer);
+                }
+            }
+            catch (final Exception ignore)
+            {
+            }
+            finally
+            {
+                isPending = false;
+            }
+        }
+
+        public void close()
+        {
+            CloseHelper.quietClose(channel);
+            channel = null;
+            segmentFile = null;
+        }
+
+        private boolean isResident(final File segmentFile, final long offset, final int length)
+        {
+            try
+            {
+                if (segmentFile != this.segmentFile)
+                {
+                    CloseHelper.quietClose(channel);
+                    channel = null;
+                    this.segmentFile = segmentFile;
+                    channel = FileChannel.open(segmentFile.toPath(), READ);
+                }
+
+                final MappedByteBuffer buffer = channel.map(READ_ONLY, offset, length);
+                try
+                {
+                    return buffer.isLoaded();
+                }
+                finally
+                {
+                    IoUtil.unmap(buffer);
+                }
+            }
+            catch (final Exception ignore)
+            {
+                return true;
+            }
+        }
+    }
+
+    private final Executor executor;
+
+    SegmentReadAhead(final Executor executor)
+    {
+        this.executor = executor;
+    }
+
+    /**
+     * Read ahead a range of a segment file into the page cache using the slot of a replay, unless the pages of the
+     * range are already resident or the slot is still busy with a previous range.
+     *
+     * @param slot        of the replay which must not be pending.
+     * @param segmentFile to be read ahead, which should be the same instance for each range of the segment.
+     * @param offset      in the segment file at which the range begins.
+     * @param length      of the range.
+     */
+    void readAhead(final Slot slot, final File segmentFile, final long offset, final int length)
+    {
+        if (slot.isPending || slot.isResident(segmentFile, offset, length))
+        {
+            return;
+        }
+
+        slot.offset = offset;
+        slot.length = length;
+        slot.isPending = true;
+        executor.execute(slot);
+    }
+}
@@ -110,6 +110,16 @@ class SessionWorker<T extends Session> implements Agent
     {
     }
 
+    /**
+     * The number of sessions being worked on by this worker.
+     *
+     * @return the number of sessions being worked on by this worker.
+     */
+    protected final int activeSessionCount()
+    {
+        return sessions.size();
+    }
+
     boolean isClosed()
     {
         return isClosed;
@@ -43,12 +43,12 @@ final class SharedModeArchiveConductor extends ArchiveConductor
 
     protected SessionWorker<RecordingSession> newRecorder()
     {
-        return new SharedModeRecorder(errorHandler);
+        return new SharedModeRecorder(errorHandler, newRecordingGroupSyncer(), newRecordingProgressBatcher());
     }
 
     protected SessionWorker<ReplaySession> newReplayer()
     {
-        return new SharedModeReplayer(errorHandler);
+        return new SharedModeReplayer(errorHandler, newReplayAggregateRateLimiter(1));
     }
 
     protected int preWork()
@@ -64,22 +64,65 @@ final class SharedModeArchiveConductor extends ArchiveConductor
 
     private class SharedModeRecorder extends SessionWorker<RecordingSession>
     {
-        SharedModeRecorder(final ErrorHandler errorHandler)
+        private final RecordingGroupSyncer groupSyncer;
+        private final RecordingProgressBatcher progressBatcher;
+
+        SharedModeRecorder(
+            final ErrorHandler errorHandler,
+            final RecordingGroupSyncer groupSyncer,
+            final RecordingProgressBatcher progressBatcher)
         {
             super("archive-recorder", errorHandler);
+            this.groupSyncer = groupSyncer;
+            this.progressBatcher = progressBatcher;
+        }
+
+        protected int preWork()
+        {
+            return (null != groupSyncer ? groupSyncer.doWork() : 0) +
+                (null != progressBatcher ? progressBatcher.flush() : 0);
+        }
+
+        protected void postSessionAdd(final RecordingSession session)
+        {
+            session.setThreadLocalGroupSyncer(groupSyncer);
+            session.setThreadLocalProgressBatcher(progressBatcher);
         }
 
         protected void closeSession(final RecordingSession session)
         {
+            if (null != progressBatcher)
+            {
+                progressBatcher.flush();
+            }
+
             closeRecordingSession(session);
         }
     }
 
     private class SharedModeReplayer extends SessionWorker<ReplaySession>
     {
-        SharedModeReplayer(final ErrorHandler errorHandler)
+        private final ReplayRateLimiter aggregateRateLimiter;
+
+        SharedModeReplayer(final ErrorHandler errorHandler, final ReplayRateLimiter aggregateRateLimiter)
         {
             super("archive-replayer", errorHandler);
+            this.aggregateRateLimiter = aggregateRateLimiter;
+        }
+
+        protected int preWork()
+        {
+            if (null != aggregateRateLimiter)
+            {
+                aggregateRateLimiter.onDutyCycle(activeSessionCount());
+            }
+
+            return 0;
+        }
+
+        protected void postSessionAdd(final ReplaySession session)
+        {
+            session.setThreadLocalAggregateRateLimiter(aggregateRateLimiter);
         }
 
         protected void closeSession(final ReplaySession session)
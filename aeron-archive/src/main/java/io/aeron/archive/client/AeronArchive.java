@@ -18,6 +18,7 @@ package io.aeron.archive.client;
 import io.aeron.*;
 import io.aeron.archive.codecs.ControlResponseCode;
 import io.aeron.archive.codecs.ControlResponseDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorBatchDecoder;
 import io.aeron.archive.codecs.RecordingDescriptorDecoder;
 import io.aeron.archive.codecs.SourceLocation;
 import io.aeron.exceptions.TimeoutException;
@@ -27,16 +28,23 @@ import org.agrona.concurrent.IdleStrategy;
 import java.util.concurrent.TimeUnit;
 
 import static io.aeron.archive.client.ControlResponseAdapter.dispatchDescriptor;
+import static io.aeron.archive.client.ControlResponseAdapter.dispatchDescriptors;
 
 /**
  * Client for interacting with a local or remote Aeron Archive that records and replays message streams.
  * <p>
  * This client provides a simple interaction model which is mostly synchronous and may not be optimal.
- * The underlying components such as the {@link ArchiveProxy} and the {@link ControlResponsePoller} may be used
- * directly if a more asynchronous pattern of interaction is required.
+ * Requests can be pipelined without waiting for each response with the {@link AsyncAeronArchive} from
+ * {@link #async()}, or the underlying components such as the {@link ArchiveProxy} and the
+ * {@link ControlResponsePoller} may be used directly if a more asynchronous pattern of interaction is required.
  */
 public final class AeronArchive implements AutoCloseable
 {
+    /**
+     * Represents a recording id which has not been assigned, such as when a replication is to a new recording.
+     */
+    public static final long NULL_RECORDING_ID = -1;
+
     private static final int RESPONSE_FRAGMENT_LIMIT = 4;
 
     private final long controlSessionId;
@@ -46,6 +54,7 @@ public final class AeronArchive implements AutoCloseable
     private final ArchiveProxy archiveProxy;
     private final IdleStrategy idleStrategy;
     private final ControlResponsePoller controlResponsePoller;
+    private AsyncAeronArchive asyncArchive;
 
     private AeronArchive(final Context context)
     {
@@ -96,6 +105,16 @@ public final class AeronArchive implements AutoCloseable
         context.close();
     }
 
+    /**
+     * Get the {@link Context} used to connect this archive client.
+     *
+     * @return the {@link Context} used to connect this archive client.
+     */
+    public Context context()
+    {
+        return context;
+    }
+
     /**
      * Connect to an Aeron archive using a default {@link Context}. This will create a control session.
      *
@@ -140,6 +159,23 @@ public final class AeronArchive implements AutoCloseable
         return controlResponsePoller;
     }
 
+    /**
+     * Get the {@link AsyncAeronArchive} for pipelining requests on the control session of this client without
+     * waiting for their responses.
+     *
+     * @return the {@link AsyncAeronArchive} for pipelining requests on the control session of this client.
+     */
+    public AsyncAeronArchive async()
+    {
+        if (null == asyncArchive)
+        {
+            asyncArchive = new AsyncAeronArchive(
+                controlSessionId, messageTimeoutNs, aeron, archiveProxy, controlResponsePoller);
+        }
+
+        return asyncArchive;
+    }
+
     /**
      * Poll the response stream once of an error. If another message is present then it will be skipped over
      * so only call when not expecting another response.
@@ -216,6 +252,32 @@ public final class AeronArchive implements AutoCloseable
         pollForResponse(correlationId);
     }
 
+    /**
+     * Extend an existing, non-active, recording for a channel and stream pairing.
+     * <p>
+     * Images on the channel and stream are appended to the recording when they join at its stop position with
+     * the same initial term id and term length, such as from an {@link ExclusivePublication} which is created with
+     * the initial term id, term id, and term offset for the stop position of the recording.
+     *
+     * @param recordingId    to be extended.
+     * @param channel        to be recorded.
+     * @param streamId       to be recorded.
+     * @param sourceLocation of the publication to be recorded.
+     */
+    public void extendRecording(
+        final long recordingId, final String channel, final int streamId, final SourceLocation sourceLocation)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.extendRecording(
+            channel, streamId, sourceLocation, recordingId, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send extend recording request");
+        }
+
+        pollForResponse(correlationId);
+    }
+
     /**
      * Stop recording for a channel and stream pairing.
      *
@@ -310,6 +372,173 @@ public final class AeronArchive implements AutoCloseable
         return aeron.addSubscription(replayChannel, replayStreamId, availableImageHandler, unavailableImageHandler);
     }
 
+    /**
+     * Start a replay of a length of a recording from a position without adding a subscription for it. The
+     * {@link io.aeron.Image} of the replay can be found by the returned session id on a subscription to the replay
+     * channel and stream.
+     *
+     * @param recordingId    to be replayed.
+     * @param position       from which the replay should be started.
+     * @param length         of the stream to be replayed.
+     * @param replayChannel  to which the replay should be sent.
+     * @param replayStreamId to which the replay should be sent.
+     * @return the session id of the replay publication.
+     */
+    public int startReplay(
+        final long recordingId,
+        final long position,
+        final long length,
+        final String replayChannel,
+        final int replayStreamId)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.replay(
+            recordingId,
+            position,
+            length,
+            replayChannel,
+            replayStreamId,
+            correlationId,
+            controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send replay request");
+        }
+
+        return (int)pollForResponse(correlationId);
+    }
+
+    /**
+     * Replay a length of a recording from the position at which data was recorded at a timestamp. The position is
+     * found from the sparse time index of the recording so the replay may begin with some data recorded shortly
+     * before the timestamp.
+     *
+     * @param recordingId    to be replayed.
+     * @param timestamp      in milliseconds since the epoch from which the replay should be started.
+     * @param length         of the stream to be replayed.
+     * @param replayChannel  to which the replay should be sent.
+     * @param replayStreamId to which the replay should be sent.
+     * @return the {@link Subscription} for consuming the replay.
+     * @see #findPosition(long, long)
+     */
+    public Subscription replayFromTime(
+        final long recordingId,
+        final long timestamp,
+        final long length,
+        final String replayChannel,
+        final int replayStreamId)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.replayFromTime(
+            recordingId,
+            timestamp,
+            length,
+            replayChannel,
+            replayStreamId,
+            correlationId,
+            controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send replay from time request");
+        }
+
+        pollForResponse(correlationId);
+
+        return aeron.addSubscription(replayChannel, replayStreamId);
+    }
+
+    /**
+     * Find the position in a recording from which a replay will include all data recorded after a timestamp. The
+     * position is the latest entry in the sparse time index of the recording at or before the timestamp, or the
+     * start position of the recording if there is none or the archive keeps no time index, and can be used with
+     * {@link #replay(long, long, long, String, int)}.
+     *
+     * @param recordingId to be searched.
+     * @param timestamp   in milliseconds since the epoch for which the position should be found.
+     * @return the position in the recording from which to replay.
+     */
+    public long findPosition(final long recordingId, final long timestamp)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.findPosition(recordingId, timestamp, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send find position request");
+        }
+
+        return pollForResponse(correlationId);
+    }
+
+    /**
+     * Purge a stopped recording, deleting all its segment files and removing it from listings. Recordings which
+     * are active or being replayed cannot be purged.
+     *
+     * @param recordingId to be purged.
+     */
+    public void purgeRecording(final long recordingId)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.purgeRecording(recordingId, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send purge recording request");
+        }
+
+        pollForResponse(correlationId);
+    }
+
+    /**
+     * Truncate the start of a recording by discarding the whole segments before the segment holding a position. The
+     * recording may be active but not being replayed.
+     *
+     * @param recordingId to be truncated.
+     * @param position    before which whole segments are discarded.
+     * @return the start position of the recording once truncated.
+     */
+    public long truncateRecording(final long recordingId, final long position)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.truncateRecording(recordingId, position, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send truncate recording request");
+        }
+
+        return pollForResponse(correlationId);
+    }
+
+    /**
+     * Replicate a recording from a source archive into the archive this client is connected to. The archive pulls
+     * the recorded data from the source as blocks of whole frames and writes it directly into segment files, then
+     * keeps following the source recording while it is live.
+     * <p>
+     * A replication which was interrupted can be resumed from the position it reached by giving the recording id
+     * it was replicated into as the destination recording.
+     *
+     * @param srcRecordingId     to be replicated from the source archive.
+     * @param dstRecordingId     to be resumed from its stop position, or {@link #NULL_RECORDING_ID} for a new
+     *                           recording.
+     * @param srcControlChannel  on which the source archive receives control requests.
+     * @param srcControlStreamId on which the source archive receives control requests.
+     * @return the id of the recording in this archive into which the source recording is being replicated.
+     */
+    public long replicate(
+        final long srcRecordingId,
+        final long dstRecordingId,
+        final String srcControlChannel,
+        final int srcControlStreamId)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.replicate(
+            srcRecordingId, dstRecordingId, srcControlChannel, srcControlStreamId, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send replicate request");
+        }
+
+        return pollForResponse(correlationId);
+    }
+
     /**
      * List all recording descriptors from a recording id with a limit of record count.
      * <p>
@@ -368,6 +597,40 @@ public final class AeronArchive implements AutoCloseable
         return pollForDescriptors(correlationId, recordCount, consumer);
     }
 
+    /**
+     * List recording descriptors from a recording id with a limit of record count which match a filter. The filter is
+     * evaluated by the archive and matching descriptors are returned several to a message.
+     * <p>
+     * To page through the matching recordings repeat the listing from the recording id after the last one consumed
+     * until fewer than the record count are returned.
+     *
+     * @param fromRecordingId at which to begin the listing.
+     * @param recordCount     to limit for each query.
+     * @param filter          which the recordings must match.
+     * @param consumer        to which the descriptors are dispatched.
+     * @return the number of descriptors found and consumed.
+     */
+    public int listRecordingsWithFilter(
+        final long fromRecordingId,
+        final int recordCount,
+        final RecordingFilter filter,
+        final RecordingDescriptorConsumer consumer)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.listRecordingsWithFilter(
+            fromRecordingId,
+            recordCount,
+            filter,
+            correlationId,
+            controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send list recordings request");
+        }
+
+        return pollForDescriptors(correlationId, recordCount, consumer);
+    }
+
     private long pollForConnected(final long expectedCorrelationId)
     {
         final long deadline = System.nanoTime() + messageTimeoutNs;
@@ -406,7 +669,7 @@ public final class AeronArchive implements AutoCloseable
         }
     }
 
-    private void pollForResponse(final long expectedCorrelationId)
+    private long pollForResponse(final long expectedCorrelationId)
     {
         final long deadline = System.nanoTime() + messageTimeoutNs;
         final ControlResponsePoller poller = controlResponsePoller;
@@ -426,6 +689,11 @@ public final class AeronArchive implements AutoCloseable
 
             if (poller.controlSessionId() != controlSessionId || poller.correlationId() != expectedCorrelationId)
             {
+                if (null != asyncArchive)
+                {
+                    asyncArchive.onResponse(poller);
+                }
+
                 continue;
             }
 
@@ -435,7 +703,7 @@ public final class AeronArchive implements AutoCloseable
                 switch (code)
                 {
                     case OK:
-                        return;
+                        return poller.controlResponseDecoder().relevantId();
 
                     case ERROR:
                         throw new IllegalStateException("response for correlationId=" + expectedCorrelationId +
@@ -475,6 +743,11 @@ public final class AeronArchive implements AutoCloseable
 
             if (poller.controlSessionId() != controlSessionId || poller.correlationId() != expectedCorrelationId)
             {
+                if (null != asyncArchive)
+                {
+                    asyncArchive.onResponse(poller);
+                }
+
                 continue;
             }
 
@@ -488,6 +761,18 @@ public final class AeronArchive implements AutoCloseable
                     }
                     break;
 
+                case RecordingDescriptorBatchDecoder.TEMPLATE_ID:
+                    count += dispatchDescriptors(
+                        poller.recordingDescriptorBatchDecoder(),
+                        poller.messageHeaderDecoder(),
+                        poller.recordingDescriptorDecoder(),
+                        consumer);
+                    if (count >= recordCount)
+                    {
+                        return count;
+                    }
+                    break;
+
                 case ControlResponseDecoder.TEMPLATE_ID:
                     final ControlResponseCode code = poller.controlResponseDecoder().code();
                     switch (code)
@@ -43,11 +43,21 @@ public class ArchiveProxy
     private final ConnectRequestEncoder connectRequestEncoder = new ConnectRequestEncoder();
     private final CloseSessionRequestEncoder closeSessionRequestEncoder = new CloseSessionRequestEncoder();
     private final StartRecordingRequestEncoder startRecordingRequestEncoder = new StartRecordingRequestEncoder();
+    private final ExtendRecordingRequestEncoder extendRecordingRequestEncoder = new ExtendRecordingRequestEncoder();
     private final ReplayRequestEncoder replayRequestEncoder = new ReplayRequestEncoder();
+    private final ReplayFromTimeRequestEncoder replayFromTimeRequestEncoder = new ReplayFromTimeRequestEncoder();
+    private final BlockReplayRequestEncoder blockReplayRequestEncoder = new BlockReplayRequestEncoder();
+    private final ReplicateRequestEncoder replicateRequestEncoder = new ReplicateRequestEncoder();
+    private final FindPositionRequestEncoder findPositionRequestEncoder = new FindPositionRequestEncoder();
+    private final PurgeRecordingRequestEncoder purgeRecordingRequestEncoder = new PurgeRecordingRequestEncoder();
+    private final TruncateRecordingRequestEncoder truncateRecordingRequestEncoder =
+        new TruncateRecordingRequestEncoder();
     private final StopRecordingRequestEncoder stopRecordingRequestEncoder = new StopRecordingRequestEncoder();
     private final ListRecordingsRequestEncoder listRecordingsRequestEncoder = new ListRecordingsRequestEncoder();
     private final ListRecordingsForUriRequestEncoder listRecordingsForUriRequestEncoder =
         new ListRecordingsForUriRequestEncoder();
+    private final ListRecordingsWithFilterRequestEncoder listRecordingsWithFilterRequestEncoder =
+        new ListRecordingsWithFilterRequestEncoder();
 
     /**
      * Create a proxy with a {@link Publication} for sending control message requests.
@@ -155,6 +165,37 @@ public class ArchiveProxy
         return offer(startRecordingRequestEncoder.encodedLength());
     }
 
+    /**
+     * Extend an existing, non-active, recording for a given channel and stream id pairing.
+     *
+     * @param channel          to be recorded.
+     * @param streamId         to be recorded.
+     * @param sourceLocation   of the publication to be recorded.
+     * @param recordingId      to be extended.
+     * @param correlationId    for this request.
+     * @param controlSessionId for this request.
+     * @return true if successfully offered otherwise false.
+     */
+    public boolean extendRecording(
+        final String channel,
+        final int streamId,
+        final SourceLocation sourceLocation,
+        final long recordingId,
+        final long correlationId,
+        final long controlSessionId)
+    {
+        extendRecordingRequestEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .recordingId(recordingId)
+            .streamId(streamId)
+            .sourceLocation(sourceLocation)
+            .channel(channel);
+
+        return offer(extendRecordingRequestEncoder.encodedLength());
+    }
+
     /**
      * Stop an active recording.
      *
@@ -214,6 +255,180 @@ public class ArchiveProxy
         return offer(replayRequestEncoder.encodedLength());
     }
 
+    /**
+     * Replay a recording from a given position as blocks of whole frames rather than fragment by fragment.
+     *
+     * @param recordingId      to be replayed.
+     * @param position         from which the replay should be started.
+     * @param length           of the stream to be replayed.
+     * @param blockLength      up to which each block of frames replayed may be in length.
+     * @param replayChannel    to which the replay should be sent.
+     * @param replayStreamId   to which the replay should be sent.
+     * @param correlationId    for this request.
+     * @param controlSessionId for this request.
+     * @return true if successfully offered otherwise false.
+     */
+    public boolean blockReplay(
+        final long recordingId,
+        final long position,
+        final long length,
+        final int blockLength,
+        final String replayChannel,
+        final int replayStreamId,
+        final long correlationId,
+        final long controlSessionId)
+    {
+        blockReplayRequestEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .recordingId(recordingId)
+            .position(position)
+            .length(length)
+            .blockLength(blockLength)
+            .replayStreamId(replayStreamId)
+            .replayChannel(replayChannel);
+
+        return offer(blockReplayRequestEncoder.encodedLength());
+    }
+
+    /**
+     * Replay a recording from the position found in its time index for a timestamp.
+     *
+     * @param recordingId      to be replayed.
+     * @param timestamp        from which the replay should be started.
+     * @param length           of the stream to be replayed.
+     * @param replayChannel    to which the replay should be sent.
+     * @param replayStreamId   to which the replay should be sent.
+     * @param correlationId    for this request.
+     * @param controlSessionId for this request.
+     * @return true if successfully offered otherwise false.
+     */
+    public boolean replayFromTime(
+        final long recordingId,
+        final long timestamp,
+        final long length,
+        final String replayChannel,
+        final int replayStreamId,
+        final long correlationId,
+        final long controlSessionId)
+    {
+        replayFromTimeRequestEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .recordingId(recordingId)
+            .timestamp(timestamp)
+            .length(length)
+            .replayStreamId(replayStreamId)
+            .replayChannel(replayChannel);
+
+        return offer(replayFromTimeRequestEncoder.encodedLength());
+    }
+
+    /**
+     * Find the position in a recording from which data recorded after a timestamp can be replayed. The position
+     * is returned as the relevant id of the response.
+     *
+     * @param recordingId      to be searched.
+     * @param timestamp        for which the position should be found.
+     * @param correlationId    for this request.
+     * @param controlSessionId for this request.
+     * @return true if successfully offered otherwise false.
+     */
+    public boolean findPosition(
+        final long recordingId,
+        final long timestamp,
+        final long correlationId,
+        final long controlSessionId)
+    {
+        findPositionRequestEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .recordingId(recordingId)
+            .timestamp(timestamp);
+
+        return offer(findPositionRequestEncoder.encodedLength());
+    }
+
+    /**
+     * Purge a stopped recording, deleting all its segment files and removing it from listings.
+     *
+     * @param recordingId      to be purged.
+     * @param correlationId    for this request.
+     * @param controlSessionId for this request.
+     * @return true if successfully offered otherwise false.
+     */
+    public boolean purgeRecording(final long recordingId, final long correlationId, final long controlSessionId)
+    {
+        purgeRecordingRequestEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .recordingId(recordingId);
+
+        return offer(purgeRecordingRequestEncoder.encodedLength());
+    }
+
+    /**
+     * Truncate the start of a recording by discarding the whole segments before the segment holding a position. The
+     * new start position of the recording is returned as the relevant id of the response.
+     *
+     * @param recordingId      to be truncated.
+     * @param position         before which whole segments are discarded.
+     * @param correlationId    for this request.
+     * @param controlSessionId for this request.
+     * @return true if successfully offered otherwise false.
+     */
+    public boolean truncateRecording(
+        final long recordingId,
+        final long position,
+        final long correlationId,
+        final long controlSessionId)
+    {
+        truncateRecordingRequestEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .recordingId(recordingId)
+            .position(position);
+
+        return offer(truncateRecordingRequestEncoder.encodedLength());
+    }
+
+    /**
+     * Replicate a recording from a source archive into the archive, following it while it is live.
+     *
+     * @param srcRecordingId     to be replicated from the source archive.
+     * @param dstRecordingId     to be resumed from its stop position, or {@link AeronArchive#NULL_RECORDING_ID}
+     *                           for a new recording.
+     * @param srcControlChannel  for the control requests to the source archive.
+     * @param srcControlStreamId for the control requests to the source archive.
+     * @param correlationId      for this request.
+     * @param controlSessionId   for this request.
+     * @return true if successfully offered otherwise false.
+     */
+    public boolean replicate(
+        final long srcRecordingId,
+        final long dstRecordingId,
+        final String srcControlChannel,
+        final int srcControlStreamId,
+        final long correlationId,
+        final long controlSessionId)
+    {
+        replicateRequestEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .srcRecordingId(srcRecordingId)
+            .dstRecordingId(dstRecordingId)
+            .srcControlStreamId(srcControlStreamId)
+            .srcControlChannel(srcControlChannel);
+
+        return offer(replicateRequestEncoder.encodedLength());
+    }
+
     /**
      * List a range of recording descriptors.
      *
@@ -270,6 +485,48 @@ public class ArchiveProxy
         return offer(listRecordingsForUriRequestEncoder.encodedLength());
     }
 
+    /**
+     * List a range of recording descriptors which match a filter.
+     *
+     * @param fromRecordingId  at which to begin listing.
+     * @param recordCount      for the number of descriptors to be listed.
+     * @param filter           to match recordings on.
+     * @param correlationId    for this request.
+     * @param controlSessionId for this request.
+     * @return true if successfully offered otherwise false.
+     */
+    public boolean listRecordingsWithFilter(
+        final long fromRecordingId,
+        final int recordCount,
+        final RecordingFilter filter,
+        final long correlationId,
+        final long controlSessionId)
+    {
+        listRecordingsWithFilterRequestEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .fromRecordingId(fromRecordingId)
+            .recordCount(recordCount)
+            .sessionId(filter.sessionId())
+            .streamId(filter.streamId());
+
+        listRecordingsWithFilterRequestEncoder.filterFlags()
+            .clear()
+            .sessionId(filter.hasSessionId())
+            .streamId(filter.hasStreamId())
+            .activeOnly(filter.activeOnly());
+
+        listRecordingsWithFilterRequestEncoder
+            .fromTimestamp(filter.fromTimestamp())
+            .toTimestamp(filter.toTimestamp())
+            .minLength(filter.minLength())
+            .channel(filter.channel())
+            .sourceIdentity(filter.sourceIdentity());
+
+        return offer(listRecordingsWithFilterRequestEncoder.encodedLength());
+    }
+
     private boolean offer(final int length)
     {
         retryIdleStrategy.reset();
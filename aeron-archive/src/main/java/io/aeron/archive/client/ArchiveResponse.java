@@ -0,0 +1,211 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive.client;
+
+/**
+ * Handle to the response for a request made with {@link AsyncAeronArchive} which completes when the response is
+ * polled from the archive, or when no response arrives within the message timeout.
+ * <p>
+ * Once done a response can be given back with {@link AsyncAeronArchive#release(ArchiveResponse)} to be reused for a
+ * later request, after which it must no longer be referenced by the caller.
+ * <p>
+ * <b>Note:</b> Instances are not threadsafe and are completed on the thread polling {@link AsyncAeronArchive}.
+ */
+public final class ArchiveResponse
+{
+    /**
+     * State of a request waiting for its response.
+     */
+    public enum State
+    {
+        /**
+         * Request has been sent and is waiting for its response.
+         */
+        PENDING,
+
+        /**
+         * Request succeeded and its relevant id, or descriptor count for a listing, is available.
+         */
+        OK,
+
+        /**
+         * Request failed and its error message is available.
+         */
+        ERROR,
+
+        /**
+         * No response was received within the message timeout.
+         */
+        TIMED_OUT
+    }
+
+    private long correlationId;
+    private long deadlineNs;
+    private int recordCount;
+    private RecordingDescriptorConsumer consumer;
+    private State state = State.PENDING;
+    private long relevantId;
+    private int descriptorCount;
+    private String errorMessage;
+    private boolean isReleased;
+
+    void reset(
+        final long correlationId,
+        final long deadlineNs,
+        final int recordCount,
+        final RecordingDescriptorConsumer consumer)
+    {
+        this.correlationId = correlationId;
+        this.deadlineNs = deadlineNs;
+        this.recordCount = recordCount;
+        this.consumer = consumer;
+        state = State.PENDING;
+        relevantId = 0;
+        descriptorCount = 0;
+        errorMessage = null;
+        isReleased = false;
+    }
+
+    /**
+     * Correlation id of the request.
+     *
+     * @return correlation id of the request.
+     */
+    public long correlationId()
+    {
+        return correlationId;
+    }
+
+    /**
+     * State of the request.
+     *
+     * @return state of the request.
+     */
+    public State state()
+    {
+        return state;
+    }
+
+    /**
+     * Has the response been received or has the request timed out?
+     *
+     * @return true if the response been received or the request has timed out.
+     */
+    public boolean isDone()
+    {
+        return state != State.PENDING;
+    }
+
+    /**
+     * Id relevant to the request when it succeeded, such as the recording id, position, or replay session id, or the
+     * number of descriptors consumed for a listing.
+     *
+     * @return id relevant to the request when it succeeded.
+     */
+    public long relevantId()
+    {
+        return relevantId;
+    }
+
+    /**
+     * Number of recording descriptors dispatched to the consumer for a listing.
+     *
+     * @return number of recording descriptors dispatched to the consumer for a listing.
+     */
+    public int descriptorCount()
+    {
+        return descriptorCount;
+    }
+
+    /**
+     * Error message when the request failed or timed out, otherwise null.
+     *
+     * @return error message when the request failed or timed out, otherwise null.
+     */
+    public String errorMessage()
+    {
+        return errorMessage;
+    }
+
+    public String toString()
+    {
+        return "ArchiveResponse{" +
+            "correlationId=" + correlationId +
+            ", state=" + state +
+            ", relevantId=" + relevantId +
+            ", descriptorCount=" + descriptorCount +
+            ", errorMessage='" + errorMessage + '\'' +
+            '}';
+    }
+
+    long deadlineNs()
+    {
+        return deadlineNs;
+    }
+
+    void deadlineNs(final long deadlineNs)
+    {
+        this.deadlineNs = deadlineNs;
+    }
+
+    boolean isReleased()
+    {
+        return isReleased;
+    }
+
+    void onRelease()
+    {
+        consumer = null;
+        isReleased = true;
+    }
+
+    RecordingDescriptorConsumer consumer()
+    {
+        return consumer;
+    }
+
+    boolean isListing()
+    {
+        return null != consumer;
+    }
+
+    void onDescriptors(final int count)
+    {
+        descriptorCount += count;
+        if (descriptorCount >= recordCount)
+        {
+            onOk(descriptorCount);
+        }
+    }
+
+    void onOk(final long relevantId)
+    {
+        this.relevantId = relevantId;
+        state = State.OK;
+    }
+
+    void onError(final String errorMessage)
+    {
+        this.errorMessage = errorMessage;
+        state = State.ERROR;
+    }
+
+    void onTimeout()
+    {
+        errorMessage = "no response within timeout: correlationId=" + correlationId;
+        state = State.TIMED_OUT;
+    }
+}
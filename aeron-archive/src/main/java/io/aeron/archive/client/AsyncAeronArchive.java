@@ -0,0 +1,462 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive.client;
+
+import io.aeron.Aeron;
+import io.aeron.archive.codecs.ControlResponseCode;
+import io.aeron.archive.codecs.ControlResponseDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorBatchDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import io.aeron.archive.codecs.SourceLocation;
+import org.agrona.collections.Long2ObjectHashMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import static io.aeron.archive.client.ControlResponseAdapter.dispatchDescriptor;
+import static io.aeron.archive.client.ControlResponseAdapter.dispatchDescriptors;
+
+/**
+ * Non-blocking client for the control session of an {@link AeronArchive} which sends requests without waiting for
+ * their responses, so many requests can be pipelined on the control publication.
+ * <p>
+ * Each request returns an {@link ArchiveResponse} which is tracked by correlation id until its response is received
+ * by {@link #poll()}, or no response arrives within the message timeout. The timeout of a listing restarts with each
+ * batch of descriptors received so long listings do not time out while they are streaming. Completed responses can be
+ * checked by the caller or are dispatched to an {@link ArchiveResponseHandler}, and can be given back with
+ * {@link #release(ArchiveResponse)} so they are reused for later requests rather than allocated.
+ * <p>
+ * Responses for outstanding requests which are polled by the synchronous methods of the {@link AeronArchive} are
+ * passed on so the two can be mixed on the same control session.
+ * <p>
+ * <b>Note:</b> Instances are not threadsafe and should be used from the same thread as the {@link AeronArchive}.
+ */
+public final class AsyncAeronArchive
+{
+    private static final int RESPONSE_LIMIT = 10;
+
+    private final long controlSessionId;
+    private final long messageTimeoutNs;
+    private final Aeron aeron;
+    private final ArchiveProxy archiveProxy;
+    private final ControlResponsePoller controlResponsePoller;
+    private final Long2ObjectHashMap<ArchiveResponse> responseByCorrelationIdMap = new Long2ObjectHashMap<>();
+    private final ArrayDeque<ArchiveResponse> releasedResponses = new ArrayDeque<>();
+    private final ArrayList<ArchiveResponse> timedOutResponses = new ArrayList<>();
+    private long nextTimeoutCheckNs = 0;
+    private ArchiveResponseHandler responseHandler;
+
+    AsyncAeronArchive(
+        final long controlSessionId,
+        final long messageTimeoutNs,
+        final Aeron aeron,
+        final ArchiveProxy archiveProxy,
+        final ControlResponsePoller controlResponsePoller)
+    {
+        this.controlSessionId = controlSessionId;
+        this.messageTimeoutNs = messageTimeoutNs;
+        this.aeron = aeron;
+        this.archiveProxy = archiveProxy;
+        this.controlResponsePoller = controlResponsePoller;
+    }
+
+    /**
+     * Set the handler to be called when a request completes.
+     *
+     * @param responseHandler to be called when a request completes, or null if responses are only checked.
+     * @return this for a fluent API.
+     */
+    public AsyncAeronArchive responseHandler(final ArchiveResponseHandler responseHandler)
+    {
+        this.responseHandler = responseHandler;
+        return this;
+    }
+
+    /**
+     * Number of requests which are waiting for their response.
+     *
+     * @return number of requests which are waiting for their response.
+     */
+    public int pendingResponseCount()
+    {
+        return responseByCorrelationIdMap.size();
+    }
+
+    /**
+     * Give back a response which is done so it can be reused for a later request. The response must no longer be
+     * referenced by the caller once released.
+     *
+     * @param response which is done and no longer referenced.
+     * @throws IllegalStateException if the response is still pending.
+     */
+    public void release(final ArchiveResponse response)
+    {
+        if (!response.isDone())
+        {
+            throw new IllegalStateException("Response is pending: correlationId=" + response.correlationId());
+        }
+
+        if (!response.isReleased())
+        {
+            response.onRelease();
+            releasedResponses.addLast(response);
+        }
+    }
+
+    /**
+     * Poll the control response stream for the responses to outstanding requests and time out requests which have
+     * not had a response within the message timeout.
+     *
+     * @return the number of requests completed.
+     */
+    public int poll()
+    {
+        int workCount = 0;
+        final ControlResponsePoller poller = controlResponsePoller;
+
+        for (int i = 0; i < RESPONSE_LIMIT; i++)
+        {
+            poller.poll();
+            if (!poller.isPollComplete())
+            {
+                break;
+            }
+
+            if (onResponse(poller))
+            {
+                workCount++;
+            }
+        }
+
+        return workCount + checkTimeouts(System.nanoTime());
+    }
+
+    /**
+     * Start recording a channel and stream pairing.
+     *
+     * @param channel        to be recorded.
+     * @param streamId       to be recorded.
+     * @param sourceLocation of the publication to be recorded.
+     * @return the {@link ArchiveResponse} for the request.
+     */
+    public ArchiveResponse startRecording(
+        final String channel, final int streamId, final SourceLocation sourceLocation)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.startRecording(channel, streamId, sourceLocation, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send start recording request");
+        }
+
+        return track(correlationId, 0, null);
+    }
+
+    /**
+     * Extend an existing, non-active, recording for a channel and stream pairing.
+     *
+     * @param recordingId    to be extended.
+     * @param channel        to be recorded.
+     * @param streamId       to be recorded.
+     * @param sourceLocation of the publication to be recorded.
+     * @return the {@link ArchiveResponse} for the request.
+     * @see AeronArchive#extendRecording(long, String, int, SourceLocation)
+     */
+    public ArchiveResponse extendRecording(
+        final long recordingId, final String channel, final int streamId, final SourceLocation sourceLocation)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.extendRecording(
+            channel, streamId, sourceLocation, recordingId, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send extend recording request");
+        }
+
+        return track(correlationId, 0, null);
+    }
+
+    /**
+     * Stop recording for a channel and stream pairing.
+     *
+     * @param channel  to stop recording for.
+     * @param streamId to stop recording for.
+     * @return the {@link ArchiveResponse} for the request.
+     */
+    public ArchiveResponse stopRecording(final String channel, final int streamId)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.stopRecording(channel, streamId, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send stop recording request");
+        }
+
+        return track(correlationId, 0, null);
+    }
+
+    /**
+     * Replay a length of a recording from a position. The caller adds the subscription to the replay channel and
+     * stream, and the relevant id of the response is the replay session id.
+     *
+     * @param recordingId    to be replayed.
+     * @param position       from which the replay should be started.
+     * @param length         of the stream to be replayed.
+     * @param replayChannel  to which the replay should be sent.
+     * @param replayStreamId to which the replay should be sent.
+     * @return the {@link ArchiveResponse} for the request.
+     */
+    public ArchiveResponse replay(
+        final long recordingId,
+        final long position,
+        final long length,
+        final String replayChannel,
+        final int replayStreamId)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.replay(
+            recordingId,
+            position,
+            length,
+            replayChannel,
+            replayStreamId,
+            correlationId,
+            controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send replay request");
+        }
+
+        return track(correlationId, 0, null);
+    }
+
+    /**
+     * Find the position in a recording from which a replay will include all data recorded after a timestamp. The
+     * relevant id of the response is the position.
+     *
+     * @param recordingId to be searched.
+     * @param timestamp   in milliseconds since the epoch for which the position should be found.
+     * @return the {@link ArchiveResponse} for the request.
+     * @see AeronArchive#findPosition(long, long)
+     */
+    public ArchiveResponse findPosition(final long recordingId, final long timestamp)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.findPosition(recordingId, timestamp, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send find position request");
+        }
+
+        return track(correlationId, 0, null);
+    }
+
+    /**
+     * Purge a stopped recording, deleting all its segment files and removing it from listings.
+     *
+     * @param recordingId to be purged.
+     * @return the {@link ArchiveResponse} for the request.
+     */
+    public ArchiveResponse purgeRecording(final long recordingId)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.purgeRecording(recordingId, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send purge recording request");
+        }
+
+        return track(correlationId, 0, null);
+    }
+
+    /**
+     * Truncate the start of a recording by discarding the whole segments before the segment holding a position. The
+     * relevant id of the response is the start position of the recording once truncated.
+     *
+     * @param recordingId to be truncated.
+     * @param position    before which whole segments are discarded.
+     * @return the {@link ArchiveResponse} for the request.
+     */
+    public ArchiveResponse truncateRecording(final long recordingId, final long position)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.truncateRecording(recordingId, position, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send truncate recording request");
+        }
+
+        return track(correlationId, 0, null);
+    }
+
+    /**
+     * List all recording descriptors from a recording id with a limit of record count. The descriptors are
+     * dispatched to the consumer as they are polled and the relevant id of the response is the number consumed.
+     *
+     * @param fromRecordingId at which to begin the listing.
+     * @param recordCount     to limit for each query.
+     * @param consumer        to which the descriptors are dispatched.
+     * @return the {@link ArchiveResponse} for the request.
+     */
+    public ArchiveResponse listRecordings(
+        final long fromRecordingId, final int recordCount, final RecordingDescriptorConsumer consumer)
+    {
+        final long correlationId = aeron.nextCorrelationId();
+
+        if (!archiveProxy.listRecordings(fromRecordingId, recordCount, correlationId, controlSessionId))
+        {
+            throw new IllegalStateException("Failed to send list recordings request");
+        }
+
+        return track(correlationId, recordCount, consumer);
+    }
+
+    /**
+     * Complete the outstanding request for the last message polled, if there is one.
+     *
+     * @param poller which has polled a complete message.
+     * @return true if the message completed an outstanding request.
+     */
+    boolean onResponse(final ControlResponsePoller poller)
+    {
+        if (poller.controlSessionId() != controlSessionId)
+        {
+            return false;
+        }
+
+        final ArchiveResponse response = responseByCorrelationIdMap.get(poller.correlationId());
+        if (null == response)
+        {
+            return false;
+        }
+
+        switch (poller.templateId())
+        {
+            case ControlResponseDecoder.TEMPLATE_ID:
+                final ControlResponseDecoder decoder = poller.controlResponseDecoder();
+                final ControlResponseCode code = decoder.code();
+                if (code == ControlResponseCode.OK)
+                {
+                    response.onOk(decoder.relevantId());
+                }
+                else if (code == ControlResponseCode.RECORDING_UNKNOWN && response.isListing())
+                {
+                    response.onOk(response.descriptorCount());
+                }
+                else if (code == ControlResponseCode.ERROR)
+                {
+                    response.onError(decoder.errorMessage());
+                }
+                else
+                {
+                    response.onError("Unexpected response code: " + code);
+                }
+                break;
+
+            case RecordingDescriptorDecoder.TEMPLATE_ID:
+                dispatchDescriptor(poller.recordingDescriptorDecoder(), response.consumer());
+                response.onDescriptors(1);
+                response.deadlineNs(System.nanoTime() + messageTimeoutNs);
+                break;
+
+            case RecordingDescriptorBatchDecoder.TEMPLATE_ID:
+                response.onDescriptors(dispatchDescriptors(
+                    poller.recordingDescriptorBatchDecoder(),
+                    poller.messageHeaderDecoder(),
+                    poller.recordingDescriptorDecoder(),
+                    response.consumer()));
+                response.deadlineNs(System.nanoTime() + messageTimeoutNs);
+                break;
+
+            default:
+                response.onError("Unknown response type: templateId=" + poller.templateId());
+        }
+
+        if (response.isDone())
+        {
+            onComplete(response);
+            return true;
+        }
+
+        return false;
+    }
+
+    private ArchiveResponse track(
+        final long correlationId, final int recordCount, final RecordingDescriptorConsumer consumer)
+    {
+        ArchiveResponse response = releasedResponses.pollFirst();
+        if (null == response)
+        {
+            response = new ArchiveResponse();
+        }
+
+        response.reset(correlationId, System.nanoTime() + messageTimeoutNs, recordCount, consumer);
+        responseByCorrelationIdMap.put(correlationId, response);
+
+        return response;
+    }
+
+    private int checkTimeouts(final long nowNs)
+    {
+        if (responseByCorrelationIdMap.isEmpty() || nowNs - nextTimeoutCheckNs < 0)
+        {
+            return 0;
+        }
+
+        long earliestDeadlineNs = nowNs + messageTimeoutNs;
+        final Iterator<ArchiveResponse> iterator = responseByCorrelationIdMap.values().iterator();
+        while (iterator.hasNext())
+        {
+            final ArchiveResponse response = iterator.next();
+            if (nowNs - response.deadlineNs() >= 0)
+            {
+                iterator.remove();
+                response.onTimeout();
+                timedOutResponses.add(response);
+            }
+            else if (response.deadlineNs() - earliestDeadlineNs < 0)
+            {
+                earliestDeadlineNs = response.deadlineNs();
+            }
+        }
+
+        nextTimeoutCheckNs = earliestDeadlineNs;
+
+        final int workCount = timedOutResponses.size();
+        for (int i = 0; i < workCount; i++)
+        {
+            onHandled(timedOutResponses.get(i));
+        }
+        timedOutResponses.clear();
+
+        return workCount;
+    }
+
+    private void onComplete(final ArchiveResponse response)
+    {
+        responseByCorrelationIdMap.remove(response.correlationId());
+        onHandled(response);
+    }
+
+    private void onHandled(final ArchiveResponse response)
+    {
+        if (null != responseHandler)
+        {
+            responseHandler.onResponse(response);
+        }
+    }
+}
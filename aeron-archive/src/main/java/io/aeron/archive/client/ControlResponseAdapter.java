@@ -20,10 +20,15 @@ import io.aeron.Subscription;
 import io.aeron.archive.codecs.ControlResponseDecoder;
 import io.aeron.archive.codecs.MessageHeaderDecoder;
 import io.aeron.archive.codecs.MessageHeaderEncoder;
+import io.aeron.archive.codecs.RecordingDescriptorBatchDecoder;
 import io.aeron.archive.codecs.RecordingDescriptorDecoder;
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
 
+import java.nio.ByteOrder;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+
 /**
  * Encapsulate the polling, decoding, and dispatching of archive control protocol response messages.
  */
@@ -32,6 +37,8 @@ public class ControlResponseAdapter
     private final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
     private final ControlResponseDecoder controlResponseDecoder = new ControlResponseDecoder();
     private final RecordingDescriptorDecoder recordingDescriptorDecoder = new RecordingDescriptorDecoder();
+    private final RecordingDescriptorBatchDecoder recordingDescriptorBatchDecoder =
+        new RecordingDescriptorBatchDecoder();
 
     private final int fragmentLimit;
     private final ControlResponseListener listener;
@@ -93,6 +100,42 @@ public class ControlResponseAdapter
             decoder.sourceIdentity());
     }
 
+    /**
+     * Dispatch the descriptors of a batch message to a consumer by reading the fields of each in the correct order.
+     *
+     * @param batchDecoder         which wraps the encoded batch message ready for reading.
+     * @param messageHeaderDecoder for the header of each descriptor in the batch.
+     * @param decoder              for each descriptor in the batch.
+     * @param consumer             to which the decoded fields of each descriptor should be passed.
+     * @return the number of descriptors dispatched.
+     */
+    public static int dispatchDescriptors(
+        final RecordingDescriptorBatchDecoder batchDecoder,
+        final MessageHeaderDecoder messageHeaderDecoder,
+        final RecordingDescriptorDecoder decoder,
+        final RecordingDescriptorConsumer consumer)
+    {
+        final DirectBuffer buffer = batchDecoder.buffer();
+        final int descriptorCount = batchDecoder.descriptorCount();
+        int offset = batchDecoder.limit() + RecordingDescriptorBatchDecoder.descriptorsHeaderLength();
+
+        for (int i = 0; i < descriptorCount; i++)
+        {
+            final int length = buffer.getInt(offset, ByteOrder.LITTLE_ENDIAN);
+            messageHeaderDecoder.wrap(buffer, offset + SIZE_OF_INT);
+            decoder.wrap(
+                buffer,
+                offset + SIZE_OF_INT + MessageHeaderDecoder.ENCODED_LENGTH,
+                messageHeaderDecoder.blockLength(),
+                messageHeaderDecoder.version());
+
+            dispatchDescriptor(decoder, consumer);
+            offset += SIZE_OF_INT + length;
+        }
+
+        return descriptorCount;
+    }
+
     private void onFragment(
         final DirectBuffer buffer,
         final int offset,
@@ -112,6 +155,10 @@ public class ControlResponseAdapter
                 handleRecordingDescriptor(listener, buffer, offset);
                 break;
 
+            case RecordingDescriptorBatchDecoder.TEMPLATE_ID:
+                handleRecordingDescriptorBatch(listener, buffer, offset);
+                break;
+
             default:
                 throw new IllegalStateException("Unknown templateId: " + templateId);
         }
@@ -149,4 +196,19 @@ public class ControlResponseAdapter
 
         dispatchDescriptor(recordingDescriptorDecoder, listener);
     }
+
+    private void handleRecordingDescriptorBatch(
+        final ControlResponseListener listener,
+        final DirectBuffer buffer,
+        final int offset)
+    {
+        recordingDescriptorBatchDecoder.wrap(
+            buffer,
+            offset + MessageHeaderEncoder.ENCODED_LENGTH,
+            messageHeaderDecoder.blockLength(),
+            messageHeaderDecoder.version());
+
+        dispatchDescriptors(
+            recordingDescriptorBatchDecoder, messageHeaderDecoder, recordingDescriptorDecoder, listener);
+    }
 }
@@ -29,6 +29,8 @@ public class ControlResponsePoller
     private final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
     private final ControlResponseDecoder controlResponseDecoder = new ControlResponseDecoder();
     private final RecordingDescriptorDecoder recordingDescriptorDecoder = new RecordingDescriptorDecoder();
+    private final RecordingDescriptorBatchDecoder recordingDescriptorBatchDecoder =
+        new RecordingDescriptorBatchDecoder();
 
     private final int fragmentLimit;
     private final Subscription subscription;
@@ -148,6 +150,17 @@ public class ControlResponsePoller
                 correlationId = recordingDescriptorDecoder.correlationId();
                 break;
 
+            case RecordingDescriptorBatchDecoder.TEMPLATE_ID:
+                recordingDescriptorBatchDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderEncoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                controlSessionId = recordingDescriptorBatchDecoder.controlSessionId();
+                correlationId = recordingDescriptorBatchDecoder.correlationId();
+                break;
+
             default:
                 throw new IllegalStateException("Unknown templateId: " + templateId);
         }
@@ -171,4 +184,9 @@ public class ControlResponsePoller
     {
         return recordingDescriptorDecoder;
     }
+
+    public RecordingDescriptorBatchDecoder recordingDescriptorBatchDecoder()
+    {
+        return recordingDescriptorBatchDecoder;
+    }
 }
@@ -17,6 +17,7 @@ package io.aeron.archive.client;
 
 import io.aeron.Subscription;
 import io.aeron.archive.codecs.MessageHeaderDecoder;
+import io.aeron.archive.codecs.RecordingProgressBatchDecoder;
 import io.aeron.archive.codecs.RecordingProgressDecoder;
 import io.aeron.archive.codecs.RecordingStartedDecoder;
 import io.aeron.archive.codecs.RecordingStoppedDecoder;
@@ -26,12 +27,15 @@ import org.agrona.DirectBuffer;
 
 /**
  * Encapsulate the polling, decoding, and dispatching of recording events.
+ * <p>
+ * Progress sent in a RecordingProgressBatch message is dispatched as a progress event for each recording in the batch.
  */
 public class RecordingEventsAdapter implements FragmentHandler
 {
     private final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
     private final RecordingStartedDecoder recordingStartedDecoder = new RecordingStartedDecoder();
     private final RecordingProgressDecoder recordingProgressDecoder = new RecordingProgressDecoder();
+    private final RecordingProgressBatchDecoder recordingProgressBatchDecoder = new RecordingProgressBatchDecoder();
     private final RecordingStoppedDecoder recordingStoppedDecoder = new RecordingStoppedDecoder();
 
     private final int fragmentLimit;
@@ -101,6 +105,20 @@ public class RecordingEventsAdapter implements FragmentHandler
                     recordingProgressDecoder.position());
                 break;
 
+            case RecordingProgressBatchDecoder.TEMPLATE_ID:
+                recordingProgressBatchDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                for (final RecordingProgressBatchDecoder.ProgressDecoder progress :
+                    recordingProgressBatchDecoder.progress())
+                {
+                    listener.onProgress(progress.recordingId(), progress.startPosition(), progress.position());
+                }
+                break;
+
             case RecordingStoppedDecoder.TEMPLATE_ID:
                 recordingStoppedDecoder.wrap(
                     buffer,
@@ -17,6 +17,7 @@ package io.aeron.archive.client;
 
 import io.aeron.Subscription;
 import io.aeron.archive.codecs.MessageHeaderDecoder;
+import io.aeron.archive.codecs.RecordingProgressBatchDecoder;
 import io.aeron.archive.codecs.RecordingProgressDecoder;
 import io.aeron.archive.codecs.RecordingStartedDecoder;
 import io.aeron.archive.codecs.RecordingStoppedDecoder;
@@ -32,6 +33,7 @@ public class RecordingEventsPoller implements FragmentHandler
     private final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
     private final RecordingStartedDecoder recordingStartedDecoder = new RecordingStartedDecoder();
     private final RecordingProgressDecoder recordingProgressDecoder = new RecordingProgressDecoder();
+    private final RecordingProgressBatchDecoder recordingProgressBatchDecoder = new RecordingProgressBatchDecoder();
     private final RecordingStoppedDecoder recordingStoppedDecoder = new RecordingStoppedDecoder();
 
     private final Subscription subscription;
@@ -104,6 +106,14 @@ public class RecordingEventsPoller implements FragmentHandler
                     messageHeaderDecoder.version());
                 break;
 
+            case RecordingProgressBatchDecoder.TEMPLATE_ID:
+                recordingProgressBatchDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+                break;
+
             case RecordingStoppedDecoder.TEMPLATE_ID:
                 recordingStoppedDecoder.wrap(
                     buffer,
@@ -134,6 +144,11 @@ public class RecordingEventsPoller implements FragmentHandler
         return recordingProgressDecoder;
     }
 
+    public RecordingProgressBatchDecoder recordingProgressBatchDecoder()
+    {
+        return recordingProgressBatchDecoder;
+    }
+
     public RecordingStoppedDecoder recordingStoppedDecoder()
     {
         return recordingStoppedDecoder;
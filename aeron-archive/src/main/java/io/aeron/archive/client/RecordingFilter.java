@@ -0,0 +1,254 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive.client;
+
+/**
+ * Filter for listing recordings with {@link AeronArchive#listRecordingsWithFilter(long, int, RecordingFilter,
+ * RecordingDescriptorConsumer)}. The filter is evaluated by the archive against its catalog so only matching
+ * recordings are sent. All criteria which have been set must match and by default all recordings match.
+ * <p>
+ * A filter can be reused for subsequent requests, for example to page through the matching recordings.
+ */
+public class RecordingFilter
+{
+    private String channel = "";
+    private String sourceIdentity = "";
+    private int sessionId;
+    private int streamId;
+    private boolean hasSessionId;
+    private boolean hasStreamId;
+    private boolean activeOnly;
+    private long fromTimestamp = 0;
+    private long toTimestamp = Long.MAX_VALUE;
+    private long minLength = 0;
+
+    /**
+     * Reset the filter so all recordings match.
+     *
+     * @return this for a fluent API.
+     */
+    public RecordingFilter reset()
+    {
+        channel = "";
+        sourceIdentity = "";
+        hasSessionId = false;
+        hasStreamId = false;
+        activeOnly = false;
+        fromTimestamp = 0;
+        toTimestamp = Long.MAX_VALUE;
+        minLength = 0;
+
+        return this;
+    }
+
+    /**
+     * Match recordings of a channel, which is stripped of parameters not relevant to recording before matching.
+     *
+     * @param channel to match or empty for any channel.
+     * @return this for a fluent API.
+     */
+    public RecordingFilter channel(final String channel)
+    {
+        this.channel = null == channel ? "" : channel;
+        return this;
+    }
+
+    /**
+     * Channel of the recordings to match.
+     *
+     * @return channel of the recordings to match or empty for any channel.
+     */
+    public String channel()
+    {
+        return channel;
+    }
+
+    /**
+     * Match recordings with a source identity.
+     *
+     * @param sourceIdentity to match or empty for any source identity.
+     * @return this for a fluent API.
+     */
+    public RecordingFilter sourceIdentity(final String sourceIdentity)
+    {
+        this.sourceIdentity = null == sourceIdentity ? "" : sourceIdentity;
+        return this;
+    }
+
+    /**
+     * Source identity of the recordings to match.
+     *
+     * @return source identity of the recordings to match or empty for any source identity.
+     */
+    public String sourceIdentity()
+    {
+        return sourceIdentity;
+    }
+
+    /**
+     * Match recordings of a publication session id.
+     *
+     * @param sessionId to match.
+     * @return this for a fluent API.
+     */
+    public RecordingFilter sessionId(final int sessionId)
+    {
+        this.sessionId = sessionId;
+        this.hasSessionId = true;
+        return this;
+    }
+
+    /**
+     * Session id of the recordings to match, only relevant if {@link #hasSessionId()}.
+     *
+     * @return session id of the recordings to match.
+     */
+    public int sessionId()
+    {
+        return sessionId;
+    }
+
+    /**
+     * Is the session id of recordings matched?
+     *
+     * @return true if the session id of recordings is matched.
+     */
+    public boolean hasSessionId()
+    {
+        return hasSessionId;
+    }
+
+    /**
+     * Match recordings of a stream id.
+     *
+     * @param streamId to match.
+     * @return this for a fluent API.
+     */
+    public RecordingFilter streamId(final int streamId)
+    {
+        this.streamId = streamId;
+        this.hasStreamId = true;
+        return this;
+    }
+
+    /**
+     * Stream id of the recordings to match, only relevant if {@link #hasStreamId()}.
+     *
+     * @return stream id of the recordings to match.
+     */
+    public int streamId()
+    {
+        return streamId;
+    }
+
+    /**
+     * Is the stream id of recordings matched?
+     *
+     * @return true if the stream id of recordings is matched.
+     */
+    public boolean hasStreamId()
+    {
+        return hasStreamId;
+    }
+
+    /**
+     * Match only recordings which are active, i.e. have not stopped.
+     *
+     * @param activeOnly true to match only active recordings.
+     * @return this for a fluent API.
+     */
+    public RecordingFilter activeOnly(final boolean activeOnly)
+    {
+        this.activeOnly = activeOnly;
+        return this;
+    }
+
+    /**
+     * Are only active recordings matched?
+     *
+     * @return true if only active recordings are matched.
+     */
+    public boolean activeOnly()
+    {
+        return activeOnly;
+    }
+
+    /**
+     * Match recordings which had not stopped by a time.
+     *
+     * @param fromTimestamp in milliseconds since epoch before which recordings which stopped are not matched.
+     * @return this for a fluent API.
+     */
+    public RecordingFilter fromTimestamp(final long fromTimestamp)
+    {
+        this.fromTimestamp = fromTimestamp;
+        return this;
+    }
+
+    /**
+     * Time before which recordings which stopped are not matched.
+     *
+     * @return time in milliseconds since epoch before which recordings which stopped are not matched.
+     */
+    public long fromTimestamp()
+    {
+        return fromTimestamp;
+    }
+
+    /**
+     * Match recordings which started before a time.
+     *
+     * @param toTimestamp in milliseconds since epoch at or after which recordings which started are not matched.
+     * @return this for a fluent API.
+     */
+    public RecordingFilter toTimestamp(final long toTimestamp)
+    {
+        this.toTimestamp = toTimestamp;
+        return this;
+    }
+
+    /**
+     * Time at or after which recordings which started are not matched.
+     *
+     * @return time in milliseconds since epoch at or after which recordings which started are not matched.
+     */
+    public long toTimestamp()
+    {
+        return toTimestamp;
+    }
+
+    /**
+     * Match recordings with at least a length of recorded data.
+     *
+     * @param minLength in bytes of the recorded data.
+     * @return this for a fluent API.
+     */
+    public RecordingFilter minLength(final long minLength)
+    {
+        this.minLength = minLength;
+        return this;
+    }
+
+    /**
+     * Minimum length of the recorded data of the recordings to match.
+     *
+     * @return minimum length in bytes of the recorded data of the recordings to match.
+     */
+    public long minLength()
+    {
+        return minLength;
+    }
+}
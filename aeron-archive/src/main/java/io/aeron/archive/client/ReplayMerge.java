@@ -0,0 +1,245 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive.client;
+
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.CloseHelper;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+
+/**
+ * Replay a recorded stream from a position and merge with the live stream once the replay catches up, so a late
+ * joining consumer sees one stream without gaps or duplicates.
+ * <p>
+ * The replay follows the recording while it is live and runs at the full rate the archive can replay, not the live
+ * rate. When a poll of the replay finds no more data the replay is close to the live stream and a subscription to
+ * the live stream is added. Once the live {@link Image} has joined at or before the position consumed from the
+ * replay, and that position is within a term of the live {@link Image}, it is moved on to that position and the
+ * replay is closed, after which fragments come from the live {@link Image}. Until then the replay continues and the
+ * live {@link Image} is not consumed which may flow control the live publication for the short time the replay
+ * takes to catch up.
+ * <p>
+ * The replay {@link Image} is found by the session id of the replay publication and the live {@link Image} by the
+ * session id of the recorded publication, so other publications on the same channels are ignored. Fragments from
+ * the replay carry the session id of the replay rather than the live stream.
+ * <p>
+ * <b>Note:</b> Instances are not threadsafe and should be polled from a single thread.
+ */
+public class ReplayMerge implements AutoCloseable
+{
+    enum State
+    {
+        AWAIT_REPLAY, REPLAY, MERGED, CLOSED
+    }
+
+    private final AeronArchive archive;
+    private final String liveChannel;
+    private final int liveStreamId;
+    private final int liveSessionId;
+    private final int replaySessionId;
+    private final Subscription replaySubscription;
+    private Subscription liveSubscription;
+    private Image replayImage;
+    private Image liveImage;
+    private long position;
+    private State state = State.AWAIT_REPLAY;
+
+    /**
+     * Start a replay of a recording from a position to be merged with the live stream being recorded.
+     *
+     * @param archive        client used to request the replay.
+     * @param recordingId    to be replayed.
+     * @param position       from which the replay should be started.
+     * @param replayChannel  to which the replay should be sent.
+     * @param replayStreamId to which the replay should be sent.
+     * @param liveChannel    of the live stream being recorded.
+     * @param liveStreamId   of the live stream being recorded.
+     */
+    public ReplayMerge(
+        final AeronArchive archive,
+        final long recordingId,
+        final long position,
+        final String replayChannel,
+        final int replayStreamId,
+        final String liveChannel,
+        final int liveStreamId)
+    {
+        this.archive = archive;
+        this.liveChannel = liveChannel;
+        this.liveStreamId = liveStreamId;
+        this.position = position;
+
+        final int[] recordedSessionId = new int[1];
+        final int count = archive.listRecordings(
+            recordingId,
+            1,
+            (controlSessionId,
+            correlationId,
+            descriptorRecordingId,
+            startTimestamp,
+            stopTimestamp,
+            startPosition,
+            stopPosition,
+            initialTermId,
+            segmentFileLength,
+            termBufferLength,
+            mtuLength,
+            sessionId,
+            streamId,
+            strippedChannel,
+            originalChannel,
+            sourceIdentity) -> recordedSessionId[0] = sessionId);
+
+        if (0 == count)
+        {
+            throw new IllegalArgumentException("Unknown recording id: " + recordingId);
+        }
+
+        liveSessionId = recordedSessionId[0];
+        replaySubscription = archive.context().aeron().addSubscription(replayChannel, replayStreamId);
+
+        try
+        {
+            replaySessionId = archive.startReplay(recordingId, position, Long.MAX_VALUE, replayChannel, replayStreamId);
+        }
+        catch (final RuntimeException ex)
+        {
+            CloseHelper.quietClose(replaySubscription);
+            throw ex;
+        }
+    }
+
+    /**
+     * Close the replay and live subscriptions.
+     */
+    public void close()
+    {
+        state = State.CLOSED;
+
+        CloseHelper.close(replaySubscription);
+        CloseHelper.close(liveSubscription);
+    }
+
+    /**
+     * Poll the replay, or the live stream once merged, for new fragments.
+     *
+     * @param fragmentHandler to be called for each fragment.
+     * @param fragmentLimit   for the number of fragments to be consumed during one polling operation.
+     * @return the number of fragments consumed.
+     */
+    public int poll(final FragmentHandler fragmentHandler, final int fragmentLimit)
+    {
+        switch (state)
+        {
+            case AWAIT_REPLAY:
+                return awaitReplay(fragmentHandler, fragmentLimit);
+
+            case REPLAY:
+                return replay(fragmentHandler, fragmentLimit);
+
+            case MERGED:
+                return liveImage.poll(fragmentHandler, fragmentLimit);
+
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Has the replay been merged with the live stream so fragments now come from the live {@link Image}.
+     *
+     * @return true if the replay has been merged with the live stream.
+     */
+    public boolean isMerged()
+    {
+        return state == State.MERGED;
+    }
+
+    /**
+     * The position in the stream to which fragments have been consumed, either from the replay or the live stream.
+     *
+     * @return the position in the stream to which fragments have been consumed.
+     */
+    public long position()
+    {
+        return state == State.MERGED ? liveImage.position() : position;
+    }
+
+    /**
+     * The live {@link Image} once merged.
+     *
+     * @return the live {@link Image} once merged, otherwise null.
+     */
+    public Image liveImage()
+    {
+        return state == State.MERGED ? liveImage : null;
+    }
+
+    private int awaitReplay(final FragmentHandler fragmentHandler, final int fragmentLimit)
+    {
+        replayImage = replaySubscription.imageBySessionId(replaySessionId);
+        if (null == replayImage)
+        {
+            return 0;
+        }
+
+        state = State.REPLAY;
+
+        return replay(fragmentHandler, fragmentLimit);
+    }
+
+    private int replay(final FragmentHandler fragmentHandler, final int fragmentLimit)
+    {
+        final int fragments = replayImage.poll(fragmentHandler, fragmentLimit);
+        if (replayImage.isClosed())
+        {
+            throw new IllegalStateException("Replay closed before merging with live stream at position " + position);
+        }
+
+        position = replayImage.position();
+
+        if (null == liveSubscription)
+        {
+            if (0 == fragments)
+            {
+                liveSubscription = archive.context().aeron().addSubscription(liveChannel, liveStreamId);
+            }
+        }
+        else if (null == liveImage || liveImage.isClosed())
+        {
+            liveImage = liveSubscription.imageBySessionId(liveSessionId);
+        }
+        else if (canMerge())
+        {
+            liveImage.position(position);
+            replaySubscription.close();
+            state = State.MERGED;
+        }
+
+        return fragments;
+    }
+
+    private boolean canMerge()
+    {
+        final long livePosition = liveImage.position();
+
+        return livePosition <= position &&
+            position - livePosition <= liveImage.termBufferLength() &&
+            0 == (position & (FRAME_ALIGNMENT - 1));
+    }
+}
@@ -15,7 +15,10 @@
  */
 package io.aeron.archive;
 
+import io.aeron.archive.codecs.CatalogHeaderEncoder;
 import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorEncoder;
+import io.aeron.archive.codecs.RecordingDescriptorHeaderEncoder;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.IoUtil;
 import org.agrona.concurrent.EpochClock;
@@ -27,6 +30,7 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 
 import static io.aeron.archive.Archive.segmentFileName;
@@ -121,6 +125,31 @@ public class CatalogTest
         }
     }
 
+    @Test
+    public void shouldRebuildChannelIndexOnReload() throws Exception
+    {
+        final long newRecordingId;
+        try (Catalog catalog = new Catalog(archiveDir, null, 0, clock))
+        {
+            newRecordingId = catalog.addNewRecording(
+                0L, 0L, 0, SEGMENT_FILE_SIZE, TERM_BUFFER_LENGTH, 1024, 9, 2, "channelH", "channelH?tag=f", "sourceN");
+        }
+
+        for (final boolean fixOnRefresh : new boolean[]{ true, false })
+        {
+            try (Catalog catalog = new Catalog(archiveDir, null, 0, clock, fixOnRefresh))
+            {
+                final RecordingChannelIndex channelIndex = catalog.channelIndex();
+                final int keyHash = RecordingChannelIndex.hash(2, "channelH");
+
+                assertThat(channelIndex.size(), is(4));
+                assertThat(channelIndex.firstCandidate(keyHash, 0), is(recordingTwoId));
+                assertThat(channelIndex.nextCandidate(keyHash, recordingTwoId), is(newRecordingId));
+                assertThat(channelIndex.nextCandidate(keyHash, newRecordingId), is((long)NULL_RECORD_ID));
+            }
+        }
+    }
+
     @Test
     public void shouldAllowMultipleInstancesForSameStream() throws Exception
     {
@@ -244,6 +273,68 @@ public class CatalogTest
         }
     }
 
+    @Test
+    public void shouldFixPositionsOfRecordingsFromCheckpointAfterFailure() throws Exception
+    {
+        final long recordingIdOne;
+        final long recordingIdTwo;
+        try (Catalog catalog = new Catalog(archiveDir, null, 0, clock))
+        {
+            recordingIdOne = catalog.addNewRecording(
+                0L, 0L, 0, SEGMENT_FILE_SIZE, TERM_BUFFER_LENGTH, 1024, 6, 1, "channelG", "channelG?tag=f", "sourceA");
+            recordingIdTwo = catalog.addNewRecording(
+                0L, 0L, 0, SEGMENT_FILE_SIZE, TERM_BUFFER_LENGTH, 1024, 7, 1, "channelG", "channelG?tag=f", "sourceA");
+        }
+
+        final long checkpointPosition = SEGMENT_FILE_SIZE + 1024L;
+
+        new File(archiveDir, segmentFileName(recordingIdOne, 0)).createNewFile();
+        writeFrames(new File(archiveDir, segmentFileName(recordingIdOne, 1)), 1024, 128);
+        writeFrames(new File(archiveDir, segmentFileName(recordingIdTwo, 0)), 0, 256);
+
+        try (Catalog catalog = new Catalog(archiveDir, null, 0, clock, false))
+        {
+            assertThat(checkpointPosition(catalog.wrapDescriptor(recordingIdOne)), is(NULL_POSITION));
+            checkpointPosition(catalog.wrapDescriptor(recordingIdOne), checkpointPosition);
+        }
+
+        when(clock.time()).thenReturn(42L);
+
+        try (Catalog catalog = new Catalog(archiveDir, null, 0, clock))
+        {
+            assertTrue(catalog.forEntry(
+                (he, hd, e, decoder) ->
+                {
+                    assertThat(decoder.stopTimestamp(), is(42L));
+                    assertThat(decoder.stopPosition(), is(checkpointPosition + 128));
+                },
+                recordingIdOne));
+
+            assertTrue(catalog.forEntry(
+                (he, hd, e, decoder) ->
+                {
+                    assertThat(decoder.stopTimestamp(), is(42L));
+                    assertThat(decoder.stopPosition(), is(256L));
+                },
+                recordingIdTwo));
+        }
+    }
+
+    private static void writeFrames(final File segmentFile, final int offset, final int frameLength)
+        throws IOException
+    {
+        try (FileChannel log = FileChannel.open(segmentFile.toPath(), READ, WRITE, CREATE))
+        {
+            final ByteBuffer bb = allocateDirectAligned(HEADER_LENGTH, FRAME_ALIGNMENT);
+            final DataHeaderFlyweight flyweight = new DataHeaderFlyweight(bb);
+            flyweight.frameLength(frameLength);
+            log.write(bb, offset);
+            bb.clear();
+            flyweight.frameLength(0);
+            log.write(bb, offset + frameLength);
+        }
+    }
+
     private long newRecording()
     {
         final long newRecordingId;
@@ -312,4 +403,128 @@ public class CatalogTest
                 newRecordingId);
         }
     }
+
+    @Test
+    public void shouldGrowAcrossChunksAndReload() throws Exception
+    {
+        final File chunkedArchiveDir = TestUtil.makeTempDir();
+        final int recordingCount = 2000;
+
+        try
+        {
+            try (Catalog catalog = new Catalog(chunkedArchiveDir, null, 0, clock, MIN_CHUNK_LENGTH, true))
+            {
+                for (int i = 0; i < recordingCount; i++)
+                {
+                    final String channel = "channel" + i;
+                    assertThat(catalog.addNewRecording(
+                        0L, 0L, 0, SEGMENT_FILE_SIZE, TERM_BUFFER_LENGTH, 1024, i, i % 5,
+                        channel, channel + "?tag=f", "source" + i),
+                        is((long)i));
+                }
+            }
+
+            final File catalogFile = new File(chunkedArchiveDir, Archive.Configuration.CATALOG_FILE_NAME);
+            assertThat(catalogFile.length() > MIN_CHUNK_LENGTH, is(true));
+
+            try (Catalog catalog = new Catalog(chunkedArchiveDir, null, 0, clock))
+            {
+                assertThat(catalog.chunkLength(), is(MIN_CHUNK_LENGTH));
+                assertThat(catalog.nextRecordingId(), is((long)recordingCount));
+
+                for (int i = 0; i < recordingCount; i++)
+                {
+                    verifyRecordingForId(catalog, i, i, i % 5, "channel" + i, "source" + i);
+                }
+
+                assertThat(catalog.addNewRecording(
+                    0L, 0L, 0, SEGMENT_FILE_SIZE, TERM_BUFFER_LENGTH, 1024, 1, 1, "channel", "channel?tag=f", "src"),
+                    is((long)recordingCount));
+            }
+        }
+        finally
+        {
+            IoUtil.delete(chunkedArchiveDir, false);
+        }
+    }
+
+    @Test
+    public void shouldMigrateFixedLengthCatalog() throws Exception
+    {
+        final File legacyArchiveDir = TestUtil.makeTempDir();
+        final int recordLength = 1024;
+        final int recordingCount = 3;
+
+        try
+        {
+            final File catalogFile = new File(legacyArchiveDir, Archive.Configuration.CATALOG_FILE_NAME);
+            try (FileChannel channel = FileChannel.open(catalogFile.toPath(), CREATE, READ, WRITE))
+            {
+                final MappedByteBuffer mappedBuffer =
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, (recordingCount + 1) * recordLength);
+                final UnsafeBuffer buffer = new UnsafeBuffer(mappedBuffer);
+
+                new CatalogHeaderEncoder()
+                    .wrap(buffer, 0)
+                    .version(CatalogTool.FIXED_LENGTH_CATALOG_VERSION)
+                    .entryLength(recordLength);
+
+                for (int i = 0; i < recordingCount; i++)
+                {
+                    final UnsafeBuffer recordBuffer = new UnsafeBuffer(buffer, (i + 1) * recordLength, recordLength);
+                    final RecordingDescriptorEncoder encoder = new RecordingDescriptorEncoder();
+                    wrapDescriptorEncoder(encoder, recordBuffer);
+                    initDescriptor(encoder, i, 0L, 0L, 0, SEGMENT_FILE_SIZE, TERM_BUFFER_LENGTH, 1024, 10 + i, 2,
+                        "channelM", "channelM?tag=f", "source" + i);
+                    encoder.stopPosition(1024 * i);
+
+                    new RecordingDescriptorHeaderEncoder()
+                        .wrap(recordBuffer, 0)
+                        .length(encoder.encodedLength())
+                        .valid(i == 1 ? INVALID : VALID);
+                }
+
+                IoUtil.unmap(mappedBuffer);
+            }
+
+            try
+            {
+                new Catalog(legacyArchiveDir, null, 0, clock).close();
+                fail("expected exception");
+            }
+            catch (final IllegalArgumentException ignore)
+            {
+            }
+
+            assertThat(CatalogTool.migrate(legacyArchiveDir), is((long)recordingCount));
+            assertTrue(new File(
+                legacyArchiveDir, Archive.Configuration.CATALOG_FILE_NAME + CatalogTool.FIXED_LENGTH_CATALOG_POSTFIX)
+                .exists());
+
+            try (Catalog catalog = new Catalog(legacyArchiveDir, null, 0, clock, false))
+            {
+                assertThat(catalog.nextRecordingId(), is((long)recordingCount));
+                for (int i = 0; i < recordingCount; i++)
+                {
+                    verifyRecordingForId(catalog, i, 10 + i, 2, "channelM", "source" + i);
+
+                    final int index = i;
+                    catalog.forEntry(
+                        (he, hd, e, decoder) ->
+                        {
+                            assertThat(hd.valid(), is(index == 1 ? INVALID : VALID));
+                            assertThat(decoder.stopPosition(), is(1024L * index));
+                        },
+                        i);
+                }
+
+                final int keyHash = RecordingChannelIndex.hash(2, "channelM");
+                assertThat(catalog.channelIndex().firstCandidate(keyHash, 1), is(1L));
+            }
+        }
+        finally
+        {
+            IoUtil.delete(legacyArchiveDir, false);
+        }
+    }
 }
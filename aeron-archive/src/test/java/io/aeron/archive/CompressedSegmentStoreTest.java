@@ -0,0 +1,239 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.archive.codecs.RecordingDescriptorEncoder;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.SystemEpochClock;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+
+import static io.aeron.archive.TestUtil.await;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class CompressedSegmentStoreTest
+{
+    private static final long RECORDING_ID = 3;
+    private static final int SEGMENT_LENGTH = 64 * 1024;
+    private static final int TERM_LENGTH = 16 * 1024;
+
+    private final File archiveDir = TestUtil.makeTempDir();
+    private final File coldDir = new File(archiveDir, "cold");
+    private final CompressedSegmentStore segmentStore =
+        new CompressedSegmentStore(archiveDir, coldDir, new DeflateSegmentCodec(), 2, Thread::new);
+
+    @After
+    public void after()
+    {
+        segmentStore.close();
+        IoUtil.delete(archiveDir, false);
+    }
+
+    @Test
+    public void shouldDecompressSegmentAndShareCachedBuffer() throws IOException
+    {
+        assertTrue(coldDir.mkdir());
+        writeSegment(0, SEGMENT_LENGTH / 2);
+
+        assertTrue(segmentStore.compress(RECORDING_ID, 0));
+        assertFalse(segmentStore.compress(RECORDING_ID, 0));
+        assertTrue(segmentStore.segmentExists(RECORDING_ID, 0));
+        assertFalse(segmentStore.segmentExists(RECORDING_ID, 1));
+        assertThat(segmentStore.compressedSegmentFile(RECORDING_ID, 0).getParentFile(), is(coldDir));
+
+        final CompressedSegmentStore.Segment segment = segmentStore.acquire(RECORDING_ID, 0, SEGMENT_LENGTH);
+        assertSame(segment, segmentStore.acquire(RECORDING_ID, 0, SEGMENT_LENGTH));
+        awaitLoaded(segment);
+
+        final ByteBuffer buffer = segment.buffer();
+        for (int i = 0; i < SEGMENT_LENGTH; i++)
+        {
+            assertThat(buffer.get(i), is(i < SEGMENT_LENGTH / 2 ? (byte)i : (byte)0));
+        }
+
+        assertSame(segment, segmentStore.acquire(RECORDING_ID, 0, SEGMENT_LENGTH));
+        assertNull(segmentStore.acquire(RECORDING_ID, 1, SEGMENT_LENGTH));
+
+        segmentStore.release(segment);
+        segmentStore.release(segment);
+        segmentStore.release(segment);
+    }
+
+    @Test
+    public void shouldGiveReaderOwnSegmentWhenAllCachedSegmentsAreInUse() throws IOException
+    {
+        assertTrue(coldDir.mkdir());
+        writeSegment(0, SEGMENT_LENGTH);
+        writeSegment(1, SEGMENT_LENGTH);
+        writeSegment(2, SEGMENT_LENGTH);
+
+        for (int i = 0; i < 3; i++)
+        {
+            assertTrue(segmentStore.compress(RECORDING_ID, i));
+        }
+
+        final CompressedSegmentStore.Segment first = segmentStore.acquire(RECORDING_ID, 0, SEGMENT_LENGTH);
+        final CompressedSegmentStore.Segment second = segmentStore.acquire(RECORDING_ID, 1, SEGMENT_LENGTH);
+        final CompressedSegmentStore.Segment third = segmentStore.acquire(RECORDING_ID, 2, SEGMENT_LENGTH);
+        awaitLoaded(first);
+        awaitLoaded(second);
+        awaitLoaded(third);
+
+        assertNotSame(third, segmentStore.acquire(RECORDING_ID, 2, SEGMENT_LENGTH));
+
+        segmentStore.release(first);
+        assertSame(first, segmentStore.acquire(RECORDING_ID, 2, SEGMENT_LENGTH));
+        awaitLoaded(first);
+        assertThat(first.buffer().get(7), is((byte)7));
+    }
+
+    @Test
+    public void shouldCompactSealedSegmentsOfRecording() throws IOException
+    {
+        assertTrue(coldDir.mkdir());
+        final ErrorHandler errorHandler = mock(ErrorHandler.class);
+        final long startPosition = TERM_LENGTH + 1024;
+
+        writeSegment(0, SEGMENT_LENGTH);
+        writeSegment(1, SEGMENT_LENGTH);
+        writeSegment(2, SEGMENT_LENGTH);
+
+        try (SegmentCompactor compactor = new SegmentCompactor(
+            segmentStore, 0, new SystemEpochClock(), errorHandler, Thread::new))
+        {
+            compactor.onRecordingStarted(RECORDING_ID, 0, startPosition, TERM_LENGTH, SEGMENT_LENGTH);
+            compactor.onRecordingProgress(RECORDING_ID, TERM_LENGTH + SEGMENT_LENGTH + 64);
+
+            await(() -> segmentStore.compressedSegmentFile(RECORDING_ID, 0).exists());
+            await(() -> !segmentStore.segmentFile(RECORDING_ID, 0).exists());
+            assertTrue(segmentStore.segmentFile(RECORDING_ID, 1).exists());
+
+            compactor.onRecordingStopped(RECORDING_ID, TERM_LENGTH + (2 * SEGMENT_LENGTH) + 64);
+
+            await(() -> !segmentStore.segmentFile(RECORDING_ID, 2).exists());
+            assertFalse(segmentStore.segmentFile(RECORDING_ID, 1).exists());
+        }
+
+        verifyZeroInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldCompactSegmentsFromBaseSegmentOfTruncatedRecordingOnRestart() throws IOException
+    {
+        assertTrue(coldDir.mkdir());
+        final ErrorHandler errorHandler = mock(ErrorHandler.class);
+        final EpochClock epochClock = new SystemEpochClock();
+        final long stopPosition = (3L * SEGMENT_LENGTH) + 64;
+
+        Catalog catalog = new Catalog(archiveDir, null, 0, epochClock);
+        final long recordingId = catalog.addNewRecording(
+            0, epochClock.time(), 0, SEGMENT_LENGTH, TERM_LENGTH, 1024, 6, 1, "channel", "channel", "source");
+
+        for (int i = 0; i <= 3; i++)
+        {
+            writeSegment(recordingId, i, SEGMENT_LENGTH);
+        }
+
+        final RecordingDescriptorEncoder encoder = new RecordingDescriptorEncoder();
+        Catalog.wrapDescriptorEncoder(encoder, catalog.wrapDescriptor(recordingId));
+        encoder.stopPosition(stopPosition);
+        encoder.stopTimestamp(epochClock.time());
+
+        try (RecordingRetention retention = new RecordingRetention(
+            catalog,
+            archiveDir,
+            segmentStore,
+            RetentionPolicy.RETAIN_ALL,
+            new HashMap<>(),
+            epochClock,
+            errorHandler,
+            Thread::new,
+            null,
+            (id) -> Catalog.NULL_POSITION,
+            (id) -> false))
+        {
+            assertThat(retention.truncate(recordingId, 2L * SEGMENT_LENGTH), is(2L * SEGMENT_LENGTH));
+            await(() -> !segmentStore.segmentFile(recordingId, 1).exists());
+        }
+
+        catalog.close();
+        catalog = new Catalog(archiveDir, null, 0, epochClock);
+
+        try (SegmentCompactor compactor = new SegmentCompactor(
+            segmentStore, 0, epochClock, errorHandler, Thread::new))
+        {
+            compactor.onCatalogLoaded(catalog);
+
+            await(() -> !segmentStore.segmentFile(recordingId, 3).exists());
+            assertFalse(segmentStore.segmentFile(recordingId, 2).exists());
+            assertTrue(segmentStore.compressedSegmentFile(recordingId, 2).exists());
+            assertTrue(segmentStore.compressedSegmentFile(recordingId, 3).exists());
+        }
+        finally
+        {
+            catalog.close();
+        }
+
+        verifyZeroInteractions(errorHandler);
+    }
+
+    private static void awaitLoaded(final CompressedSegmentStore.Segment segment)
+    {
+        await(
+            () ->
+            {
+                try
+                {
+                    return segment.isLoaded();
+                }
+                catch (final IOException ex)
+                {
+                    throw new IllegalStateException(ex);
+                }
+            });
+    }
+
+    private void writeSegment(final int segmentIndex, final int dataLength) throws IOException
+    {
+        writeSegment(RECORDING_ID, segmentIndex, dataLength);
+    }
+
+    private void writeSegment(final long recordingId, final int segmentIndex, final int dataLength)
+        throws IOException
+    {
+        final byte[] data = new byte[dataLength];
+        for (int i = 0; i < dataLength; i++)
+        {
+            data[i] = (byte)i;
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(segmentStore.segmentFile(recordingId, segmentIndex), "rw"))
+        {
+            file.write(data);
+        }
+    }
+}
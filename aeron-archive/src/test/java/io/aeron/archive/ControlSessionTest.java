@@ -1,11 +1,22 @@
 package io.aeron.archive;
 
 import io.aeron.Publication;
+import io.aeron.archive.codecs.ControlResponseCode;
+import io.aeron.archive.codecs.ControlResponseDecoder;
+import io.aeron.archive.codecs.MessageHeaderDecoder;
+import io.aeron.logbuffer.BufferClaim;
+import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Before;
 import org.junit.Test;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 public class ControlSessionTest
@@ -27,7 +38,8 @@ public class ControlSessionTest
             mockControlPublication,
             mockConductor,
             mockEpochClock,
-            mockProxy);
+            mockProxy,
+            Archive.Configuration.CONTROL_RESPONSE_QUEUE_LENGTH_DEFAULT);
     }
 
     @Test
@@ -87,4 +99,90 @@ public class ControlSessionTest
         session.doWork();
         assertTrue(session.isDone());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldSendQueuedResponsesInOrderOnceNoLongerBackPressured()
+    {
+        final ControlResponseProxy proxy = new ControlResponseProxy();
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(new byte[1024]);
+        session = new ControlSession(
+            1, 2, mockDemuxer, mockControlPublication, mockConductor, mockEpochClock, proxy,
+            Archive.Configuration.CONTROL_RESPONSE_QUEUE_LENGTH_DEFAULT);
+
+        when(mockEpochClock.time()).thenReturn(0L);
+        when(mockControlPublication.isConnected()).thenReturn(true);
+        when(mockControlPublication.maxPayloadLength()).thenReturn(1024 - DataHeaderFlyweight.HEADER_LENGTH);
+        when(mockControlPublication.offer(any(), anyInt(), anyInt())).thenReturn(Publication.BACK_PRESSURED);
+        when(mockControlPublication.tryClaim(anyInt(), any())).thenReturn(Publication.BACK_PRESSURED);
+
+        session.doWork();
+        session.doWork();
+        session.sendOkResponse(7L, 42L, proxy);
+        session.doWork();
+        assertFalse(session.isDone());
+
+        doAnswer(
+            (invocation) ->
+            {
+                final int length = invocation.getArgument(0);
+                final BufferClaim bufferClaim = invocation.getArgument(1);
+                bufferClaim.wrap(termBuffer, 0, length + DataHeaderFlyweight.HEADER_LENGTH);
+                return 1L;
+            })
+            .when(mockControlPublication).tryClaim(anyInt(), any());
+
+        session.doWork();
+        verifyResponse(termBuffer, 2L, 1L);
+
+        session.doWork();
+        verifyResponse(termBuffer, 7L, 42L);
+
+        assertThat(session.doWork(), is(0));
+        verify(mockControlPublication, times(4)).tryClaim(anyInt(), any());
+    }
+
+    @Test
+    public void shouldAbortOnConductorWhenQueuedResponsesOverflow()
+    {
+        final ControlResponseProxy proxy = new ControlResponseProxy();
+        session = new ControlSession(
+            1, 2, mockDemuxer, mockControlPublication, mockConductor, mockEpochClock, proxy, 1024);
+
+        when(mockEpochClock.time()).thenReturn(0L);
+        when(mockControlPublication.isConnected()).thenReturn(true);
+        when(mockControlPublication.maxPayloadLength()).thenReturn(1024 - DataHeaderFlyweight.HEADER_LENGTH);
+        when(mockControlPublication.offer(any(), anyInt(), anyInt())).thenReturn(Publication.BACK_PRESSURED);
+        when(mockControlPublication.tryClaim(anyInt(), any())).thenReturn(Publication.BACK_PRESSURED);
+
+        session.doWork();
+        session.doWork();
+        for (int i = 0; i < 100; i++)
+        {
+            session.sendOkResponse(i, proxy);
+        }
+
+        assertFalse(session.isDone());
+
+        session.doWork();
+        assertTrue(session.isDone());
+    }
+
+    private static void verifyResponse(
+        final UnsafeBuffer termBuffer, final long expectedCorrelationId, final long expectedRelevantId)
+    {
+        final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+        final ControlResponseDecoder responseDecoder = new ControlResponseDecoder();
+        headerDecoder.wrap(termBuffer, DataHeaderFlyweight.HEADER_LENGTH);
+        responseDecoder.wrap(
+            termBuffer,
+            DataHeaderFlyweight.HEADER_LENGTH + MessageHeaderDecoder.ENCODED_LENGTH,
+            headerDecoder.blockLength(),
+            headerDecoder.version());
+
+        assertThat(headerDecoder.templateId(), is(ControlResponseDecoder.TEMPLATE_ID));
+        assertThat(responseDecoder.controlSessionId(), is(1L));
+        assertThat(responseDecoder.correlationId(), is(expectedCorrelationId));
+        assertThat(responseDecoder.relevantId(), is(expectedRelevantId));
+        assertThat(responseDecoder.code(), is(ControlResponseCode.OK));
+    }
+}
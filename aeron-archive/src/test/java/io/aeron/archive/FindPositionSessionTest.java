@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.EpochClock;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.LongConsumer;
+
+import static io.aeron.archive.codecs.ControlResponseCode.ERROR;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class FindPositionSessionTest
+{
+    private static final long CORRELATION_ID = 3;
+    private static final long RECORDING_ID = 7;
+
+    private final File archiveDir = TestUtil.makeTempDir();
+    private final ByteBuffer entryBuffer = ByteBuffer.allocateDirect(RecordingTimeIndex.ENTRY_LENGTH);
+    private final ArrayList<Runnable> tasks = new ArrayList<>();
+    private final Executor executor = tasks::add;
+    private final LongConsumer positionHandler = mock(LongConsumer.class);
+    private final ControlSession controlSession = mock(ControlSession.class);
+    private final ControlResponseProxy proxy = mock(ControlResponseProxy.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+
+    @After
+    public void after()
+    {
+        IoUtil.delete(archiveDir, false);
+    }
+
+    @Test
+    public void shouldSearchIndexOnExecutorAndHandlePositionOnNextDutyCycle() throws Exception
+    {
+        final EpochClock epochClock = mock(EpochClock.class);
+        try (RecordingTimeIndex index = new RecordingTimeIndex(archiveDir, RECORDING_ID, 1024, epochClock))
+        {
+            when(epochClock.time()).thenReturn(100L);
+            index.onBlock(0);
+            when(epochClock.time()).thenReturn(200L);
+            index.onBlock(1024);
+        }
+
+        final FindPositionSession session = newSession(150);
+
+        assertThat(session.doWork(), is(1));
+        assertThat(tasks.size(), is(1));
+        assertThat(session.doWork(), is(0));
+        verifyZeroInteractions(positionHandler);
+
+        tasks.get(0).run();
+
+        assertThat(session.doWork(), is(1));
+        assertThat(session.isDone(), is(true));
+        verify(positionHandler).accept(0L);
+        verifyZeroInteractions(controlSession, errorHandler);
+    }
+
+    @Test
+    public void shouldRespondWithErrorWhenExecutorRejectsSearch()
+    {
+        final FindPositionSession session = new FindPositionSession(
+            CORRELATION_ID,
+            RECORDING_ID,
+            150,
+            archiveDir,
+            entryBuffer,
+            (task) ->
+            {
+                throw new IllegalStateException("rejected");
+            },
+            positionHandler,
+            controlSession,
+            proxy,
+            errorHandler);
+
+        session.doWork();
+
+        assertThat(session.isDone(), is(true));
+        verify(errorHandler).onError(any(IllegalStateException.class));
+        verify(controlSession).sendResponse(eq(CORRELATION_ID), eq(ERROR), anyString(), eq(proxy));
+        verifyZeroInteractions(positionHandler);
+    }
+
+    private FindPositionSession newSession(final long timestamp)
+    {
+        return new FindPositionSession(
+            CORRELATION_ID,
+            RECORDING_ID,
+            timestamp,
+            archiveDir,
+            entryBuffer,
+            executor,
+            positionHandler,
+            controlSession,
+            proxy,
+            errorHandler);
+    }
+}
@@ -0,0 +1,209 @@
+package io.aeron.archive;
+
+import io.aeron.Publication;
+import io.aeron.archive.client.ControlResponseAdapter;
+import io.aeron.archive.client.RecordingFilter;
+import io.aeron.archive.codecs.MessageHeaderDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorBatchDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorEncoder;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.aeron.archive.Catalog.NULL_POSITION;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ListRecordingsWithFilterSessionTest
+{
+    private static final int SEGMENT_FILE_SIZE = 128 * 1024 * 1024;
+    private static final long CONTROL_SESSION_ID = 3;
+    private final UnsafeBuffer descriptorBuffer = new UnsafeBuffer();
+    private final File archiveDir = TestUtil.makeTempDir();
+    private final EpochClock clock = mock(EpochClock.class);
+    private final long correlationId = 1;
+    private final ControlResponseProxy controlResponseProxy = new ControlResponseProxy();
+    private final ControlSession controlSession = mock(ControlSession.class);
+    private final Publication controlPublication = mock(Publication.class);
+    private final RecordingFilter filter = new RecordingFilter();
+    private final List<Long> listedRecordingIds = new ArrayList<>();
+    private final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
+    private final RecordingDescriptorBatchDecoder batchDecoder = new RecordingDescriptorBatchDecoder();
+    private final RecordingDescriptorDecoder descriptorDecoder = new RecordingDescriptorDecoder();
+    private int batchesSent = 0;
+    private Catalog catalog;
+
+    @Before
+    public void before() throws Exception
+    {
+        catalog = new Catalog(archiveDir, null, 0, clock);
+        catalog.addNewRecording(
+            0L, 0L, 0, SEGMENT_FILE_SIZE, 4096, 1024, 6, 1, "channel", "channel?tag=f", "sourceA");
+        catalog.addNewRecording(
+            0L, 0L, 0, SEGMENT_FILE_SIZE, 4096, 1024, 7, 1, "channelA", "channelA?tag=f", "sourceV");
+        final long stoppedRecordingId = catalog.addNewRecording(
+            0L, 0L, 0, SEGMENT_FILE_SIZE, 4096, 1024, 8, 1, "channel", "channel?tag=f", "sourceB");
+        catalog.addNewRecording(
+            0L, 0L, 0, SEGMENT_FILE_SIZE, 4096, 1024, 8, 2, "channelB", "channelB?tag=f", "sourceB");
+        catalog.addNewRecording(
+            0L, 5L, 0, SEGMENT_FILE_SIZE, 4096, 1024, 8, 1, "channel", "channel?tag=f", "sourceB");
+
+        final RecordingDescriptorEncoder encoder = new RecordingDescriptorEncoder();
+        Catalog.wrapDescriptorEncoder(encoder, catalog.wrapDescriptor(stoppedRecordingId));
+        encoder.stopPosition(1024).stopTimestamp(10);
+
+        when(controlSession.sessionId()).thenReturn(CONTROL_SESSION_ID);
+        when(controlSession.maxPayloadLength()).thenReturn(8096);
+        when(controlSession.sendDescriptorBatch(eq(correlationId), any(), anyInt(), anyInt(), any()))
+            .then(
+                (invocation) -> controlResponseProxy.sendDescriptorBatch(
+                    CONTROL_SESSION_ID,
+                    correlationId,
+                    invocation.getArgument(1),
+                    invocation.getArgument(2),
+                    invocation.getArgument(3),
+                    controlPublication));
+        when(controlPublication.offer(any(), anyInt(), anyInt())).then(
+            (invocation) ->
+            {
+                onBatch(invocation.getArgument(0), invocation.getArgument(1));
+                return 1L;
+            });
+    }
+
+    @After
+    public void after()
+    {
+        CloseHelper.quietClose(catalog);
+        IoUtil.delete(archiveDir, false);
+    }
+
+    @Test
+    public void shouldBatchDescriptorsMatchingSessionIdAndSourceIdentity()
+    {
+        filter.sessionId(8).sourceIdentity("sourceB");
+        final ListRecordingsWithFilterSession session = newSession(0, 10);
+
+        session.doWork();
+
+        assertThat(session.isDone(), is(true));
+        assertThat(batchesSent, is(1));
+        assertThat(listedRecordingIds, contains(2L, 3L, 4L));
+        verify(controlSession).sendRecordingUnknown(correlationId, 5L, controlResponseProxy);
+    }
+
+    @Test
+    public void shouldListActiveRecordingsOfChannelAndStreamWithMinLength()
+    {
+        filter.channel("channel").streamId(1).activeOnly(true).minLength(2048);
+        final ListRecordingsWithFilterSession session = newSession(0, 10);
+
+        session.doWork();
+
+        assertThat(session.isDone(), is(true));
+        assertThat(listedRecordingIds, contains(4L));
+    }
+
+    @Test
+    public void shouldNotListRecordingsOutsideTimeRange()
+    {
+        filter.fromTimestamp(20).toTimestamp(5);
+        final ListRecordingsWithFilterSession session = newSession(0, 10);
+
+        session.doWork();
+
+        assertThat(session.isDone(), is(true));
+        assertThat(listedRecordingIds, contains(0L, 1L, 3L));
+    }
+
+    @Test
+    public void shouldLimitBatchesToMaxPayloadLengthAndStopAtRecordCount()
+    {
+        when(controlSession.maxPayloadLength()).thenReturn(ControlResponseProxy.DESCRIPTOR_BATCH_OFFSET + 200);
+        final ListRecordingsWithFilterSession session = newSession(1, 3);
+
+        session.doWork();
+
+        assertThat(session.isDone(), is(true));
+        assertThat(batchesSent, is(3));
+        assertThat(listedRecordingIds, contains(1L, 2L, 3L));
+        verify(controlSession, never()).sendRecordingUnknown(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void shouldResendBatchWhenBackPressured()
+    {
+        final ListRecordingsWithFilterSession session = newSession(0, 10);
+        doReturn(Publication.BACK_PRESSURED).when(controlPublication).offer(any(), anyInt(), anyInt());
+
+        session.doWork();
+        assertThat(session.isDone(), is(false));
+
+        doAnswer(
+            (invocation) ->
+            {
+                onBatch(invocation.getArgument(0), invocation.getArgument(1));
+                return 1L;
+            }).when(controlPublication).offer(any(), anyInt(), anyInt());
+
+        session.doWork();
+        assertThat(session.isDone(), is(true));
+        assertThat(listedRecordingIds, contains(0L, 1L, 2L, 3L, 4L));
+    }
+
+    private ListRecordingsWithFilterSession newSession(final long fromRecordingId, final int count)
+    {
+        return new ListRecordingsWithFilterSession(
+            correlationId,
+            fromRecordingId,
+            count,
+            filter,
+            catalog,
+            controlResponseProxy,
+            controlSession,
+            descriptorBuffer,
+            (recordingId) -> 4 == recordingId ? 4096 : NULL_POSITION);
+    }
+
+    private void onBatch(final DirectBuffer buffer, final int offset)
+    {
+        messageHeaderDecoder.wrap(buffer, offset);
+        assertThat(messageHeaderDecoder.templateId(), is(RecordingDescriptorBatchDecoder.TEMPLATE_ID));
+
+        batchDecoder.wrap(
+            buffer,
+            offset + MessageHeaderDecoder.ENCODED_LENGTH,
+            messageHeaderDecoder.blockLength(),
+            messageHeaderDecoder.version());
+
+        batchesSent++;
+        ControlResponseAdapter.dispatchDescriptors(
+            batchDecoder,
+            messageHeaderDecoder,
+            descriptorDecoder,
+            (controlSessionId, correlationId, recordingId, startTimestamp, stopTimestamp, startPosition,
+            stopPosition, initialTermId, segmentFileLength, termBufferLength, mtuLength, sessionId, streamId,
+            strippedChannel, originalChannel, sourceIdentity) ->
+            {
+                assertThat(controlSessionId, is(CONTROL_SESSION_ID));
+                assertThat(correlationId, is(this.correlationId));
+                assertThat(originalChannel, is(strippedChannel + "?tag=f"));
+                listedRecordingIds.add(recordingId);
+            });
+    }
+}
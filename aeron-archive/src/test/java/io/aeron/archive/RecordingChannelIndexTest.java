@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorEncoder;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import static io.aeron.archive.Catalog.NULL_RECORD_ID;
+import static java.nio.ByteBuffer.allocateDirect;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class RecordingChannelIndexTest
+{
+    private final RecordingChannelIndex channelIndex = new RecordingChannelIndex();
+
+    @Test
+    public void shouldFindCandidatesInOrderAcrossGrowth()
+    {
+        final int recordingCount = 1000;
+        for (int i = 0; i < recordingCount; i++)
+        {
+            channelIndex.add(i, i % 3, "channel" + (i % 7));
+        }
+
+        final int keyHash = RecordingChannelIndex.hash(1, "channel2");
+        long recordingId = channelIndex.firstCandidate(keyHash, 100);
+        int matches = 0;
+        long expectedId = 100;
+
+        while (NULL_RECORD_ID != recordingId)
+        {
+            if (recordingId % 3 == 1 && recordingId % 7 == 2)
+            {
+                while (!(expectedId % 3 == 1 && expectedId % 7 == 2))
+                {
+                    expectedId++;
+                }
+
+                assertThat(recordingId, is(expectedId));
+                expectedId++;
+                matches++;
+            }
+
+            recordingId = channelIndex.nextCandidate(keyHash, recordingId);
+        }
+
+        assertThat(matches, is(43));
+    }
+
+    @Test
+    public void shouldSeekFirstCandidateFromAnyRecordingId()
+    {
+        final int recordingCount = 1000;
+        for (int i = 0; i < recordingCount; i++)
+        {
+            channelIndex.add(i, i % 3, "channel" + (i % 7));
+        }
+
+        final int keyHash = RecordingChannelIndex.hash(1, "channel2");
+        for (int fromId = -1; fromId <= recordingCount; fromId++)
+        {
+            long expectedId = Math.max(fromId, 0);
+            while (expectedId < recordingCount && !(expectedId % 3 == 1 && expectedId % 7 == 2))
+            {
+                expectedId++;
+            }
+
+            long recordingId = channelIndex.firstCandidate(keyHash, fromId);
+            while (NULL_RECORD_ID != recordingId && !(recordingId % 3 == 1 && recordingId % 7 == 2))
+            {
+                assertTrue(recordingId >= fromId);
+                recordingId = channelIndex.nextCandidate(keyHash, recordingId);
+            }
+
+            assertThat(recordingId, is(expectedId < recordingCount ? expectedId : NULL_RECORD_ID));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectRecordingsOutOfOrder()
+    {
+        channelIndex.add(0, 1, "channel");
+        channelIndex.add(2, 1, "channel");
+    }
+
+    @Test
+    public void shouldMatchDescriptorWithoutDecodingChannel()
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(allocateDirect(1024));
+        final RecordingDescriptorEncoder encoder = new RecordingDescriptorEncoder().wrap(buffer, 0);
+        Catalog.initDescriptor(encoder, 0, 0, 0, 0, 4096, 4096, 1024, 1, 7, "aeron:udp", "aeron:udp?tag=1", "src");
+
+        final RecordingDescriptorDecoder decoder = new RecordingDescriptorDecoder();
+        decoder.wrap(buffer, 0, RecordingDescriptorDecoder.BLOCK_LENGTH, RecordingDescriptorDecoder.SCHEMA_VERSION);
+
+        assertTrue(RecordingChannelIndex.matches(decoder, 7, "aeron:udp"));
+        assertFalse(RecordingChannelIndex.matches(decoder, 8, "aeron:udp"));
+        assertFalse(RecordingChannelIndex.matches(decoder, 7, "aeron:ipc"));
+        assertFalse(RecordingChannelIndex.matches(decoder, 7, "aeron:udp2"));
+
+        channelIndex.add(decoder);
+        assertThat(channelIndex.firstCandidate(RecordingChannelIndex.hash(7, "aeron:udp"), 0), is(0L));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.archive.codecs.MessageHeaderEncoder;
+import io.aeron.archive.codecs.RecordingProgressBatchEncoder;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RecordingProgressBatcherTest
+{
+    private static final int MAX_MESSAGE_LENGTH = 4096;
+
+    private final RecordingEventsProxy recordingEventsProxy = mock(RecordingEventsProxy.class);
+
+    @Test
+    public void shouldSendPendingProgressTogetherOnFlush()
+    {
+        final RecordingProgressBatcher batcher = new RecordingProgressBatcher(
+            recordingEventsProxy, 8, MAX_MESSAGE_LENGTH);
+
+        assertThat(batcher.flush(), is(0));
+        verifyZeroInteractions(recordingEventsProxy);
+
+        batcher.progress(1, 0, 100);
+        batcher.progress(2, 64, 200);
+        assertThat(batcher.flush(), is(2));
+
+        verify(recordingEventsProxy).progressBatch(
+            aryEq(new long[]{ 1, 2, 0, 0, 0, 0, 0, 0 }),
+            aryEq(new long[]{ 0, 64, 0, 0, 0, 0, 0, 0 }),
+            aryEq(new long[]{ 100, 200, 0, 0, 0, 0, 0, 0 }),
+            eq(2));
+        assertThat(batcher.flush(), is(0));
+    }
+
+    @Test
+    public void shouldSendBatchWhenFull()
+    {
+        final RecordingProgressBatcher batcher = new RecordingProgressBatcher(
+            recordingEventsProxy, 2, MAX_MESSAGE_LENGTH);
+
+        batcher.progress(1, 0, 100);
+        batcher.progress(2, 0, 200);
+        verifyZeroInteractions(recordingEventsProxy);
+
+        batcher.progress(3, 0, 300);
+        verify(recordingEventsProxy).progressBatch(any(), any(), any(), eq(2));
+        assertThat(batcher.flush(), is(1));
+    }
+
+    @Test
+    public void shouldLimitBatchToMaxMessageLength()
+    {
+        final int maxBatchSize = (MAX_MESSAGE_LENGTH - MessageHeaderEncoder.ENCODED_LENGTH -
+            RecordingProgressBatchEncoder.ProgressEncoder.sbeHeaderSize()) /
+            RecordingProgressBatchEncoder.ProgressEncoder.sbeBlockLength();
+        final RecordingProgressBatcher batcher = new RecordingProgressBatcher(
+            recordingEventsProxy, Integer.MAX_VALUE, MAX_MESSAGE_LENGTH);
+
+        for (int i = 0; i <= maxBatchSize; i++)
+        {
+            batcher.progress(i, 0, i);
+        }
+
+        verify(recordingEventsProxy).progressBatch(any(), any(), any(), eq(maxBatchSize));
+        assertThat(batcher.flush(), is(1));
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import io.aeron.archive.codecs.RecordingDescriptorEncoder;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+
+import static io.aeron.archive.Archive.segmentFileName;
+import static io.aeron.archive.Catalog.NULL_POSITION;
+import static io.aeron.archive.TestUtil.await;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class RecordingRetentionTest
+{
+    private static final int TERM_BUFFER_LENGTH = 64 * 1024;
+    private static final int SEGMENT_FILE_LENGTH = 2 * TERM_BUFFER_LENGTH;
+    private static final long START_POSITION = 1024;
+    private static final long STOP_POSITION = (3L * SEGMENT_FILE_LENGTH) + 128;
+    private static final long STOP_TIMESTAMP = 1000;
+
+    private final File archiveDir = TestUtil.makeTempDir();
+    private final EpochClock epochClock = mock(EpochClock.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final UnsafeBuffer descriptorBuffer = new UnsafeBuffer();
+    private final RecordingDescriptorDecoder descriptorDecoder = new RecordingDescriptorDecoder();
+    private Catalog catalog;
+    private long recordingId;
+
+    @Before
+    public void before() throws IOException
+    {
+        when(epochClock.time()).thenReturn(STOP_TIMESTAMP);
+        catalog = new Catalog(archiveDir, null, 0, epochClock);
+        recordingId = catalog.addNewRecording(
+            START_POSITION, STOP_TIMESTAMP, 0, SEGMENT_FILE_LENGTH, TERM_BUFFER_LENGTH, 1024, 6, 1,
+            "channelG", "channelG?tag=f", "sourceA");
+
+        for (int i = 0; i <= 3; i++)
+        {
+            assertTrue(segmentFile(i).createNewFile());
+        }
+    }
+
+    @After
+    public void after()
+    {
+        catalog.close();
+        IoUtil.delete(archiveDir, false);
+    }
+
+    @Test
+    public void shouldTruncateToSegmentHoldingPosition() throws Exception
+    {
+        stopRecording();
+
+        try (RecordingRetention retention = newRetention(RetentionPolicy.RETAIN_ALL))
+        {
+            assertThat(retention.truncate(recordingId, START_POSITION), is(START_POSITION));
+            assertThat(retention.truncate(recordingId, (2L * SEGMENT_FILE_LENGTH) + 512), is(2L * SEGMENT_FILE_LENGTH));
+
+            await(() -> !segmentFile(1).exists());
+            assertFalse(segmentFile(0).exists());
+            assertTrue(segmentFile(2).exists());
+            assertTrue(segmentFile(3).exists());
+
+            try
+            {
+                retention.truncate(recordingId, STOP_POSITION + 1);
+                fail("expected exception");
+            }
+            catch (final IllegalArgumentException ignore)
+            {
+            }
+        }
+
+        catalog.close();
+        catalog = new Catalog(archiveDir, null, 0, epochClock);
+        verifyStart(2L * SEGMENT_FILE_LENGTH, 2);
+        verifyZeroInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldTrimRecordingToMaxBytes()
+    {
+        stopRecording();
+
+        try (RecordingRetention retention = newRetention(new RetentionPolicy(0, SEGMENT_FILE_LENGTH)))
+        {
+            assertThat(retention.checkRetention(), is(1));
+            assertThat(retention.checkRetention(), is(0));
+
+            verifyStart(2L * SEGMENT_FILE_LENGTH, 2);
+            await(() -> !segmentFile(1).exists());
+            assertTrue(segmentFile(2).exists());
+        }
+
+        verifyZeroInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldPurgeStoppedRecordingOlderThanMaxAge()
+    {
+        stopRecording();
+        when(epochClock.time()).thenReturn(STOP_TIMESTAMP + TimeUnit.SECONDS.toMillis(2));
+
+        try (RecordingRetention retention = newRetention(new RetentionPolicy(TimeUnit.SECONDS.toNanos(1), 0)))
+        {
+            assertThat(retention.checkRetention(), is(1));
+
+            assertTrue(catalog.wrapDescriptor(recordingId, descriptorBuffer));
+            assertFalse(Catalog.isValidDescriptor(descriptorBuffer));
+            await(() -> !segmentFile(3).exists());
+
+            try
+            {
+                retention.purge(recordingId);
+                fail("expected exception");
+            }
+            catch (final IllegalArgumentException ignore)
+            {
+            }
+        }
+
+        verifyZeroInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldTrimSegmentsOfActiveRecordingOlderThanMaxAgeOnceScanned()
+    {
+        when(epochClock.time()).thenReturn(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+
+        try (RecordingRetention retention = newRetention(
+            new RetentionPolicy(TimeUnit.SECONDS.toNanos(1), 0), (id) -> STOP_POSITION))
+        {
+            assertThat(retention.checkRetention(), is(0));
+            await(() -> 1 == retention.checkRetention());
+
+            verifyStart(3L * SEGMENT_FILE_LENGTH, 3);
+            await(() -> !segmentFile(2).exists());
+            assertTrue(segmentFile(3).exists());
+        }
+
+        verifyZeroInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldAgeCompressedSegmentsByRecordedTimeForMaxAge() throws IOException
+    {
+        final long nowMs = System.currentTimeMillis();
+        when(epochClock.time()).thenReturn(nowMs);
+        assertTrue(segmentFile(0).setLastModified(nowMs - TimeUnit.HOURS.toMillis(1)));
+        assertTrue(segmentFile(1).setLastModified(nowMs - TimeUnit.HOURS.toMillis(1)));
+
+        final File coldDir = new File(archiveDir, "cold");
+        assertTrue(coldDir.mkdir());
+
+        try (CompressedSegmentStore segmentStore = new CompressedSegmentStore(
+            archiveDir, coldDir, new DeflateSegmentCodec(), 1, Thread::new))
+        {
+            for (int i = 0; i <= 2; i++)
+            {
+                assertTrue(segmentStore.compress(recordingId, i));
+            }
+
+            try (RecordingRetention retention = newRetention(
+                new RetentionPolicy(TimeUnit.MINUTES.toNanos(1), 0), (id) -> STOP_POSITION, segmentStore))
+            {
+                assertThat(retention.checkRetention(), is(0));
+                await(() -> 1 == retention.checkRetention());
+
+                verifyStart(2L * SEGMENT_FILE_LENGTH, 2);
+                await(() -> !segmentStore.compressedSegmentFile(recordingId, 1).exists());
+                assertFalse(segmentStore.compressedSegmentFile(recordingId, 0).exists());
+                assertTrue(segmentStore.compressedSegmentFile(recordingId, 2).exists());
+            }
+        }
+
+        verifyZeroInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldTrimTimeIndexWhenTruncated() throws IOException
+    {
+        try (RecordingTimeIndex timeIndex = new RecordingTimeIndex(archiveDir, recordingId, 1, epochClock))
+        {
+            timeIndex.onBlock(START_POSITION);
+            timeIndex.onBlock(SEGMENT_FILE_LENGTH);
+            timeIndex.onBlock(2L * SEGMENT_FILE_LENGTH + 256);
+        }
+
+        stopRecording();
+
+        try (RecordingRetention retention = newRetention(RetentionPolicy.RETAIN_ALL))
+        {
+            assertThat(retention.truncate(recordingId, 2L * SEGMENT_FILE_LENGTH), is(2L * SEGMENT_FILE_LENGTH));
+
+            final File timeIndexFile = new File(archiveDir, Archive.timeIndexFileName(recordingId));
+            await(() -> timeIndexFile.length() == RecordingTimeIndex.ENTRY_LENGTH);
+        }
+
+        final long position = RecordingTimeIndex.findPosition(
+            archiveDir, recordingId, STOP_TIMESTAMP, ByteBuffer.allocate(RecordingTimeIndex.ENTRY_LENGTH));
+        assertThat(position, is(2L * SEGMENT_FILE_LENGTH + 256));
+        verifyZeroInteractions(errorHandler);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotPurgeActiveRecording()
+    {
+        try (RecordingRetention retention = newRetention(RetentionPolicy.RETAIN_ALL))
+        {
+            retention.purge(recordingId);
+        }
+    }
+
+    private RecordingRetention newRetention(final RetentionPolicy policy)
+    {
+        return newRetention(policy, (id) -> NULL_POSITION);
+    }
+
+    private RecordingRetention newRetention(final RetentionPolicy policy, final LongUnaryOperator activePosition)
+    {
+        return newRetention(policy, activePosition, null);
+    }
+
+    private RecordingRetention newRetention(
+        final RetentionPolicy policy,
+        final LongUnaryOperator activePosition,
+        final CompressedSegmentStore segmentStore)
+    {
+        return new RecordingRetention(
+            catalog,
+            archiveDir,
+            segmentStore,
+            policy,
+            new HashMap<>(),
+            epochClock,
+            errorHandler,
+            Thread::new,
+            null,
+            activePosition,
+            (id) -> false);
+    }
+
+    private void stopRecording()
+    {
+        final RecordingDescriptorEncoder encoder = new RecordingDescriptorEncoder();
+        Catalog.wrapDescriptorEncoder(encoder, catalog.wrapDescriptor(recordingId));
+        encoder.stopPosition(STOP_POSITION);
+        encoder.stopTimestamp(STOP_TIMESTAMP);
+    }
+
+    private void verifyStart(final long startPosition, final int baseSegmentIndex)
+    {
+        assertTrue(catalog.wrapDescriptor(recordingId, descriptorBuffer));
+        Catalog.wrapDescriptorDecoder(descriptorDecoder, descriptorBuffer);
+
+        assertThat(descriptorDecoder.startPosition(), is(startPosition));
+        assertThat(Catalog.baseSegmentIndex(descriptorBuffer), is(baseSegmentIndex));
+    }
+
+    private File segmentFile(final int segmentIndex)
+    {
+        return new File(archiveDir, segmentFileName(recordingId, segmentIndex));
+    }
+}
@@ -19,11 +19,13 @@ import io.aeron.Image;
 import io.aeron.Subscription;
 import io.aeron.archive.codecs.RecordingDescriptorDecoder;
 import io.aeron.archive.codecs.RecordingDescriptorEncoder;
+import io.aeron.logbuffer.BlockHandler;
 import io.aeron.logbuffer.FrameDescriptor;
 import io.aeron.logbuffer.RawBlockHandler;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.CloseHelper;
 import org.agrona.IoUtil;
+import org.agrona.collections.MutableInteger;
 import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
@@ -36,6 +38,7 @@ import java.io.File;
 import java.nio.channels.FileChannel;
 
 import static io.aeron.archive.Archive.segmentFileName;
+import static io.aeron.archive.Catalog.NULL_POSITION;
 import static io.aeron.archive.Catalog.wrapDescriptorDecoder;
 import static io.aeron.archive.TestUtil.newRecordingFragmentReader;
 import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
@@ -74,7 +77,7 @@ public class RecordingSessionTest
     private EpochClock epochClock = Mockito.mock(EpochClock.class);
     private Archive.Context context;
     private UnsafeBuffer descriptorBuffer =
-        new UnsafeBuffer(allocateDirectAligned(Catalog.DEFAULT_RECORD_LENGTH, FRAME_ALIGNMENT));
+        new UnsafeBuffer(allocateDirectAligned(Catalog.MAX_RECORD_LENGTH, FRAME_ALIGNMENT));
 
     private long positionLong;
 
@@ -143,7 +146,17 @@ public class RecordingSessionTest
     public void shouldRecordFragmentsFromImage() throws Exception
     {
         final RecordingSession session = new RecordingSession(
-            RECORDING_ID, descriptorBuffer, recordingEventsProxy, CHANNEL, image, position, ARCHIVE_CHANNEL, context);
+            RECORDING_ID,
+            descriptorBuffer,
+            recordingEventsProxy,
+            CHANNEL,
+            image,
+            position,
+            ARCHIVE_CHANNEL,
+            null,
+            null,
+            context,
+            NULL_POSITION);
 
         assertEquals(RECORDING_ID, session.sessionId());
 
@@ -203,6 +216,134 @@ public class RecordingSessionTest
         session.close();
     }
 
+    @Test
+    public void shouldSampleProgressByThresholdIntoBatch()
+    {
+        context.recordingProgressThreshold(2 * RECORDED_BLOCK_LENGTH);
+        final RecordingProgressBatcher progressBatcher = mock(RecordingProgressBatcher.class);
+
+        final RecordingSession session = new RecordingSession(
+            RECORDING_ID,
+            descriptorBuffer,
+            recordingEventsProxy,
+            CHANNEL,
+            image,
+            position,
+            ARCHIVE_CHANNEL,
+            null,
+            null,
+            context,
+            NULL_POSITION);
+        session.setThreadLocalProgressBatcher(progressBatcher);
+
+        session.doWork();
+
+        final MutableInteger blockCount = new MutableInteger();
+        when(image.rawPoll(any(), anyInt())).thenAnswer(
+            (invocation) ->
+            {
+                final RawBlockHandler handle = invocation.getArgument(0);
+                final int termOffset = TERM_OFFSET + blockCount.value++ * RECORDED_BLOCK_LENGTH;
+
+                handle.onBlock(
+                    mockLogBufferChannel,
+                    termOffset,
+                    mockLogBufferMapped,
+                    termOffset,
+                    RECORDED_BLOCK_LENGTH,
+                    SESSION_ID,
+                    0);
+
+                return RECORDED_BLOCK_LENGTH;
+            });
+
+        session.doWork();
+        verifyZeroInteractions(progressBatcher);
+
+        session.doWork();
+        verify(progressBatcher).progress(RECORDING_ID, START_POSITION, START_POSITION + 2 * RECORDED_BLOCK_LENGTH);
+
+        session.doWork();
+        session.doWork();
+        verify(progressBatcher).progress(RECORDING_ID, START_POSITION, START_POSITION + 4 * RECORDED_BLOCK_LENGTH);
+        verifyNoMoreInteractions(progressBatcher);
+        verify(recordingEventsProxy, never()).progress(anyLong(), anyLong(), anyLong());
+
+        when(image.isClosed()).thenReturn(true);
+        session.doWork();
+        assertTrue(session.isDone());
+        session.close();
+    }
+
+    @Test
+    public void shouldRewriteFrameHeadersWhenResumingFromReplayedImage() throws Exception
+    {
+        final int replaySessionId = SESSION_ID + 1;
+        final int replayStreamId = STREAM_ID + 1;
+        final Image replayImage = mockImage(
+            replaySessionId,
+            INITIAL_TERM_ID,
+            SOURCE_IDENTITY,
+            TERM_BUFFER_LENGTH,
+            mockSubscription(CHANNEL, replayStreamId));
+
+        mockLogBufferMapped.putInt(TERM_OFFSET + DataHeaderFlyweight.SESSION_ID_FIELD_OFFSET, replaySessionId);
+        mockLogBufferMapped.putInt(TERM_OFFSET + DataHeaderFlyweight.STREAM_ID_FIELD_OFFSET, replayStreamId);
+
+        final RecordingSession session = new RecordingSession(
+            RECORDING_ID,
+            descriptorBuffer,
+            recordingEventsProxy,
+            CHANNEL,
+            replayImage,
+            position,
+            ARCHIVE_CHANNEL,
+            null,
+            null,
+            context,
+            START_POSITION);
+
+        session.doWork();
+        assertEquals(START_POSITION, positionLong);
+
+        when(replayImage.blockPoll(any(), anyInt())).thenAnswer(
+            (invocation) ->
+            {
+                final BlockHandler handler = invocation.getArgument(0);
+                handler.onBlock(mockLogBufferMapped, TERM_OFFSET, RECORDED_BLOCK_LENGTH, replaySessionId, 0);
+
+                return RECORDED_BLOCK_LENGTH;
+            });
+
+        assertNotEquals("Expect some work", 0, session.doWork());
+        verify(replayImage, never()).rawPoll(any(), anyInt());
+
+        new RecordingDescriptorEncoder()
+            .wrap(descriptorBuffer, Catalog.DESCRIPTOR_HEADER_LENGTH)
+            .stopPosition(START_POSITION + RECORDED_BLOCK_LENGTH);
+
+        try (RecordingFragmentReader reader = newRecordingFragmentReader(descriptorBuffer, tempDirForTest))
+        {
+            final int polled = reader.controlledPoll(
+                (buffer, offset, length) ->
+                {
+                    final int frameOffset = offset - DataHeaderFlyweight.HEADER_LENGTH;
+                    assertEquals(TERM_OFFSET, frameOffset);
+                    assertEquals(SESSION_ID, buffer.getInt(frameOffset + DataHeaderFlyweight.SESSION_ID_FIELD_OFFSET));
+                    assertEquals(STREAM_ID, buffer.getInt(frameOffset + DataHeaderFlyweight.STREAM_ID_FIELD_OFFSET));
+                    return true;
+                },
+                1);
+
+            assertEquals(1, polled);
+        }
+
+        when(replayImage.isClosed()).thenReturn(true);
+        session.doWork();
+        assertTrue(session.isDone());
+        session.close();
+    }
+
     private Subscription mockSubscription(final String channel, final int streamId)
     {
         final Subscription subscription = mock(Subscription.class);
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.EpochClock;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static io.aeron.archive.Catalog.NULL_POSITION;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RecordingTimeIndexTest
+{
+    private static final long RECORDING_ID = 7;
+    private static final int INDEX_INTERVAL = 1024;
+
+    private final File archiveDir = TestUtil.makeTempDir();
+    private final EpochClock epochClock = mock(EpochClock.class);
+    private final ByteBuffer entryBuffer = ByteBuffer.allocateDirect(RecordingTimeIndex.ENTRY_LENGTH);
+
+    @After
+    public void after()
+    {
+        IoUtil.delete(archiveDir, false);
+    }
+
+    @Test
+    public void shouldFindNoPositionWithoutIndex() throws IOException
+    {
+        assertThat(findPosition(100), is(NULL_POSITION));
+    }
+
+    @Test
+    public void shouldAddEntriesEveryIntervalAndFindLatestAtOrBeforeTimestamp() throws IOException
+    {
+        try (RecordingTimeIndex index = new RecordingTimeIndex(archiveDir, RECORDING_ID, INDEX_INTERVAL, epochClock))
+        {
+            onBlock(index, 100, 0);
+            onBlock(index, 110, 512);
+            onBlock(index, 120, 1024);
+            onBlock(index, 130, 1536);
+            onBlock(index, 140, 2048);
+        }
+
+        assertThat(findPosition(99), is(NULL_POSITION));
+        assertThat(findPosition(100), is(0L));
+        assertThat(findPosition(119), is(0L));
+        assertThat(findPosition(120), is(1024L));
+        assertThat(findPosition(139), is(1024L));
+        assertThat(findPosition(1000), is(2048L));
+    }
+
+    @Test
+    public void shouldKeepTimestampsNonDecreasingAndContinueAfterReopen() throws IOException
+    {
+        try (RecordingTimeIndex index = new RecordingTimeIndex(archiveDir, RECORDING_ID, INDEX_INTERVAL, epochClock))
+        {
+            onBlock(index, 100, 0);
+            onBlock(index, 50, 1024);
+        }
+
+        try (RecordingTimeIndex index = new RecordingTimeIndex(archiveDir, RECORDING_ID, INDEX_INTERVAL, epochClock))
+        {
+            onBlock(index, 200, 1536);
+            onBlock(index, 210, 2048);
+        }
+
+        assertThat(findPosition(100), is(1024L));
+        assertThat(findPosition(205), is(1024L));
+        assertThat(findPosition(210), is(2048L));
+    }
+
+    private void onBlock(final RecordingTimeIndex index, final long timestamp, final long position)
+        throws IOException
+    {
+        when(epochClock.time()).thenReturn(timestamp);
+        index.onBlock(position);
+    }
+
+    private long findPosition(final long timestamp) throws IOException
+    {
+        return RecordingTimeIndex.findPosition(archiveDir, RECORDING_ID, timestamp, entryBuffer);
+    }
+}
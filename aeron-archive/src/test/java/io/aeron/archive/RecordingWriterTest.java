@@ -1,9 +1,11 @@
 package io.aeron.archive;
 
-import io.aeron.archive.codecs.RecordingDescriptorDecoder;
 import io.aeron.archive.codecs.RecordingDescriptorEncoder;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
 import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.After;
@@ -14,11 +16,15 @@ import org.mockito.Mockito;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
 
-import static io.aeron.archive.Catalog.wrapDescriptorDecoder;
 import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
 import static org.agrona.BufferUtil.allocateDirectAligned;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 public class RecordingWriterTest
@@ -76,28 +82,7 @@ public class RecordingWriterTest
     {
         when(epochClock.time()).thenReturn(42L);
 
-        final UnsafeBuffer descriptorBuffer =
-            new UnsafeBuffer(allocateDirectAligned(Catalog.DEFAULT_RECORD_LENGTH, FRAME_ALIGNMENT));
-        final RecordingDescriptorEncoder descriptorEncoder = new RecordingDescriptorEncoder().wrap(
-            descriptorBuffer,
-            Catalog.DESCRIPTOR_HEADER_LENGTH);
-        final RecordingDescriptorDecoder descriptorDecoder = new RecordingDescriptorDecoder();
-        wrapDescriptorDecoder(descriptorDecoder, descriptorBuffer);
-
-        Catalog.initDescriptor(
-            descriptorEncoder,
-            RECORDING_ID,
-            START_TIMESTAMP,
-            START_POSITION,
-            INITIAL_TERM_ID,
-            ctx.segmentFileLength(),
-            TERM_BUFFER_LENGTH,
-            MTU_LENGTH,
-            SESSION_ID,
-            STREAM_ID,
-            CHANNEL,
-            CHANNEL,
-            SOURCE);
+        final UnsafeBuffer descriptorBuffer = newDescriptorBuffer();
 
         try (RecordingWriter writer = Mockito.spy(
             new RecordingWriter(ctx, mockArchiveDirFileChannel, descriptorBuffer, position)))
@@ -118,4 +103,150 @@ public class RecordingWriterTest
             inOrder.verify(writer).forceData(any(FileChannel.class), eq(SYNC_LEVEL == 2));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldDeferSyncAndPositionUntilGroupCommit() throws IOException
+    {
+        final NanoClock nanoClock = mock(NanoClock.class);
+        final RecordingGroupSyncer groupSyncer = new RecordingGroupSyncer(
+            TimeUnit.MILLISECONDS.toNanos(10), 1024, nanoClock, mock(ErrorHandler.class));
+        final UnsafeBuffer descriptorBuffer = newDescriptorBuffer();
+
+        try (RecordingWriter writer = Mockito.spy(
+            new RecordingWriter(ctx, mockArchiveDirFileChannel, descriptorBuffer, position, groupSyncer, null)))
+        {
+            when(mockDataFileChannel.transferTo(anyLong(), eq(256L), any(FileChannel.class))).thenReturn(256L);
+
+            writer.onBlock(
+                mockDataFileChannel, 0, mockTermBuffer, START_POSITION, 256, SESSION_ID, INITIAL_TERM_ID);
+            writer.onBlock(
+                mockDataFileChannel, 256, mockTermBuffer, START_POSITION + 256, 256, SESSION_ID, INITIAL_TERM_ID);
+
+            assertThat(groupSyncer.doWork(), is(0));
+            assertThat(positionLong, is((long)START_POSITION));
+            verify(writer, times(1)).forceData(any(FileChannel.class), anyBoolean());
+
+            when(nanoClock.nanoTime()).thenReturn(TimeUnit.MILLISECONDS.toNanos(10));
+
+            assertThat(groupSyncer.doWork(), is(1));
+            assertThat(positionLong, is((long)START_POSITION + 512));
+            verify(writer, times(2)).forceData(any(FileChannel.class), anyBoolean());
+        }
+    }
+
+    @Test
+    public void shouldUsePreAllocatedSegmentFileFromPool() throws IOException
+    {
+        final int segmentFileLength = ctx.segmentFileLength();
+        final long fileLength = segmentFileLength + DataHeaderFlyweight.HEADER_LENGTH;
+        final UnsafeBuffer descriptorBuffer = newDescriptorBuffer();
+
+        try (SegmentFilePool pool = new SegmentFilePool(archiveDir, 1, segmentFileLength, fileLength);
+            RecordingWriter writer = new RecordingWriter(
+                ctx, mockArchiveDirFileChannel, descriptorBuffer, position, null, pool))
+        {
+            while (pool.doWork() > 0)
+            {
+                Thread.yield();
+            }
+
+            final File spareFile = new File(archiveDir, SegmentFilePool.SPARE_SEGMENT_PREFIX + 0 +
+                SegmentFilePool.SPARE_SEGMENT_POSTFIX);
+            assertTrue(spareFile.exists());
+            assertThat(spareFile.length(), is(fileLength));
+
+            when(mockDataFileChannel.transferTo(anyLong(), eq(256L), any(FileChannel.class))).thenReturn(256L);
+            writer.onBlock(
+                mockDataFileChannel, 0, mockTermBuffer, START_POSITION, 256, SESSION_ID, INITIAL_TERM_ID);
+
+            final File segmentFile = new File(archiveDir, Archive.segmentFileName(RECORDING_ID, 0));
+            assertFalse(spareFile.exists());
+            assertThat(segmentFile.length(), is(fileLength));
+            assertNull(pool.poll());
+        }
+    }
+
+    @Test
+    public void shouldAdvancePositionWhenAsyncWritesComplete() throws IOException
+    {
+        final ArrayDeque<Runnable> submittedWrites = new ArrayDeque<>();
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(allocateDirectAligned(TERM_BUFFER_LENGTH, FRAME_ALIGNMENT));
+        termBuffer.setMemory(START_POSITION, 256, (byte)7);
+        ctx.asyncRecordingWriteBufferLength(AsyncRecordingWriter.WRITE_SLOT_LENGTH * 2);
+
+        try (RecordingWriter writer = new AsyncRecordingWriter(
+            ctx, mockArchiveDirFileChannel, newDescriptorBuffer(), position, null, submittedWrites::add))
+        {
+            writer.onBlock(
+                mockDataFileChannel, 0, termBuffer, START_POSITION, 256, SESSION_ID, INITIAL_TERM_ID);
+
+            assertThat(submittedWrites.size(), is(1));
+            assertThat(writer.pollWriteCompletions(), is(0));
+            assertThat(positionLong, is((long)START_POSITION));
+
+            submittedWrites.poll().run();
+
+            assertThat(writer.pollWriteCompletions(), is(1));
+            assertThat(positionLong, is((long)START_POSITION + 256));
+        }
+
+        final File segmentFile = new File(archiveDir, Archive.segmentFileName(RECORDING_ID, 0));
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "r"))
+        {
+            file.seek(START_POSITION + 255);
+            assertThat(file.readByte(), is((byte)7));
+        }
+    }
+
+    @Test
+    public void shouldLimitWriteCapacityToFreeAsyncWriteSlots()
+    {
+        final ArrayDeque<Runnable> submittedWrites = new ArrayDeque<>();
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(allocateDirectAligned(TERM_BUFFER_LENGTH, FRAME_ALIGNMENT));
+        ctx.asyncRecordingWriteBufferLength(AsyncRecordingWriter.WRITE_SLOT_LENGTH * 2);
+
+        try (RecordingWriter writer = new AsyncRecordingWriter(
+            ctx, mockArchiveDirFileChannel, newDescriptorBuffer(), position, null, submittedWrites::add))
+        {
+            assertThat(writer.writeCapacity(), is(AsyncRecordingWriter.WRITE_SLOT_LENGTH * 2));
+
+            writer.onBlock(
+                mockDataFileChannel, 0, termBuffer, START_POSITION, 256, SESSION_ID, INITIAL_TERM_ID);
+            writer.onBlock(
+                mockDataFileChannel, 0, termBuffer, START_POSITION + 256, 256, SESSION_ID, INITIAL_TERM_ID);
+
+            assertThat(writer.writeCapacity(), is(0));
+
+            submittedWrites.poll().run();
+            assertThat(writer.pollWriteCompletions(), is(1));
+            assertThat(writer.writeCapacity(), is(AsyncRecordingWriter.WRITE_SLOT_LENGTH));
+
+            submittedWrites.poll().run();
+        }
+    }
+
+    private UnsafeBuffer newDescriptorBuffer()
+    {
+        final UnsafeBuffer descriptorBuffer =
+            new UnsafeBuffer(allocateDirectAligned(Catalog.MAX_RECORD_LENGTH, FRAME_ALIGNMENT));
+        final RecordingDescriptorEncoder descriptorEncoder = new RecordingDescriptorEncoder().wrap(
+            descriptorBuffer,
+            Catalog.DESCRIPTOR_HEADER_LENGTH);
+        Catalog.initDescriptor(
+            descriptorEncoder,
+            RECORDING_ID,
+            START_TIMESTAMP,
+            START_POSITION,
+            INITIAL_TERM_ID,
+            ctx.segmentFileLength(),
+            TERM_BUFFER_LENGTH,
+            MTU_LENGTH,
+            SESSION_ID,
+            STREAM_ID,
+            CHANNEL,
+            CHANNEL,
+            SOURCE);
+
+        return descriptorBuffer;
+    }
+}
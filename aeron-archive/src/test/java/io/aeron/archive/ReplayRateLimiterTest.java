@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.concurrent.NanoClock;
+import org.junit.Test;
+
+import static io.aeron.archive.ReplayRateLimiter.BURST_NS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReplayRateLimiterTest
+{
+    private static final long BURST_BYTES = 64 * 1024;
+    private static final long BYTES_PER_SECOND = BURST_BYTES * SECONDS.toNanos(1) / BURST_NS;
+
+    private final NanoClock nanoClock = mock(NanoClock.class);
+    private final ReplayRateLimiter rateLimiter = new ReplayRateLimiter(BYTES_PER_SECOND, nanoClock);
+
+    @Test
+    public void shouldRefillAtRateUpToBurst()
+    {
+        assertThat(rateLimiter.availableBytes(), is(BURST_BYTES));
+
+        rateLimiter.consume(BURST_BYTES + 1024);
+        assertThat(rateLimiter.availableBytes(), is(-1024L));
+
+        when(nanoClock.nanoTime()).thenReturn(BURST_NS / 2);
+        assertThat(rateLimiter.availableBytes(), is(BURST_BYTES / 2 - 1024));
+
+        when(nanoClock.nanoTime()).thenReturn(SECONDS.toNanos(10));
+        assertThat(rateLimiter.availableBytes(), is(BURST_BYTES));
+    }
+
+    @Test
+    public void shouldShareAvailableBytesBetweenSessionsEachDutyCycle()
+    {
+        rateLimiter.onDutyCycle(4);
+        assertThat(rateLimiter.shareBytes(), is(BURST_BYTES / 4));
+
+        rateLimiter.consume(BURST_BYTES - 1024);
+        assertThat(rateLimiter.shareBytes(), is(1024L));
+
+        rateLimiter.consume(2048);
+        assertThat(rateLimiter.shareBytes(), is(-1024L));
+
+        rateLimiter.onDutyCycle(4);
+        assertThat(rateLimiter.shareBytes(), is(-1024L));
+
+        when(nanoClock.nanoTime()).thenReturn(BURST_NS);
+        rateLimiter.onDutyCycle(0);
+        assertThat(rateLimiter.shareBytes(), is(BURST_BYTES - 1024));
+    }
+}
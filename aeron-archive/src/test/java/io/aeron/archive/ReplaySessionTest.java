@@ -16,6 +16,7 @@
 package io.aeron.archive;
 
 import io.aeron.ExclusivePublication;
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
 import io.aeron.archive.codecs.RecordingDescriptorEncoder;
 import io.aeron.logbuffer.ExclusiveBufferClaim;
 import io.aeron.logbuffer.FrameDescriptor;
@@ -23,6 +24,7 @@ import io.aeron.logbuffer.Header;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.IoUtil;
 import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.After;
@@ -31,15 +33,19 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 
+import static io.aeron.archive.TestUtil.await;
 import static io.aeron.archive.TestUtil.makeTempDir;
 import static io.aeron.archive.TestUtil.newRecordingFragmentReader;
 import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
 import static io.aeron.protocol.HeaderFlyweight.HDR_TYPE_DATA;
 import static io.aeron.protocol.HeaderFlyweight.HDR_TYPE_PAD;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.agrona.BufferUtil.allocateDirectAligned;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
@@ -56,6 +62,7 @@ public class ReplaySessionTest
     private static final int MTU_LENGTH = 4096;
     private static final long TIME = 0;
     private static final int REPLAY_SESSION_ID = 0;
+    private static final int REPLAY_PUBLICATION_SESSION_ID = 7;
     private static final int FRAME_LENGTH = 1024;
     private static final int SESSION_ID = 1;
     private static final int STREAM_ID = 1;
@@ -67,9 +74,13 @@ public class ReplaySessionTest
         mock(ArchiveConductor.ReplayPublicationSupplier.class);
     private final AtomicCounter position = mock(AtomicCounter.class);
     private final UnsafeBuffer descriptorBuffer =
-        new UnsafeBuffer(allocateDirectAligned(Catalog.DEFAULT_RECORD_LENGTH, FRAME_ALIGNMENT));
+        new UnsafeBuffer(allocateDirectAligned(Catalog.MAX_RECORD_LENGTH, FRAME_ALIGNMENT));
 
     private int messageCounter = 0;
+    private int replayBlockLength = 0;
+    private SegmentReadAhead readAhead = null;
+    private ReplayRateLimiter rateLimiter = null;
+    private AtomicCounter replayRate = null;
 
     private File archiveDir = makeTempDir();
     private ControlResponseProxy proxy = mock(ControlResponseProxy.class);
@@ -80,6 +91,7 @@ public class ReplaySessionTest
     @Before
     public void before() throws Exception
     {
+        when(mockReplayPub.sessionId()).thenReturn(REPLAY_PUBLICATION_SESSION_ID);
         when(position.getWeak()).then((invocation) -> positionLong);
         when(position.get()).then((invocation) -> positionLong);
 
@@ -144,6 +156,62 @@ public class ReplaySessionTest
         IoUtil.delete(archiveDir, false);
     }
 
+    @Test
+    public void shouldReadSegmentTransparentlyOnceCompressed() throws IOException
+    {
+        final File coldDir = new File(archiveDir, "cold");
+        assertTrue(coldDir.mkdir());
+
+        try (CompressedSegmentStore segmentStore =
+            new CompressedSegmentStore(archiveDir, coldDir, new DeflateSegmentCodec(), 1, Thread::new))
+        {
+            assertTrue(segmentStore.compress(RECORDING_ID, 0));
+            assertFalse(segmentStore.segmentFile(RECORDING_ID, 0).exists());
+            assertTrue(segmentStore.compressedSegmentFile(RECORDING_ID, 0).exists());
+
+            final RecordingDescriptorDecoder descriptorDecoder = new RecordingDescriptorDecoder();
+            Catalog.wrapDescriptorDecoder(descriptorDecoder, descriptorBuffer);
+
+            try (RecordingFragmentReader reader = new RecordingFragmentReader(
+                descriptorDecoder,
+                archiveDir,
+                RecordingFragmentReader.NULL_POSITION,
+                RecordingFragmentReader.NULL_LENGTH,
+                null,
+                segmentStore))
+            {
+                final SimplifiedControlledFragmentHandler handler =
+                    (buffer, offset, length) ->
+                    {
+                        final int frameOffset = offset - DataHeaderFlyweight.HEADER_LENGTH;
+                        assertEquals(frameOffset, INITIAL_TERM_OFFSET + messageCounter * FRAME_LENGTH);
+                        assertEquals(length, FRAME_LENGTH - HEADER_LENGTH);
+                        assertEquals(buffer.getByte(offset), (byte)messageCounter);
+                        messageCounter++;
+
+                        return true;
+                    };
+
+                await(
+                    () ->
+                    {
+                        try
+                        {
+                            return reader.controlledPoll(handler, Integer.MAX_VALUE) > 0;
+                        }
+                        catch (final IOException ex)
+                        {
+                            throw new IllegalStateException(ex);
+                        }
+                    });
+
+                assertEquals(4, messageCounter);
+                assertFalse(reader.isSegmentLoadPending());
+                assertTrue(reader.isDone());
+            }
+        }
+    }
+
     @Test
     public void verifyRecordingFile() throws IOException
     {
@@ -236,7 +304,7 @@ public class ReplaySessionTest
         replaySession.doWork();
         assertEquals(replaySession.state(), ReplaySession.State.REPLAY);
 
-        verify(mockControlSession, times(1)).sendOkResponse(correlationId, proxy);
+        verify(mockControlSession, times(1)).sendOkResponse(correlationId, REPLAY_PUBLICATION_SESSION_ID, proxy);
         verify(mockReplyPubSupplier).newReplayPublication(
             REPLAY_CHANNEL,
             REPLAY_STREAM_ID,
@@ -272,7 +340,7 @@ public class ReplaySessionTest
             epochClock,
             REPLAY_CHANNEL,
             REPLAY_STREAM_ID,
-            descriptorBuffer, position);
+            descriptorBuffer, position, 0, null, null, null, null);
     }
 
     @Test
@@ -301,7 +369,7 @@ public class ReplaySessionTest
         replaySession.doWork();
         assertEquals(replaySession.state(), ReplaySession.State.REPLAY);
 
-        verify(mockControlSession, times(1)).sendOkResponse(correlationId, proxy);
+        verify(mockControlSession, times(1)).sendOkResponse(correlationId, REPLAY_PUBLICATION_SESSION_ID, proxy);
         verify(mockReplyPubSupplier).newReplayPublication(
             REPLAY_CHANNEL,
             REPLAY_STREAM_ID,
@@ -325,6 +393,125 @@ public class ReplaySessionTest
         replaySession.close();
     }
 
+    @Test
+    public void shouldReplayBlocksOfFramesFromFile()
+    {
+        final long length = 4 * FRAME_LENGTH;
+        final long correlationId = 1L;
+        replayBlockLength = 2 * FRAME_LENGTH;
+
+        final ReplaySession replaySession = replaySession(
+            RECORDING_POSITION,
+            length,
+            correlationId,
+            mockReplayPub,
+            mockControlSession,
+            mockReplyPubSupplier);
+
+        when(mockReplayPub.isClosed()).thenReturn(false);
+        when(mockReplayPub.isConnected()).thenReturn(true);
+        when(mockReplayPub.offerBlock(any(UnsafeBuffer.class), anyInt(), anyInt())).then(
+            (invocation) ->
+            {
+                final UnsafeBuffer buffer = invocation.getArgument(0);
+                final int offset = invocation.getArgument(1);
+                assertThat(buffer.getInt(offset + DataHeaderFlyweight.TERM_OFFSET_FIELD_OFFSET), is(offset));
+
+                return (long)offset + (int)invocation.getArgument(2);
+            });
+
+        replaySession.doWork();
+        assertEquals(replaySession.state(), ReplaySession.State.REPLAY);
+
+        assertThat(replaySession.doWork(), is(2));
+        assertThat(replaySession.doWork(), is(2));
+
+        verify(mockReplayPub).offerBlock(any(UnsafeBuffer.class), eq(INITIAL_TERM_OFFSET), eq(2 * FRAME_LENGTH));
+        verify(mockReplayPub).offerBlock(
+            any(UnsafeBuffer.class), eq(INITIAL_TERM_OFFSET + 2 * FRAME_LENGTH), eq(2 * FRAME_LENGTH));
+        verify(mockReplayPub, never()).tryClaim(anyInt(), any(ExclusiveBufferClaim.class));
+        assertTrue(replaySession.isDone());
+        replaySession.close();
+    }
+
+    @Test
+    public void shouldNotDeferReplayOfFirstTermOrResidentTermsForReadAhead()
+    {
+        final long length = 4 * FRAME_LENGTH;
+        final long correlationId = 1L;
+        final ArrayList<Runnable> readAheadTasks = new ArrayList<>();
+        readAhead = new SegmentReadAhead(readAheadTasks::add);
+
+        final ReplaySession replaySession = replaySession(
+            RECORDING_POSITION,
+            length,
+            correlationId,
+            mockReplayPub,
+            mockControlSession,
+            mockReplyPubSupplier);
+
+        when(mockReplayPub.isClosed()).thenReturn(false);
+        when(mockReplayPub.isConnected()).thenReturn(true);
+
+        replaySession.doWork();
+        assertEquals(replaySession.state(), ReplaySession.State.REPLAY);
+
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(allocateDirectAligned(4096, 64));
+        mockPublication(mockReplayPub, termBuffer);
+
+        assertNotEquals(0, replaySession.doWork());
+        assertThat(messageCounter, is(4));
+        assertThat(readAheadTasks.size(), lessThanOrEqualTo(1));
+        assertTrue(replaySession.isDone());
+        replaySession.close();
+        readAheadTasks.forEach(Runnable::run);
+    }
+
+    @Test
+    public void shouldLimitReplayRateAndCountRateAchieved()
+    {
+        final long length = 4 * FRAME_LENGTH;
+        final long correlationId = 1L;
+        final NanoClock nanoClock = mock(NanoClock.class);
+        final long bytesPerSecond = 2 * FRAME_LENGTH * SECONDS.toNanos(1) / ReplayRateLimiter.BURST_NS;
+        rateLimiter = new ReplayRateLimiter(bytesPerSecond, nanoClock);
+        replayRate = mock(AtomicCounter.class);
+
+        final ReplaySession replaySession = replaySession(
+            RECORDING_POSITION,
+            length,
+            correlationId,
+            mockReplayPub,
+            mockControlSession,
+            mockReplyPubSupplier);
+
+        when(mockReplayPub.isClosed()).thenReturn(false);
+        when(mockReplayPub.isConnected()).thenReturn(true);
+
+        replaySession.doWork();
+        assertEquals(replaySession.state(), ReplaySession.State.REPLAY);
+
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(allocateDirectAligned(4096, 64));
+        mockPublication(mockReplayPub, termBuffer);
+
+        assertNotEquals(0, replaySession.doWork());
+        assertThat(messageCounter, is(2));
+
+        assertThat(replaySession.doWork(), is(0));
+        assertThat(messageCounter, is(2));
+
+        when(nanoClock.nanoTime()).thenReturn(ReplayRateLimiter.BURST_NS);
+        when(epochClock.time()).thenReturn(TIME + 1000);
+
+        assertNotEquals(0, replaySession.doWork());
+        assertThat(messageCounter, is(4));
+        assertTrue(replaySession.isDone());
+        verify(replayRate).setOrdered(4 * FRAME_LENGTH);
+
+        replaySession.close();
+        verify(replayRate).close();
+    }
+
     @Test
     public void shouldAbortReplay()
     {
@@ -344,7 +531,7 @@ public class ReplaySessionTest
 
         replaySession.doWork();
 
-        verify(mockControlSession, times(1)).sendOkResponse(correlationId, proxy);
+        verify(mockControlSession, times(1)).sendOkResponse(correlationId, REPLAY_PUBLICATION_SESSION_ID, proxy);
         assertEquals(replaySession.state(), ReplaySession.State.REPLAY);
 
         replaySession.abort();
@@ -439,7 +626,7 @@ public class ReplaySessionTest
             replaySession.doWork();
             assertEquals(replaySession.state(), ReplaySession.State.REPLAY);
 
-            verify(mockControlSession, times(1)).sendOkResponse(correlationId, proxy);
+            verify(mockControlSession, times(1)).sendOkResponse(correlationId, REPLAY_PUBLICATION_SESSION_ID, proxy);
             verify(mockReplyPubSupplier).newReplayPublication(
                 REPLAY_CHANNEL,
                 REPLAY_STREAM_ID,
@@ -555,7 +742,12 @@ public class ReplaySessionTest
             REPLAY_CHANNEL,
             REPLAY_STREAM_ID,
             descriptorBuffer,
-            position);
+            position,
+            replayBlockLength,
+            null,
+            readAhead,
+            rateLimiter,
+            replayRate);
     }
 
     private void validateFrame(final UnsafeBuffer buffer, final int message, final byte flags)
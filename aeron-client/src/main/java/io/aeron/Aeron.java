@@ -33,6 +33,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import static org.agrona.IoUtil.mapExistingFile;
 
@@ -396,6 +397,7 @@ public final class Aeron implements AutoCloseable
         private long interServiceTimeout = 0;
         private long publicationConnectionTimeout = PUBLICATION_CONNECTION_TIMEOUT_MS;
         private ThreadFactory threadFactory = Thread::new;
+        private Supplier<MessageCodec> messageCodecSupplier;
 
         /**
          * This is called automatically by {@link Aeron#connect(Aeron.Context)} and its overloads.
@@ -789,6 +791,32 @@ public final class Aeron implements AutoCloseable
             return unavailableImageHandler;
         }
 
+        /**
+         * Set the supplier of {@link MessageCodec}s used to compress messages on {@link ExclusivePublication}s with
+         * the {@link CommonContext#COMPRESSION_PARAM_NAME} channel param and to decompress them for {@link Image}s.
+         * A new codec is supplied for each publication and image. Compression is opt-in so the default is null,
+         * for which images deliver messages as is and compressed publications are rejected, e.g.
+         * {@code ctx.messageCodecSupplier(LzMessageCodec::new)}.
+         *
+         * @param supplier of {@link MessageCodec}s for publications and images.
+         * @return this Aeron.Context for method chaining.
+         */
+        public Context messageCodecSupplier(final Supplier<MessageCodec> supplier)
+        {
+            this.messageCodecSupplier = supplier;
+            return this;
+        }
+
+        /**
+         * Get the supplier of {@link MessageCodec}s used for compressed publications and images.
+         *
+         * @return the supplier of {@link MessageCodec}s used for compressed publications and images.
+         */
+        public Supplier<MessageCodec> messageCodecSupplier()
+        {
+            return messageCodecSupplier;
+        }
+
         /**
          * Set the interval in nanoseconds for which the client will perform keep-alive operations.
          *
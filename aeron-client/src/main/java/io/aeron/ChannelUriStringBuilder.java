@@ -46,6 +46,8 @@ public class ChannelUriStringBuilder
     private Integer initialTermId;
     private Integer termId;
     private Integer termOffset;
+    private Long coalesceTimeoutNs;
+    private Boolean compression;
 
     /**
      * Clear out all the values thus setting back to the initial state.
@@ -62,6 +64,8 @@ public class ChannelUriStringBuilder
         controlMode = null;
         reliable = null;
         ttl  = null;
+        coalesceTimeoutNs = null;
+        compression = null;
         mtu = null;
         termLength = null;
         initialTermId = null;
@@ -308,6 +312,56 @@ public class ChannelUriStringBuilder
         return ttl;
     }
 
+    /**
+     * Set the time in nanoseconds a network publication can hold back a partially filled datagram waiting for more
+     * messages to fill it. Zero disables coalescing.
+     *
+     * @param coalesceTimeoutNs for holding back a partially filled datagram.
+     * @return this for a fluent API.
+     */
+    public ChannelUriStringBuilder coalesceTimeoutNs(final Long coalesceTimeoutNs)
+    {
+        if (null != coalesceTimeoutNs && coalesceTimeoutNs < 0)
+        {
+            throw new IllegalArgumentException("Coalesce timeout must not be negative: " + coalesceTimeoutNs);
+        }
+
+        this.coalesceTimeoutNs = coalesceTimeoutNs;
+        return this;
+    }
+
+    /**
+     * Get the time in nanoseconds a network publication can hold back a partially filled datagram.
+     *
+     * @return the time in nanoseconds a network publication can hold back a partially filled datagram.
+     */
+    public Long coalesceTimeoutNs()
+    {
+        return coalesceTimeoutNs;
+    }
+
+    /**
+     * Set if messages on an {@link ExclusivePublication} should be compressed with the client {@link MessageCodec}.
+     *
+     * @param compression true if messages should be compressed.
+     * @return this for a fluent API.
+     */
+    public ChannelUriStringBuilder compression(final Boolean compression)
+    {
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * Get if messages on an {@link ExclusivePublication} should be compressed with the client {@link MessageCodec}.
+     *
+     * @return true if messages should be compressed.
+     */
+    public Boolean compression()
+    {
+        return compression;
+    }
+
     /**
      * Set the maximum transmission unit (MTU) including Aeron header for a datagram payload.
      *
@@ -522,6 +576,16 @@ public class ChannelUriStringBuilder
             sb.append(TERM_OFFSET_PARAM_NAME).append('=').append(termOffset.intValue()).append('|');
         }
 
+        if (null != coalesceTimeoutNs)
+        {
+            sb.append(COALESCE_TIMEOUT_PARAM_NAME).append('=').append(coalesceTimeoutNs.longValue()).append('|');
+        }
+
+        if (null != compression)
+        {
+            sb.append(COMPRESSION_PARAM_NAME).append('=').append(compression).append('|');
+        }
+
         final char lastChar = sb.charAt(sb.length() - 1);
         if (lastChar == '|' || lastChar == '?')
         {
@@ -22,14 +22,17 @@ import org.agrona.ErrorHandler;
 import org.agrona.ManagedResource;
 import org.agrona.collections.ArrayListUtil;
 import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.*;
 import org.agrona.concurrent.status.UnsafeBufferPosition;
 
 import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 
 import static io.aeron.Aeron.IDLE_SLEEP_NS;
+import static io.aeron.CommonContext.COMPRESSION_PARAM_NAME;
 import static io.aeron.Aeron.sleep;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
@@ -64,13 +67,16 @@ class ClientConductor implements Agent, DriverEventsListener
     private final Long2ObjectHashMap<Publication> publicationByRegIdMap = new Long2ObjectHashMap<>();
     private final Long2ObjectHashMap<ExclusivePublication> exclusivePublicationByRegIdMap = new Long2ObjectHashMap<>();
     private final Long2ObjectHashMap<Subscription> subscriptionByRegIdMap = new Long2ObjectHashMap<>();
+    private final LongHashSet publicationLogBuffersIdSet = new LongHashSet();
     private final ArrayList<ManagedResource> lingeringResources = new ArrayList<>();
+    private final ArrayList<Image> closedImagesAwaitingReaders = new ArrayList<>();
     private final UnavailableImageHandler defaultUnavailableImageHandler;
     private final AvailableImageHandler defaultAvailableImageHandler;
     private final UnsafeBuffer counterValuesBuffer;
     private final DriverProxy driverProxy;
     private final ErrorHandler errorHandler;
     private final AgentInvoker driverAgentInvoker;
+    private final Supplier<MessageCodec> messageCodecSupplier;
 
     ClientConductor(final Aeron.Context ctx)
     {
@@ -90,6 +96,7 @@ class ClientConductor implements Agent, DriverEventsListener
         defaultUnavailableImageHandler = ctx.unavailableImageHandler();
         driverEventsAdapter = new DriverEventsAdapter(ctx.toClientBuffer(), this);
         driverAgentInvoker = ctx.driverAgentInvoker();
+        messageCodecSupplier = ctx.messageCodecSupplier();
 
         final long nowNs = nanoClock.nanoTime();
         timeOfLastKeepAliveNs = nowNs;
@@ -106,11 +113,17 @@ class ClientConductor implements Agent, DriverEventsListener
             final int lingeringResourcesSize = lingeringResources.size();
             forceClosePublicationsAndSubscriptions();
 
-            if (lingeringResources.size() > lingeringResourcesSize)
+            if (lingeringResources.size() > lingeringResourcesSize || !closedImagesAwaitingReaders.isEmpty())
             {
                 sleep(1);
             }
 
+            for (int i = 0, size = closedImagesAwaitingReaders.size(); i < size; i++)
+            {
+                releaseImageLogBuffers(closedImagesAwaitingReaders.get(i));
+            }
+            closedImagesAwaitingReaders.clear();
+
             for (int i = 0, size = lingeringResources.size(); i < size; i++)
             {
                 lingeringResources.get(i).delete();
@@ -166,6 +179,12 @@ class ClientConductor implements Agent, DriverEventsListener
     {
         ensureOpen();
 
+        if (isCompressed(channel))
+        {
+            throw new IllegalArgumentException(
+                COMPRESSION_PARAM_NAME + " is only supported for exclusive publications: " + channel);
+        }
+
         stashedChannel = channel;
         final long registrationId = driverProxy.addPublication(channel, streamId);
         awaitResponse(registrationId);
@@ -177,6 +196,12 @@ class ClientConductor implements Agent, DriverEventsListener
     {
         ensureOpen();
 
+        if (null == messageCodecSupplier && isCompressed(channel))
+        {
+            throw new IllegalStateException(
+                COMPRESSION_PARAM_NAME + " requires a message codec supplier on the context: " + channel);
+        }
+
         stashedChannel = channel;
         final long registrationId = driverProxy.addExclusivePublication(channel, streamId);
         awaitResponse(registrationId);
@@ -289,7 +314,7 @@ class ClientConductor implements Agent, DriverEventsListener
             streamId,
             sessionId,
             new UnsafeBufferPosition(counterValuesBuffer, publicationLimitId),
-            logBuffers(registrationId, logFileName),
+            publicationLogBuffers(registrationId, logFileName),
             registrationId,
             correlationId);
 
@@ -310,9 +335,10 @@ class ClientConductor implements Agent, DriverEventsListener
             streamId,
             sessionId,
             new UnsafeBufferPosition(counterValuesBuffer, publicationLimitId),
-            logBuffers(registrationId, logFileName),
+            publicationLogBuffers(registrationId, logFileName),
             registrationId,
-            correlationId);
+            correlationId,
+            isCompressed(stashedChannel) ? newMessageCodec() : null);
 
         exclusivePublicationByRegIdMap.put(correlationId, publication);
     }
@@ -336,7 +362,8 @@ class ClientConductor implements Agent, DriverEventsListener
                 logBuffers(correlationId, logFileName),
                 errorHandler,
                 sourceIdentity,
-                correlationId);
+                correlationId,
+                newMessageCodec());
 
             try
             {
@@ -376,6 +403,10 @@ class ClientConductor implements Agent, DriverEventsListener
                     {
                         errorHandler.onError(ex);
                     }
+                    finally
+                    {
+                        releaseImage(image);
+                    }
                 }
             }
         }
@@ -384,7 +415,15 @@ class ClientConductor implements Agent, DriverEventsListener
     void releaseImage(final Image image)
     {
         image.close();
-        releaseLogBuffers(image.logBuffers(), image.correlationId());
+
+        if (image.isReaderQuiescent())
+        {
+            releaseImageLogBuffers(image);
+        }
+        else
+        {
+            closedImagesAwaitingReaders.add(image);
+        }
     }
 
     void releaseLogBuffers(final LogBuffers logBuffers, final long registrationId)
@@ -393,6 +432,7 @@ class ClientConductor implements Agent, DriverEventsListener
         {
             logBuffers.timeOfLastStateChange(nanoClock.nanoTime());
             logBuffersByIdMap.remove(registrationId);
+            publicationLogBuffersIdSet.remove(registrationId);
             lingeringResources.add(logBuffers);
         }
     }
@@ -415,6 +455,39 @@ class ClientConductor implements Agent, DriverEventsListener
         }
     }
 
+    private boolean isCompressed(final String channel)
+    {
+        return Boolean.parseBoolean(ChannelUri.parse(channel).get(COMPRESSION_PARAM_NAME));
+    }
+
+    private MessageCodec newMessageCodec()
+    {
+        return null != messageCodecSupplier ? messageCodecSupplier.get() : null;
+    }
+
+    private void releaseImageLogBuffers(final Image image)
+    {
+        final LogBuffers logBuffers = image.logBuffers();
+        final long registrationId = image.correlationId();
+
+        if (publicationLogBuffersIdSet.contains(registrationId))
+        {
+            releaseLogBuffers(logBuffers, registrationId);
+        }
+        else if (logBuffers.decRef() == 0)
+        {
+            logBuffersByIdMap.remove(registrationId);
+            logBuffers.delete();
+        }
+    }
+
+    private LogBuffers publicationLogBuffers(final long registrationId, final String logFileName)
+    {
+        publicationLogBuffersIdSet.add(registrationId);
+
+        return logBuffers(registrationId, logFileName);
+    }
+
     private LogBuffers logBuffers(final long registrationId, final String logFileName)
     {
         LogBuffers logBuffers = logBuffersByIdMap.get(registrationId);
@@ -500,6 +573,7 @@ class ClientConductor implements Agent, DriverEventsListener
             timeOfLastServiceNs = nowNs;
 
             workCount += checkLiveness(nowNs);
+            workCount += checkClosedImages();
             workCount += checkLingeringResources(nowNs);
         }
 
@@ -545,6 +619,26 @@ class ClientConductor implements Agent, DriverEventsListener
         return 0;
     }
 
+    private int checkClosedImages()
+    {
+        int workCount = 0;
+
+        final ArrayList<Image> closedImages = this.closedImagesAwaitingReaders;
+        for (int lastIndex = closedImages.size() - 1, i = lastIndex; i >= 0; i--)
+        {
+            final Image image = closedImages.get(i);
+            if (image.isReaderQuiescent())
+            {
+                ArrayListUtil.fastUnorderedRemove(closedImages, i, lastIndex);
+                lastIndex--;
+                releaseImageLogBuffers(image);
+                workCount++;
+            }
+        }
+
+        return workCount;
+    }
+
     private int checkLingeringResources(final long nowNs)
     {
         if (nowNs > (timeOfLastResourcesCheckNs + RESOURCE_CHECK_INTERVAL_NS))
@@ -146,6 +146,18 @@ public class CommonContext implements AutoCloseable
      */
     public static final String RELIABLE_STREAM_PARAM_NAME = "reliable";
 
+    /**
+     * Parameter name for channel URI param to indicate the time in nanoseconds a network publication can hold back a
+     * partially filled datagram in the expectation of filling it with following messages. Zero disables coalescing.
+     */
+    public static final String COALESCE_TIMEOUT_PARAM_NAME = "coalesce-timeout";
+
+    /**
+     * Parameter name for channel URI param to indicate if messages on an {@link ExclusivePublication} should be
+     * compressed with the {@link MessageCodec} from the client context. Value is boolean.
+     */
+    public static final String COMPRESSION_PARAM_NAME = "compression";
+
     private long driverTimeoutMs = DRIVER_TIMEOUT_MS;
     private String aeronDirectoryName;
     private File aeronDirectory;
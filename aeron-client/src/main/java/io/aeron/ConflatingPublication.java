@@ -0,0 +1,234 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron;
+
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * Last value wins publication of keyed messages over an {@link ExclusivePublication}.
+ * <p>
+ * The latest value offered for each key is held in an off-heap slot table and drained into the publication as
+ * the position limit allows. When the publication is back pressured a newer value for a key replaces the pending
+ * one rather than queueing behind it, so subscribers are never more than one snapshot of the keys behind and the
+ * publisher never blocks. Pending keys are drained in the order they first became pending.
+ * <p>
+ * A slot is only held by a key while it has a pending value and is freed for reuse by any key once the value has
+ * been drained, so {@code maxKeys} bounds the number of distinct keys pending at once rather than the number of
+ * distinct keys offered over the life of the publication.
+ * <p>
+ * <b>Note:</b> Instances are NOT threadsafe, as with the {@link ExclusivePublication} being wrapped.
+ */
+public class ConflatingPublication implements AutoCloseable
+{
+    private static final int KEY_OFFSET = 0;
+    private static final int LENGTH_OFFSET = KEY_OFFSET + SIZE_OF_LONG;
+    private static final int VALUE_OFFSET = LENGTH_OFFSET + SIZE_OF_INT;
+    private static final int NULL_SLOT = -1;
+
+    private final int maxKeys;
+    private final int maxValueLength;
+    private final int slotLength;
+    private final int[] pendingSlots;
+    private final int[] freeSlots;
+    private int pendingHead = 0;
+    private int pendingCount = 0;
+    private int freeSlotCount = 0;
+    private int slotCount = 0;
+
+    private final Long2LongHashMap slotByKeyMap;
+    private final UnsafeBuffer slotBuffer;
+    private final ExclusivePublication publication;
+
+    /**
+     * Construct a new conflating publication which drains into an {@link ExclusivePublication}.
+     *
+     * @param publication    into which the latest values are drained.
+     * @param maxKeys        the number of distinct keys which can have a value pending at once.
+     * @param maxValueLength the maximum length of a value for a key.
+     */
+    public ConflatingPublication(final ExclusivePublication publication, final int maxKeys, final int maxValueLength)
+    {
+        if (maxKeys <= 0)
+        {
+            throw new IllegalArgumentException("maxKeys must be greater than zero: " + maxKeys);
+        }
+
+        if (maxValueLength < 0 || maxValueLength > publication.maxMessageLength())
+        {
+            throw new IllegalArgumentException("maxValueLength=" + maxValueLength +
+                " outside range 0 to maxMessageLength=" + publication.maxMessageLength());
+        }
+
+        this.publication = publication;
+        this.maxKeys = maxKeys;
+        this.maxValueLength = maxValueLength;
+
+        slotLength = BitUtil.align(VALUE_OFFSET + maxValueLength, SIZE_OF_LONG);
+        final long capacity = (long)slotLength * maxKeys;
+        if (capacity > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("slot table too large: maxKeys=" + maxKeys +
+                " maxValueLength=" + maxValueLength);
+        }
+
+        slotBuffer = new UnsafeBuffer(BufferUtil.allocateDirectAligned((int)capacity, SIZE_OF_LONG));
+        slotByKeyMap = new Long2LongHashMap(NULL_SLOT);
+        pendingSlots = new int[maxKeys];
+        freeSlots = new int[maxKeys];
+    }
+
+    /**
+     * Get the {@link ExclusivePublication} into which values are drained.
+     *
+     * @return the {@link ExclusivePublication} into which values are drained.
+     */
+    public ExclusivePublication publication()
+    {
+        return publication;
+    }
+
+    /**
+     * The number of distinct keys which can have a value pending at once.
+     *
+     * @return number of distinct keys which can have a value pending at once.
+     */
+    public int maxKeys()
+    {
+        return maxKeys;
+    }
+
+    /**
+     * The maximum length of a value for a key.
+     *
+     * @return maximum length of a value for a key.
+     */
+    public int maxValueLength()
+    {
+        return maxValueLength;
+    }
+
+    /**
+     * The number of keys with a value waiting to be drained into the publication.
+     *
+     * @return number of keys with a value waiting to be drained into the publication.
+     */
+    public int pendingCount()
+    {
+        return pendingCount;
+    }
+
+    /**
+     * Offer the latest value for a key, replacing any value for the key which is still pending, then drain as many
+     * pending values as the publication will accept.
+     *
+     * @param key    for the value which is conflated.
+     * @param buffer containing the value.
+     * @param offset in the buffer at which the value begins.
+     * @param length in bytes of the value.
+     * @return the number of values drained into the publication, otherwise {@link ExclusivePublication#CLOSED}, or
+     * {@link ExclusivePublication#MAX_POSITION_EXCEEDED}.
+     * @throws IllegalArgumentException if the length is greater than {@link #maxValueLength()}.
+     * @throws IllegalStateException if the key has no pending value and {@link #maxKeys()} keys already have.
+     */
+    public long offer(final long key, final DirectBuffer buffer, final int offset, final int length)
+    {
+        if (length < 0 || length > maxValueLength)
+        {
+            throw new IllegalArgumentException("length=" + length + " outside range 0 to maxValueLength=" +
+                maxValueLength);
+        }
+
+        int slotOffset = (int)slotByKeyMap.get(key);
+        if (NULL_SLOT == slotOffset)
+        {
+            if (freeSlotCount > 0)
+            {
+                slotOffset = freeSlots[--freeSlotCount];
+            }
+            else if (slotCount < maxKeys)
+            {
+                slotOffset = slotCount++ * slotLength;
+            }
+            else
+            {
+                throw new IllegalStateException("maxKeys exceeded by pending keys: " + maxKeys);
+            }
+
+            slotByKeyMap.put(key, slotOffset);
+            slotBuffer.putLong(slotOffset + KEY_OFFSET, key);
+            pendingSlots[(pendingHead + pendingCount) % maxKeys] = slotOffset;
+            pendingCount++;
+        }
+
+        slotBuffer.putBytes(slotOffset + VALUE_OFFSET, buffer, offset, length);
+        slotBuffer.putInt(slotOffset + LENGTH_OFFSET, length);
+
+        return drain();
+    }
+
+    /**
+     * Drain as many pending values into the publication as it will accept. This should be called from a duty cycle
+     * when there may be pending values and no further offers are made.
+     *
+     * @return the number of values drained into the publication, otherwise {@link ExclusivePublication#CLOSED}, or
+     * {@link ExclusivePublication#MAX_POSITION_EXCEEDED}.
+     */
+    public long drain()
+    {
+        int drained = 0;
+
+        while (pendingCount > 0)
+        {
+            final int slotOffset = pendingSlots[pendingHead];
+            final int length = slotBuffer.getInt(slotOffset + LENGTH_OFFSET);
+
+            final long result = publication.offer(slotBuffer, slotOffset + VALUE_OFFSET, length);
+            if (result < 0)
+            {
+                if (ExclusivePublication.CLOSED == result || ExclusivePublication.MAX_POSITION_EXCEEDED == result)
+                {
+                    return result;
+                }
+
+                break;
+            }
+
+            slotByKeyMap.remove(slotBuffer.getLong(slotOffset + KEY_OFFSET));
+            freeSlots[freeSlotCount++] = slotOffset;
+            pendingHead = (pendingHead + 1) % maxKeys;
+            pendingCount--;
+            drained++;
+        }
+
+        return drained;
+    }
+
+    /**
+     * Close the underlying {@link ExclusivePublication} discarding any pending values.
+     */
+    public void close()
+    {
+        pendingCount = 0;
+        publication.close();
+    }
+}
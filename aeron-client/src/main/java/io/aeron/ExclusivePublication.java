@@ -21,7 +21,12 @@ import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.ReadablePosition;
 
 import static io.aeron.logbuffer.LogBufferDescriptor.*;
+import static io.aeron.protocol.DataHeaderFlyweight.BEGIN_AND_END_FLAGS;
+import static io.aeron.protocol.DataHeaderFlyweight.COMPRESSED_FLAG;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static io.aeron.protocol.DataHeaderFlyweight.TERM_ID_FIELD_OFFSET;
+import static io.aeron.protocol.DataHeaderFlyweight.TERM_OFFSET_FIELD_OFFSET;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 
 /**
  * Aeron publisher API for sending messages to subscribers of a given channel and streamId pair. ExclusivePublications
@@ -96,6 +101,9 @@ public class ExclusivePublication implements AutoCloseable
     private final LogBuffers logBuffers;
     private final ClientConductor conductor;
     private final String channel;
+    private final MessageCodec messageCodec;
+    private final UnsafeBuffer compressionBuffer;
+    private final ExclusiveBufferClaim compressionClaim;
 
     ExclusivePublication(
         final ClientConductor clientConductor,
@@ -105,7 +113,8 @@ public class ExclusivePublication implements AutoCloseable
         final ReadablePosition positionLimit,
         final LogBuffers logBuffers,
         final long originalRegistrationId,
-        final long registrationId)
+        final long registrationId,
+        final MessageCodec messageCodec)
     {
         final UnsafeBuffer[] buffers = logBuffers.termBuffers();
         final UnsafeBuffer logMetaDataBuffer = logBuffers.metaDataBuffer();
@@ -133,6 +142,18 @@ public class ExclusivePublication implements AutoCloseable
         headerWriter = new HeaderWriter(defaultFrameHeader(logMetaDataBuffer));
         initialTermId = LogBufferDescriptor.initialTermId(logMetaDataBuffer);
 
+        this.messageCodec = messageCodec;
+        if (null != messageCodec)
+        {
+            compressionBuffer = new UnsafeBuffer(new byte[maxPayloadLength]);
+            compressionClaim = new ExclusiveBufferClaim();
+        }
+        else
+        {
+            compressionBuffer = null;
+            compressionClaim = null;
+        }
+
         final int activeIndex = activePartitionIndex(logMetaDataBuffer);
         activePartitionIndex = activeIndex;
 
@@ -406,7 +427,12 @@ public class ExclusivePublication implements AutoCloseable
             if (position < limit)
             {
                 final int result;
-                if (length <= maxPayloadLength)
+                final int compressedLength = compress(buffer, offset, length);
+                if (compressedLength > 0)
+                {
+                    result = appendCompressedMessage(termAppender, compressedLength, reservedValueSupplier);
+                }
+                else if (length <= maxPayloadLength)
                 {
                     result = termAppender.appendUnfragmentedMessage(
                         termId, termOffset, headerWriter, buffer, offset, length, reservedValueSupplier);
@@ -592,6 +618,152 @@ public class ExclusivePublication implements AutoCloseable
         return newPosition;
     }
 
+    /**
+     * Non-blocking publish of a batch of messages with a single advance of the tail. Each message must fit within
+     * an MTU so it is not fragmented and the batch becomes visible to subscribers as a whole.
+     *
+     * @param messages to be published with each vector being a whole message.
+     * @param count    of messages to be published from the beginning of the messages array.
+     * @return The new stream position, otherwise a negative error value of {@link #NOT_CONNECTED},
+     * {@link #BACK_PRESSURED}, {@link #ADMIN_ACTION}, {@link #CLOSED}, or {@link #MAX_POSITION_EXCEEDED}.
+     * @throws IllegalArgumentException if a message length is greater than {@link #maxPayloadLength()} or the batch
+     * length is greater than {@link #maxMessageLength()}.
+     */
+    public long offerBatch(final DirectBufferVector[] messages, final int count)
+    {
+        final int batchLength = validateAndComputeBatchLength(messages, count);
+        long newPosition = CLOSED;
+
+        if (!isClosed)
+        {
+            final long limit = positionLimit.getVolatile();
+            final ExclusiveTermAppender termAppender = termAppenders[activePartitionIndex];
+            final long position = termBeginPosition + termOffset;
+
+            if (position < limit)
+            {
+                final int result = termAppender.appendUnfragmentedBatch(
+                    termId, termOffset, headerWriter, messages, count, batchLength);
+                newPosition = newPosition(result);
+            }
+            else
+            {
+                newPosition = backPressureStatus(position, batchLength);
+            }
+        }
+
+        return newPosition;
+    }
+
+    /**
+     * Try to claim a range in the publication log for a batch of messages with a single advance of the tail into
+     * which the messages can be written with zero copy semantics. Once the messages have been written then
+     * {@link BatchClaim#commit()} should be called thus making the whole batch available.
+     * <p>
+     * <b>Note:</b> Each message length must be less than MTU length minus header.
+     * <pre>{@code
+     *     final BatchClaim batchClaim = new BatchClaim(); // Can be stored and reused to avoid allocation
+     *
+     *     if (publication.tryClaimBatch(lengths, count, batchClaim) > 0L)
+     *     {
+     *         try
+     *         {
+     *             while (batchClaim.next())
+     *             {
+     *                 final MutableDirectBuffer buffer = batchClaim.buffer();
+     *                 final int offset = batchClaim.offset();
+     *
+     *                 // Work with buffer directly or wrap with a flyweight
+     *             }
+     *         }
+     *         finally
+     *         {
+     *             batchClaim.commit();
+     *         }
+     *     }
+     * }</pre>
+     *
+     * @param lengths    of the messages in the batch, in bytes.
+     * @param count      of messages in the batch from the beginning of the lengths array.
+     * @param batchClaim to be populated if the claim succeeds.
+     * @return The new stream position, otherwise a negative error value of {@link #NOT_CONNECTED},
+     * {@link #BACK_PRESSURED}, {@link #ADMIN_ACTION}, {@link #CLOSED}, or {@link #MAX_POSITION_EXCEEDED}.
+     * @throws IllegalArgumentException if a length is greater than {@link #maxPayloadLength()} or the batch
+     * length is greater than {@link #maxMessageLength()}.
+     * @see BatchClaim#commit()
+     * @see BatchClaim#abort()
+     */
+    public long tryClaimBatch(final int[] lengths, final int count, final BatchClaim batchClaim)
+    {
+        final int batchLength = validateAndComputeBatchLength(lengths, count);
+        long newPosition = CLOSED;
+
+        if (!isClosed)
+        {
+            final long limit = positionLimit.getVolatile();
+            final ExclusiveTermAppender termAppender = termAppenders[activePartitionIndex];
+            final long position = termBeginPosition + termOffset;
+
+            if (position < limit)
+            {
+                final int result = termAppender.claimBatch(
+                    termId, termOffset, headerWriter, lengths, count, batchLength, batchClaim);
+                newPosition = newPosition(result);
+            }
+            else
+            {
+                newPosition = backPressureStatus(position, batchLength);
+            }
+        }
+
+        return newPosition;
+    }
+
+    /**
+     * Non-blocking publish of a block of existing frames, such as a run of frames read from a recording, with a
+     * single copy into the log and advance of the tail. The session id and stream id of the frames are rewritten
+     * to those of this publication as they are appended.
+     * <p>
+     * The first frame must carry the term id and term offset of the current position of this publication and the
+     * block must not cross the end of the term. When the publication is at the end of a term the block is expected to
+     * begin the next term and {@link #ADMIN_ACTION} is returned while the publication rotates, after which the block
+     * should be offered again.
+     *
+     * @param buffer containing the block of frames.
+     * @param offset at which the block begins.
+     * @param length of the block which must be a multiple of {@link FrameDescriptor#FRAME_ALIGNMENT}.
+     * @return The new stream position, otherwise a negative error value of {@link #NOT_CONNECTED},
+     * {@link #BACK_PRESSURED}, {@link #ADMIN_ACTION}, {@link #CLOSED}, or {@link #MAX_POSITION_EXCEEDED}.
+     * @throws IllegalArgumentException if the block is not made up of whole frames for the current position within
+     * one term.
+     */
+    public long offerBlock(final DirectBuffer buffer, final int offset, final int length)
+    {
+        long newPosition = CLOSED;
+
+        if (!isClosed)
+        {
+            checkBlock(buffer, offset, length);
+
+            final long limit = positionLimit.getVolatile();
+            final ExclusiveTermAppender termAppender = termAppenders[activePartitionIndex];
+            final long position = termBeginPosition + termOffset;
+
+            if (position < limit)
+            {
+                final int result = termAppender.appendBlock(
+                    termId, termOffset, headerWriter, buffer, offset, length, sessionId, streamId);
+                newPosition = newPosition(result);
+            }
+            else
+            {
+                newPosition = backPressureStatus(position, length);
+            }
+        }
+
+        return newPosition;
+    }
+
     /**
      * Add a destination manually to a multi-destination-cast Publication.
      *
@@ -628,6 +800,44 @@ public class ExclusivePublication implements AutoCloseable
         }
     }
 
+    private int compress(final DirectBuffer buffer, final int offset, final int length)
+    {
+        if (null == messageCodec)
+        {
+            return -1;
+        }
+
+        final int compressedLength = messageCodec.compress(
+            buffer, offset, length, compressionBuffer, 0, Math.min(length - 1, maxPayloadLength));
+
+        return compressedLength < length ? compressedLength : -1;
+    }
+
+    private int appendCompressedMessage(
+        final ExclusiveTermAppender termAppender,
+        final int compressedLength,
+        final ReservedValueSupplier reservedValueSupplier)
+    {
+        final ExclusiveBufferClaim claim = compressionClaim;
+        final int resultingOffset = termAppender.claim(termId, termOffset, headerWriter, compressedLength, claim);
+
+        if (resultingOffset > 0)
+        {
+            final MutableDirectBuffer claimBuffer = claim.buffer();
+            claimBuffer.putBytes(claim.offset(), compressionBuffer, 0, compressedLength);
+            claim.flags((byte)(BEGIN_AND_END_FLAGS | COMPRESSED_FLAG));
+
+            if (null != reservedValueSupplier)
+            {
+                claim.reservedValue(reservedValueSupplier.get(claimBuffer, 0, claimBuffer.capacity()));
+            }
+
+            claim.commit();
+        }
+
+        return resultingOffset;
+    }
+
     private long newPosition(final int resultingOffset)
     {
         if (resultingOffset > 0)
@@ -691,4 +901,93 @@ public class ExclusivePublication implements AutoCloseable
                 "Message exceeds maxMessageLength of " + maxMessageLength + ", length=" + length);
         }
     }
+
+    private int validateAndComputeBatchLength(final int[] lengths, final int count)
+    {
+        checkBatchCount(count, lengths.length);
+        for (int i = 0; i < count; i++)
+        {
+            checkForMaxPayloadLength(lengths[i]);
+        }
+
+        return checkForMaxBatchLength(BatchClaim.computeBatchLength(lengths, count));
+    }
+
+    private int validateAndComputeBatchLength(final DirectBufferVector[] messages, final int count)
+    {
+        checkBatchCount(count, messages.length);
+        int batchLength = 0;
+        for (int i = 0; i < count; i++)
+        {
+            final DirectBufferVector message = messages[i];
+            message.validate();
+            checkForMaxPayloadLength(message.length);
+            batchLength += BitUtil.align(message.length + HEADER_LENGTH, FrameDescriptor.FRAME_ALIGNMENT);
+        }
+
+        return checkForMaxBatchLength(batchLength);
+    }
+
+    private void checkBatchCount(final int count, final int capacity)
+    {
+        if (count <= 0 || count > capacity)
+        {
+            throw new IllegalArgumentException("Invalid batch count of " + count + ", capacity=" + capacity);
+        }
+    }
+
+    private void checkBlock(final DirectBuffer buffer, final int offset, final int length)
+    {
+        if (length < HEADER_LENGTH ||
+            length > termBufferLength ||
+            (length & (FrameDescriptor.FRAME_ALIGNMENT - 1)) != 0)
+        {
+            throw new IllegalArgumentException("Invalid block length of " + length);
+        }
+
+        final int firstTermOffset = buffer.getInt(offset + TERM_OFFSET_FIELD_OFFSET, LITTLE_ENDIAN);
+        final int firstTermId = buffer.getInt(offset + TERM_ID_FIELD_OFFSET, LITTLE_ENDIAN);
+        final boolean isNextTerm = termOffset >= termBufferLength && 0 == firstTermOffset && termId + 1 == firstTermId;
+
+        if (!isNextTerm && (firstTermOffset != termOffset || firstTermId != termId))
+        {
+            throw new IllegalArgumentException(
+                "Block does not begin at publication position: termId=" + firstTermId +
+                " termOffset=" + firstTermOffset + ", expected termId=" + termId + " termOffset=" + termOffset);
+        }
+
+        if (firstTermOffset + length > termBufferLength)
+        {
+            throw new IllegalArgumentException("Block crosses end of term: termOffset=" + firstTermOffset +
+                " length=" + length);
+        }
+
+        int frameOffset = 0;
+        while (frameOffset < length)
+        {
+            final int frameLength = buffer.getInt(offset + frameOffset, LITTLE_ENDIAN);
+            if (frameLength < HEADER_LENGTH)
+            {
+                throw new IllegalArgumentException("Invalid frame length of " + frameLength + " in block");
+            }
+
+            frameOffset += BitUtil.align(frameLength, FrameDescriptor.FRAME_ALIGNMENT);
+        }
+
+        if (frameOffset != length)
+        {
+            throw new IllegalArgumentException("Block does not end on a frame boundary, length=" + length);
+        }
+    }
+
+    private int checkForMaxBatchLength(final int batchLength)
+    {
+        if (batchLength > maxMessageLength)
+        {
+            throw new IllegalArgumentException(
+                "Batch exceeds maxMessageLength of " + maxMessageLength + ", length=" + batchLength);
+        }
+
+        return batchLength;
+    }
 }
@@ -28,9 +28,11 @@ import static io.aeron.logbuffer.FrameDescriptor.*;
 import static io.aeron.logbuffer.LogBufferDescriptor.endOfStreamPosition;
 import static io.aeron.logbuffer.LogBufferDescriptor.indexByPosition;
 import static io.aeron.logbuffer.TermReader.read;
+import static io.aeron.protocol.DataHeaderFlyweight.COMPRESSED_FLAG;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
 import static io.aeron.protocol.DataHeaderFlyweight.TERM_ID_FIELD_OFFSET;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.agrona.UnsafeAccess.UNSAFE;
 
 /**
  * Represents a replicated publication {@link Image} from a publisher to a {@link Subscription}.
@@ -46,6 +48,20 @@ import static java.nio.ByteOrder.LITTLE_ENDIAN;
  */
 public class Image
 {
+    private static final long READ_EPOCH_OFFSET;
+
+    static
+    {
+        try
+        {
+            READ_EPOCH_OFFSET = UNSAFE.objectFieldOffset(Image.class.getDeclaredField("readEpoch"));
+        }
+        catch (final Exception ex)
+        {
+            throw new RuntimeException(ex);
+        }
+    }
+
     private final long correlationId;
     private final long joinPosition;
     private long finalPosition;
@@ -53,8 +69,12 @@ public class Image
     private final int initialTermId;
     private final int termLengthMask;
     private final int positionBitsToShift;
+    private final int mtuLength;
     private boolean isEos;
     private volatile boolean isClosed;
+    private volatile long readEpoch;
+    private long readEpochAtClose;
+    private long pollEpochAtClose;
 
     private final Position subscriberPosition;
     private final UnsafeBuffer[] termBuffers;
@@ -63,6 +83,9 @@ public class Image
     private final LogBuffers logBuffers;
     private final String sourceIdentity;
     private final Subscription subscription;
+    private final MessageCodec messageCodec;
+    private final DecompressingFragmentHandler decompressingFragmentHandler;
+    private final DecompressingControlledFragmentHandler decompressingControlledFragmentHandler;
 
     /**
      * Construct a new image over a log to represent a stream of messages from a {@link Publication}.
@@ -83,6 +106,34 @@ public class Image
         final ErrorHandler errorHandler,
         final String sourceIdentity,
         final long correlationId)
+    {
+        this(
+            subscription, sessionId, subscriberPosition, logBuffers, errorHandler, sourceIdentity, correlationId, null);
+    }
+
+    /**
+     * Construct a new image over a log to represent a stream of messages from a {@link Publication} which
+     * transparently decompresses messages flagged with {@link io.aeron.protocol.DataHeaderFlyweight#COMPRESSED_FLAG}
+     * when polled.
+     *
+     * @param subscription       to which this {@link Image} belongs.
+     * @param sessionId          of the stream of messages.
+     * @param subscriberPosition for indicating the position of the subscriber in the stream.
+     * @param logBuffers         containing the stream of messages.
+     * @param errorHandler       to be called if an error occurs when polling for messages.
+     * @param sourceIdentity     of the source sending the stream of messages.
+     * @param correlationId      of the request to the media driver.
+     * @param messageCodec       for decompressing messages or null if they should be delivered as is.
+     */
+    public Image(
+        final Subscription subscription,
+        final int sessionId,
+        final Position subscriberPosition,
+        final LogBuffers logBuffers,
+        final ErrorHandler errorHandler,
+        final String sourceIdentity,
+        final long correlationId,
+        final MessageCodec messageCodec)
     {
         this.subscription = subscription;
         this.sessionId = sessionId;
@@ -99,7 +150,20 @@ public class Image
         this.termLengthMask = termLength - 1;
         this.positionBitsToShift = Integer.numberOfTrailingZeros(termLength);
         this.initialTermId = LogBufferDescriptor.initialTermId(logBuffers.metaDataBuffer());
+        this.mtuLength = LogBufferDescriptor.mtuLength(logBuffers.metaDataBuffer());
         header = new Header(initialTermId, positionBitsToShift, this);
+
+        this.messageCodec = messageCodec;
+        if (null != messageCodec)
+        {
+            decompressingFragmentHandler = new DecompressingFragmentHandler();
+            decompressingControlledFragmentHandler = new DecompressingControlledFragmentHandler();
+        }
+        else
+        {
+            decompressingFragmentHandler = null;
+            decompressingControlledFragmentHandler = null;
+        }
     }
 
     /**
@@ -139,7 +203,7 @@ public class Image
      */
     public int mtuLength()
     {
-        return LogBufferDescriptor.mtuLength(logBuffers.metaDataBuffer());
+        return mtuLength;
     }
 
     /**
@@ -236,16 +300,39 @@ public class Image
             return isEos;
         }
 
+        final long readEpoch = beginRead();
+        try
+        {
+            return doIsEndOfStream();
+        }
+        finally
+        {
+            endRead(readEpoch);
+        }
+    }
+
+    boolean doIsEndOfStream()
+    {
+        if (isClosed)
+        {
+            return isEos;
+        }
+
         return subscriberPosition.get() >= endOfStreamPosition(logBuffers.metaDataBuffer());
     }
 
     /**
      * The {@link FileChannel} to the raw log of the Image.
      *
-     * @return the {@link FileChannel} to the raw log of the Image.
+     * @return the {@link FileChannel} to the raw log of the Image or null if the Image is closed.
      */
     public FileChannel fileChannel()
     {
+        if (isClosed)
+        {
+            return null;
+        }
+
         return logBuffers.fileChannel();
     }
 
@@ -268,12 +355,30 @@ public class Image
             return 0;
         }
 
+        final long readEpoch = beginRead();
+        try
+        {
+            return doPoll(fragmentHandler, fragmentLimit);
+        }
+        finally
+        {
+            endRead(readEpoch);
+        }
+    }
+
+    int doPoll(final FragmentHandler fragmentHandler, final int fragmentLimit)
+    {
+        if (isClosed)
+        {
+            return 0;
+        }
+
         final long position = subscriberPosition.get();
 
         return read(
             activeTermBuffer(position),
             (int)position & termLengthMask,
-            fragmentHandler,
+            null == messageCodec ? fragmentHandler : decompressingFragmentHandler.delegate(fragmentHandler),
             fragmentLimit,
             header,
             errorHandler,
@@ -300,12 +405,32 @@ public class Image
             return 0;
         }
 
+        final long readEpoch = beginRead();
+        try
+        {
+            return doControlledPoll(fragmentHandler, fragmentLimit);
+        }
+        finally
+        {
+            endRead(readEpoch);
+        }
+    }
+
+    int doControlledPoll(final ControlledFragmentHandler fragmentHandler, final int fragmentLimit)
+    {
+        if (isClosed)
+        {
+            return 0;
+        }
+
         int fragmentsRead = 0;
         long initialPosition = subscriberPosition.get();
         int initialOffset = (int)initialPosition & termLengthMask;
         int resultingOffset = initialOffset;
         final UnsafeBuffer termBuffer = activeTermBuffer(initialPosition);
         final int capacity = termBuffer.capacity();
+        final ControlledFragmentHandler handler = null == messageCodec ?
+            fragmentHandler : decompressingControlledFragmentHandler.delegate(fragmentHandler);
         header.buffer(termBuffer);
 
         try
@@ -329,7 +454,7 @@ public class Image
 
                 header.offset(frameOffset);
 
-                final Action action = fragmentHandler.onFragment(
+                final Action action = handler.onFragment(
                     termBuffer,
                     frameOffset + HEADER_LENGTH,
                     length - HEADER_LENGTH,
@@ -394,6 +519,25 @@ public class Image
             return 0;
         }
 
+        final long readEpoch = beginRead();
+        try
+        {
+            return doControlledPeek(initialPosition, fragmentHandler, limitPosition);
+        }
+        finally
+        {
+            endRead(readEpoch);
+        }
+    }
+
+    private long doControlledPeek(
+        final long initialPosition, final ControlledFragmentHandler fragmentHandler, final long limitPosition)
+    {
+        if (isClosed)
+        {
+            return 0;
+        }
+
         validatePosition(initialPosition);
 
         int initialOffset = (int)initialPosition & termLengthMask;
@@ -401,6 +545,8 @@ public class Image
         long position = initialPosition;
         final UnsafeBuffer termBuffer = activeTermBuffer(initialPosition);
         final int capacity = termBuffer.capacity();
+        final ControlledFragmentHandler handler = null == messageCodec ?
+            fragmentHandler : decompressingControlledFragmentHandler.delegate(fragmentHandler);
         header.buffer(termBuffer);
         long resultingPosition = initialPosition;
 
@@ -425,7 +571,7 @@ public class Image
 
                 header.offset(frameOffset);
 
-                final Action action = fragmentHandler.onFragment(
+                final Action action = handler.onFragment(
                     termBuffer,
                     frameOffset + HEADER_LENGTH,
                     length - HEADER_LENGTH,
@@ -474,6 +620,24 @@ public class Image
             return 0;
         }
 
+        final long readEpoch = beginRead();
+        try
+        {
+            return doBlockPoll(blockHandler, blockLengthLimit);
+        }
+        finally
+        {
+            endRead(readEpoch);
+        }
+    }
+
+    int doBlockPoll(final BlockHandler blockHandler, final int blockLengthLimit)
+    {
+        if (isClosed)
+        {
+            return 0;
+        }
+
         final long position = subscriberPosition.get();
         final int termOffset = (int)position & termLengthMask;
         final UnsafeBuffer termBuffer = activeTermBuffer(position);
@@ -520,6 +684,24 @@ public class Image
             return 0;
         }
 
+        final long readEpoch = beginRead();
+        try
+        {
+            return doRawPoll(rawBlockHandler, blockLengthLimit);
+        }
+        finally
+        {
+            endRead(readEpoch);
+        }
+    }
+
+    int doRawPoll(final RawBlockHandler rawBlockHandler, final int blockLengthLimit)
+    {
+        if (isClosed)
+        {
+            return 0;
+        }
+
         final long position = subscriberPosition.get();
         final int termOffset = (int)position & termLengthMask;
         final int activeIndex = indexByPosition(position, positionBitsToShift);
@@ -579,10 +761,97 @@ public class Image
         return logBuffers;
     }
 
+    /**
+     * Have all readers moved on from the log since this image was closed so its log buffers can be released?
+     * <p>
+     * A read in progress when the image was closed, either a direct read of the image or a poll of its
+     * {@link Subscription}, is indicated by an odd epoch snapshot. Such a read has finished once the epoch has moved
+     * on. Reads which begin after the close observe it and do not touch the log.
+     *
+     * @return true if no reader can still be referencing the log of this image.
+     */
+    boolean isReaderQuiescent()
+    {
+        return hasEpochPassed(readEpoch, readEpochAtClose) &&
+            (null == subscription || hasEpochPassed(subscription.pollEpoch(), pollEpochAtClose));
+    }
+
+    private static boolean hasEpochPassed(final long epoch, final long epochAtClose)
+    {
+        return (epochAtClose & 1) == 0 || epoch != epochAtClose;
+    }
+
+    private long beginRead()
+    {
+        final long readEpoch = this.readEpoch + 1;
+        this.readEpoch = readEpoch;
+
+        return readEpoch;
+    }
+
+    private void endRead(final long readEpoch)
+    {
+        UNSAFE.putOrderedLong(this, READ_EPOCH_OFFSET, readEpoch + 1);
+    }
+
     void close()
     {
-        finalPosition = subscriberPosition.getVolatile();
-        isEos = finalPosition >= endOfStreamPosition(logBuffers.metaDataBuffer());
-        isClosed = true;
+        if (!isClosed)
+        {
+            finalPosition = subscriberPosition.getVolatile();
+            isEos = finalPosition >= endOfStreamPosition(logBuffers.metaDataBuffer());
+            isClosed = true;
+
+            readEpochAtClose = readEpoch;
+            pollEpochAtClose = null != subscription ? subscription.pollEpoch() : 0;
+        }
+    }
+
+    private final class DecompressingFragmentHandler implements FragmentHandler
+    {
+        private final ExpandableArrayBuffer decompressionBuffer = new ExpandableArrayBuffer();
+        private FragmentHandler delegate;
+
+        DecompressingFragmentHandler delegate(final FragmentHandler delegate)
+        {
+            this.delegate = delegate;
+            return this;
+        }
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            if ((header.flags() & COMPRESSED_FLAG) != 0)
+            {
+                final int decompressedLength = messageCodec.decompress(buffer, offset, length, decompressionBuffer, 0);
+                delegate.onFragment(decompressionBuffer, 0, decompressedLength, header);
+            }
+            else
+            {
+                delegate.onFragment(buffer, offset, length, header);
+            }
+        }
+    }
+
+    private final class DecompressingControlledFragmentHandler implements ControlledFragmentHandler
+    {
+        private final ExpandableArrayBuffer decompressionBuffer = new ExpandableArrayBuffer();
+        private ControlledFragmentHandler delegate;
+
+        DecompressingControlledFragmentHandler delegate(final ControlledFragmentHandler delegate)
+        {
+            this.delegate = delegate;
+            return this;
+        }
+
+        public Action onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            if ((header.flags() & COMPRESSED_FLAG) != 0)
+            {
+                final int decompressedLength = messageCodec.decompress(buffer, offset, length, decompressionBuffer, 0);
+                return delegate.onFragment(decompressionBuffer, 0, decompressedLength, header);
+            }
+
+            return delegate.onFragment(buffer, offset, length, header);
+        }
     }
 }
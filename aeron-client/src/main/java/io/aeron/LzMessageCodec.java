@@ -0,0 +1,366 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_SHORT;
+
+/**
+ * Fast LZ77 style {@link MessageCodec} in the spirit of LZ4 block compression, with an optional static dictionary
+ * which primes matches so short repetitive messages, such as SBE encoded market data, compress well.
+ * <p>
+ * Layout of a compressed message is the original length followed by sequences of literals and back references:
+ * <pre>
+ *   0                   1                   2                   3
+ *   0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *  |                        Original Length                        |
+ *  +---------------+-----------------------------------------------+
+ *  |     Token     |  Literal Length Extension & Literals         ...
+ *  +---------------+---------------+-------------------------------+
+ *  |         Match Distance        |  Match Length Extension      ...
+ *  +-------------------------------+-------------------------------+
+ *  |                      Further Sequences                       ...
+ *  +---------------------------------------------------------------+
+ * </pre>
+ * The final sequence is literals only. Match distances can reach back into the dictionary.
+ */
+public class LzMessageCodec implements MessageCodec
+{
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    private static final int NIBBLE_MASK = 0xF;
+    private static final int HASH_BITS = 12;
+    private static final int HASH_MULTIPLIER = -1640531535;
+
+    private final byte[] dictionary;
+    private int[] primedHashTable;
+    private int[] hashTable;
+    private byte[] window;
+
+    /**
+     * Construct a codec without a dictionary.
+     */
+    public LzMessageCodec()
+    {
+        this(new byte[0]);
+    }
+
+    /**
+     * Construct a codec with a static dictionary of content expected to be common to messages. Only the last 64KB
+     * of the dictionary can be referenced.
+     *
+     * @param dictionary of content common to messages which must be the same for publisher and subscriber.
+     */
+    public LzMessageCodec(final byte[] dictionary)
+    {
+        final int dictionaryLength = Math.min(dictionary.length, MAX_DISTANCE);
+        this.dictionary = new byte[dictionaryLength];
+        System.arraycopy(dictionary, dictionary.length - dictionaryLength, this.dictionary, 0, dictionaryLength);
+    }
+
+    public int compress(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int length,
+        final MutableDirectBuffer dstBuffer,
+        final int dstOffset,
+        final int maxCompressedLength)
+    {
+        if (maxCompressedLength < SIZE_OF_INT + 1)
+        {
+            return -1;
+        }
+
+        final int dictionaryLength = dictionary.length;
+        final int end = dictionaryLength + length;
+        if (null == hashTable)
+        {
+            allocateCompressionState(end);
+        }
+        else
+        {
+            System.arraycopy(primedHashTable, 0, hashTable, 0, hashTable.length);
+            if (end > window.length)
+            {
+                final byte[] newWindow = new byte[BitUtil.findNextPositivePowerOfTwo(end)];
+                System.arraycopy(dictionary, 0, newWindow, 0, dictionaryLength);
+                window = newWindow;
+            }
+        }
+
+        final byte[] bytes = window;
+        final int[] table = hashTable;
+        srcBuffer.getBytes(srcOffset, bytes, dictionaryLength, length);
+
+        final int outLimit = dstOffset + maxCompressedLength;
+        final int matchLimit = end - LAST_LITERALS;
+        int out = dstOffset + SIZE_OF_INT;
+        int anchor = dictionaryLength;
+        int position = dictionaryLength;
+
+        while (position + MIN_MATCH <= matchLimit)
+        {
+            final int sequence = readInt(bytes, position);
+            final int hash = hash(sequence);
+            final int candidate = table[hash];
+            table[hash] = position;
+
+            if (candidate < position && position - candidate <= MAX_DISTANCE && readInt(bytes, candidate) == sequence)
+            {
+                int matchLength = MIN_MATCH;
+                while (position + matchLength < matchLimit &&
+                    bytes[candidate + matchLength] == bytes[position + matchLength])
+                {
+                    matchLength++;
+                }
+
+                out = putSequence(
+                    bytes, anchor, position - anchor, position - candidate, matchLength, dstBuffer, out, outLimit);
+                if (out < 0)
+                {
+                    return -1;
+                }
+
+                position += matchLength;
+                anchor = position;
+            }
+            else
+            {
+                position++;
+            }
+        }
+
+        out = putLiterals(bytes, anchor, end - anchor, 0, dstBuffer, out, outLimit);
+        if (out < 0)
+        {
+            return -1;
+        }
+
+        dstBuffer.putInt(dstOffset, length, LITTLE_ENDIAN);
+
+        return out - dstOffset;
+    }
+
+    public int decompress(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int length,
+        final MutableDirectBuffer dstBuffer,
+        final int dstOffset)
+    {
+        if (length < SIZE_OF_INT)
+        {
+            throw new IllegalStateException("compressed length=" + length + " less than header");
+        }
+
+        final int originalLength = srcBuffer.getInt(srcOffset, LITTLE_ENDIAN);
+        if (originalLength < 0 || (!dstBuffer.isExpandable() && originalLength > dstBuffer.capacity() - dstOffset))
+        {
+            throw new IllegalStateException(
+                "invalid original length=" + originalLength + " for capacity=" + dstBuffer.capacity());
+        }
+
+        final int end = srcOffset + length;
+        final int dictionaryLength = dictionary.length;
+        int in = srcOffset + SIZE_OF_INT;
+        int out = 0;
+
+        while (in < end)
+        {
+            final int token = srcBuffer.getByte(in++) & 0xFF;
+
+            int literalLength = token >>> 4;
+            if (NIBBLE_MASK == literalLength)
+            {
+                int b;
+                do
+                {
+                    checkInput(in, end);
+                    b = srcBuffer.getByte(in++) & 0xFF;
+                    literalLength += b;
+                }
+                while (0xFF == b);
+            }
+
+            if (literalLength > end - in || literalLength > originalLength - out)
+            {
+                throw new IllegalStateException("invalid literal length=" + literalLength + " at output=" + out);
+            }
+
+            dstBuffer.putBytes(dstOffset + out, srcBuffer, in, literalLength);
+            in += literalLength;
+            out += literalLength;
+
+            if (in >= end)
+            {
+                break;
+            }
+
+            checkInput(in + SIZE_OF_SHORT - 1, end);
+            final int distance = srcBuffer.getShort(in, LITTLE_ENDIAN) & 0xFFFF;
+            in += SIZE_OF_SHORT;
+
+            int matchLength = token & NIBBLE_MASK;
+            if (NIBBLE_MASK == matchLength)
+            {
+                int b;
+                do
+                {
+                    checkInput(in, end);
+                    b = srcBuffer.getByte(in++) & 0xFF;
+                    matchLength += b;
+                }
+                while (0xFF == b);
+            }
+            matchLength += MIN_MATCH;
+
+            if (0 == distance || distance > out + dictionaryLength)
+            {
+                throw new IllegalStateException("invalid match distance=" + distance + " at output=" + out);
+            }
+
+            if (matchLength > originalLength - out)
+            {
+                throw new IllegalStateException("invalid match length=" + matchLength + " at output=" + out);
+            }
+
+            for (int i = out - distance, limit = i + matchLength; i < limit; i++)
+            {
+                final byte value = i < 0 ? dictionary[dictionaryLength + i] : dstBuffer.getByte(dstOffset + i);
+                dstBuffer.putByte(dstOffset + out++, value);
+            }
+        }
+
+        if (out != originalLength)
+        {
+            throw new IllegalStateException("decompressed length=" + out + " expected=" + originalLength);
+        }
+
+        return originalLength;
+    }
+
+    private void allocateCompressionState(final int windowLength)
+    {
+        final int dictionaryLength = dictionary.length;
+        primedHashTable = new int[1 << HASH_BITS];
+        window = new byte[BitUtil.findNextPositivePowerOfTwo(Math.max(windowLength, 1024))];
+        System.arraycopy(dictionary, 0, window, 0, dictionaryLength);
+
+        for (int i = 0; i + MIN_MATCH <= dictionaryLength; i++)
+        {
+            primedHashTable[hash(readInt(window, i))] = i;
+        }
+
+        hashTable = primedHashTable.clone();
+    }
+
+    private static void checkInput(final int in, final int end)
+    {
+        if (in >= end)
+        {
+            throw new IllegalStateException("compressed message truncated at input=" + in);
+        }
+    }
+
+    private static int putSequence(
+        final byte[] window,
+        final int literalOffset,
+        final int literalLength,
+        final int distance,
+        final int matchLength,
+        final MutableDirectBuffer dstBuffer,
+        final int out,
+        final int outLimit)
+    {
+        final int matchRemainder = matchLength - MIN_MATCH;
+        int position = putLiterals(window, literalOffset, literalLength, matchRemainder, dstBuffer, out, outLimit);
+        if (position < 0 || position + SIZE_OF_SHORT + extensionLength(matchRemainder) > outLimit)
+        {
+            return -1;
+        }
+
+        dstBuffer.putShort(position, (short)distance, LITTLE_ENDIAN);
+        position += SIZE_OF_SHORT;
+
+        return putExtension(matchRemainder, dstBuffer, position);
+    }
+
+    private static int putLiterals(
+        final byte[] window,
+        final int literalOffset,
+        final int literalLength,
+        final int matchRemainder,
+        final MutableDirectBuffer dstBuffer,
+        final int out,
+        final int outLimit)
+    {
+        if (out + 1 + extensionLength(literalLength) + literalLength > outLimit)
+        {
+            return -1;
+        }
+
+        final int token = (Math.min(literalLength, NIBBLE_MASK) << 4) | Math.min(matchRemainder, NIBBLE_MASK);
+        dstBuffer.putByte(out, (byte)token);
+
+        final int position = putExtension(literalLength, dstBuffer, out + 1);
+        dstBuffer.putBytes(position, window, literalOffset, literalLength);
+
+        return position + literalLength;
+    }
+
+    private static int extensionLength(final int length)
+    {
+        return length < NIBBLE_MASK ? 0 : ((length - NIBBLE_MASK) / 0xFF) + 1;
+    }
+
+    private static int putExtension(final int length, final MutableDirectBuffer dstBuffer, final int out)
+    {
+        int position = out;
+        if (length >= NIBBLE_MASK)
+        {
+            int remaining = length - NIBBLE_MASK;
+            while (remaining >= 0xFF)
+            {
+                dstBuffer.putByte(position++, (byte)0xFF);
+                remaining -= 0xFF;
+            }
+
+            dstBuffer.putByte(position++, (byte)remaining);
+        }
+
+        return position;
+    }
+
+    private static int readInt(final byte[] bytes, final int offset)
+    {
+        return (bytes[offset] & 0xFF) |
+            ((bytes[offset + 1] & 0xFF) << 8) |
+            ((bytes[offset + 2] & 0xFF) << 16) |
+            ((bytes[offset + 3] & 0xFF) << 24);
+    }
+
+    private static int hash(final int sequence)
+    {
+        return (sequence * HASH_MULTIPLIER) >>> (32 - HASH_BITS);
+    }
+}
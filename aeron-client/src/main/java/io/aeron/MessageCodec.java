@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Codec for compressing messages on an {@link ExclusivePublication} added with the
+ * {@link CommonContext#COMPRESSION_PARAM_NAME} channel param, and decompressing them transparently when polled
+ * from an {@link Image}.
+ * <p>
+ * Compressed messages are flagged with {@link io.aeron.protocol.DataHeaderFlyweight#COMPRESSED_FLAG}. Publisher and
+ * subscriber must use compatible codecs, including any static dictionary.
+ * <p>
+ * Instances hold state and are not threadsafe. One is obtained per publication and image from
+ * {@link Aeron.Context#messageCodecSupplier()}.
+ */
+public interface MessageCodec
+{
+    /**
+     * Compress a message into a destination buffer.
+     *
+     * @param srcBuffer           containing the message.
+     * @param srcOffset           at which the message begins.
+     * @param length              of the message in bytes.
+     * @param dstBuffer           into which the compressed message is written.
+     * @param dstOffset           at which the compressed message should begin.
+     * @param maxCompressedLength beyond which compression is abandoned.
+     * @return the length of the compressed message or -1 if it would exceed the max compressed length.
+     */
+    int compress(
+        DirectBuffer srcBuffer,
+        int srcOffset,
+        int length,
+        MutableDirectBuffer dstBuffer,
+        int dstOffset,
+        int maxCompressedLength);
+
+    /**
+     * Decompress a message into a destination buffer which must be able to expand, or be of sufficient capacity,
+     * for the original message.
+     *
+     * @param srcBuffer containing the compressed message.
+     * @param srcOffset at which the compressed message begins.
+     * @param length    of the compressed message in bytes.
+     * @param dstBuffer into which the message is written.
+     * @param dstOffset at which the message should begin.
+     * @return the length of the decompressed message.
+     */
+    int decompress(DirectBuffer srcBuffer, int srcOffset, int length, MutableDirectBuffer dstBuffer, int dstOffset);
+}
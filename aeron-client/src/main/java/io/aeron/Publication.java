@@ -540,6 +540,113 @@ public class Publication implements AutoCloseable
         return newPosition;
     }
 
+    /**
+     * Non-blocking publish of a batch of messages with a single advance of the tail. Each message must fit within
+     * an MTU so it is not fragmented and the batch becomes visible to subscribers as a whole.
+     *
+     * @param messages to be published with each vector being a whole message.
+     * @param count    of messages to be published from the beginning of the messages array.
+     * @return The new stream position, otherwise a negative error value of {@link #NOT_CONNECTED},
+     * {@link #BACK_PRESSURED}, {@link #ADMIN_ACTION}, {@link #CLOSED}, or {@link #MAX_POSITION_EXCEEDED}.
+     * @throws IllegalArgumentException if a message length is greater than {@link #maxPayloadLength()} or the batch
+     * length is greater than {@link #maxMessageLength()}.
+     */
+    public long offerBatch(final DirectBufferVector[] messages, final int count)
+    {
+        final int batchLength = validateAndComputeBatchLength(messages, count);
+        long newPosition = CLOSED;
+
+        if (!isClosed)
+        {
+            final long limit = positionLimit.getVolatile();
+            final int partitionIndex = activePartitionIndex(logMetaDataBuffer);
+            final TermAppender termAppender = termAppenders[partitionIndex];
+            final long rawTail = termAppender.rawTailVolatile();
+            final long termOffset = rawTail & 0xFFFF_FFFFL;
+            final long position = computeTermBeginPosition(
+                termId(rawTail), positionBitsToShift, initialTermId) + termOffset;
+
+            if (position < limit)
+            {
+                final long result = termAppender.appendUnfragmentedBatch(headerWriter, messages, count, batchLength);
+                newPosition = newPosition(partitionIndex, (int)termOffset, position, result);
+            }
+            else
+            {
+                newPosition = backPressureStatus(position, batchLength);
+            }
+        }
+
+        return newPosition;
+    }
+
+    /**
+     * Try to claim a range in the publication log for a batch of messages with a single advance of the tail into
+     * which the messages can be written with zero copy semantics. Once the messages have been written then
+     * {@link BatchClaim#commit()} should be called thus making the whole batch available.
+     * <p>
+     * <b>Note:</b> Each message length must be less than MTU length minus header.
+     * <pre>{@code
+     *     final BatchClaim batchClaim = new BatchClaim(); // Can be stored and reused to avoid allocation
+     *
+     *     if (publication.tryClaimBatch(lengths, count, batchClaim) > 0L)
+     *     {
+     *         try
+     *         {
+     *             while (batchClaim.next())
+     *             {
+     *                 final MutableDirectBuffer buffer = batchClaim.buffer();
+     *                 final int offset = batchClaim.offset();
+     *
+     *                 // Work with buffer directly or wrap with a flyweight
+     *             }
+     *         }
+     *         finally
+     *         {
+     *             batchClaim.commit();
+     *         }
+     *     }
+     * }</pre>
+     *
+     * @param lengths    of the messages in the batch, in bytes.
+     * @param count      of messages in the batch from the beginning of the lengths array.
+     * @param batchClaim to be populated if the claim succeeds.
+     * @return The new stream position, otherwise a negative error value of {@link #NOT_CONNECTED},
+     * {@link #BACK_PRESSURED}, {@link #ADMIN_ACTION}, {@link #CLOSED}, or {@link #MAX_POSITION_EXCEEDED}.
+     * @throws IllegalArgumentException if a length is greater than {@link #maxPayloadLength()} or the batch
+     * length is greater than {@link #maxMessageLength()}.
+     * @see BatchClaim#commit()
+     * @see BatchClaim#abort()
+     */
+    public long tryClaimBatch(final int[] lengths, final int count, final BatchClaim batchClaim)
+    {
+        final int batchLength = validateAndComputeBatchLength(lengths, count);
+        long newPosition = CLOSED;
+
+        if (!isClosed)
+        {
+            final long limit = positionLimit.getVolatile();
+            final int partitionIndex = activePartitionIndex(logMetaDataBuffer);
+            final TermAppender termAppender = termAppenders[partitionIndex];
+            final long rawTail = termAppender.rawTailVolatile();
+            final long termOffset = rawTail & 0xFFFF_FFFFL;
+            final long position = computeTermBeginPosition(
+                termId(rawTail), positionBitsToShift, initialTermId) + termOffset;
+
+            if (position < limit)
+            {
+                final long result = termAppender.claimBatch(headerWriter, lengths, count, batchLength, batchClaim);
+                newPosition = newPosition(partitionIndex, (int)termOffset, position, result);
+            }
+            else
+            {
+                newPosition = backPressureStatus(position, batchLength);
+            }
+        }
+
+        return newPosition;
+    }
+
     /**
      * Add a destination manually to a multi-destination-cast Publication.
      *
@@ -631,4 +738,49 @@ public class Publication implements AutoCloseable
                 "Message exceeds maxMessageLength of " + maxMessageLength + ", length=" + length);
         }
     }
+
+    private int validateAndComputeBatchLength(final int[] lengths, final int count)
+    {
+        checkBatchCount(count, lengths.length);
+        for (int i = 0; i < count; i++)
+        {
+            checkForMaxPayloadLength(lengths[i]);
+        }
+
+        return checkForMaxBatchLength(BatchClaim.computeBatchLength(lengths, count));
+    }
+
+    private int validateAndComputeBatchLength(final DirectBufferVector[] messages, final int count)
+    {
+        checkBatchCount(count, messages.length);
+        int batchLength = 0;
+        for (int i = 0; i < count; i++)
+        {
+            final DirectBufferVector message = messages[i];
+            message.validate();
+            checkForMaxPayloadLength(message.length);
+            batchLength += BitUtil.align(message.length + HEADER_LENGTH, FrameDescriptor.FRAME_ALIGNMENT);
+        }
+
+        return checkForMaxBatchLength(batchLength);
+    }
+
+    private void checkBatchCount(final int count, final int capacity)
+    {
+        if (count <= 0 || count > capacity)
+        {
+            throw new IllegalArgumentException("Invalid batch count of " + count + ", capacity=" + capacity);
+        }
+    }
+
+    private int checkForMaxBatchLength(final int batchLength)
+    {
+        if (batchLength > maxMessageLength)
+        {
+            throw new IllegalArgumentException(
+                "Batch exceeds maxMessageLength of " + maxMessageLength + ", length=" + batchLength);
+        }
+
+        return batchLength;
+    }
 }
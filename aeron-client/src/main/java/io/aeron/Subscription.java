@@ -16,12 +16,13 @@
 package io.aeron;
 
 import io.aeron.logbuffer.*;
-import org.agrona.collections.ArrayUtil;
 import org.agrona.collections.LongHashSet;
 
 import java.util.*;
 import java.util.function.Consumer;
 
+import static org.agrona.UnsafeAccess.UNSAFE;
+
 class SubscriptionLhsPadding
 {
     @SuppressWarnings("unused")
@@ -36,8 +37,11 @@ class SubscriptionFields extends SubscriptionLhsPadding
     protected int roundRobinIndex = 0;
     protected final int streamId;
     protected volatile boolean isClosed = false;
+    protected volatile long pollEpoch = 0;
 
     protected volatile Image[] images = EMPTY_ARRAY;
+    protected Image[] retiredImages = EMPTY_ARRAY;
+    protected long retiredImagesPollEpoch = 0;
     protected final LongHashSet imageIdSet = new LongHashSet();
     protected final ClientConductor clientConductor;
     protected final String channel;
@@ -83,6 +87,20 @@ class SubscriptionFields extends SubscriptionLhsPadding
  */
 public class Subscription extends SubscriptionFields implements AutoCloseable
 {
+    private static final long POLL_EPOCH_OFFSET;
+
+    static
+    {
+        try
+        {
+            POLL_EPOCH_OFFSET = UNSAFE.objectFieldOffset(SubscriptionFields.class.getDeclaredField("pollEpoch"));
+        }
+        catch (final Exception ex)
+        {
+            throw new RuntimeException(ex);
+        }
+    }
+
     @SuppressWarnings("unused")
     protected long p16, p17, p18, p19, p20, p21, p22, p23, p24, p25, p26, p27, p28, p29, p30;
 
@@ -155,18 +173,26 @@ public class Subscription extends SubscriptionFields implements AutoCloseable
      */
     public int pollEndOfStreams(final EndOfStreamHandler endOfStreamHandler)
     {
-        int numEndOfStreams = 0;
-
-        for (final Image image : images)
+        final long pollEpoch = beginPoll();
+        try
         {
-            if (image.isEndOfStream())
+            int numEndOfStreams = 0;
+
+            for (final Image image : images)
             {
-                numEndOfStreams++;
-                endOfStreamHandler.onEndOfStream(image);
+                if (image.doIsEndOfStream())
+                {
+                    numEndOfStreams++;
+                    endOfStreamHandler.onEndOfStream(image);
+                }
             }
-        }
 
-        return numEndOfStreams;
+            return numEndOfStreams;
+        }
+        finally
+        {
+            endPoll(pollEpoch);
+        }
     }
 
     /**
@@ -183,27 +209,35 @@ public class Subscription extends SubscriptionFields implements AutoCloseable
      */
     public int poll(final FragmentHandler fragmentHandler, final int fragmentLimit)
     {
-        final Image[] images = this.images;
-        final int length = images.length;
-        int fragmentsRead = 0;
-
-        int startingIndex = roundRobinIndex++;
-        if (startingIndex >= length)
+        final long pollEpoch = beginPoll();
+        try
         {
-            roundRobinIndex = startingIndex = 0;
-        }
+            final Image[] images = this.images;
+            final int length = images.length;
+            int fragmentsRead = 0;
 
-        for (int i = startingIndex; i < length && fragmentsRead < fragmentLimit; i++)
-        {
-            fragmentsRead += images[i].poll(fragmentHandler, fragmentLimit - fragmentsRead);
-        }
+            int startingIndex = roundRobinIndex++;
+            if (startingIndex >= length)
+            {
+                roundRobinIndex = startingIndex = 0;
+            }
 
-        for (int i = 0; i < startingIndex && fragmentsRead < fragmentLimit; i++)
+            for (int i = startingIndex; i < length && fragmentsRead < fragmentLimit; i++)
+            {
+                fragmentsRead += images[i].doPoll(fragmentHandler, fragmentLimit - fragmentsRead);
+            }
+
+            for (int i = 0; i < startingIndex && fragmentsRead < fragmentLimit; i++)
+            {
+                fragmentsRead += images[i].doPoll(fragmentHandler, fragmentLimit - fragmentsRead);
+            }
+
+            return fragmentsRead;
+        }
+        finally
         {
-            fragmentsRead += images[i].poll(fragmentHandler, fragmentLimit - fragmentsRead);
+            endPoll(pollEpoch);
         }
-
-        return fragmentsRead;
     }
 
     /**
@@ -223,27 +257,35 @@ public class Subscription extends SubscriptionFields implements AutoCloseable
      */
     public int controlledPoll(final ControlledFragmentHandler fragmentHandler, final int fragmentLimit)
     {
-        final Image[] images = this.images;
-        final int length = images.length;
-        int fragmentsRead = 0;
-
-        int startingIndex = roundRobinIndex++;
-        if (startingIndex >= length)
+        final long pollEpoch = beginPoll();
+        try
         {
-            roundRobinIndex = startingIndex = 0;
-        }
+            final Image[] images = this.images;
+            final int length = images.length;
+            int fragmentsRead = 0;
 
-        for (int i = startingIndex; i < length && fragmentsRead < fragmentLimit; i++)
-        {
-            fragmentsRead += images[i].controlledPoll(fragmentHandler, fragmentLimit - fragmentsRead);
-        }
+            int startingIndex = roundRobinIndex++;
+            if (startingIndex >= length)
+            {
+                roundRobinIndex = startingIndex = 0;
+            }
+
+            for (int i = startingIndex; i < length && fragmentsRead < fragmentLimit; i++)
+            {
+                fragmentsRead += images[i].doControlledPoll(fragmentHandler, fragmentLimit - fragmentsRead);
+            }
+
+            for (int i = 0; i < startingIndex && fragmentsRead < fragmentLimit; i++)
+            {
+                fragmentsRead += images[i].doControlledPoll(fragmentHandler, fragmentLimit - fragmentsRead);
+            }
 
-        for (int i = 0; i < startingIndex && fragmentsRead < fragmentLimit; i++)
+            return fragmentsRead;
+        }
+        finally
         {
-            fragmentsRead += images[i].controlledPoll(fragmentHandler, fragmentLimit - fragmentsRead);
+            endPoll(pollEpoch);
         }
-
-        return fragmentsRead;
     }
 
     /**
@@ -257,13 +299,21 @@ public class Subscription extends SubscriptionFields implements AutoCloseable
      */
     public long blockPoll(final BlockHandler blockHandler, final int blockLengthLimit)
     {
-        long bytesConsumed = 0;
-        for (final Image image : images)
+        final long pollEpoch = beginPoll();
+        try
         {
-            bytesConsumed += image.blockPoll(blockHandler, blockLengthLimit);
-        }
+            long bytesConsumed = 0;
+            for (final Image image : images)
+            {
+                bytesConsumed += image.doBlockPoll(blockHandler, blockLengthLimit);
+            }
 
-        return bytesConsumed;
+            return bytesConsumed;
+        }
+        finally
+        {
+            endPoll(pollEpoch);
+        }
     }
 
     /**
@@ -277,13 +327,21 @@ public class Subscription extends SubscriptionFields implements AutoCloseable
      */
     public long rawPoll(final RawBlockHandler rawBlockHandler, final int blockLengthLimit)
     {
-        long bytesConsumed = 0;
-        for (final Image image : images)
+        final long pollEpoch = beginPoll();
+        try
         {
-            bytesConsumed += image.rawPoll(rawBlockHandler, blockLengthLimit);
-        }
+            long bytesConsumed = 0;
+            for (final Image image : images)
+            {
+                bytesConsumed += image.doRawPoll(rawBlockHandler, blockLengthLimit);
+            }
 
-        return bytesConsumed;
+            return bytesConsumed;
+        }
+        finally
+        {
+            endPoll(pollEpoch);
+        }
     }
 
     /**
@@ -357,7 +415,7 @@ public class Subscription extends SubscriptionFields implements AutoCloseable
      */
     public List<Image> images()
     {
-        return Collections.unmodifiableList(Arrays.asList(images));
+        return Collections.unmodifiableList(Arrays.asList(images.clone()));
     }
 
     /**
@@ -432,7 +490,14 @@ public class Subscription extends SubscriptionFields implements AutoCloseable
         {
             if (imageIdSet.add(image.correlationId()))
             {
-                images = ArrayUtil.add(images, image);
+                final Image[] oldArray = images;
+                final int length = oldArray.length;
+                final Image[] newArray = newImagesArray(length + 1);
+
+                System.arraycopy(oldArray, 0, newArray, 0, length);
+                newArray[length] = image;
+
+                swapImages(oldArray, newArray);
             }
         }
     }
@@ -456,13 +521,62 @@ public class Subscription extends SubscriptionFields implements AutoCloseable
                 i++;
             }
 
-            images = ArrayUtil.remove(oldArray, i);
-            clientConductor.releaseImage(removedImage);
+            final int length = oldArray.length;
+            final Image[] newArray = newImagesArray(length - 1);
+
+            System.arraycopy(oldArray, 0, newArray, 0, i);
+            System.arraycopy(oldArray, i + 1, newArray, i, length - i - 1);
+
+            swapImages(oldArray, newArray);
+            removedImage.close();
         }
 
         return removedImage;
     }
 
+    long pollEpoch()
+    {
+        return pollEpoch;
+    }
+
+    private long beginPoll()
+    {
+        final long pollEpoch = this.pollEpoch + 1;
+        this.pollEpoch = pollEpoch;
+
+        return pollEpoch;
+    }
+
+    private void endPoll(final long pollEpoch)
+    {
+        UNSAFE.putOrderedLong(this, POLL_EPOCH_OFFSET, pollEpoch + 1);
+    }
+
+    /**
+     * Take the array which was swapped out by the previous change to the images when it is of the required length
+     * and no poll which may be iterating it is still in progress, so image churn does not allocate.
+     */
+    private Image[] newImagesArray(final int length)
+    {
+        final Image[] retiredImages = this.retiredImages;
+        final long retiredPollEpoch = retiredImagesPollEpoch;
+
+        if (retiredImages.length == length && ((retiredPollEpoch & 1) == 0 || pollEpoch != retiredPollEpoch))
+        {
+            this.retiredImages = EMPTY_ARRAY;
+            return retiredImages;
+        }
+
+        return 0 == length ? EMPTY_ARRAY : new Image[length];
+    }
+
+    private void swapImages(final Image[] oldArray, final Image[] newArray)
+    {
+        images = newArray;
+        retiredImages = oldArray;
+        retiredImagesPollEpoch = pollEpoch;
+    }
+
     private void closeImages()
     {
         final Image[] images = this.images;
@@ -470,7 +584,7 @@ public class Subscription extends SubscriptionFields implements AutoCloseable
 
         for (final Image image : images)
         {
-            clientConductor.releaseImage(image);
+            image.close();
 
             try
             {
@@ -483,6 +597,10 @@ public class Subscription extends SubscriptionFields implements AutoCloseable
             {
                 clientConductor.handleError(ex);
             }
+            finally
+            {
+                clientConductor.releaseImage(image);
+            }
         }
     }
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.logbuffer;
+
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteOrder;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static io.aeron.protocol.DataHeaderFlyweight.RESERVED_VALUE_OFFSET;
+import static io.aeron.protocol.HeaderFlyweight.FRAME_LENGTH_FIELD_OFFSET;
+import static io.aeron.protocol.HeaderFlyweight.HDR_TYPE_PAD;
+import static io.aeron.protocol.HeaderFlyweight.TYPE_FIELD_OFFSET;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.agrona.BitUtil.align;
+
+/**
+ * Represents a claimed range in a buffer holding a batch of unfragmented messages which was reserved with a single
+ * advance of the tail. Messages are written without copy semantics and then made available together with a
+ * single {@link #commit()}.
+ * <p>
+ * The messages in the batch are visited in order with {@link #next()} after which the current message is in
+ * {@link #buffer()} between {@link #offset()} and {@link #offset()} + {@link #length()}.
+ * <pre>{@code
+ *     while (batchClaim.next())
+ *     {
+ *         final MutableDirectBuffer buffer = batchClaim.buffer();
+ *         final int offset = batchClaim.offset();
+ *
+ *         // Work with buffer directly or wrap with a flyweight
+ *     }
+ *
+ *     batchClaim.commit();
+ * }</pre>
+ * If the claimed space is no longer required it can be aborted by calling {@link #abort()}.
+ * <p>
+ * <b>Note:</b> The array of lengths the batch was claimed with is referenced and must not be modified until the
+ * batch is committed or aborted.
+ *
+ * @see io.aeron.Publication#tryClaimBatch(int[], int, BatchClaim)
+ * @see io.aeron.ExclusivePublication#tryClaimBatch(int[], int, BatchClaim)
+ */
+public class BatchClaim
+{
+    private final UnsafeBuffer buffer = new UnsafeBuffer(0, 0);
+    private int[] lengths;
+    private int count;
+    private int index;
+    private int frameOffset;
+
+    /**
+     * Compute the length in the log required for a batch of unfragmented messages including frame headers
+     * and alignment.
+     *
+     * @param lengths of the messages in the batch.
+     * @param count   of messages in the batch from the beginning of the lengths array.
+     * @return the length in the log required for the batch.
+     */
+    public static int computeBatchLength(final int[] lengths, final int count)
+    {
+        int batchLength = 0;
+        for (int i = 0; i < count; i++)
+        {
+            batchLength += align(lengths[i] + HEADER_LENGTH, FRAME_ALIGNMENT);
+        }
+
+        return batchLength;
+    }
+
+    /**
+     * Wrap a region of an underlying log buffer so can can represent a claimed batch of messages for a publisher.
+     *
+     * @param buffer  to be wrapped.
+     * @param offset  at which the claimed region begins including space for the first header.
+     * @param length  of the underlying claimed region including space for all headers and alignment.
+     * @param lengths of the messages in the batch.
+     * @param count   of messages in the batch.
+     */
+    public void wrap(
+        final AtomicBuffer buffer, final int offset, final int length, final int[] lengths, final int count)
+    {
+        this.buffer.wrap(buffer, offset, length);
+        this.lengths = lengths;
+        this.count = count;
+        index = -1;
+        frameOffset = 0;
+    }
+
+    /**
+     * The referenced buffer to be used.
+     *
+     * @return the referenced buffer to be used..
+     */
+    public MutableDirectBuffer buffer()
+    {
+        return buffer;
+    }
+
+    /**
+     * The number of messages in the claimed batch.
+     *
+     * @return number of messages in the claimed batch.
+     */
+    public int count()
+    {
+        return count;
+    }
+
+    /**
+     * Advance to the next message in the batch.
+     *
+     * @return true if there is a next message to be written otherwise false when the batch is exhausted.
+     */
+    public boolean next()
+    {
+        if (index + 1 >= count)
+        {
+            return false;
+        }
+
+        if (index >= 0)
+        {
+            frameOffset += align(lengths[index] + HEADER_LENGTH, FRAME_ALIGNMENT);
+        }
+
+        index++;
+
+        return true;
+    }
+
+    /**
+     * The offset in the buffer at which the current message begins.
+     *
+     * @return offset in the buffer at which the current message begins.
+     */
+    public int offset()
+    {
+        return frameOffset + HEADER_LENGTH;
+    }
+
+    /**
+     * The length of the current message in the buffer.
+     *
+     * @return length of the current message in the buffer.
+     */
+    public int length()
+    {
+        return lengths[index];
+    }
+
+    /**
+     * Get the value stored in the reserve space at the end of the data frame header for the current message.
+     * <p>
+     * Note: The value is in {@link ByteOrder#LITTLE_ENDIAN} format.
+     *
+     * @return the value stored in the reserve space at the end of a data frame header.
+     * @see DataHeaderFlyweight
+     */
+    public long reservedValue()
+    {
+        return buffer.getLong(frameOffset + RESERVED_VALUE_OFFSET, LITTLE_ENDIAN);
+    }
+
+    /**
+     * Write the provided value into the reserved space at the end of the data frame header for the current message.
+     * <p>
+     * Note: The value will be written in {@link ByteOrder#LITTLE_ENDIAN} format.
+     *
+     * @param value to be stored in the reserve space at the end of a data frame header.
+     * @return this for fluent API semantics.
+     * @see DataHeaderFlyweight
+     */
+    public BatchClaim reservedValue(final long value)
+    {
+        buffer.putLong(frameOffset + RESERVED_VALUE_OFFSET, value, LITTLE_ENDIAN);
+        return this;
+    }
+
+    /**
+     * Commit the batch of messages to the log buffer so that they are available to subscribers.
+     * <p>
+     * The frame lengths after the first are written before the first is written with ordered semantics so the
+     * whole batch becomes visible in one operation.
+     */
+    public void commit()
+    {
+        final int[] lengths = this.lengths;
+        final UnsafeBuffer buffer = this.buffer;
+        int frameOffset = align(lengths[0] + HEADER_LENGTH, FRAME_ALIGNMENT);
+
+        for (int i = 1; i < count; i++)
+        {
+            final int frameLength = lengths[i] + HEADER_LENGTH;
+            buffer.putInt(frameOffset + FRAME_LENGTH_FIELD_OFFSET, frameLength, LITTLE_ENDIAN);
+            frameOffset += align(frameLength, FRAME_ALIGNMENT);
+        }
+
+        putFrameLengthOrdered(0, lengths[0] + HEADER_LENGTH);
+    }
+
+    /**
+     * Abort a claim of the batch space to the log buffer so that the log can progress by ignoring this claim.
+     */
+    public void abort()
+    {
+        buffer.putShort(TYPE_FIELD_OFFSET, (short)HDR_TYPE_PAD, LITTLE_ENDIAN);
+        putFrameLengthOrdered(0, buffer.capacity());
+    }
+
+    private void putFrameLengthOrdered(final int frameOffset, final int length)
+    {
+        int frameLength = length;
+        if (ByteOrder.nativeOrder() != LITTLE_ENDIAN)
+        {
+            frameLength = Integer.reverseBytes(frameLength);
+        }
+
+        buffer.putIntOrdered(frameOffset + FRAME_LENGTH_FIELD_OFFSET, frameLength);
+    }
+}
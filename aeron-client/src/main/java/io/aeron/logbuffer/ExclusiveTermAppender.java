@@ -26,7 +26,10 @@ import static io.aeron.logbuffer.LogBufferDescriptor.TERM_TAIL_COUNTERS_OFFSET;
 import static io.aeron.logbuffer.LogBufferDescriptor.packTail;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
 import static io.aeron.protocol.DataHeaderFlyweight.RESERVED_VALUE_OFFSET;
+import static io.aeron.protocol.DataHeaderFlyweight.SESSION_ID_FIELD_OFFSET;
+import static io.aeron.protocol.DataHeaderFlyweight.STREAM_ID_FIELD_OFFSET;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.agrona.BitUtil.SIZE_OF_INT;
 import static org.agrona.BitUtil.SIZE_OF_LONG;
 import static org.agrona.BitUtil.align;
 
@@ -431,6 +434,173 @@ public class ExclusiveTermAppender
         return resultingOffset;
     }
 
+    /**
+     * Claim a batch of unfragmented messages in the term buffer with a single advance of the tail for writing in the
+     * messages with zero copy semantics.
+     *
+     * @param termId      for the current term.
+     * @param termOffset  in the term at which to append.
+     * @param header      for writing the default header.
+     * @param lengths     of the messages to be written.
+     * @param count       of messages in the batch.
+     * @param batchLength of the batch as computed by {@link BatchClaim#computeBatchLength(int[], int)}.
+     * @param batchClaim  to be updated with the claimed region.
+     * @return the resulting offset of the term after the append on success otherwise {@link #TRIPPED}.
+     */
+    public int claimBatch(
+        final int termId,
+        final int termOffset,
+        final HeaderWriter header,
+        final int[] lengths,
+        final int count,
+        final int batchLength,
+        final BatchClaim batchClaim)
+    {
+        final UnsafeBuffer termBuffer = this.termBuffer;
+        final int termLength = termBuffer.capacity();
+
+        int resultingOffset = termOffset + batchLength;
+        putRawTailOrdered(termId, resultingOffset);
+
+        if (resultingOffset > termLength)
+        {
+            resultingOffset = handleEndOfLogCondition(termBuffer, termOffset, header, termLength, termId);
+        }
+        else
+        {
+            int frameOffset = termOffset;
+            for (int i = 0; i < count; i++)
+            {
+                final int frameLength = lengths[i] + HEADER_LENGTH;
+                header.write(termBuffer, frameOffset, frameLength, termId);
+                frameOffset += align(frameLength, FRAME_ALIGNMENT);
+            }
+
+            batchClaim.wrap(termBuffer, termOffset, batchLength, lengths, count);
+        }
+
+        return resultingOffset;
+    }
+
+    /**
+     * Append a batch of unfragmented messages to the term buffer with a single advance of the tail. The batch
+     * becomes visible to consumers in one operation when the first frame length is written.
+     *
+     * @param termId      for the current term.
+     * @param termOffset  in the term at which to append.
+     * @param header      for writing the default header.
+     * @param messages    to be appended with each vector being a whole message.
+     * @param count       of messages in the batch.
+     * @param batchLength of the batch including frame headers and alignment.
+     * @return the resulting offset of the term after the append on success otherwise {@link #TRIPPED}.
+     */
+    public int appendUnfragmentedBatch(
+        final int termId,
+        final int termOffset,
+        final HeaderWriter header,
+        final DirectBufferVector[] messages,
+        final int count,
+        final int batchLength)
+    {
+        final UnsafeBuffer termBuffer = this.termBuffer;
+        final int termLength = termBuffer.capacity();
+
+        int resultingOffset = termOffset + batchLength;
+        putRawTailOrdered(termId, resultingOffset);
+
+        if (resultingOffset > termLength)
+        {
+            resultingOffset = handleEndOfLogCondition(termBuffer, termOffset, header, termLength, termId);
+        }
+        else
+        {
+            int frameOffset = termOffset;
+            for (int i = 0; i < count; i++)
+            {
+                final DirectBufferVector message = messages[i];
+                final int frameLength = message.length + HEADER_LENGTH;
+
+                header.write(termBuffer, frameOffset, frameLength, termId);
+                termBuffer.putBytes(frameOffset + HEADER_LENGTH, message.buffer, message.offset, message.length);
+
+                if (frameOffset > termOffset)
+                {
+                    termBuffer.putInt(lengthOffset(frameOffset), frameLength, LITTLE_ENDIAN);
+                }
+
+                frameOffset += align(frameLength, FRAME_ALIGNMENT);
+            }
+
+            frameLengthOrdered(termBuffer, termOffset, messages[0].length + HEADER_LENGTH);
+        }
+
+        return resultingOffset;
+    }
+
+    /**
+     * Append a block of existing frames, such as a run of frames from a recorded term, to the term buffer with a
+     * single copy and advance of the tail. The frames must already carry the correct term offsets and term id for
+     * where they are appended. The session id and stream id of each frame are rewritten in place in the term buffer.
+     * The block becomes visible to consumers in one operation when the first frame length is written.
+     *
+     * @param termId      for the current term.
+     * @param termOffset  in the term at which to append.
+     * @param header      for writing the default header.
+     * @param srcBuffer   containing the block of frames.
+     * @param srcOffset   at which the block begins.
+     * @param blockLength of the block of frames which must be a multiple of {@link FrameDescriptor#FRAME_ALIGNMENT}.
+     * @param sessionId   to be written into each frame.
+     * @param streamId    to be written into each frame.
+     * @return the resulting offset of the term after the append on success otherwise {@link #TRIPPED}.
+     */
+    public int appendBlock(
+        final int termId,
+        final int termOffset,
+        final HeaderWriter header,
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int blockLength,
+        final int sessionId,
+        final int streamId)
+    {
+        final UnsafeBuffer termBuffer = this.termBuffer;
+        final int termLength = termBuffer.capacity();
+
+        int resultingOffset = termOffset + blockLength;
+        putRawTailOrdered(termId, resultingOffset);
+
+        if (resultingOffset > termLength)
+        {
+            resultingOffset = handleEndOfLogCondition(termBuffer, termOffset, header, termLength, termId);
+        }
+        else
+        {
+            final int firstFrameLength = srcBuffer.getInt(srcOffset, LITTLE_ENDIAN);
+            termBuffer.putBytes(
+                termOffset + SIZE_OF_INT, srcBuffer, srcOffset + SIZE_OF_INT, blockLength - SIZE_OF_INT);
+
+            int frameOffset = termOffset;
+            int frameLength = firstFrameLength;
+            while (true)
+            {
+                termBuffer.putInt(frameOffset + SESSION_ID_FIELD_OFFSET, sessionId, LITTLE_ENDIAN);
+                termBuffer.putInt(frameOffset + STREAM_ID_FIELD_OFFSET, streamId, LITTLE_ENDIAN);
+
+                frameOffset += align(frameLength, FRAME_ALIGNMENT);
+                if (frameOffset >= resultingOffset)
+                {
+                    break;
+                }
+
+                frameLength = termBuffer.getInt(frameOffset, LITTLE_ENDIAN);
+            }
+
+            frameLengthOrdered(termBuffer, termOffset, firstFrameLength);
+        }
+
+        return resultingOffset;
+    }
+
     private int handleEndOfLogCondition(
         final UnsafeBuffer termBuffer,
         final long termOffset,
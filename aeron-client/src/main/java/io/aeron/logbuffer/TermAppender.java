@@ -28,6 +28,7 @@ import static io.aeron.logbuffer.FrameDescriptor.PADDING_FRAME_TYPE;
 import static io.aeron.logbuffer.FrameDescriptor.frameFlags;
 import static io.aeron.logbuffer.FrameDescriptor.frameLengthOrdered;
 import static io.aeron.logbuffer.FrameDescriptor.frameType;
+import static io.aeron.logbuffer.FrameDescriptor.lengthOffset;
 import static io.aeron.logbuffer.LogBufferDescriptor.TERM_TAIL_COUNTERS_OFFSET;
 import static io.aeron.logbuffer.LogBufferDescriptor.packTail;
 import static io.aeron.logbuffer.LogBufferDescriptor.termId;
@@ -407,6 +408,108 @@ public class TermAppender
         return resultingOffset;
     }
 
+    /**
+     * Claim a batch of unfragmented messages in the term buffer with a single advance of the tail for writing in the
+     * messages with zero copy semantics.
+     *
+     * @param header      for writing the default header.
+     * @param lengths     of the messages to be written.
+     * @param count       of messages in the batch.
+     * @param batchLength of the batch as computed by {@link BatchClaim#computeBatchLength(int[], int)}.
+     * @param batchClaim  to be updated with the claimed region.
+     * @return the resulting offset of the term after the append on success otherwise {@link #TRIPPED}
+     * or {@link #FAILED} packed with the termId if a padding record was inserted at the end.
+     */
+    public long claimBatch(
+        final HeaderWriter header,
+        final int[] lengths,
+        final int count,
+        final int batchLength,
+        final BatchClaim batchClaim)
+    {
+        final long rawTail = getAndAddRawTail(batchLength);
+        final long termOffset = rawTail & 0xFFFF_FFFFL;
+
+        final UnsafeBuffer termBuffer = this.termBuffer;
+        final int termLength = termBuffer.capacity();
+
+        long resultingOffset = termOffset + batchLength;
+        if (resultingOffset > termLength)
+        {
+            resultingOffset = handleEndOfLogCondition(termBuffer, termOffset, header, termLength, termId(rawTail));
+        }
+        else
+        {
+            final int termId = termId(rawTail);
+            int frameOffset = (int)termOffset;
+            for (int i = 0; i < count; i++)
+            {
+                final int frameLength = lengths[i] + HEADER_LENGTH;
+                header.write(termBuffer, frameOffset, frameLength, termId);
+                frameOffset += align(frameLength, FRAME_ALIGNMENT);
+            }
+
+            batchClaim.wrap(termBuffer, (int)termOffset, batchLength, lengths, count);
+        }
+
+        return resultingOffset;
+    }
+
+    /**
+     * Append a batch of unfragmented messages to the term buffer with a single advance of the tail. The batch
+     * becomes visible to consumers in one operation when the first frame length is written.
+     *
+     * @param header      for writing the default header.
+     * @param messages    to be appended with each vector being a whole message.
+     * @param count       of messages in the batch.
+     * @param batchLength of the batch including frame headers and alignment.
+     * @return the resulting offset of the term after the append on success otherwise {@link #TRIPPED} or
+     * {@link #FAILED} packed with the termId if a padding record was inserted at the end.
+     */
+    public long appendUnfragmentedBatch(
+        final HeaderWriter header,
+        final DirectBufferVector[] messages,
+        final int count,
+        final int batchLength)
+    {
+        final long rawTail = getAndAddRawTail(batchLength);
+        final long termOffset = rawTail & 0xFFFF_FFFFL;
+
+        final UnsafeBuffer termBuffer = this.termBuffer;
+        final int termLength = termBuffer.capacity();
+
+        long resultingOffset = termOffset + batchLength;
+        if (resultingOffset > termLength)
+        {
+            resultingOffset = handleEndOfLogCondition(termBuffer, termOffset, header, termLength, termId(rawTail));
+        }
+        else
+        {
+            final int termId = termId(rawTail);
+            final int batchOffset = (int)termOffset;
+            int frameOffset = batchOffset;
+            for (int i = 0; i < count; i++)
+            {
+                final DirectBufferVector message = messages[i];
+                final int frameLength = message.length + HEADER_LENGTH;
+
+                header.write(termBuffer, frameOffset, frameLength, termId);
+                termBuffer.putBytes(frameOffset + HEADER_LENGTH, message.buffer, message.offset, message.length);
+
+                if (frameOffset > batchOffset)
+                {
+                    termBuffer.putInt(lengthOffset(frameOffset), frameLength, LITTLE_ENDIAN);
+                }
+
+                frameOffset += align(frameLength, FRAME_ALIGNMENT);
+            }
+
+            frameLengthOrdered(termBuffer, batchOffset, messages[0].length + HEADER_LENGTH);
+        }
+
+        return resultingOffset;
+    }
+
     private long handleEndOfLogCondition(
         final UnsafeBuffer termBuffer,
         final long termOffset,
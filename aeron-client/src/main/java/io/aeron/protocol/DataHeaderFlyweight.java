@@ -60,6 +60,11 @@ public class DataHeaderFlyweight extends HeaderFlyweight
      */
     public static final short BEGIN_END_AND_EOS_FLAGS = BEGIN_FLAG | END_FLAG | EOS_FLAG;
 
+    /**
+     * Compressed Flag for a message payload which has been compressed by a {@link io.aeron.MessageCodec}
+     */
+    public static final short COMPRESSED_FLAG = 0x10;
+
     public static final long DEFAULT_RESERVE_VALUE = 0L;
 
     public static final int TERM_OFFSET_FIELD_OFFSET = 8;
@@ -22,6 +22,7 @@ import io.aeron.command.PublicationBuffersReadyFlyweight;
 import io.aeron.exceptions.ConductorServiceTimeoutException;
 import io.aeron.exceptions.DriverTimeoutException;
 import io.aeron.exceptions.RegistrationException;
+import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.LogBufferDescriptor;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.ErrorHandler;
@@ -36,10 +37,15 @@ import java.util.concurrent.locks.Lock;
 import java.util.function.ToIntFunction;
 
 import static io.aeron.ErrorCode.INVALID_CHANNEL;
+import static io.aeron.logbuffer.FrameDescriptor.lengthOffset;
+import static io.aeron.logbuffer.FrameDescriptor.typeOffset;
 import static io.aeron.logbuffer.LogBufferDescriptor.PARTITION_COUNT;
 import static io.aeron.logbuffer.LogBufferDescriptor.TERM_MIN_LENGTH;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static io.aeron.protocol.HeaderFlyweight.HDR_TYPE_DATA;
 import static java.lang.Boolean.TRUE;
 import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.sameInstance;
@@ -488,6 +494,64 @@ public class ClientConductorTest
         assertTrue(subscription.hasNoImages());
     }
 
+    @Test
+    public void shouldNotReleaseImageLogBuffersWhileReaderIsMidPoll()
+    {
+        whenReceiveBroadcastOnMessage(
+            ControlProtocolEvents.ON_OPERATION_SUCCESS,
+            correlatedMessageBuffer,
+            (buffer) ->
+            {
+                correlatedMessage.correlationId(CORRELATION_ID);
+                return CorrelatedMessageFlyweight.LENGTH;
+            });
+
+        final Subscription subscription = conductor.addSubscription(CHANNEL, STREAM_ID_1);
+
+        conductor.onAvailableImage(
+            CORRELATION_ID,
+            STREAM_ID_1,
+            SESSION_ID_1,
+            subscription.registrationId(),
+            SUBSCRIBER_POSITION_ID,
+            SESSION_ID_1 + "-log",
+            SOURCE_INFO);
+
+        final Image image = subscription.imageAtIndex(0);
+        final LogBuffers logBuffers = image.logBuffers();
+        final UnsafeBuffer termBuffer = logBuffers.termBuffers()[0];
+        termBuffer.putShort(typeOffset(0), (short)HDR_TYPE_DATA, LITTLE_ENDIAN);
+        termBuffer.putIntOrdered(lengthOffset(0), HEADER_LENGTH);
+
+        doAnswer(
+            (invocation) ->
+            {
+                ((Image)invocation.getArgument(0)).isEndOfStream();
+                return null;
+            })
+            .when(mockUnavailableImageHandler).onUnavailableImage(any(Image.class));
+
+        final FragmentHandler unavailableOnPollHandler =
+            (buffer, offset, length, header) ->
+            {
+                conductor.onUnavailableImage(CORRELATION_ID, STREAM_ID_1);
+
+                assertTrue(image.isClosed());
+                assertFalse(image.isReaderQuiescent());
+                verify(logBuffers, never()).delete();
+            };
+
+        assertThat(subscription.poll(unavailableOnPollHandler, 1), is(1));
+        verify(mockUnavailableImageHandler).onUnavailableImage(image);
+        verify(logBuffers, never()).delete();
+
+        timeNs += TimeUnit.MILLISECONDS.toNanos(100);
+        conductor.doWork();
+
+        assertTrue(image.isReaderQuiescent());
+        verify(logBuffers).delete();
+    }
+
     @Test
     public void shouldIgnoreUnknownNewImage()
     {
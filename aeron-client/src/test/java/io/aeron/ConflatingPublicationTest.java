@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConflatingPublicationTest
+{
+    private static final int MAX_KEYS = 4;
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    private final ExclusivePublication publication = mock(ExclusivePublication.class);
+    private final UnsafeBuffer valueBuffer = new UnsafeBuffer(new byte[MAX_VALUE_LENGTH]);
+    private final List<String> published = new ArrayList<>();
+    private boolean isBackPressured = false;
+    private ConflatingPublication conflatingPublication;
+
+    @Before
+    public void setUp()
+    {
+        when(publication.maxMessageLength()).thenReturn(1024);
+        when(publication.offer(any(DirectBuffer.class), anyInt(), anyInt())).thenAnswer(
+            (invocation) ->
+            {
+                if (isBackPressured)
+                {
+                    return ExclusivePublication.BACK_PRESSURED;
+                }
+
+                final DirectBuffer buffer = invocation.getArgument(0);
+                final int offset = invocation.getArgument(1);
+                final int length = invocation.getArgument(2);
+                published.add(buffer.getStringWithoutLengthAscii(offset, length));
+
+                return 64L * published.size();
+            });
+
+        conflatingPublication = new ConflatingPublication(publication, MAX_KEYS, MAX_VALUE_LENGTH);
+    }
+
+    @Test
+    public void shouldPublishValueStraightAwayWhenNotBackPressured()
+    {
+        assertThat(offer(1, "a1"), is(1L));
+
+        assertThat(published, contains("a1"));
+        assertThat(conflatingPublication.pendingCount(), is(0));
+    }
+
+    @Test
+    public void shouldConflateValuesForKeyWhileBackPressured()
+    {
+        isBackPressured = true;
+
+        assertThat(offer(1, "a1"), is(0L));
+        assertThat(offer(2, "b1"), is(0L));
+        assertThat(offer(1, "a2"), is(0L));
+        assertThat(offer(1, "a3"), is(0L));
+        assertThat(conflatingPublication.pendingCount(), is(2));
+
+        isBackPressured = false;
+
+        assertThat(conflatingPublication.drain(), is(2L));
+        assertThat(published, contains("a3", "b1"));
+        assertThat(conflatingPublication.pendingCount(), is(0));
+    }
+
+    @Test
+    public void shouldReuseSlotForKeyOnceDrained()
+    {
+        for (int i = 0; i < MAX_KEYS * 2; i++)
+        {
+            offer(i % MAX_KEYS, "v" + i);
+        }
+
+        assertThat(published.size(), is(MAX_KEYS * 2));
+    }
+
+    @Test
+    public void shouldFreeSlotsOnceDrainedSoMoreThanMaxKeysCanBeUsedOverTime()
+    {
+        for (int i = 0; i < MAX_KEYS * 3; i++)
+        {
+            assertThat(offer(i, "k" + i), is(1L));
+        }
+
+        isBackPressured = true;
+        for (int i = 0; i < MAX_KEYS; i++)
+        {
+            offer(100 + i, "p" + i);
+        }
+        assertThat(conflatingPublication.pendingCount(), is(MAX_KEYS));
+
+        isBackPressured = false;
+        assertThat(conflatingPublication.drain(), is((long)MAX_KEYS));
+
+        isBackPressured = true;
+        for (int i = 0; i < MAX_KEYS; i++)
+        {
+            offer(200 + i, "q" + i);
+        }
+        offer(200, "q" + MAX_KEYS);
+
+        isBackPressured = false;
+        assertThat(conflatingPublication.drain(), is((long)MAX_KEYS));
+
+        assertThat(published.size(), is(MAX_KEYS * 5));
+        assertThat(published.get(MAX_KEYS * 4), is("q" + MAX_KEYS));
+        assertThat(published.get(published.size() - 1), is("q" + (MAX_KEYS - 1)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowWhenMaxKeysExceeded()
+    {
+        isBackPressured = true;
+
+        for (int i = 0; i <= MAX_KEYS; i++)
+        {
+            offer(i, "v");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowWhenValueTooLong()
+    {
+        conflatingPublication.offer(1, valueBuffer, 0, MAX_VALUE_LENGTH + 1);
+    }
+
+    private long offer(final long key, final String value)
+    {
+        final int length = valueBuffer.putStringWithoutLengthAscii(0, value);
+
+        return conflatingPublication.offer(key, valueBuffer, 0, length);
+    }
+}
@@ -27,8 +27,10 @@ import org.mockito.*;
 import static io.aeron.logbuffer.LogBufferDescriptor.*;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
 import static java.nio.ByteBuffer.allocateDirect;
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
 import static org.agrona.BitUtil.align;
+import static org.junit.Assert.assertNull;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
@@ -95,6 +97,53 @@ public class ImageTest
         assertThat(image.position(), is(0L));
     }
 
+    @Test
+    public void shouldBeReaderQuiescentWhenClosedOutsideOfRead()
+    {
+        final Image image = createImage();
+
+        image.close();
+
+        assertTrue(image.isReaderQuiescent());
+    }
+
+    @Test
+    public void shouldNotBeReaderQuiescentUntilReadInProgressCompletes()
+    {
+        final long initialPosition = computePosition(INITIAL_TERM_ID, 0, POSITION_BITS_TO_SHIFT, INITIAL_TERM_ID);
+        position.setOrdered(initialPosition);
+        final Image image = createImage();
+
+        insertDataFrame(INITIAL_TERM_ID, offsetForFrame(0));
+
+        final FragmentHandler closingHandler =
+            (buffer, offset, length, header) ->
+            {
+                image.close();
+                assertFalse(image.isReaderQuiescent());
+
+                image.isEndOfStream();
+                assertThat(image.poll(mockFragmentHandler, Integer.MAX_VALUE), is(0));
+                assertFalse(image.isReaderQuiescent());
+            };
+
+        assertThat(image.poll(closingHandler, Integer.MAX_VALUE), is(1));
+        assertTrue(image.isReaderQuiescent());
+        verify(errorHandler, never()).onError(any(Throwable.class));
+    }
+
+    @Test
+    public void shouldCacheMtuLengthAndNotExposeFileChannelWhenClosed()
+    {
+        final Image image = createImage();
+        final int mtuLength = image.mtuLength();
+
+        image.close();
+
+        assertThat(image.mtuLength(), is(mtuLength));
+        assertNull(image.fileChannel());
+    }
+
     @Test
     public void shouldReportCorrectPositionOnReception()
     {
@@ -405,6 +454,50 @@ public class ImageTest
         inOrder.verify(position).setOrdered(initialPosition + (ALIGNED_FRAME_LENGTH * 2));
     }
 
+    @Test
+    public void shouldDecompressCompressedFragmentWhenPolled()
+    {
+        final long initialPosition = computePosition(INITIAL_TERM_ID, 0, POSITION_BITS_TO_SHIFT, INITIAL_TERM_ID);
+        position.setOrdered(initialPosition);
+        final Image image = new Image(
+            subscription, SESSION_ID, position, logBuffers, errorHandler, SOURCE_IDENTITY, CORRELATION_ID,
+            new LzMessageCodec());
+
+        final UnsafeBuffer message = new UnsafeBuffer(new byte[256]);
+        for (int i = 0; i < message.capacity(); i++)
+        {
+            message.putByte(i, DATA[i % 8]);
+        }
+
+        final UnsafeBuffer termBuffer = termBuffers[0];
+        final int compressedLength = new LzMessageCodec().compress(
+            message, 0, message.capacity(), termBuffer, HEADER_LENGTH, message.capacity());
+        assertTrue(compressedLength > 0 && compressedLength < message.capacity());
+
+        dataHeader.wrap(termBuffer);
+        dataHeader
+            .termId(INITIAL_TERM_ID)
+            .streamId(STREAM_ID)
+            .sessionId(SESSION_ID)
+            .termOffset(0)
+            .frameLength(HEADER_LENGTH + compressedLength)
+            .headerType(HeaderFlyweight.HDR_TYPE_DATA)
+            .flags((short)(DataHeaderFlyweight.BEGIN_AND_END_FLAGS | DataHeaderFlyweight.COMPRESSED_FLAG))
+            .version(HeaderFlyweight.CURRENT_VERSION);
+
+        final UnsafeBuffer received = new UnsafeBuffer(new byte[message.capacity()]);
+        final FragmentHandler handler =
+            (buffer, offset, length, header) ->
+            {
+                assertThat(length, is(message.capacity()));
+                received.putBytes(0, buffer, offset, length);
+            };
+
+        assertThat(image.poll(handler, Integer.MAX_VALUE), is(1));
+        verify(errorHandler, never()).onError(any(Throwable.class));
+        assertThat(received.compareTo(message), is(0));
+    }
+
     private Image createImage()
     {
         return new Image(subscription, SESSION_ID, position, logBuffers, errorHandler, SOURCE_IDENTITY, CORRELATION_ID);
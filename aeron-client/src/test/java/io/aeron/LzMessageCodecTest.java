@@ -0,0 +1,175 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class LzMessageCodecTest
+{
+    private static final String MESSAGE =
+        "symbol=EURUSD|bid=1.17301|ask=1.17305|bidSize=1000000|askSize=2000000|venue=LMAX|" +
+        "symbol=EURUSD|bid=1.17302|ask=1.17306|bidSize=1000000|askSize=2000000|venue=LMAX|";
+
+    private final UnsafeBuffer compressedBuffer = new UnsafeBuffer(new byte[1024]);
+    private final ExpandableArrayBuffer decompressedBuffer = new ExpandableArrayBuffer();
+
+    @Test
+    public void shouldRoundTripRepetitiveMessage()
+    {
+        final UnsafeBuffer message = new UnsafeBuffer(MESSAGE.getBytes(StandardCharsets.US_ASCII));
+        final LzMessageCodec codec = new LzMessageCodec();
+
+        final int compressedLength = codec.compress(
+            message, 0, message.capacity(), compressedBuffer, 0, compressedBuffer.capacity());
+
+        assertThat(compressedLength, greaterThan(0));
+        assertThat(compressedLength, lessThan(message.capacity()));
+        assertRoundTrip(codec, message, compressedLength);
+    }
+
+    @Test
+    public void shouldCompressBetterWithDictionary()
+    {
+        final byte[] dictionary = "symbol=EURUSD|bid=1.1730|ask=1.1730|bidSize=1000000|askSize=2000000|venue=LMAX|"
+            .getBytes(StandardCharsets.US_ASCII);
+        final UnsafeBuffer message = new UnsafeBuffer(
+            "symbol=EURUSD|bid=1.17301|ask=1.17305|bidSize=1000000|".getBytes(StandardCharsets.US_ASCII));
+
+        final int plainLength = new LzMessageCodec().compress(
+            message, 0, message.capacity(), compressedBuffer, 0, compressedBuffer.capacity());
+
+        final LzMessageCodec codec = new LzMessageCodec(dictionary);
+        final int compressedLength = codec.compress(
+            message, 0, message.capacity(), compressedBuffer, 0, compressedBuffer.capacity());
+
+        assertThat(compressedLength, lessThan(plainLength));
+        assertRoundTrip(new LzMessageCodec(dictionary), message, compressedLength);
+    }
+
+    @Test
+    public void shouldRoundTripManyMessagesWithSameCodec()
+    {
+        final LzMessageCodec compressor = new LzMessageCodec();
+        final LzMessageCodec decompressor = new LzMessageCodec();
+        final Random random = new Random(7);
+
+        for (int i = 0; i < 100; i++)
+        {
+            final byte[] bytes = new byte[random.nextInt(600)];
+            for (int j = 0; j < bytes.length; j++)
+            {
+                bytes[j] = (byte)('a' + random.nextInt(4));
+            }
+
+            final UnsafeBuffer message = new UnsafeBuffer(bytes);
+            final int compressedLength = compressor.compress(
+                message, 0, message.capacity(), compressedBuffer, 0, compressedBuffer.capacity());
+
+            assertRoundTrip(decompressor, message, compressedLength);
+        }
+    }
+
+    @Test
+    public void shouldAbandonCompressionWhenExceedingMaxLength()
+    {
+        final byte[] bytes = new byte[256];
+        new Random(11).nextBytes(bytes);
+        final UnsafeBuffer message = new UnsafeBuffer(bytes);
+
+        final int compressedLength = new LzMessageCodec().compress(
+            message, 0, message.capacity(), compressedBuffer, 0, message.capacity() - 1);
+
+        assertThat(compressedLength, is(-1));
+    }
+
+    @Test
+    public void shouldKeepDictionaryPrimingAcrossMessages()
+    {
+        final byte[] dictionary = "symbol=EURUSD|bid=1.1730|ask=1.1730|bidSize=1000000|askSize=2000000|venue=LMAX|"
+            .getBytes(StandardCharsets.US_ASCII);
+        final UnsafeBuffer message = new UnsafeBuffer(
+            "symbol=EURUSD|bid=1.17301|ask=1.17305|bidSize=1000000|".getBytes(StandardCharsets.US_ASCII));
+        final byte[] other = new byte[512];
+        new Random(13).nextBytes(other);
+        final UnsafeBuffer otherMessage = new UnsafeBuffer(other);
+        final UnsafeBuffer otherCompressedBuffer = new UnsafeBuffer(new byte[1024]);
+        final LzMessageCodec codec = new LzMessageCodec(dictionary);
+
+        final int firstLength = codec.compress(
+            message, 0, message.capacity(), compressedBuffer, 0, compressedBuffer.capacity());
+        codec.compress(otherMessage, 0, otherMessage.capacity(), otherCompressedBuffer, 0, 1024);
+        final int secondLength = codec.compress(
+            message, 0, message.capacity(), compressedBuffer, 0, compressedBuffer.capacity());
+
+        assertThat(secondLength, is(firstLength));
+        assertRoundTrip(new LzMessageCodec(dictionary), message, secondLength);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectNegativeOriginalLength()
+    {
+        compressedBuffer.putInt(0, -1, LITTLE_ENDIAN);
+        compressedBuffer.putByte(SIZE_OF_INT, (byte)0);
+
+        new LzMessageCodec().decompress(compressedBuffer, 0, SIZE_OF_INT + 1, decompressedBuffer, 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectOriginalLengthBeyondDestinationCapacity()
+    {
+        final UnsafeBuffer message = new UnsafeBuffer(MESSAGE.getBytes(StandardCharsets.US_ASCII));
+        final LzMessageCodec codec = new LzMessageCodec();
+        final int compressedLength = codec.compress(
+            message, 0, message.capacity(), compressedBuffer, 0, compressedBuffer.capacity());
+
+        codec.decompress(compressedBuffer, 0, compressedLength, new UnsafeBuffer(new byte[16]), 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectLiteralsBeyondOriginalLength()
+    {
+        final UnsafeBuffer message = new UnsafeBuffer(MESSAGE.getBytes(StandardCharsets.US_ASCII));
+        final LzMessageCodec codec = new LzMessageCodec();
+        final int compressedLength = codec.compress(
+            message, 0, message.capacity(), compressedBuffer, 0, compressedBuffer.capacity());
+        compressedBuffer.putInt(0, 8, LITTLE_ENDIAN);
+
+        codec.decompress(compressedBuffer, 0, compressedLength, decompressedBuffer, 0);
+    }
+
+    private void assertRoundTrip(final LzMessageCodec codec, final UnsafeBuffer message, final int compressedLength)
+    {
+        final int length = codec.decompress(compressedBuffer, 0, compressedLength, decompressedBuffer, 0);
+
+        assertThat(length, is(message.capacity()));
+        for (int i = 0; i < length; i++)
+        {
+            assertThat(decompressedBuffer.getByte(i), is(message.getByte(i)));
+        }
+    }
+}
@@ -104,7 +104,7 @@ public class SubscriptionTest
     {
         subscription.addImage(imageOneMock);
 
-        when(imageOneMock.poll(any(FragmentHandler.class), anyInt())).then(
+        when(imageOneMock.doPoll(any(FragmentHandler.class), anyInt())).then(
             (invocation) ->
             {
                 final FragmentHandler handler = (FragmentHandler)invocation.getArguments()[0];
@@ -127,7 +127,7 @@ public class SubscriptionTest
         subscription.addImage(imageOneMock);
         subscription.addImage(imageTwoMock);
 
-        when(imageOneMock.poll(any(FragmentHandler.class), anyInt())).then(
+        when(imageOneMock.doPoll(any(FragmentHandler.class), anyInt())).then(
             (invocation) ->
             {
                 final FragmentHandler handler = (FragmentHandler)invocation.getArguments()[0];
@@ -136,7 +136,7 @@ public class SubscriptionTest
                 return 1;
             });
 
-        when(imageTwoMock.poll(any(FragmentHandler.class), anyInt())).then(
+        when(imageTwoMock.doPoll(any(FragmentHandler.class), anyInt())).then(
             (invocation) ->
             {
                 final FragmentHandler handler = (FragmentHandler)invocation.getArguments()[0];
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.logbuffer;
+
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import static io.aeron.logbuffer.ExclusiveTermAppender.TRIPPED;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.logbuffer.LogBufferDescriptor.rawTailVolatile;
+import static io.aeron.logbuffer.LogBufferDescriptor.termId;
+import static io.aeron.logbuffer.LogBufferDescriptor.termOffset;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static io.aeron.protocol.DataHeaderFlyweight.createDefaultHeader;
+import static java.nio.ByteBuffer.allocateDirect;
+import static org.agrona.BitUtil.align;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ExclusiveTermAppenderTest
+{
+    private static final int TERM_BUFFER_LENGTH = LogBufferDescriptor.TERM_MIN_LENGTH;
+    private static final int PARTITION_INDEX = 0;
+    private static final int TERM_ID = 7;
+    private static final int SRC_SESSION_ID = 11;
+    private static final int SRC_STREAM_ID = 12;
+    private static final int SESSION_ID = 21;
+    private static final int STREAM_ID = 22;
+
+    private final UnsafeBuffer termBuffer = new UnsafeBuffer(allocateDirect(TERM_BUFFER_LENGTH));
+    private final UnsafeBuffer logMetaDataBuffer =
+        new UnsafeBuffer(allocateDirect(LogBufferDescriptor.LOG_META_DATA_LENGTH));
+    private final HeaderWriter headerWriter = new HeaderWriter(createDefaultHeader(SESSION_ID, STREAM_ID, TERM_ID));
+    private final ExclusiveTermAppender termAppender =
+        new ExclusiveTermAppender(termBuffer, logMetaDataBuffer, PARTITION_INDEX);
+
+    @Test
+    public void shouldAppendBlockAndRewriteSessionAndStreamIds()
+    {
+        final int[] payloadLengths = { 20, 100, 64 };
+        final int termOffset = 64;
+        final UnsafeBuffer block = new UnsafeBuffer(allocateDirect(1024));
+        final int blockLength = writeFrames(block, termOffset, payloadLengths);
+
+        final int resultingOffset = termAppender.appendBlock(
+            TERM_ID, termOffset, headerWriter, block, 0, blockLength, SESSION_ID, STREAM_ID);
+
+        assertThat(resultingOffset, is(termOffset + blockLength));
+        final long rawTail = rawTailVolatile(logMetaDataBuffer, PARTITION_INDEX);
+        assertThat(termId(rawTail), is(TERM_ID));
+        assertThat(termOffset(rawTail, TERM_BUFFER_LENGTH), is(termOffset + blockLength));
+
+        final DataHeaderFlyweight header = new DataHeaderFlyweight();
+        int frameOffset = termOffset;
+        for (int i = 0; i < payloadLengths.length; i++)
+        {
+            header.wrap(termBuffer, frameOffset, HEADER_LENGTH);
+            assertThat(header.frameLength(), is(payloadLengths[i] + HEADER_LENGTH));
+            assertThat(header.sessionId(), is(SESSION_ID));
+            assertThat(header.streamId(), is(STREAM_ID));
+            assertThat(header.termOffset(), is(frameOffset));
+            assertThat(termBuffer.getByte(frameOffset + HEADER_LENGTH), is((byte)i));
+
+            frameOffset += align(header.frameLength(), FRAME_ALIGNMENT);
+        }
+    }
+
+    @Test
+    public void shouldTripWhenBlockDoesNotFitInTerm()
+    {
+        final UnsafeBuffer block = new UnsafeBuffer(allocateDirect(1024));
+        final int blockLength = writeFrames(block, 0, new int[]{ 100 });
+
+        final int resultingOffset = termAppender.appendBlock(
+            TERM_ID, TERM_BUFFER_LENGTH, headerWriter, block, 0, blockLength, SESSION_ID, STREAM_ID);
+
+        assertThat(resultingOffset, is(TRIPPED));
+        final long rawTail = rawTailVolatile(logMetaDataBuffer, PARTITION_INDEX);
+        assertThat(termOffset(rawTail, TERM_BUFFER_LENGTH), is(TERM_BUFFER_LENGTH));
+        assertThat(termBuffer.getInt(0), is(0));
+    }
+
+    private static int writeFrames(final UnsafeBuffer block, final int termOffset, final int[] payloadLengths)
+    {
+        final DataHeaderFlyweight header = new DataHeaderFlyweight();
+        int offset = 0;
+        for (int i = 0; i < payloadLengths.length; i++)
+        {
+            final int frameLength = payloadLengths[i] + HEADER_LENGTH;
+            header.wrap(block, offset, HEADER_LENGTH);
+            header
+                .sessionId(SRC_SESSION_ID)
+                .streamId(SRC_STREAM_ID)
+                .termId(TERM_ID)
+                .termOffset(termOffset + offset)
+                .frameLength(frameLength);
+            block.putByte(offset + HEADER_LENGTH, (byte)i);
+
+            offset += align(frameLength, FRAME_ALIGNMENT);
+        }
+
+        return offset;
+    }
+}
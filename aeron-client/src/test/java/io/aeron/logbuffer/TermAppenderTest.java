@@ -127,6 +127,71 @@ public class TermAppenderTest
         inOrder.verify(termBuffer, times(1)).putIntOrdered(tail, frameLength);
     }
 
+    @Test
+    public void shouldAppendBatchWithSingleTailAdvance()
+    {
+        final int headerLength = DEFAULT_HEADER.capacity();
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[128]);
+        final int msgLength = 20;
+        final int frameLength = msgLength + headerLength;
+        final int alignedFrameLength = align(frameLength, FRAME_ALIGNMENT);
+        final DirectBufferVector[] messages =
+        {
+            new DirectBufferVector(buffer, 0, msgLength),
+            new DirectBufferVector(buffer, msgLength, msgLength)
+        };
+        final int tail = 0;
+
+        logMetaDataBuffer.putLong(TERM_TAIL_COUNTER_OFFSET, packTail(TERM_ID, tail));
+
+        assertThat(termAppender.appendUnfragmentedBatch(headerWriter, messages, 2, alignedFrameLength * 2),
+            is((long)alignedFrameLength * 2));
+
+        assertThat(rawTailVolatile(logMetaDataBuffer, PARTITION_INDEX),
+            is(packTail(TERM_ID, tail + (alignedFrameLength * 2))));
+
+        final InOrder inOrder = inOrder(termBuffer, headerWriter);
+        inOrder.verify(headerWriter, times(1)).write(termBuffer, tail, frameLength, TERM_ID);
+        inOrder.verify(termBuffer, times(1)).putBytes(headerLength, buffer, 0, msgLength);
+        inOrder.verify(headerWriter, times(1)).write(termBuffer, alignedFrameLength, frameLength, TERM_ID);
+        inOrder.verify(termBuffer, times(1)).putBytes(alignedFrameLength + headerLength, buffer, msgLength, msgLength);
+        inOrder.verify(termBuffer, times(1)).putInt(alignedFrameLength, frameLength, LITTLE_ENDIAN);
+        inOrder.verify(termBuffer, times(1)).putIntOrdered(tail, frameLength);
+        verify(termBuffer, never()).putIntOrdered(alignedFrameLength, frameLength);
+    }
+
+    @Test
+    public void shouldClaimBatchAndCommitAllFrames()
+    {
+        final int[] lengths = { 20, 100 };
+        final int batchLength = BatchClaim.computeBatchLength(lengths, lengths.length);
+        final BatchClaim batchClaim = new BatchClaim();
+        final int tail = 0;
+
+        logMetaDataBuffer.putLong(TERM_TAIL_COUNTER_OFFSET, packTail(TERM_ID, tail));
+
+        assertThat(termAppender.claimBatch(headerWriter, lengths, lengths.length, batchLength, batchClaim),
+            is((long)batchLength));
+
+        int count = 0;
+        while (batchClaim.next())
+        {
+            assertThat(batchClaim.length(), is(lengths[count]));
+            batchClaim.buffer().setMemory(batchClaim.offset(), batchClaim.length(), (byte)count);
+            count++;
+        }
+
+        assertThat(count, is(lengths.length));
+        assertThat(frameLengthVolatile(termBuffer, tail), is(-(lengths[0] + HEADER_LENGTH)));
+
+        batchClaim.commit();
+
+        final int secondFrameOffset = align(lengths[0] + HEADER_LENGTH, FRAME_ALIGNMENT);
+        assertThat(frameLengthVolatile(termBuffer, tail), is(lengths[0] + HEADER_LENGTH));
+        assertThat(frameLengthVolatile(termBuffer, secondFrameOffset), is(lengths[1] + HEADER_LENGTH));
+        assertThat(termBuffer.getByte(secondFrameOffset + HEADER_LENGTH), is((byte)1));
+    }
+
     @Test
     public void shouldPadLogAndTripWhenAppendingWithInsufficientRemainingCapacity()
     {
@@ -669,8 +669,15 @@ aeron_network_publication_t *aeron_driver_conductor_get_or_add_network_publicati
     aeron_network_publication_t *publication = NULL;
     aeron_udp_channel_t *udp_channel = endpoint->conductor_fields.udp_channel;
     const char *channel = udp_channel->original_uri;
+    aeron_uri_params_t *uri_params = &udp_channel->uri.params.udp.additional_params;
+    uint64_t coalesce_timeout_ns = 0;
     int ensure_capacity_result = 0;
 
+    if (aeron_uri_coalesce_timeout_ns(uri_params, &coalesce_timeout_ns) < 0)
+    {
+        return NULL;
+    }
+
     if (!is_exclusive)
     {
         for (size_t i = 0; i < conductor->network_publications.length; i++)
@@ -686,6 +693,18 @@ aeron_network_publication_t *aeron_driver_conductor_get_or_add_network_publicati
                 break;
             }
         }
+
+        if (NULL != publication &&
+            NULL != aeron_uri_find_param_value(uri_params, AERON_URI_COALESCE_TIMEOUT_KEY) &&
+            (uint64_t)publication->coalesce_timeout_ns != coalesce_timeout_ns)
+        {
+            aeron_set_err(
+                EINVAL,
+                "Existing publication has different coalesce timeout: existing=%" PRId64 " requested=%" PRIu64,
+                publication->coalesce_timeout_ns,
+                coalesce_timeout_ns);
+            return NULL;
+        }
     }
 
     AERON_ARRAY_ENSURE_CAPACITY(ensure_capacity_result, client->publication_links, aeron_publication_link_t);
@@ -754,6 +773,7 @@ aeron_network_publication_t *aeron_driver_conductor_get_or_add_network_publicati
                         stream_id,
                         initial_term_id,
                         conductor->context->mtu_length,
+                        coalesce_timeout_ns,
                         &pub_lmt_position,
                         &snd_pos_position,
                         &snd_lmt_position,
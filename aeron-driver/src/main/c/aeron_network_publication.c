@@ -48,6 +48,7 @@ int aeron_network_publication_create(
     int32_t stream_id,
     int32_t initial_term_id,
     size_t mtu_length,
+    uint64_t coalesce_timeout_ns,
     aeron_position_t *pub_lmt_position,
     aeron_position_t *snd_pos_position,
     aeron_position_t *snd_lmt_position,
@@ -158,6 +159,9 @@ int aeron_network_publication_create(
     _pub->term_length_mask = (int32_t)term_buffer_length - 1;
     _pub->position_bits_to_shift = (size_t)aeron_number_of_trailing_zeroes((int32_t)term_buffer_length);
     _pub->mtu_length = mtu_length;
+    _pub->coalesce_timeout_ns = (int64_t)coalesce_timeout_ns;
+    _pub->coalesce_deadline_ns = 0;
+    _pub->coalesce_length = 0;
     _pub->term_window_length = (int64_t)aeron_network_publication_term_window_length(context, term_buffer_length);
     _pub->linger_timeout_ns = (int64_t)context->publication_linger_timeout_ns;
     _pub->unblock_timeout_ns = (int64_t)context->publication_unblock_timeout_ns;
@@ -169,6 +173,7 @@ int aeron_network_publication_create(
     _pub->is_end_of_stream = false;
     _pub->track_sender_limits = true;
     _pub->has_sender_released = false;
+    _pub->is_coalescing = false;
 
     _pub->short_sends_counter = aeron_system_counter_addr(system_counters, AERON_SYSTEM_COUNTER_SHORT_SENDS);
     _pub->heartbeats_sent_counter = aeron_system_counter_addr(system_counters, AERON_SYSTEM_COUNTER_HEARTBEATS_SENT);
@@ -177,6 +182,10 @@ int aeron_network_publication_create(
     _pub->retransmits_sent_counter = aeron_system_counter_addr(system_counters, AERON_SYSTEM_COUNTER_RETRANSMITS_SENT);
     _pub->unblocked_publications_counter =
         aeron_system_counter_addr(system_counters, AERON_SYSTEM_COUNTER_UNBLOCKED_PUBLICATIONS);
+    _pub->coalesced_datagrams_sent_counter =
+        aeron_system_counter_addr(system_counters, AERON_SYSTEM_COUNTER_COALESCED_DATAGRAMS_SENT);
+    _pub->coalesced_bytes_sent_counter =
+        aeron_system_counter_addr(system_counters, AERON_SYSTEM_COUNTER_COALESCED_BYTES_SENT);
 
     *publication = _pub;
     return 0;
@@ -319,6 +328,47 @@ int aeron_network_publication_heartbeat_message_check(
     return bytes_sent;
 }
 
+bool aeron_network_publication_should_coalesce(
+    aeron_network_publication_t *publication,
+    int64_t now_ns,
+    const uint8_t *ptr,
+    size_t term_length_left,
+    size_t scan_limit,
+    size_t available,
+    size_t padding)
+{
+    if (0 == publication->coalesce_timeout_ns)
+    {
+        return false;
+    }
+
+    if (available >= scan_limit || padding > 0 || available >= term_length_left)
+    {
+        return false;
+    }
+
+    const aeron_frame_header_t *next_frame_header = (aeron_frame_header_t *)(ptr + available);
+    int32_t next_frame_length;
+    bool is_end_of_stream;
+
+    AERON_GET_VOLATILE(next_frame_length, next_frame_header->frame_length);
+    AERON_GET_VOLATILE(is_end_of_stream, publication->is_end_of_stream);
+
+    if (next_frame_length > 0 || is_end_of_stream)
+    {
+        return false;
+    }
+
+    if (!publication->is_coalescing)
+    {
+        publication->is_coalescing = true;
+        publication->coalesce_length = available;
+        publication->coalesce_deadline_ns = now_ns + publication->coalesce_timeout_ns;
+    }
+
+    return now_ns < publication->coalesce_deadline_ns;
+}
+
 int aeron_network_publication_send_data(
     aeron_network_publication_t *publication, int64_t now_ns, int64_t snd_pos, int32_t term_offset)
 {
@@ -326,6 +376,7 @@ int aeron_network_publication_send_data(
     int result = 0, vlen = 0, bytes_sent = 0;
     int32_t available_window = (int32_t)(aeron_counter_get(publication->snd_lmt_position.value_addr) - snd_pos);
     int64_t highest_pos = snd_pos;
+    size_t coalesced_bytes = 0;
     struct iovec iov[AERON_NETWORK_PUBLICATION_MAX_MESSAGES_PER_SEND];
     struct mmsghdr mmsghdr[AERON_NETWORK_PUBLICATION_MAX_MESSAGES_PER_SEND];
 
@@ -341,8 +392,20 @@ int aeron_network_publication_send_data(
 
         const size_t available = aeron_term_scanner_scan_for_availability(ptr, term_length_left, scan_limit, &padding);
 
+        if (available > 0 && aeron_network_publication_should_coalesce(
+            publication, now_ns, ptr, term_length_left, scan_limit, available, padding))
+        {
+            break;
+        }
+
         if (available > 0)
         {
+            if (0 == i && publication->is_coalescing)
+            {
+                publication->is_coalescing = false;
+                coalesced_bytes = available > publication->coalesce_length ? available : 0;
+            }
+
             iov[i].iov_base = ptr;
             iov[i].iov_len = available;
             mmsghdr[i].msg_hdr.msg_iov = &iov[i];
@@ -375,6 +438,12 @@ int aeron_network_publication_send_data(
             }
         }
 
+        if (coalesced_bytes > 0 && result > 0)
+        {
+            aeron_counter_ordered_increment(publication->coalesced_datagrams_sent_counter, 1);
+            aeron_counter_add_ordered(publication->coalesced_bytes_sent_counter, (int64_t)coalesced_bytes);
+        }
+
         publication->time_of_last_send_or_heartbeat_ns = now_ns;
         publication->track_sender_limits = true;
         aeron_counter_set_ordered(publication->snd_pos_position.value_addr, highest_pos);
@@ -79,6 +79,8 @@ typedef struct aeron_network_publication_stct
     int64_t unblock_timeout_ns;
     int64_t time_of_last_send_or_heartbeat_ns;
     int64_t time_of_last_setup_ns;
+    int64_t coalesce_timeout_ns;
+    int64_t coalesce_deadline_ns;
     int32_t session_id;
     int32_t stream_id;
     int32_t initial_term_id;
@@ -86,7 +88,9 @@ typedef struct aeron_network_publication_stct
     size_t log_file_name_length;
     size_t position_bits_to_shift;
     size_t mtu_length;
+    size_t coalesce_length;
     bool is_exclusive;
+    bool is_coalescing;
     bool should_send_setup_frame;
     bool is_connected;
     bool is_end_of_stream;
@@ -99,6 +103,8 @@ typedef struct aeron_network_publication_stct
     int64_t *sender_flow_control_limits_counter;
     int64_t *retransmits_sent_counter;
     int64_t *unblocked_publications_counter;
+    int64_t *coalesced_datagrams_sent_counter;
+    int64_t *coalesced_bytes_sent_counter;
 }
 aeron_network_publication_t;
 
@@ -111,6 +117,7 @@ int aeron_network_publication_create(
     int32_t stream_id,
     int32_t initial_term_id,
     size_t mtu_length,
+    uint64_t coalesce_timeout_ns,
     aeron_position_t *pub_lmt_position,
     aeron_position_t *snd_pos_position,
     aeron_position_t *snd_lmt_position,
@@ -14,6 +14,7 @@
  * limitations under the License.
  */
 
+#include <errno.h>
 #include <stdlib.h>
 #include "uri/aeron_uri.h"
 #include "util/aeron_arrayutil.h"
@@ -250,6 +251,32 @@ const char *aeron_uri_find_param_value(aeron_uri_params_t *uri_params, const cha
     return NULL;
 }
 
+int aeron_uri_coalesce_timeout_ns(aeron_uri_params_t *uri_params, uint64_t *coalesce_timeout_ns)
+{
+    const char *value_str;
+
+    *coalesce_timeout_ns = 0;
+
+    if ((value_str = aeron_uri_find_param_value(uri_params, AERON_URI_COALESCE_TIMEOUT_KEY)) != NULL)
+    {
+        char *end_ptr = NULL;
+
+        errno = 0;
+        const int64_t value = strtoll(value_str, &end_ptr, 0);
+
+        if (0 != errno || end_ptr == value_str || '\0' != *end_ptr || value < 0)
+        {
+            aeron_set_err(EINVAL, "%s=%s must be a non-negative number of nanoseconds",
+                AERON_URI_COALESCE_TIMEOUT_KEY, value_str);
+            return -1;
+        }
+
+        *coalesce_timeout_ns = (uint64_t)value;
+    }
+
+    return 0;
+}
+
 int aeron_uri_publication_params(
     aeron_uri_type_t type,
     aeron_uri_params_t *uri_params,
@@ -263,6 +290,11 @@ int aeron_uri_publication_params(
     params->term_offset = 0;
     params->term_id = 0;
 
+    if (aeron_uri_coalesce_timeout_ns(uri_params, &params->coalesce_timeout_ns) < 0)
+    {
+        return -1;
+    }
+
     const char *value_str;
 
     if ((value_str = aeron_uri_find_param_value(uri_params, AERON_URI_TERM_LENGTH_KEY)) != NULL)
@@ -46,6 +46,7 @@ aeron_uri_params_t;
 #define AERON_URI_TERM_OFFSET_KEY "term-offset"
 #define AERON_URI_TERM_LENGTH_KEY "term-length"
 #define AERON_URI_MTU_LENGTH_KEY "mtu"
+#define AERON_URI_COALESCE_TIMEOUT_KEY "coalesce-timeout"
 
 #define AERON_UDP_CHANNEL_RELIABLE_STREAM_KEY "reliable"
 
@@ -56,6 +57,7 @@ typedef struct aeron_uri_publication_params_stct
     size_t initial_term_id;
     size_t term_id;
     size_t term_offset;
+    uint64_t coalesce_timeout_ns;
 }
 aeron_uri_publication_params_t;
 
@@ -114,6 +116,8 @@ uint8_t aeron_uri_multicast_ttl(aeron_uri_t *uri);
 
 const char *aeron_uri_find_param_value(aeron_uri_params_t *uri_params, const char *key);
 
+int aeron_uri_coalesce_timeout_ns(aeron_uri_params_t *uri_params, uint64_t *coalesce_timeout_ns);
+
 typedef struct aeron_driver_context_stct aeron_driver_context_t;
 
 int aeron_uri_publication_params(
@@ -303,7 +303,7 @@ public class DriverConductor implements Agent, Consumer<DriverConductorCmd>
         }
         else
         {
-            confirmMatch(channelUri, params, publication.rawLog());
+            confirmMatch(channelUri, params, publication);
         }
 
         publicationLinks.add(new PublicationLink(correlationId, publication, getOrAddClient(clientId)));
@@ -739,6 +739,7 @@ public class DriverConductor implements Agent, Consumer<DriverConductorCmd>
             retransmitHandler,
             networkPublicationThreadLocals,
             publicationUnblockTimeoutNs,
+            params.coalesceTimeoutNs,
             isExclusive,
             context.spiesSimulateConnection());
 
@@ -37,6 +37,7 @@ import java.nio.ByteBuffer;
 import static io.aeron.Aeron.PUBLICATION_CONNECTION_TIMEOUT_MS;
 import static io.aeron.driver.Configuration.*;
 import static io.aeron.driver.status.SystemCounterDescriptor.*;
+import static io.aeron.logbuffer.FrameDescriptor.frameLengthVolatile;
 import static io.aeron.logbuffer.LogBufferDescriptor.*;
 import static io.aeron.logbuffer.TermScanner.*;
 
@@ -67,6 +68,9 @@ class NetworkPublicationSenderFields extends NetworkPublicationPadding2
 {
     protected long timeOfLastSendOrHeartbeatNs;
     protected long timeOfLastSetupNs;
+    protected long coalesceDeadlineNs;
+    protected int coalesceLength;
+    protected boolean isCoalescing = false;
     protected boolean trackSenderLimits = true;
     protected boolean shouldSendSetupFrame = true;
 }
@@ -91,6 +95,7 @@ public class NetworkPublication
 
     private final long registrationId;
     private final long unblockTimeoutNs;
+    private final long coalesceTimeoutNs;
     private final int positionBitsToShift;
     private final int initialTermId;
     private final int termBufferLength;
@@ -131,6 +136,8 @@ public class NetworkPublication
     private final AtomicCounter senderFlowControlLimits;
     private final AtomicCounter shortSends;
     private final AtomicCounter unblockedPublications;
+    private final AtomicCounter coalescedDatagramsSent;
+    private final AtomicCounter coalescedBytesSent;
 
     public NetworkPublication(
         final long registrationId,
@@ -150,11 +157,13 @@ public class NetworkPublication
         final RetransmitHandler retransmitHandler,
         final NetworkPublicationThreadLocals threadLocals,
         final long unblockTimeoutNs,
+        final long coalesceTimeoutNs,
         final boolean isExclusive,
         final boolean spiesSimulateConnection)
     {
         this.registrationId = registrationId;
         this.unblockTimeoutNs = unblockTimeoutNs;
+        this.coalesceTimeoutNs = coalesceTimeoutNs;
         this.channelEndpoint = channelEndpoint;
         this.rawLog = rawLog;
         this.nanoClock = nanoClock;
@@ -184,6 +193,8 @@ public class NetworkPublication
         retransmitsSent = systemCounters.get(RETRANSMITS_SENT);
         senderFlowControlLimits = systemCounters.get(SENDER_FLOW_CONTROL_LIMITS);
         unblockedPublications = systemCounters.get(UNBLOCKED_PUBLICATIONS);
+        coalescedDatagramsSent = systemCounters.get(COALESCED_DATAGRAMS_SENT);
+        coalescedBytesSent = systemCounters.get(COALESCED_BYTES_SENT);
 
         termBuffers = rawLog.termBuffers();
         sendBuffers = rawLog.sliceTerms();
@@ -235,6 +246,11 @@ public class NetworkPublication
         return isExclusive;
     }
 
+    public long coalesceTimeoutNs()
+    {
+        return coalesceTimeoutNs;
+    }
+
     public int send(final long nowNs)
     {
         final long senderPosition = this.senderPosition.get();
@@ -471,9 +487,10 @@ public class NetworkPublication
             final int scanLimit = Math.min(availableWindow, mtuLength);
             final int activeIndex = indexByPosition(senderPosition, positionBitsToShift);
 
-            final long scanOutcome = scanForAvailability(termBuffers[activeIndex], termOffset, scanLimit);
+            final UnsafeBuffer termBuffer = termBuffers[activeIndex];
+            final long scanOutcome = scanForAvailability(termBuffer, termOffset, scanLimit);
             final int available = available(scanOutcome);
-            if (available > 0)
+            if (available > 0 && !shouldCoalesce(nowNs, termBuffer, termOffset, scanLimit, scanOutcome))
             {
                 final ByteBuffer sendBuffer = sendBuffers[activeIndex];
                 sendBuffer.limit(termOffset + available).position(termOffset);
@@ -485,6 +502,16 @@ public class NetworkPublication
 
                     bytesSent = available;
                     this.senderPosition.setOrdered(senderPosition + bytesSent + padding(scanOutcome));
+
+                    if (isCoalescing)
+                    {
+                        isCoalescing = false;
+                        if (available > coalesceLength)
+                        {
+                            coalescedDatagramsSent.orderedIncrement();
+                            coalescedBytesSent.addOrdered(available);
+                        }
+                    }
                 }
                 else
                 {
@@ -501,6 +528,47 @@ public class NetworkPublication
         return bytesSent;
     }
 
+    /**
+     * Should a partially filled datagram be held back in the expectation more data will be appended to fill it?
+     * <p>
+     * Data is sent straight away when the datagram is full, the next frame is waiting but did not fit, the end of
+     * the term has been reached, the stream is ending, or the coalesce timeout has expired since the data was first
+     * held back.
+     */
+    private boolean shouldCoalesce(
+        final long nowNs,
+        final UnsafeBuffer termBuffer,
+        final int termOffset,
+        final int scanLimit,
+        final long scanOutcome)
+    {
+        if (0 == coalesceTimeoutNs)
+        {
+            return false;
+        }
+
+        final int available = available(scanOutcome);
+        final int nextFrameOffset = termOffset + available;
+
+        if (available >= scanLimit ||
+            padding(scanOutcome) > 0 ||
+            nextFrameOffset >= termBufferLength ||
+            frameLengthVolatile(termBuffer, nextFrameOffset) > 0 ||
+            isEndOfStream)
+        {
+            return false;
+        }
+
+        if (!isCoalescing)
+        {
+            isCoalescing = true;
+            coalesceLength = available;
+            coalesceDeadlineNs = nowNs + coalesceTimeoutNs;
+        }
+
+        return nowNs < coalesceDeadlineNs;
+    }
+
     private void setupMessageCheck(final long nowNs, final int activeTermId, final int termOffset)
     {
         if (nowNs > (timeOfLastSetupNs + PUBLICATION_SETUP_TIMEOUT_NS))
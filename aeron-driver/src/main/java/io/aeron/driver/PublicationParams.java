@@ -30,6 +30,7 @@ class PublicationParams
     int initialTermId = 0;
     int termId = 0;
     int termOffset = 0;
+    long coalesceTimeoutNs = 0;
     boolean isReplay = false;
 
     static int getTermBufferLength(final ChannelUri channelUri, final int defaultTermLength)
@@ -58,6 +59,23 @@ class PublicationParams
         return mtuLength;
     }
 
+    static long getCoalesceTimeoutNs(final ChannelUri channelUri)
+    {
+        long coalesceTimeoutNs = 0;
+        final String coalesceTimeout = channelUri.get(CommonContext.COALESCE_TIMEOUT_PARAM_NAME);
+        if (null != coalesceTimeout)
+        {
+            coalesceTimeoutNs = Long.parseLong(coalesceTimeout);
+            if (coalesceTimeoutNs < 0)
+            {
+                throw new IllegalArgumentException(
+                    COALESCE_TIMEOUT_PARAM_NAME + "=" + coalesceTimeoutNs + " must not be negative");
+            }
+        }
+
+        return coalesceTimeoutNs;
+    }
+
     static void validateMtuForMaxMessage(final PublicationParams params, final boolean isExclusive)
     {
         final int termLength = params.termLength;
@@ -89,6 +107,18 @@ class PublicationParams
         }
     }
 
+    static void confirmMatch(
+        final ChannelUri uri, final PublicationParams params, final NetworkPublication publication)
+    {
+        confirmMatch(uri, params, publication.rawLog());
+
+        if (uri.containsKey(COALESCE_TIMEOUT_PARAM_NAME) && publication.coalesceTimeoutNs() != params.coalesceTimeoutNs)
+        {
+            throw new IllegalStateException("Existing publication has different coalesce timeout: existing=" +
+                publication.coalesceTimeoutNs() + " requested=" + params.coalesceTimeoutNs);
+        }
+    }
+
     @SuppressWarnings("ConstantConditions")
     static PublicationParams getPublicationParams(
         final MediaDriver.Context context,
@@ -103,6 +133,11 @@ class PublicationParams
 
         params.mtuLength = getMtuLength(channelUri, isIpc ? context.ipcMtuLength() : context.mtuLength());
 
+        if (!isIpc)
+        {
+            params.coalesceTimeoutNs = getCoalesceTimeoutNs(channelUri);
+        }
+
         if (isExclusive)
         {
             int count = 0;
@@ -44,6 +44,8 @@ import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.Queue;
 
+import static io.aeron.driver.status.SystemCounterDescriptor.COALESCED_BYTES_SENT;
+import static io.aeron.driver.status.SystemCounterDescriptor.COALESCED_DATAGRAMS_SENT;
 import static io.aeron.logbuffer.LogBufferDescriptor.PARTITION_COUNT;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
@@ -67,6 +69,7 @@ public class SenderTest
     private static final int ALIGNED_FRAME_LENGTH = align(FRAME_LENGTH, FRAME_ALIGNMENT);
 
     private final ControlTransportPoller mockTransportPoller = mock(ControlTransportPoller.class);
+    private final SendChannelEndpoint mockSendChannelEndpoint = mock(SendChannelEndpoint.class);
 
     private final RawLog rawLog = LogBufferHelper.newTestLogBuffers(TERM_BUFFER_LENGTH);
 
@@ -86,6 +89,8 @@ public class SenderTest
     private final DataHeaderFlyweight dataHeader = new DataHeaderFlyweight();
     private final SetupFlyweight setupHeader = new SetupFlyweight();
     private final SystemCounters mockSystemCounters = mock(SystemCounters.class);
+    private final AtomicCounter mockCoalescedDatagramsSent = mock(AtomicCounter.class);
+    private final AtomicCounter mockCoalescedBytesSent = mock(AtomicCounter.class);
     private final OneToOneConcurrentArrayQueue<SenderCmd> senderCommandQueue =
         new OneToOneConcurrentArrayQueue<>(Configuration.CMD_QUEUE_CAPACITY);
 
@@ -107,10 +112,11 @@ public class SenderTest
     @Before
     public void setUp() throws Exception
     {
-        final SendChannelEndpoint mockSendChannelEndpoint = mock(SendChannelEndpoint.class);
         when(mockSendChannelEndpoint.udpChannel()).thenReturn(udpChannel);
         when(mockSendChannelEndpoint.send(any())).thenAnswer(saveByteBufferAnswer);
         when(mockSystemCounters.get(any())).thenReturn(mock(AtomicCounter.class));
+        when(mockSystemCounters.get(COALESCED_DATAGRAMS_SENT)).thenReturn(mockCoalescedDatagramsSent);
+        when(mockSystemCounters.get(COALESCED_BYTES_SENT)).thenReturn(mockCoalescedBytesSent);
 
         sender = new Sender(
             new MediaDriver.Context()
@@ -127,7 +133,14 @@ public class SenderTest
             termAppenders[i] = new TermAppender(rawLog.termBuffers()[i], rawLog.metaData(), i);
         }
 
-        publication = new NetworkPublication(
+        publication = newPublication(0);
+
+        senderCommandQueue.offer(new NewPublicationCmd(publication));
+    }
+
+    private NetworkPublication newPublication(final long coalesceTimeoutNs)
+    {
+        return new NetworkPublication(
             1,
             mockSendChannelEndpoint,
             () -> currentTimestamp,
@@ -145,10 +158,9 @@ public class SenderTest
             mockRetransmitHandler,
             new NetworkPublicationThreadLocals(),
             Configuration.PUBLICATION_UNBLOCK_TIMEOUT_NS,
+            coalesceTimeoutNs,
             false,
             false);
-
-        senderCommandQueue.offer(new NewPublicationCmd(publication));
     }
 
     @After
@@ -288,6 +300,79 @@ public class SenderTest
         assertThat(dataHeader.version(), is((short)HeaderFlyweight.CURRENT_VERSION));
     }
 
+    @Test
+    public void shouldCoalescePartialDatagramUntilTimeout() throws Exception
+    {
+        final long coalesceTimeoutNs = 1000;
+        senderCommandQueue.clear();
+        publication = newPublication(coalesceTimeoutNs);
+        senderCommandQueue.offer(new NewPublicationCmd(publication));
+
+        final StatusMessageFlyweight msg = mock(StatusMessageFlyweight.class);
+        when(msg.consumptionTermId()).thenReturn(INITIAL_TERM_ID);
+        when(msg.consumptionTermOffset()).thenReturn(0);
+        when(msg.receiverWindowLength()).thenReturn(2 * ALIGNED_FRAME_LENGTH);
+
+        publication.onStatusMessage(msg, rcvAddress);
+
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(PAYLOAD.length));
+        buffer.putBytes(0, PAYLOAD);
+
+        termAppenders[0].appendUnfragmentedMessage(headerWriter, buffer, 0, PAYLOAD.length, null);
+        sender.doWork();
+
+        assertThat(receivedFrames.size(), is(1));
+        setupHeader.wrap(new UnsafeBuffer(receivedFrames.remove()));
+        assertThat(setupHeader.headerType(), is(HeaderFlyweight.HDR_TYPE_SETUP));
+
+        currentTimestamp += coalesceTimeoutNs - 1;
+        sender.doWork();
+        assertThat(receivedFrames.size(), is(0));
+
+        termAppenders[0].appendUnfragmentedMessage(headerWriter, buffer, 0, PAYLOAD.length, null);
+        sender.doWork();
+
+        assertThat(receivedFrames.size(), is(1));
+        final ByteBuffer datagram = receivedFrames.remove();
+        assertThat(datagram.limit(), is(2 * ALIGNED_FRAME_LENGTH));
+        verify(mockCoalescedDatagramsSent).orderedIncrement();
+        verify(mockCoalescedBytesSent).addOrdered(2 * ALIGNED_FRAME_LENGTH);
+    }
+
+    @Test
+    public void shouldSendCoalescedDataWhenTimeoutExpires() throws Exception
+    {
+        final long coalesceTimeoutNs = 1000;
+        senderCommandQueue.clear();
+        publication = newPublication(coalesceTimeoutNs);
+        senderCommandQueue.offer(new NewPublicationCmd(publication));
+
+        final StatusMessageFlyweight msg = mock(StatusMessageFlyweight.class);
+        when(msg.consumptionTermId()).thenReturn(INITIAL_TERM_ID);
+        when(msg.consumptionTermOffset()).thenReturn(0);
+        when(msg.receiverWindowLength()).thenReturn(2 * ALIGNED_FRAME_LENGTH);
+
+        publication.onStatusMessage(msg, rcvAddress);
+
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(PAYLOAD.length));
+        buffer.putBytes(0, PAYLOAD);
+
+        termAppenders[0].appendUnfragmentedMessage(headerWriter, buffer, 0, PAYLOAD.length, null);
+        sender.doWork();
+
+        assertThat(receivedFrames.size(), is(1));
+        receivedFrames.remove();
+
+        currentTimestamp += coalesceTimeoutNs;
+        sender.doWork();
+
+        assertThat(receivedFrames.size(), is(1));
+        dataHeader.wrap(new UnsafeBuffer(receivedFrames.remove()));
+        assertThat(dataHeader.frameLength(), is(FRAME_LENGTH));
+        assertThat(dataHeader.termOffset(), is(offsetOfMessage(1)));
+        verifyZeroInteractions(mockCoalescedDatagramsSent, mockCoalescedBytesSent);
+    }
+
     @Test
     public void shouldBeAbleToSendOnChannelTwice() throws Exception
     {
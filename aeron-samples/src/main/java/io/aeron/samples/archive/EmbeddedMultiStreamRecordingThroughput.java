@@ -0,0 +1,271 @@
+/*
+ *  Copyright 2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.samples.archive;
+
+import io.aeron.Aeron;
+import io.aeron.ExclusivePublication;
+import io.aeron.Subscription;
+import io.aeron.archive.Archive;
+import io.aeron.archive.ArchivingMediaDriver;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.client.RecordingEventsAdapter;
+import io.aeron.archive.client.RecordingEventsListener;
+import io.aeron.archive.codecs.SourceLocation;
+import io.aeron.driver.MediaDriver;
+import io.aeron.samples.SampleConfiguration;
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.console.ContinueBarrier;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static io.aeron.archive.Archive.Configuration.ARCHIVE_DIR_DEFAULT;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.samples.archive.TestUtil.MEGABYTE;
+import static io.aeron.samples.archive.TestUtil.NOOP_FRAGMENT_HANDLER;
+import static org.agrona.BufferUtil.allocateDirectAligned;
+
+/**
+ * Recording throughput for a number of concurrent streams, as set by {@code aeron.sample.archive.streams}, to
+ * compare with {@link EmbeddedRecordingThroughput}. Run with {@code aeron.archive.async.recording.write.threads}
+ * set to compare asynchronous with blocking recording writes.
+ */
+public class EmbeddedMultiStreamRecordingThroughput implements AutoCloseable, RecordingEventsListener
+{
+    private static final long NUMBER_OF_MESSAGES = SampleConfiguration.NUMBER_OF_MESSAGES;
+    private static final int MESSAGE_LENGTH = SampleConfiguration.MESSAGE_LENGTH;
+    private static final int FRAGMENT_COUNT_LIMIT = SampleConfiguration.FRAGMENT_COUNT_LIMIT;
+    private static final int STREAM_ID = SampleConfiguration.STREAM_ID;
+    private static final String CHANNEL = SampleConfiguration.CHANNEL;
+    private static final int STREAM_COUNT = Integer.getInteger("aeron.sample.archive.streams", 8);
+
+    private final ArchivingMediaDriver archivingMediaDriver;
+    private final Aeron aeron;
+    private final AeronArchive aeronArchive;
+    private final UnsafeBuffer buffer = new UnsafeBuffer(allocateDirectAligned(MESSAGE_LENGTH, FRAME_ALIGNMENT));
+    private final Thread recordingEventsThread;
+    private final Thread consumerThread;
+    private final AtomicLongArray recordedPositions = new AtomicLongArray(STREAM_COUNT);
+    private final long[] recordingIdByStream = new long[STREAM_COUNT];
+    private volatile boolean isRunning = true;
+
+    public static void main(final String[] args) throws Exception
+    {
+        MediaDriver.loadPropertiesFiles(args);
+
+        try (EmbeddedMultiStreamRecordingThroughput test = new EmbeddedMultiStreamRecordingThroughput())
+        {
+            Thread.sleep(1000);
+            test.startRecordings();
+
+            final ContinueBarrier barrier = new ContinueBarrier("Execute again?");
+
+            do
+            {
+                test.streamMessagesForRecording();
+                Thread.sleep(10);
+            }
+            while (barrier.await());
+
+            test.stop();
+        }
+    }
+
+    public EmbeddedMultiStreamRecordingThroughput()
+    {
+        final String archiveDirName = Archive.Configuration.archiveDirName();
+        final File archiveDir =  ARCHIVE_DIR_DEFAULT.equals(archiveDirName) ?
+            TestUtil.createTempDir() : new File(archiveDirName);
+
+        archivingMediaDriver = ArchivingMediaDriver.launch(
+            new MediaDriver.Context().dirDeleteOnStart(true),
+            new Archive.Context().archiveDir(archiveDir));
+
+        aeron = Aeron.connect();
+
+        aeronArchive = AeronArchive.connect(
+            new AeronArchive.Context()
+                .aeron(aeron));
+
+        recordingEventsThread = new Thread(this::runRecordingEventPoller);
+        recordingEventsThread.setName("recording-events-poller");
+        recordingEventsThread.start();
+
+        consumerThread = new Thread(this::runConsumer);
+        consumerThread.setName("stream-consumer");
+        consumerThread.start();
+    }
+
+    public void close()
+    {
+        CloseHelper.close(aeronArchive);
+        CloseHelper.close(archivingMediaDriver);
+
+        archivingMediaDriver.archive().context().deleteArchiveDirectory();
+        archivingMediaDriver.mediaDriver().context().deleteAeronDirectory();
+    }
+
+    public void onStart(
+        final long recordingId,
+        final long startPosition,
+        final int sessionId,
+        final int streamId,
+        final String channel,
+        final String sourceIdentity)
+    {
+        recordingIdByStream[streamId - STREAM_ID] = recordingId;
+    }
+
+    public void onProgress(final long recordingId, final long startPosition, final long position)
+    {
+        for (int i = 0; i < STREAM_COUNT; i++)
+        {
+            if (recordingIdByStream[i] == recordingId)
+            {
+                recordedPositions.set(i, position);
+                break;
+            }
+        }
+    }
+
+    public void onStop(final long recordingId, final long startPosition, final long stopPosition)
+    {
+    }
+
+    public void streamMessagesForRecording() throws InterruptedException
+    {
+        final ExclusivePublication[] publications = new ExclusivePublication[STREAM_COUNT];
+        try
+        {
+            final long[] initialPositions = new long[STREAM_COUNT];
+            for (int i = 0; i < STREAM_COUNT; i++)
+            {
+                recordedPositions.set(i, 0);
+                publications[i] = aeron.addExclusivePublication(CHANNEL, STREAM_ID + i);
+                initialPositions[i] = publications[i].position();
+            }
+
+            final long startTimeMs = System.currentTimeMillis();
+
+            for (int i = 0; i < NUMBER_OF_MESSAGES; i++)
+            {
+                buffer.putInt(0, i);
+                for (final ExclusivePublication publication : publications)
+                {
+                    while (publication.offer(buffer, 0, MESSAGE_LENGTH) < 0)
+                    {
+                        Thread.yield();
+                    }
+                }
+            }
+
+            long recordedLength = 0;
+            for (int i = 0; i < STREAM_COUNT; i++)
+            {
+                final long stopPosition = publications[i].position();
+                while (recordedPositions.get(i) < stopPosition)
+                {
+                    Thread.sleep(1);
+                }
+
+                recordedLength += stopPosition - initialPositions[i];
+            }
+
+            final long durationMs = System.currentTimeMillis() - startTimeMs;
+            final double dataRate = (recordedLength * 1000.0d / durationMs) / MEGABYTE;
+            final double recordingMb = recordedLength / MEGABYTE;
+            final long msgRate = ((NUMBER_OF_MESSAGES * STREAM_COUNT) / durationMs) * 1000L;
+
+            System.out.printf(
+                "Recorded %.02f MB over %d streams @ %.02f MB/s - %,d msg/sec%n",
+                recordingMb, STREAM_COUNT, dataRate, msgRate);
+        }
+        finally
+        {
+            for (final ExclusivePublication publication : publications)
+            {
+                CloseHelper.close(publication);
+            }
+        }
+    }
+
+    public void stop() throws InterruptedException
+    {
+        isRunning = false;
+        recordingEventsThread.join();
+        consumerThread.join();
+    }
+
+    public void startRecordings()
+    {
+        for (int i = 0; i < STREAM_COUNT; i++)
+        {
+            recordingIdByStream[i] = -1;
+            aeronArchive.startRecording(CHANNEL, STREAM_ID + i, SourceLocation.LOCAL);
+        }
+    }
+
+    private void runRecordingEventPoller()
+    {
+        try (Subscription subscription = aeron.addSubscription(
+            AeronArchive.Configuration.recordingEventsChannel(),
+            AeronArchive.Configuration.recordingEventsStreamId()))
+        {
+            final IdleStrategy idleStrategy = new BackoffIdleStrategy(10, 100, 1, 1);
+            final RecordingEventsAdapter recordingEventsAdapter = new RecordingEventsAdapter(
+                this, subscription, FRAGMENT_COUNT_LIMIT);
+
+            while (isRunning)
+            {
+                idleStrategy.idle(recordingEventsAdapter.poll());
+            }
+        }
+    }
+
+    private void runConsumer()
+    {
+        final Subscription[] subscriptions = new Subscription[STREAM_COUNT];
+        try
+        {
+            for (int i = 0; i < STREAM_COUNT; i++)
+            {
+                subscriptions[i] = aeron.addSubscription(CHANNEL, STREAM_ID + i);
+            }
+
+            final IdleStrategy idleStrategy = new BackoffIdleStrategy(10, 100, 1, 1);
+            while (isRunning)
+            {
+                int fragments = 0;
+                for (final Subscription subscription : subscriptions)
+                {
+                    fragments += subscription.poll(NOOP_FRAGMENT_HANDLER, FRAGMENT_COUNT_LIMIT);
+                }
+
+                idleStrategy.idle(fragments);
+            }
+        }
+        finally
+        {
+            for (final Subscription subscription : subscriptions)
+            {
+                CloseHelper.close(subscription);
+            }
+        }
+    }
+}
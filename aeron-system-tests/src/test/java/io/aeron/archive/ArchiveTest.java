@@ -60,17 +60,21 @@ public class ArchiveTest
 
     @Parameterized.Parameter(value = 1)
     public ArchiveThreadingMode archiveThreadingMode;
+
+    @Parameterized.Parameter(value = 2)
+    public int archiveWorkerCount;
     private long controlSessionId;
 
-    @Parameterized.Parameters(name = "threading modes: driver={0} archive={1}")
+    @Parameterized.Parameters(name = "threading modes: driver={0} archive={1} workers={2}")
     public static Collection<Object[]> data()
     {
         return Arrays.asList(
             new Object[][]
             {
-                { ThreadingMode.INVOKER, ArchiveThreadingMode.SHARED },
-                { ThreadingMode.SHARED, ArchiveThreadingMode.SHARED },
-                { ThreadingMode.DEDICATED, ArchiveThreadingMode.DEDICATED },
+                { ThreadingMode.INVOKER, ArchiveThreadingMode.SHARED, 1 },
+                { ThreadingMode.SHARED, ArchiveThreadingMode.SHARED, 1 },
+                { ThreadingMode.DEDICATED, ArchiveThreadingMode.DEDICATED, 1 },
+                { ThreadingMode.DEDICATED, ArchiveThreadingMode.DEDICATED, 2 },
             });
     }
 
@@ -156,6 +160,8 @@ public class ArchiveTest
             .archiveDir(TestUtil.makeTempDir())
             .segmentFileLength(termLength << rnd.nextInt(4))
             .threadingMode(archiveThreadingMode)
+            .recorderWorkerCount(archiveWorkerCount)
+            .replayerWorkerCount(archiveWorkerCount)
             .countersManager(driverCtx.countersManager())
             .errorHandler(driverCtx.errorHandler());
 
@@ -17,9 +17,14 @@ package io.aeron.archive;
 
 import io.aeron.*;
 import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.client.ArchiveResponse;
+import io.aeron.archive.client.AsyncAeronArchive;
+import io.aeron.archive.client.ReplayMerge;
+import io.aeron.archive.codecs.SourceLocation;
 import io.aeron.driver.MediaDriver;
 import io.aeron.driver.ThreadingMode;
 import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.LogBufferDescriptor;
 import org.agrona.CloseHelper;
 import org.agrona.ExpandableArrayBuffer;
 import org.agrona.collections.MutableInteger;
@@ -28,7 +33,11 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -36,6 +45,7 @@ import static org.junit.Assert.assertThat;
 public class BasicArchiveTest
 {
     private static final int FRAGMENT_LIMIT = 10;
+    private static final int TIME_INDEX_INTERVAL = 1024;
 
     private static final int RECORDING_STREAM_ID = 33;
     private static final String RECORDING_CHANNEL = new ChannelUriStringBuilder()
@@ -50,6 +60,10 @@ public class BasicArchiveTest
         .endpoint("localhost:6666")
         .build();
 
+    private static final String DST_CONTROL_CHANNEL = "aeron:udp?endpoint=localhost:8030";
+    private static final String DST_RECORDING_EVENTS_CHANNEL = "aeron:udp?endpoint=localhost:8031";
+    private static final int DST_CONTROL_RESPONSE_STREAM_ID = 1;
+
     private MediaDriver driver;
     private Archive archive;
     private Aeron aeron;
@@ -70,6 +84,7 @@ public class BasicArchiveTest
             new Archive.Context()
                 .archiveDir(TestUtil.makeTempDir())
                 .fileSyncLevel(0)
+                .timeIndexInterval(TIME_INDEX_INTERVAL)
                 .threadingMode(ArchiveThreadingMode.SHARED)
                 .mediaDriverAgentInvoker(driver.sharedAgentInvoker())
                 .errorHandler(driver.context().errorHandler())
@@ -122,6 +137,402 @@ public class BasicArchiveTest
         }
     }
 
+    @Test(timeout = 10000)
+    public void shouldRecordAndReplayFromTime() throws Exception
+    {
+        final String earlierPrefix = "Earlier-Message-";
+        final String laterPrefix = "Later-Message-";
+        final int messageCount = 100;
+        final long earlierLength;
+        final long length;
+        final long timestamp;
+
+        try (Publication publication = aeronArchive.addRecordedPublication(RECORDING_CHANNEL, RECORDING_STREAM_ID);
+             Subscription subscription = aeron.addSubscription(RECORDING_CHANNEL, RECORDING_STREAM_ID))
+        {
+            offer(publication, messageCount, earlierPrefix);
+            consume(subscription, messageCount, earlierPrefix);
+            earlierLength = publication.position();
+
+            Thread.sleep(100);
+            timestamp = System.currentTimeMillis();
+            Thread.sleep(10);
+
+            offer(publication, messageCount, laterPrefix);
+            consume(subscription, messageCount, laterPrefix);
+            length = publication.position();
+        }
+
+        aeronArchive.stopRecording(RECORDING_CHANNEL, RECORDING_STREAM_ID);
+
+        final long recordingId = findRecordingId(RECORDING_CHANNEL, RECORDING_STREAM_ID, length);
+        final long position = aeronArchive.findPosition(recordingId, timestamp);
+
+        assertThat(position, lessThanOrEqualTo(earlierLength));
+        assertThat(aeronArchive.findPosition(recordingId, 0L), is(0L));
+
+        try (Subscription subscription = aeronArchive.replayFromTime(
+            recordingId, timestamp, Long.MAX_VALUE, REPLAY_CHANNEL, REPLAY_STREAM_ID))
+        {
+            final MutableInteger laterReceived = new MutableInteger(0);
+            final FragmentHandler fragmentHandler = new FragmentAssembler(
+                (buffer, offset, msgLength, header) ->
+                {
+                    if (buffer.getStringWithoutLengthAscii(offset, msgLength).startsWith(laterPrefix))
+                    {
+                        laterReceived.value++;
+                    }
+                });
+
+            while (laterReceived.value < messageCount)
+            {
+                if (0 == subscription.poll(fragmentHandler, FRAGMENT_LIMIT))
+                {
+                    Thread.yield();
+                }
+            }
+
+            assertEquals(length, subscription.imageAtIndex(0).position());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shouldReplicateRecordingToAnotherArchive() throws Exception
+    {
+        final String messagePrefix = "Message-Prefix-";
+        final int messageCount = 10;
+        final long length;
+
+        try (Publication publication = aeronArchive.addRecordedPublication(RECORDING_CHANNEL, RECORDING_STREAM_ID);
+             Subscription subscription = aeron.addSubscription(RECORDING_CHANNEL, RECORDING_STREAM_ID))
+        {
+            offer(publication, messageCount, messagePrefix);
+            consume(subscription, messageCount, messagePrefix);
+
+            length = publication.position();
+        }
+
+        aeronArchive.stopRecording(RECORDING_CHANNEL, RECORDING_STREAM_ID);
+        final long srcRecordingId = findRecordingId(RECORDING_CHANNEL, RECORDING_STREAM_ID, length);
+
+        try (Archive dstArchive = Archive.launch(
+            new Archive.Context()
+                .archiveDir(TestUtil.makeTempDir())
+                .fileSyncLevel(0)
+                .controlChannel(DST_CONTROL_CHANNEL)
+                .recordingEventsChannel(DST_RECORDING_EVENTS_CHANNEL)
+                .threadingMode(ArchiveThreadingMode.SHARED)
+                .errorHandler(driver.context().errorHandler())
+                .countersManager(driver.context().countersManager()));
+             AeronArchive dstAeronArchive = AeronArchive.connect(
+                 new AeronArchive.Context()
+                     .controlRequestChannel(DST_CONTROL_CHANNEL)
+                     .controlResponseStreamId(DST_CONTROL_RESPONSE_STREAM_ID)
+                     .aeron(aeron)))
+        {
+            final long dstRecordingId = dstAeronArchive.replicate(
+                srcRecordingId,
+                AeronArchive.NULL_RECORDING_ID,
+                AeronArchive.Configuration.controlChannel(),
+                AeronArchive.Configuration.controlStreamId());
+
+            awaitStopPosition(dstAeronArchive, dstRecordingId, length);
+
+            try (Subscription subscription = dstAeronArchive.replay(
+                dstRecordingId, 0L, length, REPLAY_CHANNEL, REPLAY_STREAM_ID))
+            {
+                consume(subscription, messageCount, messagePrefix);
+                assertEquals(length, subscription.imageAtIndex(0).position());
+            }
+
+            dstArchive.context().deleteArchiveDirectory();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shouldExtendRecordingAndReplay() throws Exception
+    {
+        final String messagePrefix = "Message-Prefix-";
+        final String extendedPrefix = "Extended-Message-Prefix-";
+        final int messageCount = 10;
+        final long length;
+        final long extendedLength;
+
+        aeronArchive.startRecording(RECORDING_CHANNEL, RECORDING_STREAM_ID, SourceLocation.LOCAL);
+
+        try (ExclusivePublication publication = aeron.addExclusivePublication(RECORDING_CHANNEL, RECORDING_STREAM_ID);
+             Subscription subscription = aeron.addSubscription(RECORDING_CHANNEL, RECORDING_STREAM_ID))
+        {
+            offer(publication, messageCount, messagePrefix);
+            consume(subscription, messageCount, messagePrefix);
+
+            length = publication.position();
+        }
+
+        aeronArchive.stopRecording(RECORDING_CHANNEL, RECORDING_STREAM_ID);
+        final long recordingId = findRecordingId(RECORDING_CHANNEL, RECORDING_STREAM_ID, length);
+        awaitStopPosition(aeronArchive, recordingId, length);
+
+        final MutableInteger initialTermId = new MutableInteger();
+        final MutableInteger termLength = new MutableInteger();
+        aeronArchive.listRecordings(
+            recordingId,
+            1,
+            (
+                controlSessionId,
+                correlationId,
+                foundRecordingId,
+                startTimestamp,
+                stopTimestamp,
+                startPosition,
+                stopPosition,
+                recordingInitialTermId,
+                segmentFileLength,
+                termBufferLength,
+                mtuLength,
+                sessionId,
+                streamId,
+                strippedChannel,
+                originalChannel,
+                sourceIdentity
+            ) ->
+            {
+                initialTermId.set(recordingInitialTermId);
+                termLength.set(termBufferLength);
+            });
+
+        final String extendChannel = new ChannelUriStringBuilder()
+            .media("udp")
+            .endpoint("localhost:3333")
+            .termLength(termLength.get())
+            .initialTermId(initialTermId.get())
+            .termId(LogBufferDescriptor.computeTermIdFromPosition(
+                length, Integer.numberOfTrailingZeros(termLength.get()), initialTermId.get()))
+            .termOffset((int)(length & (termLength.get() - 1)))
+            .build();
+
+        aeronArchive.extendRecording(recordingId, extendChannel, RECORDING_STREAM_ID, SourceLocation.LOCAL);
+
+        try (ExclusivePublication publication = aeron.addExclusivePublication(extendChannel, RECORDING_STREAM_ID);
+             Subscription subscription = aeron.addSubscription(RECORDING_CHANNEL, RECORDING_STREAM_ID))
+        {
+            offer(publication, messageCount, extendedPrefix);
+            consume(subscription, messageCount, extendedPrefix);
+
+            extendedLength = publication.position();
+        }
+
+        aeronArchive.stopRecording(extendChannel, RECORDING_STREAM_ID);
+        awaitStopPosition(aeronArchive, recordingId, extendedLength);
+
+        try (Subscription subscription = aeronArchive.replay(
+            recordingId, 0L, extendedLength, REPLAY_CHANNEL, REPLAY_STREAM_ID))
+        {
+            consume(subscription, messageCount, messagePrefix);
+            consume(subscription, messageCount, extendedPrefix);
+            assertEquals(extendedLength, subscription.imageAtIndex(0).position());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shouldMergeReplayWithLiveStream()
+    {
+        final String messagePrefix = "Message-Prefix-";
+        final int initialMessageCount = 100;
+        final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer();
+        final MutableInteger received = new MutableInteger(0);
+        final FragmentHandler fragmentHandler = new FragmentAssembler(
+            (msgBuffer, offset, length, header) ->
+            {
+                assertEquals(messagePrefix + received.value, msgBuffer.getStringWithoutLengthAscii(offset, length));
+                received.value++;
+            });
+
+        try (Publication publication = aeronArchive.addRecordedPublication(RECORDING_CHANNEL, RECORDING_STREAM_ID);
+             Subscription subscription = aeron.addSubscription(RECORDING_CHANNEL, RECORDING_STREAM_ID))
+        {
+            offer(publication, initialMessageCount, messagePrefix);
+            consume(subscription, initialMessageCount, messagePrefix);
+            int sent = initialMessageCount;
+
+            final MutableLong recordingId = new MutableLong(-1);
+            while (recordingId.get() == -1)
+            {
+                aeronArchive.listRecordingsForUri(
+                    0L,
+                    1,
+                    RECORDING_CHANNEL,
+                    RECORDING_STREAM_ID,
+                    (
+                        controlSessionId,
+                        correlationId,
+                        foundRecordingId,
+                        startTimestamp,
+                        stopTimestamp,
+                        startPosition,
+                        stopPosition,
+                        initialTermId,
+                        segmentFileLength,
+                        termBufferLength,
+                        mtuLength,
+                        sessionId,
+                        streamId,
+                        strippedChannel,
+                        originalChannel,
+                        sourceIdentity
+                    ) -> recordingId.set(foundRecordingId));
+            }
+
+            try (ReplayMerge replayMerge = new ReplayMerge(
+                aeronArchive,
+                recordingId.get(),
+                0L,
+                REPLAY_CHANNEL,
+                REPLAY_STREAM_ID,
+                RECORDING_CHANNEL,
+                RECORDING_STREAM_ID))
+            {
+                while (!replayMerge.isMerged() || received.value < sent)
+                {
+                    if (!replayMerge.isMerged())
+                    {
+                        final int length = buffer.putStringWithoutLengthAscii(0, messagePrefix + sent);
+                        if (publication.offer(buffer, 0, length) > 0)
+                        {
+                            sent++;
+                        }
+                    }
+
+                    subscription.poll((msgBuffer, offset, length, header) -> {}, FRAGMENT_LIMIT);
+                    if (0 == replayMerge.poll(fragmentHandler, FRAGMENT_LIMIT))
+                    {
+                        Thread.yield();
+                    }
+                }
+
+                assertThat(sent, greaterThan(initialMessageCount));
+                assertEquals(publication.position(), replayMerge.position());
+            }
+        }
+
+        aeronArchive.stopRecording(RECORDING_CHANNEL, RECORDING_STREAM_ID);
+    }
+
+    @Test(timeout = 10000)
+    public void shouldPipelineRequestsWithAsyncClient()
+    {
+        final int streamCount = 10;
+        final AsyncAeronArchive asyncArchive = aeronArchive.async();
+        final ArrayList<ArchiveResponse> completed = new ArrayList<>();
+        asyncArchive.responseHandler(completed::add);
+
+        final ArrayList<ArchiveResponse> responses = new ArrayList<>();
+        for (int i = 0; i < streamCount; i++)
+        {
+            responses.add(
+                asyncArchive.startRecording(RECORDING_CHANNEL, RECORDING_STREAM_ID + i, SourceLocation.LOCAL));
+        }
+        final ArchiveResponse unknownStop = asyncArchive.stopRecording(RECORDING_CHANNEL, RECORDING_STREAM_ID - 1);
+
+        assertThat(asyncArchive.pendingResponseCount(), is(streamCount + 1));
+        awaitResponses(asyncArchive);
+
+        assertThat(completed.size(), is(streamCount + 1));
+        for (final ArchiveResponse response : responses)
+        {
+            assertThat(response.state(), is(ArchiveResponse.State.OK));
+        }
+        assertThat(unknownStop.state(), is(ArchiveResponse.State.ERROR));
+
+        final MutableInteger descriptorCount = new MutableInteger();
+        final ArchiveResponse listing = asyncArchive.listRecordings(
+            0,
+            streamCount + 1,
+            (
+                controlSessionId,
+                correlationId,
+                recordingId,
+                startTimestamp,
+                stopTimestamp,
+                startPosition,
+                stopPosition,
+                initialTermId,
+                segmentFileLength,
+                termBufferLength,
+                mtuLength,
+                sessionId,
+                streamId,
+                strippedChannel,
+                originalChannel,
+                sourceIdentity
+            ) -> descriptorCount.value++);
+
+        for (int i = 0; i < streamCount; i++)
+        {
+            final ArchiveResponse released = responses.get(i);
+            asyncArchive.release(released);
+            responses.set(i, asyncArchive.stopRecording(RECORDING_CHANNEL, RECORDING_STREAM_ID + i));
+            assertThat(responses.get(i), sameInstance(released));
+        }
+        aeronArchive.startRecording(RECORDING_CHANNEL, RECORDING_STREAM_ID + streamCount, SourceLocation.LOCAL);
+        aeronArchive.stopRecording(RECORDING_CHANNEL, RECORDING_STREAM_ID + streamCount);
+
+        assertThat(asyncArchive.pendingResponseCount(), is(0));
+        awaitResponses(asyncArchive);
+
+        assertThat(listing.state(), is(ArchiveResponse.State.OK));
+        assertThat(listing.relevantId(), is(0L));
+        assertThat(descriptorCount.value, is(0));
+        for (final ArchiveResponse response : responses)
+        {
+            assertThat(response.state(), is(ArchiveResponse.State.OK));
+        }
+    }
+
+    private static void awaitResponses(final AsyncAeronArchive asyncArchive)
+    {
+        while (asyncArchive.pendingResponseCount() > 0)
+        {
+            if (asyncArchive.poll() == 0)
+            {
+                Thread.yield();
+            }
+        }
+    }
+
+    private static void awaitStopPosition(
+        final AeronArchive aeronArchive, final long recordingId, final long expectedStopPosition)
+        throws InterruptedException
+    {
+        final MutableLong stopPosition = new MutableLong();
+        while (stopPosition.get() != expectedStopPosition)
+        {
+            aeronArchive.listRecordings(
+                recordingId,
+                1,
+                (
+                    controlSessionId,
+                    correlationId,
+                    foundRecordingId,
+                    startTimestamp,
+                    stopTimestamp,
+                    startPosition,
+                    recordingStopPosition,
+                    initialTermId,
+                    segmentFileLength,
+                    termBufferLength,
+                    mtuLength,
+                    sessionId,
+                    streamId,
+                    strippedChannel,
+                    originalChannel,
+                    sourceIdentity
+                ) -> stopPosition.set(recordingStopPosition));
+
+            Thread.sleep(1);
+        }
+    }
+
     private long findRecordingId(final String expectedChannel, final int expectedStreamId, final long expectedPosition)
     {
         final MutableLong foundRecordingId = new MutableLong();
@@ -178,6 +589,21 @@ public class BasicArchiveTest
         }
     }
 
+    private static void offer(final ExclusivePublication publication, final int count, final String prefix)
+    {
+        final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer();
+
+        for (int i = 0; i < count; i++)
+        {
+            final int length = buffer.putStringWithoutLengthAscii(0, prefix + i);
+
+            while (publication.offer(buffer, 0, length) <= 0)
+            {
+                Thread.yield();
+            }
+        }
+    }
+
     private static void consume(final Subscription subscription, final int count, final String prefix)
     {
         final MutableInteger received = new MutableInteger(0);